@@ -0,0 +1,57 @@
+/*
+ * Artifactory is a binaries repository manager.
+ * Copyright (C) 2012 JFrog Ltd.
+ *
+ * Artifactory is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Artifactory is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Artifactory.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.artifactory.benchmark;
+
+import org.apache.commons.io.FileUtils;
+import org.artifactory.common.ArtifactoryHome;
+import org.artifactory.common.ConstantValues;
+import org.artifactory.mime.MimeTypesReader;
+import org.artifactory.test.ArtifactoryHomeStub;
+import org.artifactory.test.TestUtils;
+import org.artifactory.util.ResourceUtils;
+import org.artifactory.version.ArtifactoryVersion;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Creates and binds a stub {@link ArtifactoryHome} under the target directory for benchmarks that need the system
+ * properties, the mime types or the data dir.
+ */
+public class BenchmarkHome {
+
+    private BenchmarkHome() {
+        // utility class
+    }
+
+    public static ArtifactoryHomeStub bind(String name) throws IOException {
+        ArtifactoryHomeStub home = new ArtifactoryHomeStub();
+        home.setMimeTypes(new MimeTypesReader().read(
+                ResourceUtils.getResource("/META-INF/default/" + ArtifactoryHome.MIME_TYPES_FILE_NAME)));
+        home.loadSystemProperties();
+        home.setProperty(ConstantValues.artifactoryVersion, ArtifactoryVersion.getCurrent().getValue());
+
+        // start every run with empty data and work dirs
+        File homeDir = new File("target", name).getAbsoluteFile();
+        FileUtils.deleteDirectory(homeDir);
+        TestUtils.setField(home, "homeDir", homeDir);
+        TestUtils.setField(home, "dataDir", home.getOrCreateSubDir("data"));
+        TestUtils.setField(home, "tempWorkDir", home.getOrCreateSubDir("work"));
+        return home.bind();
+    }
+}
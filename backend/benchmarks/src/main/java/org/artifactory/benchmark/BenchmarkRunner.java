@@ -0,0 +1,55 @@
+/*
+ * Artifactory is a binaries repository manager.
+ * Copyright (C) 2012 JFrog Ltd.
+ *
+ * Artifactory is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Artifactory is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Artifactory.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.artifactory.benchmark;
+
+import org.artifactory.version.ArtifactoryVersion;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+/**
+ * Entry point of the benchmarks jar. Accepts the standard JMH command line options and, unless a result format was
+ * requested explicitly, writes the results as JSON to a file named after the Artifactory version and the run time so
+ * runs of different versions can be compared.
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+        ChainedOptionsBuilder options = new OptionsBuilder().parent(commandLineOptions);
+        if (!commandLineOptions.getResultFormat().hasValue()) {
+            options.resultFormat(ResultFormatType.JSON);
+        }
+        if (!commandLineOptions.getResult().hasValue()) {
+            File resultsDir = new File("target", "benchmarks");
+            if (!resultsDir.isDirectory() && !resultsDir.mkdirs()) {
+                throw new IllegalStateException("Could not create results dir " + resultsDir.getAbsolutePath());
+            }
+            String timestamp = new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date());
+            String fileName = "jmh-result-" + ArtifactoryVersion.getCurrent().getValue() + "-" + timestamp + ".json";
+            options.result(new File(resultsDir, fileName).getAbsolutePath());
+        }
+        new Runner(options.build()).run();
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Artifactory is a binaries repository manager.
+ * Copyright (C) 2012 JFrog Ltd.
+ *
+ * Artifactory is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Artifactory is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Artifactory.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.artifactory.benchmark;
+
+import org.apache.commons.io.IOUtils;
+import org.artifactory.common.ArtifactoryHome;
+import org.artifactory.storage.StorageProperties;
+import org.artifactory.storage.db.binstore.service.BinaryStoreImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures adding and reading binaries through the binary store with the file system and the full database binary
+ * providers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BinaryStoreBenchmark {
+
+    @Param({"filesystem", "fullDb"})
+    private String binaryProviderType;
+
+    @Param({"4096", "262144"})
+    private int size;
+
+    private StorageBenchmarkContext context;
+    private BinaryStoreImpl binaryStore;
+    private Random random;
+    private byte[] content;
+    private String storedSha1;
+
+    @Setup
+    public void setUp() throws Exception {
+        BenchmarkHome.bind("binarystore-benchmark");
+        context = new StorageBenchmarkContext();
+        context.setStorageProperty(StorageProperties.Key.binaryProviderType, binaryProviderType);
+        // no file cache in front of the database
+        context.setStorageProperty(StorageProperties.Key.binaryProviderCacheMaxSize, "0");
+        binaryStore = context.beanForType(BinaryStoreImpl.class);
+        binaryStore.initialize();
+
+        random = new Random(size);
+        content = new byte[size];
+        storedSha1 = addBinary();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+        ArtifactoryHome.unbind();
+    }
+
+    @Benchmark
+    public String addBinary() throws IOException {
+        // new content on every call, otherwise the binary is deduplicated
+        random.nextBytes(content);
+        return binaryStore.addBinary(new ByteArrayInputStream(content)).getSha1();
+    }
+
+    @Benchmark
+    public long getBinary() throws IOException {
+        try (InputStream in = binaryStore.getBinary(storedSha1)) {
+            return IOUtils.skip(in, Long.MAX_VALUE);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Artifactory is a binaries repository manager.
+ * Copyright (C) 2012 JFrog Ltd.
+ *
+ * Artifactory is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Artifactory is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Artifactory.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.artifactory.benchmark;
+
+import org.artifactory.checksum.ChecksumType;
+import org.artifactory.io.checksum.Checksum;
+import org.artifactory.io.checksum.ChecksumInputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the sha1 and md5 calculation done on every deployed stream.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ChecksumInputStreamBenchmark {
+
+    @Param({"1024", "1048576"})
+    private int size;
+
+    private byte[] content;
+    private byte[] buffer;
+
+    @Setup
+    public void setUp() {
+        content = new byte[size];
+        new Random(size).nextBytes(content);
+        buffer = new byte[8192];
+    }
+
+    @Benchmark
+    public String sha1AndMd5() throws IOException {
+        Checksum sha1 = new Checksum(ChecksumType.sha1);
+        Checksum md5 = new Checksum(ChecksumType.md5);
+        try (ChecksumInputStream in = new ChecksumInputStream(new ByteArrayInputStream(content), sha1, md5)) {
+            while (in.read(buffer) != -1) {
+                // consume the stream
+            }
+        }
+        return sha1.getChecksum() + md5.getChecksum();
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Artifactory is a binaries repository manager.
+ * Copyright (C) 2012 JFrog Ltd.
+ *
+ * Artifactory is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Artifactory is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Artifactory.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.artifactory.benchmark;
+
+import org.artifactory.common.ArtifactoryHome;
+import org.artifactory.storage.StorageProperties;
+import org.artifactory.storage.db.binstore.service.BinaryStoreImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures adding binaries through a full database binary store whose file cache is kept full, so every added
+ * binary evicts the least recently used cached files.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FileCacheEvictionBenchmark {
+
+    private static final int BINARY_SIZE = 4096;
+
+    @Param({"256KB", "4MB"})
+    private String cacheMaxSize;
+
+    private StorageBenchmarkContext context;
+    private BinaryStoreImpl binaryStore;
+    private Random random;
+    private byte[] content;
+
+    @Setup
+    public void setUp() throws Exception {
+        BenchmarkHome.bind("filecache-benchmark");
+        context = new StorageBenchmarkContext();
+        context.setStorageProperty(StorageProperties.Key.binaryProviderType,
+                StorageProperties.BinaryStorageType.fullDb.name());
+        context.setStorageProperty(StorageProperties.Key.binaryProviderCacheMaxSize, cacheMaxSize);
+        binaryStore = context.beanForType(BinaryStoreImpl.class);
+        binaryStore.initialize();
+
+        random = new Random(BINARY_SIZE);
+        content = new byte[BINARY_SIZE];
+        // fill the cache up to its max size before measuring
+        StorageProperties storageProperties = context.beanForType("storageProperties", StorageProperties.class);
+        long binariesToFill = storageProperties.getBinaryProviderCacheMaxSize() / BINARY_SIZE + 1;
+        for (long i = 0; i < binariesToFill; i++) {
+            addBinary();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+        ArtifactoryHome.unbind();
+    }
+
+    @Benchmark
+    public String addBinary() throws IOException {
+        random.nextBytes(content);
+        return binaryStore.addBinary(new ByteArrayInputStream(content)).getSha1();
+    }
+}
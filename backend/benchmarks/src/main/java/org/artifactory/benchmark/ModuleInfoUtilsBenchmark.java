@@ -0,0 +1,71 @@
+/*
+ * Artifactory is a binaries repository manager.
+ * Copyright (C) 2012 JFrog Ltd.
+ *
+ * Artifactory is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Artifactory is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Artifactory.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.artifactory.benchmark;
+
+import org.artifactory.api.module.ModuleInfo;
+import org.artifactory.api.module.ModuleInfoUtils;
+import org.artifactory.util.RepoLayoutUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the layout regular expression matching used to resolve module infos of artifact and descriptor paths.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ModuleInfoUtilsBenchmark {
+
+    private String mavenArtifactPath = "org/artifactory/artifactory-core/3.0.0-SNAPSHOT/" +
+            "artifactory-core-3.0.0-20130301.101010-12-sources.jar";
+    private String mavenDescriptorPath = "org/artifactory/artifactory-core/3.0.0/artifactory-core-3.0.0.pom";
+    private String ivyArtifactPath = "org.artifactory/artifactory-core/3.0.0/jars/artifactory-core-3.0.0.jar";
+    private String ivyDescriptorPath = "org.artifactory/artifactory-core/3.0.0/ivys/ivy-3.0.0.xml";
+
+    @Benchmark
+    public ModuleInfo mavenArtifactPath() {
+        return ModuleInfoUtils.moduleInfoFromArtifactPath(mavenArtifactPath, RepoLayoutUtils.MAVEN_2_DEFAULT);
+    }
+
+    @Benchmark
+    public ModuleInfo mavenDescriptorPath() {
+        return ModuleInfoUtils.moduleInfoFromDescriptorPath(mavenDescriptorPath, RepoLayoutUtils.MAVEN_2_DEFAULT);
+    }
+
+    @Benchmark
+    public ModuleInfo ivyArtifactPath() {
+        return ModuleInfoUtils.moduleInfoFromArtifactPath(ivyArtifactPath, RepoLayoutUtils.IVY_DEFAULT);
+    }
+
+    @Benchmark
+    public ModuleInfo ivyDescriptorPath() {
+        return ModuleInfoUtils.moduleInfoFromDescriptorPath(ivyDescriptorPath, RepoLayoutUtils.IVY_DEFAULT);
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Artifactory is a binaries repository manager.
+ * Copyright (C) 2012 JFrog Ltd.
+ *
+ * Artifactory is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Artifactory is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Artifactory.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.artifactory.benchmark;
+
+import org.artifactory.common.ArtifactoryHome;
+import org.artifactory.storage.db.DbServiceImpl;
+import org.artifactory.storage.db.fs.dao.NodesDao;
+import org.artifactory.storage.db.fs.entity.Node;
+import org.artifactory.storage.db.fs.entity.NodeBuilder;
+import org.artifactory.storage.db.fs.entity.NodePath;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the nodes queries used to list folders, on a folder with a configurable number of children.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NodesDaoBenchmark {
+
+    static final String REPO_KEY = "bench-repo";
+    static final String PARENT_NAME = "parent";
+
+    @Param({"100", "1000"})
+    private int childrenCount;
+
+    private StorageBenchmarkContext context;
+    private NodesDao nodesDao;
+    private NodePath parentPath;
+    private String middleChildName;
+
+    @Setup
+    public void setUp() throws Exception {
+        BenchmarkHome.bind("nodes-benchmark");
+        context = new StorageBenchmarkContext();
+        nodesDao = context.beanForType(NodesDao.class);
+        createFolders(context, childrenCount);
+        parentPath = new NodePath(REPO_KEY, "", PARENT_NAME);
+        middleChildName = childName(childrenCount / 2);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+        ArtifactoryHome.unbind();
+    }
+
+    @Benchmark
+    public List<Node> getChildren() throws SQLException {
+        return nodesDao.getChildren(parentPath);
+    }
+
+    @Benchmark
+    public List<Node> getChildrenFirstPage() throws SQLException {
+        return nodesDao.getChildrenPage(parentPath, null, 100);
+    }
+
+    @Benchmark
+    public List<Node> getChildrenMiddlePage() throws SQLException {
+        return nodesDao.getChildrenPage(parentPath, middleChildName, 100);
+    }
+
+    @Benchmark
+    public boolean hasChildren() throws SQLException {
+        return nodesDao.hasChildren(parentPath);
+    }
+
+    /**
+     * Creates the parent folder under the benchmark repository and the given number of child folders in it.
+     */
+    static void createFolders(StorageBenchmarkContext context, int childrenCount) throws SQLException {
+        NodesDao nodesDao = context.beanForType(NodesDao.class);
+        DbServiceImpl dbService = context.beanForType(DbServiceImpl.class);
+        nodesDao.create(new NodeBuilder().nodeId(dbService.nextId()).file(false).repo(REPO_KEY).path("")
+                .name(PARENT_NAME).createdBy("benchmark").modifiedBy("benchmark").build());
+        for (int i = 0; i < childrenCount; i++) {
+            nodesDao.create(new NodeBuilder().nodeId(dbService.nextId()).file(false).repo(REPO_KEY).path(PARENT_NAME)
+                    .name(childName(i)).createdBy("benchmark").modifiedBy("benchmark").build());
+        }
+    }
+
+    static String childName(int index) {
+        return String.format("child-%04d", index);
+    }
+}
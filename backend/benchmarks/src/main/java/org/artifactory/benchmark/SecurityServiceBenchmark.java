@@ -0,0 +1,134 @@
+/*
+ * Artifactory is a binaries repository manager.
+ * Copyright (C) 2012 JFrog Ltd.
+ *
+ * Artifactory is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Artifactory is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Artifactory.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.artifactory.benchmark;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import org.artifactory.api.security.UserInfoBuilder;
+import org.artifactory.common.ArtifactoryHome;
+import org.artifactory.config.InternalCentralConfigService;
+import org.artifactory.factory.InfoFactory;
+import org.artifactory.factory.InfoFactoryHolder;
+import org.artifactory.repo.InternalRepoPathFactory;
+import org.artifactory.repo.RepoPath;
+import org.artifactory.repo.service.InternalRepositoryService;
+import org.artifactory.security.AceInfo;
+import org.artifactory.security.AclInfo;
+import org.artifactory.security.ArtifactoryPermission;
+import org.artifactory.security.MutableAceInfo;
+import org.artifactory.security.MutablePermissionTargetInfo;
+import org.artifactory.security.SecurityServiceImpl;
+import org.artifactory.security.UserInfo;
+import org.artifactory.storage.security.service.AclStoreService;
+import org.artifactory.storage.security.service.UserGroupStoreService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.easymock.EasyMock.*;
+
+/**
+ * Measures the permission check of a user on a repo path against a growing number of ACLs. The security service runs
+ * with mocked stores, the same way its unit tests do, so only the ACL evaluation is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class SecurityServiceBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int aclsCount;
+
+    private SecurityServiceImpl service;
+    private UserInfo user;
+    private RepoPath grantedPath;
+    private RepoPath deniedPath;
+
+    @Setup
+    public void setUp() throws Exception {
+        BenchmarkHome.bind("security-benchmark");
+
+        AclStoreService aclStoreService = createNiceMock(AclStoreService.class);
+        expect(aclStoreService.getAllAcls()).andReturn(createAcls()).anyTimes();
+        replay(aclStoreService);
+
+        service = new SecurityServiceImpl();
+        ReflectionTestUtils.setField(service, "aclStoreService", aclStoreService);
+        ReflectionTestUtils.setField(service, "userGroupStoreService", createNiceMock(UserGroupStoreService.class));
+        ReflectionTestUtils.setField(service, "repositoryService", createNiceMock(InternalRepositoryService.class));
+        ReflectionTestUtils.setField(service, "centralConfig", createNiceMock(InternalCentralConfigService.class));
+
+        user = new UserInfoBuilder("user").internalGroups(Sets.newHashSet("group-0", "group-1", "group-2")).build();
+        // the last acl grants the user read permissions, so all the acls are evaluated
+        grantedPath = InternalRepoPathFactory.create("repo-" + (aclsCount - 1), "org/artifactory/core/a.jar");
+        deniedPath = InternalRepoPathFactory.create("repo-" + (aclsCount - 1), "com/other/b.jar");
+    }
+
+    @TearDown
+    public void tearDown() {
+        ArtifactoryHome.unbind();
+    }
+
+    private List<AclInfo> createAcls() {
+        InfoFactory factory = InfoFactoryHolder.get();
+        List<AclInfo> acls = Lists.newArrayListWithCapacity(aclsCount);
+        for (int i = 0; i < aclsCount; i++) {
+            MutablePermissionTargetInfo target = factory.createPermissionTarget("target-" + i,
+                    Arrays.asList("repo-" + i));
+            target.setIncludesPattern("org/**");
+            target.setExcludesPattern("**/*-sources.jar");
+            MutableAceInfo groupAce = factory.createAce("group-" + (i % 10), true,
+                    ArtifactoryPermission.READ.getMask());
+            MutableAceInfo deployerAce = factory.createAce("deployer", false, ArtifactoryPermission.DEPLOY.getMask());
+            Set<AceInfo> aces = Sets.<AceInfo>newHashSet(groupAce, deployerAce);
+            if (i == aclsCount - 1) {
+                aces.add(factory.createAce("user", false, ArtifactoryPermission.READ.getMask()));
+            }
+            acls.add(factory.createAcl(target, aces, "benchmark"));
+        }
+        return acls;
+    }
+
+    @Benchmark
+    public boolean canReadGranted() {
+        return service.canRead(user, grantedPath);
+    }
+
+    @Benchmark
+    public boolean canReadDenied() {
+        return service.canRead(user, deniedPath);
+    }
+}
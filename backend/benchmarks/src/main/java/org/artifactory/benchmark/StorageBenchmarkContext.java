@@ -0,0 +1,155 @@
+/*
+ * Artifactory is a binaries repository manager.
+ * Copyright (C) 2012 JFrog Ltd.
+ *
+ * Artifactory is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Artifactory is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Artifactory.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.artifactory.benchmark;
+
+import org.artifactory.api.config.CentralConfigService;
+import org.artifactory.api.context.ArtifactoryContextThreadBinder;
+import org.artifactory.api.repo.RepositoryService;
+import org.artifactory.api.security.AuthorizationService;
+import org.artifactory.common.ArtifactoryHome;
+import org.artifactory.sapi.common.ExportSettings;
+import org.artifactory.sapi.common.ImportSettings;
+import org.artifactory.schedule.TaskService;
+import org.artifactory.spring.SpringConfigPaths;
+import org.artifactory.storage.StorageProperties;
+import org.artifactory.storage.binstore.service.BinaryStore;
+import org.artifactory.storage.db.DbServiceImpl;
+import org.artifactory.storage.db.itest.DbTestUtils;
+import org.artifactory.storage.db.util.JdbcHelper;
+import org.artifactory.storage.spring.ArtifactoryStorageContext;
+import org.artifactory.test.TestUtils;
+import org.springframework.context.support.ClassPathXmlApplicationContext;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Connection;
+import java.util.Map;
+
+/**
+ * Runs the storage beans of the database tests spring context on an embedded database and binds itself as the
+ * Artifactory context of the benchmark thread. The database schema is recreated on startup.
+ */
+public class StorageBenchmarkContext implements ArtifactoryStorageContext {
+
+    private final ClassPathXmlApplicationContext applicationContext;
+
+    public StorageBenchmarkContext() throws Exception {
+        applicationContext = new ClassPathXmlApplicationContext(new String[]{"spring/db-test-context.xml"}, false);
+        ArtifactoryContextThreadBinder.bind(this);
+        applicationContext.refresh();
+
+        StorageProperties storageProperties = beanForType("storageProperties", StorageProperties.class);
+        try (Connection connection = beanForType(JdbcHelper.class).getDataSource().getConnection()) {
+            DbTestUtils.refreshOrRecreateSchema(connection, storageProperties.getDbType());
+        }
+        TestUtils.invokeMethodNoArgs(beanForType(DbServiceImpl.class), "initializeIdGenerator");
+    }
+
+    /**
+     * Overrides a storage property, to be followed by the initialization of the beans reading it.
+     */
+    public void setStorageProperty(StorageProperties.Key key, String value) {
+        StorageProperties storageProperties = beanForType("storageProperties", StorageProperties.class);
+        Object props = ReflectionTestUtils.getField(storageProperties, "props");
+        ReflectionTestUtils.invokeMethod(props, "setProperty", key.key(), value);
+    }
+
+    public void close() {
+        ArtifactoryContextThreadBinder.unbind();
+        applicationContext.close();
+    }
+
+    @Override
+    public BinaryStore getBinaryStore() {
+        return beanForType(BinaryStore.class);
+    }
+
+    @Override
+    public boolean isReady() {
+        return true;
+    }
+
+    @Override
+    public TaskService getTaskService() {
+        throw new UnsupportedOperationException("No task service here");
+    }
+
+    @Override
+    public CentralConfigService getCentralConfig() {
+        return beanForType(CentralConfigService.class);
+    }
+
+    @Override
+    public <T> T beanForType(Class<T> type) {
+        return applicationContext.getBean(type);
+    }
+
+    @Override
+    public <T> T beanForType(String name, Class<T> type) {
+        return applicationContext.getBean(name, type);
+    }
+
+    @Override
+    public <T> Map<String, T> beansForType(Class<T> type) {
+        return applicationContext.getBeansOfType(type);
+    }
+
+    @Override
+    public Object getBean(String name) {
+        return applicationContext.getBean(name);
+    }
+
+    @Override
+    public RepositoryService getRepositoryService() {
+        return beanForType(RepositoryService.class);
+    }
+
+    @Override
+    public AuthorizationService getAuthorizationService() {
+        return beanForType(AuthorizationService.class);
+    }
+
+    @Override
+    public long getUptime() {
+        return 0;
+    }
+
+    @Override
+    public ArtifactoryHome getArtifactoryHome() {
+        return ArtifactoryHome.get();
+    }
+
+    @Override
+    public String getContextId() {
+        return null;
+    }
+
+    @Override
+    public SpringConfigPaths getConfigPaths() {
+        return null;
+    }
+
+    @Override
+    public void exportTo(ExportSettings settings) {
+        throw new UnsupportedOperationException("No export here");
+    }
+
+    @Override
+    public void importFrom(ImportSettings settings) {
+        throw new UnsupportedOperationException("No import here");
+    }
+}
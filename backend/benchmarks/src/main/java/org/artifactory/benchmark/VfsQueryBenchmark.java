@@ -0,0 +1,86 @@
+/*
+ * Artifactory is a binaries repository manager.
+ * Copyright (C) 2012 JFrog Ltd.
+ *
+ * Artifactory is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Artifactory is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Artifactory.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.artifactory.benchmark;
+
+import org.artifactory.common.ArtifactoryHome;
+import org.artifactory.sapi.search.VfsQueryResult;
+import org.artifactory.sapi.search.VfsQueryResultType;
+import org.artifactory.sapi.search.VfsQueryService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the generation and execution of vfs queries by node name, on a repository with a configurable number of
+ * folders.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VfsQueryBenchmark {
+
+    @Param({"100", "1000"})
+    private int childrenCount;
+
+    private StorageBenchmarkContext context;
+    private VfsQueryService queryService;
+    private String searchedName;
+
+    @Setup
+    public void setUp() throws Exception {
+        BenchmarkHome.bind("vfsquery-benchmark");
+        context = new StorageBenchmarkContext();
+        queryService = context.beanForType(VfsQueryService.class);
+        NodesDaoBenchmark.createFolders(context, childrenCount);
+        searchedName = NodesDaoBenchmark.childName(childrenCount / 2);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+        ArtifactoryHome.unbind();
+    }
+
+    @Benchmark
+    public long queryByName() {
+        VfsQueryResult result = queryService.createQuery().setSingleRepoKey(NodesDaoBenchmark.REPO_KEY)
+                .expectedResult(VfsQueryResultType.FOLDER).name(searchedName).execute(Integer.MAX_VALUE);
+        return result.getCount();
+    }
+
+    @Benchmark
+    public long queryByNamePattern() {
+        VfsQueryResult result = queryService.createQuery().setSingleRepoKey(NodesDaoBenchmark.REPO_KEY)
+                .expectedResult(VfsQueryResultType.FOLDER).name("child-*").execute(Integer.MAX_VALUE);
+        return result.getCount();
+    }
+}
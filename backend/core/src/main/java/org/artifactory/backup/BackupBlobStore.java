@@ -0,0 +1,146 @@
+/*
+ * Artifactory is a binaries repository manager.
+ * Copyright (C) 2012 JFrog Ltd.
+ *
+ * Artifactory is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Artifactory is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Artifactory.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.artifactory.backup;
+
+import org.apache.commons.io.FileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Set;
+
+/**
+ * The blobs directory of a content addressed backup. Each binary is stored once, named by its sha1 checksum under a
+ * folder of the first two checksum characters (the same layout as the filestore). Blobs are first written to a temp
+ * folder and then moved in place, so a blob that exists is always complete.
+ */
+public class BackupBlobStore {
+    private static final Logger log = LoggerFactory.getLogger(BackupBlobStore.class);
+
+    /**
+     * Name of the blobs directory inside the backup directory, shared by all the backup runs
+     */
+    public static final String BLOBS_DIR_NAME = "blobs";
+
+    private static final String TEMP_DIR_NAME = "_pre";
+
+    private final File blobsDir;
+
+    public BackupBlobStore(File blobsDir) {
+        this.blobsDir = blobsDir;
+    }
+
+    /**
+     * Finds the blobs directory of a content addressed backup from the directory of a repository export in it. The
+     * blobs directory is next to the backup runs, so it is looked up in the ancestors of the given directory.
+     *
+     * @param repoExportDir The directory holding the repository manifest
+     * @return The blobs directory, null if none was found
+     */
+    public static File findBlobsDir(File repoExportDir) {
+        // <backup dir>/<run>/repositories/<repo key>, or a repositories folder copied out of its run
+        File dir = repoExportDir;
+        for (int i = 0; i < 4 && dir != null; i++) {
+            File blobsDir = new File(dir, BLOBS_DIR_NAME);
+            if (blobsDir.isDirectory()) {
+                return blobsDir;
+            }
+            dir = dir.getParentFile();
+        }
+        return null;
+    }
+
+    public File getBlobsDir() {
+        return blobsDir;
+    }
+
+    public File getBlobFile(String sha1) {
+        return new File(new File(blobsDir, sha1.substring(0, 2)), sha1);
+    }
+
+    public boolean contains(String sha1) {
+        return getBlobFile(sha1).isFile();
+    }
+
+    /**
+     * @return A new empty file in the temp folder of the blobs directory to write the blob content to
+     */
+    public File createTempFile(String sha1) throws IOException {
+        File tempDir = new File(blobsDir, TEMP_DIR_NAME);
+        FileUtils.forceMkdir(tempDir);
+        return File.createTempFile(sha1 + ".", ".tmp", tempDir);
+    }
+
+    /**
+     * Moves a fully written temp file to its blob location. If another writer already stored the same blob the temp
+     * file is simply discarded.
+     */
+    public void commit(File tempFile, String sha1) throws IOException {
+        File blobFile = getBlobFile(sha1);
+        FileUtils.forceMkdir(blobFile.getParentFile());
+        try {
+            Files.move(tempFile.toPath(), blobFile.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            if (!blobFile.isFile()) {
+                throw e;
+            }
+            FileUtils.deleteQuietly(tempFile);
+        }
+    }
+
+    /**
+     * Deletes all the blobs not in the given set of checksums, and any left over temp files. Must not run while a
+     * backup is writing to this blobs directory.
+     *
+     * @param referencedChecksums Sha1 checksums of the blobs to keep
+     * @return The number of blobs deleted
+     */
+    public int removeUnreferenced(Set<String> referencedChecksums) {
+        int removed = 0;
+        File[] subFolders = blobsDir.listFiles();
+        if (subFolders == null) {
+            return removed;
+        }
+        for (File subFolder : subFolders) {
+            if (TEMP_DIR_NAME.equals(subFolder.getName())) {
+                FileUtils.deleteQuietly(subFolder);
+                continue;
+            }
+            File[] blobs = subFolder.listFiles();
+            if (blobs == null) {
+                continue;
+            }
+            for (File blob : blobs) {
+                if (!referencedChecksums.contains(blob.getName())) {
+                    log.debug("Removing unreferenced backup blob '{}'.", blob.getPath());
+                    if (blob.delete()) {
+                        removed++;
+                    } else {
+                        log.warn("Failed to remove unreferenced backup blob '{}'.", blob.getPath());
+                    }
+                }
+            }
+        }
+        return removed;
+    }
+}
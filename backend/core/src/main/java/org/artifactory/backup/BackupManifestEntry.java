@@ -0,0 +1,145 @@
+/*
+ * Artifactory is a binaries repository manager.
+ * Copyright (C) 2012 JFrog Ltd.
+ *
+ * Artifactory is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Artifactory is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Artifactory.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.artifactory.backup;
+
+import org.codehaus.jackson.annotate.JsonIgnore;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A single item of a content addressed backup manifest. Files reference their content by sha1 in the blobs directory
+ * of the backup.
+ */
+public class BackupManifestEntry {
+
+    private String path;
+    private boolean folder;
+    private String sha1;
+    private String md5;
+    private long size;
+    private String mimeType;
+    private long created;
+    private long lastModified;
+    private String createdBy;
+    private String modifiedBy;
+    private Map<String, List<String>> properties;
+
+    public String getPath() {
+        return path;
+    }
+
+    public void setPath(String path) {
+        this.path = path;
+    }
+
+    public boolean isFolder() {
+        return folder;
+    }
+
+    public void setFolder(boolean folder) {
+        this.folder = folder;
+    }
+
+    @JsonIgnore
+    public boolean isFile() {
+        return !folder;
+    }
+
+    public String getSha1() {
+        return sha1;
+    }
+
+    public void setSha1(String sha1) {
+        this.sha1 = sha1;
+    }
+
+    public String getMd5() {
+        return md5;
+    }
+
+    public void setMd5(String md5) {
+        this.md5 = md5;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public void setSize(long size) {
+        this.size = size;
+    }
+
+    public String getMimeType() {
+        return mimeType;
+    }
+
+    public void setMimeType(String mimeType) {
+        this.mimeType = mimeType;
+    }
+
+    public long getCreated() {
+        return created;
+    }
+
+    public void setCreated(long created) {
+        this.created = created;
+    }
+
+    public long getLastModified() {
+        return lastModified;
+    }
+
+    public void setLastModified(long lastModified) {
+        this.lastModified = lastModified;
+    }
+
+    public String getCreatedBy() {
+        return createdBy;
+    }
+
+    public void setCreatedBy(String createdBy) {
+        this.createdBy = createdBy;
+    }
+
+    public String getModifiedBy() {
+        return modifiedBy;
+    }
+
+    public void setModifiedBy(String modifiedBy) {
+        this.modifiedBy = modifiedBy;
+    }
+
+    /**
+     * @return The item properties, null if the item has none or the backup excluded metadata
+     */
+    public Map<String, List<String>> getProperties() {
+        return properties;
+    }
+
+    public void setProperties(Map<String, List<String>> properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    public String toString() {
+        return path + (folder ? "/" : "@" + sha1);
+    }
+}
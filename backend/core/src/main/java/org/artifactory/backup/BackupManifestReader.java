@@ -0,0 +1,82 @@
+/*
+ * Artifactory is a binaries repository manager.
+ * Copyright (C) 2012 JFrog Ltd.
+ *
+ * Artifactory is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Artifactory is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Artifactory.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.artifactory.backup;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.Lists;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang.StringUtils;
+import org.artifactory.sapi.fs.Visitor;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.List;
+
+/**
+ * Reads the manifests written by {@link BackupManifestWriter}.
+ */
+public abstract class BackupManifestReader {
+
+    private BackupManifestReader() {
+        // utility class
+    }
+
+    /**
+     * Streams the entries of the manifest to the visitor, in the order they were written.
+     *
+     * @param manifestFile The manifest to read
+     * @param visitor      Visitor to receive each entry
+     */
+    public static void read(File manifestFile, Visitor<BackupManifestEntry> visitor) throws IOException {
+        BufferedReader reader = null;
+        try {
+            reader = new BufferedReader(new InputStreamReader(new FileInputStream(manifestFile), Charsets.UTF_8));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (StringUtils.isNotBlank(line)) {
+                    visitor.visit(BackupManifestWriter.MAPPER.readValue(line, BackupManifestEntry.class));
+                }
+            }
+        } finally {
+            IOUtils.closeQuietly(reader);
+        }
+    }
+
+    /**
+     * @param exportDir The directory of a single system export
+     * @return The repository manifests found under the export directory, empty if it is not a content addressed backup
+     */
+    public static List<File> findManifests(File exportDir) {
+        List<File> manifests = Lists.newArrayList();
+        File[] repoDirs = new File(exportDir, "repositories").listFiles();
+        if (repoDirs != null) {
+            for (File repoDir : repoDirs) {
+                File manifest = new File(repoDir, BackupManifestWriter.MANIFEST_FILE_NAME);
+                if (manifest.isFile()) {
+                    manifests.add(manifest);
+                }
+            }
+        }
+        return manifests;
+    }
+}
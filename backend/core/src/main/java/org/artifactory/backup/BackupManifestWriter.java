@@ -0,0 +1,83 @@
+/*
+ * Artifactory is a binaries repository manager.
+ * Copyright (C) 2012 JFrog Ltd.
+ *
+ * Artifactory is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Artifactory is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Artifactory.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.artifactory.backup;
+
+import com.google.common.base.Charsets;
+import org.apache.commons.io.IOUtils;
+import org.codehaus.jackson.map.DeserializationConfig;
+import org.codehaus.jackson.map.ObjectMapper;
+import org.codehaus.jackson.map.annotate.JsonSerialize;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+
+/**
+ * Writes the manifest of a repository in a content addressed backup. The manifest holds one JSON encoded
+ * {@link BackupManifestEntry} per line, so it can be streamed and split by restore without loading it whole.<p/>
+ * Writes are synchronized, a single writer may be shared by parallel export workers.
+ */
+public class BackupManifestWriter implements Closeable {
+
+    /**
+     * Name of the manifest file inside the export directory of each repository
+     */
+    public static final String MANIFEST_FILE_NAME = "repository.manifest";
+
+    /**
+     * Shared by the manifest reader, the mapper is thread safe once configured
+     */
+    static final ObjectMapper MAPPER = new ObjectMapper();
+
+    static {
+        MAPPER.setSerializationInclusion(JsonSerialize.Inclusion.NON_NULL);
+        MAPPER.configure(DeserializationConfig.Feature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    }
+
+    private final File manifestFile;
+    private final Writer writer;
+
+    public BackupManifestWriter(File manifestFile) throws IOException {
+        this.manifestFile = manifestFile;
+        this.writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(manifestFile), Charsets.UTF_8));
+    }
+
+    public File getManifestFile() {
+        return manifestFile;
+    }
+
+    public synchronized void write(BackupManifestEntry entry) throws IOException {
+        writer.write(MAPPER.writeValueAsString(entry));
+        writer.write('\n');
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            writer.flush();
+        } finally {
+            IOUtils.closeQuietly(writer);
+        }
+    }
+}
@@ -20,8 +20,10 @@ package org.artifactory.backup;
 
 import com.google.common.base.Predicate;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.filefilter.DirectoryFileFilter;
 import org.apache.commons.lang.StringUtils;
 import org.artifactory.addon.AddonsManager;
 import org.artifactory.addon.CoreAddons;
@@ -38,6 +40,7 @@ import org.artifactory.descriptor.repo.LocalCacheRepoDescriptor;
 import org.artifactory.descriptor.repo.LocalRepoDescriptor;
 import org.artifactory.descriptor.repo.RealRepoDescriptor;
 import org.artifactory.repo.service.InternalRepositoryService;
+import org.artifactory.sapi.fs.Visitor;
 import org.artifactory.schedule.BaseTaskServiceDescriptorHandler;
 import org.artifactory.schedule.Task;
 import org.artifactory.schedule.TaskBase;
@@ -57,6 +60,7 @@ import org.springframework.stereotype.Service;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.io.File;
+import java.io.FileFilter;
 import java.io.IOException;
 import java.io.InputStream;
 import java.text.MessageFormat;
@@ -67,6 +71,7 @@ import java.util.Date;
 import java.util.List;
 import java.util.PropertyResourceBundle;
 import java.util.ResourceBundle;
+import java.util.Set;
 
 /**
  * @author Yoav Landman
@@ -244,12 +249,27 @@ public class BackupServiceImpl implements InternalBackupService {
                     "Please change the configuration of backup " + backup.getKey() + ".", log);
             createArchive = false;
         }
+        boolean contentAddressed = backup.isContentAddressed();
+        if (contentAddressed && createArchive) {
+            status.setWarning("A content addressed backup cannot be archived!\n" +
+                    "Please change the configuration of backup " + backup.getKey() + ".", log);
+            createArchive = false;
+        }
+        if (contentAddressed && incremental) {
+            // every run writes its own manifests, only the blobs are shared between runs
+            status.setWarning("A content addressed backup cannot be incremental!\n" +
+                    "Please change the configuration of backup " + backup.getKey() + ".", log);
+            incremental = false;
+        }
         ExportSettingsImpl settings = new ExportSettingsImpl(backupDir, status);
         settings.setRepositories(backedupRepos);
         settings.setCreateArchive(createArchive);
         settings.setIncremental(incremental);
         settings.addCallback(new SystemBackupPauseCallback());
         settings.setExcludeBuilds(excludeBuilds);
+        if (contentAddressed) {
+            settings.setBlobsDir(new File(backupDir, BackupBlobStore.BLOBS_DIR_NAME));
+        }
 
         context.exportTo(settings);
 
@@ -273,7 +293,14 @@ public class BackupServiceImpl implements InternalBackupService {
         calendar.add(Calendar.HOUR, -retentionPeriodHours);
         Date validFrom = calendar.getTime();
         File backupDir = getBackupDir(descriptor);
-        File[] children = backupDir.listFiles();
+        File blobsDir = new File(backupDir, BackupBlobStore.BLOBS_DIR_NAME);
+        File[] children = backupDir.listFiles(new FileFilter() {
+            @Override
+            public boolean accept(File file) {
+                // the blobs are shared by all backups and cleaned by reference
+                return !file.getName().equals(BackupBlobStore.BLOBS_DIR_NAME);
+            }
+        });
         //Delete anything not newer than the last valid time
         if (children.length > 0) {
             log.debug("Removing backups older than {}.", validFrom);
@@ -292,6 +319,37 @@ public class BackupServiceImpl implements InternalBackupService {
                 log.debug("Skipping new backup file '{}'.", child.getPath());
             }
         }
+        if (blobsDir.isDirectory()) {
+            cleanupUnreferencedBlobs(backupDir, new BackupBlobStore(blobsDir));
+        }
+    }
+
+    /**
+     * Removes the blobs of a content addressed backup that are not referenced by the manifests of any remaining backup
+     */
+    private void cleanupUnreferencedBlobs(File backupDir, BackupBlobStore blobStore) {
+        final Set<String> referencedChecksums = Sets.newHashSet();
+        File[] exportDirs = backupDir.listFiles((FileFilter) DirectoryFileFilter.INSTANCE);
+        for (File exportDir : exportDirs) {
+            for (File manifest : BackupManifestReader.findManifests(exportDir)) {
+                try {
+                    BackupManifestReader.read(manifest, new Visitor<BackupManifestEntry>() {
+                        @Override
+                        public void visit(BackupManifestEntry entry) {
+                            if (entry.isFile()) {
+                                referencedChecksums.add(entry.getSha1());
+                            }
+                        }
+                    });
+                } catch (IOException e) {
+                    // keep all the blobs rather than delete blobs which might still be in use
+                    log.warn("Failed to read backup manifest '" + manifest.getPath() + "'. Skipping blobs cleanup.", e);
+                    return;
+                }
+            }
+        }
+        int removed = blobStore.removeUnreferenced(referencedChecksums);
+        log.debug("Removed {} unreferenced backup blobs from '{}'.", removed, blobStore.getBlobsDir().getPath());
     }
 
     @Override
@@ -0,0 +1,106 @@
+/*
+ * Artifactory is a binaries repository manager.
+ * Copyright (C) 2012 JFrog Ltd.
+ *
+ * Artifactory is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Artifactory is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Artifactory.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.artifactory.maven;
+
+import com.google.common.collect.LinkedListMultimap;
+import com.google.common.collect.ListMultimap;
+import com.google.common.collect.Lists;
+import org.artifactory.repo.RepoPath;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Coalesces folders marked for maven metadata recalculation. The metadata is calculated recursively, so a mark under
+ * another marked folder is covered by the calculation of the ancestor. The resulting roots are disjoint subtrees which
+ * may be calculated independently.
+ */
+public class MavenMetadataRecalculationPlan {
+
+    /**
+     * Orders by repository key and then by path, with the path separator sorted before any other character so that
+     * the descendants of a folder immediately follow it
+     */
+    private static final Comparator<RepoPath> TREE_ORDER = new Comparator<RepoPath>() {
+        @Override
+        public int compare(RepoPath o1, RepoPath o2) {
+            int keyComparison = o1.getRepoKey().compareTo(o2.getRepoKey());
+            if (keyComparison != 0) {
+                return keyComparison;
+            }
+            return treeOrderPath(o1).compareTo(treeOrderPath(o2));
+        }
+    };
+
+    // root -> the marks covered by its calculation, including its own
+    private final ListMultimap<RepoPath, RepoPath> coveredMarks = LinkedListMultimap.create();
+
+    public MavenMetadataRecalculationPlan(Collection<RepoPath> marks) {
+        List<RepoPath> sortedMarks = Lists.newArrayList(marks);
+        Collections.sort(sortedMarks, TREE_ORDER);
+        RepoPath currentRoot = null;
+        for (RepoPath mark : sortedMarks) {
+            if (currentRoot == null || !isSameOrDescendant(mark, currentRoot)) {
+                currentRoot = mark;
+            }
+            coveredMarks.put(currentRoot, mark);
+        }
+    }
+
+    /**
+     * @return The folders to calculate the metadata on, none of them is a descendant of another
+     */
+    public List<RepoPath> getRoots() {
+        return Lists.newArrayList(coveredMarks.keySet());
+    }
+
+    /**
+     * @param root One of the roots of this plan
+     * @return The marks to remove once the calculation of the root completed, including the mark of the root itself
+     */
+    public List<RepoPath> getCoveredMarks(RepoPath root) {
+        return coveredMarks.get(root);
+    }
+
+    public int getMarksCount() {
+        return coveredMarks.size();
+    }
+
+    static boolean isSameOrDescendant(RepoPath path, RepoPath ancestor) {
+        if (!path.getRepoKey().equals(ancestor.getRepoKey())) {
+            return false;
+        }
+        String ancestorPath = trimTrailingSlash(ancestor.getPath());
+        if (ancestorPath.isEmpty()) {
+            return true;
+        }
+        String descendantPath = trimTrailingSlash(path.getPath());
+        return descendantPath.equals(ancestorPath) || descendantPath.startsWith(ancestorPath + "/");
+    }
+
+    private static String treeOrderPath(RepoPath repoPath) {
+        return trimTrailingSlash(repoPath.getPath()).replace('/', '\u0000');
+    }
+
+    private static String trimTrailingSlash(String path) {
+        return path.endsWith("/") ? path.substring(0, path.length() - 1) : path;
+    }
+}
@@ -19,18 +19,31 @@
 package org.artifactory.repo;
 
 import org.artifactory.api.context.ContextHelper;
-import org.artifactory.api.repo.Async;
 import org.artifactory.api.request.DownloadService;
 import org.artifactory.api.request.InternalArtifactoryRequest;
+import org.artifactory.common.ConstantValues;
+import org.artifactory.repo.service.InternalRepositoryService;
 import org.artifactory.request.InternalArtifactoryResponse;
+import org.artifactory.schedule.ArtifactoryConcurrentExecutor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 
+import javax.annotation.Nullable;
+import javax.annotation.PreDestroy;
 import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * This job creates an internal request asking Artifactory to download certain resource(s).
+ * <p/>
+ * Eager resources are prefetched through a bounded, deduplicating and rate limited queue per remote repository,
+ * drained by a dedicated pool of workers so prefetching does not compete with the shared async pool. The workers skip
+ * the resources that were cached since they were queued, so the requesting thread does not look them up.
  *
  * @author Yossi Shaul
  */
@@ -38,10 +51,45 @@ import java.io.IOException;
 public class EagerResourcesDownloader {
     private static final Logger log = LoggerFactory.getLogger(EagerResourcesDownloader.class);
 
-    @Async
-    public void downloadAsync(RepoPath eagerRepoPath) {
-        InternalArtifactoryRequest internalRequest = new InternalArtifactoryRequest(eagerRepoPath);
-        downloadNow(eagerRepoPath, internalRequest);
+    private final ConcurrentMap<String, RemotePrefetchQueue> prefetchQueues = new ConcurrentHashMap<>();
+    private ArtifactoryConcurrentExecutor prefetchExecutor;
+    private boolean destroyed;
+
+    /**
+     * Queues the given path for prefetching. The download is performed on behalf of the current user.
+     *
+     * @param eagerRepoPath Path of the resource to prefetch
+     * @param matrixParams  Matrix params to send with the download request, empty if none
+     * @param highPriority  True if the resource should be fetched before low priority queued resources
+     * @return True if the path was queued, false if it is already queued or the queue of the repository is full
+     */
+    public boolean prefetch(RepoPath eagerRepoPath, String matrixParams, boolean highPriority) {
+        ArtifactoryConcurrentExecutor executor = getPrefetchExecutor();
+        if (executor == null) {
+            return false;
+        }
+        final RemotePrefetchQueue queue = getPrefetchQueue(eagerRepoPath.getRepoKey());
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        RemotePrefetchQueue.Offer offer = queue.offer(new RemotePrefetchQueue.PrefetchRequest(eagerRepoPath,
+                matrixParams, highPriority, authentication));
+        if (offer == RemotePrefetchQueue.Offer.REJECTED) {
+            log.debug("Prefetch of {} skipped: already queued or queue is full", eagerRepoPath);
+            return false;
+        }
+        if (offer == RemotePrefetchQueue.Offer.START_WORKER) {
+            try {
+                executor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        drain(queue);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                log.debug("Prefetch workers are saturated, discarding queue of {}", eagerRepoPath.getRepoKey());
+                discard(queue);
+            }
+        }
+        return true;
     }
 
     public void downloadNow(RepoPath repoPath, InternalArtifactoryRequest internalRequest) {
@@ -54,4 +102,112 @@ public class EagerResourcesDownloader {
             // ignore - will be logged by the download service
         }
     }
+
+    /**
+     * Drops the prefetch queue of a destroyed repository, discarding its queued requests
+     */
+    public void removeQueue(String repoKey) {
+        RemotePrefetchQueue queue = prefetchQueues.remove(repoKey);
+        if (queue != null) {
+            queue.clear();
+        }
+    }
+
+    @PreDestroy
+    public synchronized void destroy() {
+        destroyed = true;
+        if (prefetchExecutor != null) {
+            prefetchExecutor.shutdown();
+            prefetchExecutor = null;
+        }
+        for (String repoKey : prefetchQueues.keySet()) {
+            removeQueue(repoKey);
+        }
+    }
+
+    private void drain(RemotePrefetchQueue queue) {
+        Authentication workerAuthentication = SecurityContextHolder.getContext().getAuthentication();
+        try {
+            RemotePrefetchQueue.PrefetchRequest request;
+            while ((request = queue.poll()) != null) {
+                try {
+                    RepoPath repoPath = request.getRepoPath();
+                    if (isCached(repoPath)) {
+                        log.debug("Prefetch of {} skipped: already cached", repoPath);
+                        continue;
+                    }
+                    long delay = queue.reserveFetch(System.currentTimeMillis());
+                    if (delay > 0) {
+                        Thread.sleep(delay);
+                    }
+                    // download with the permissions of the user that triggered this prefetch
+                    SecurityContextHolder.getContext().setAuthentication(request.getAuthentication());
+                    RepoPath downloadRepoPath = InternalRepoPathFactory.create(repoPath.getRepoKey(),
+                            repoPath.getPath() + request.getMatrixParams());
+                    downloadNow(downloadRepoPath, new InternalArtifactoryRequest(downloadRepoPath));
+                } catch (InterruptedException e) {
+                    log.debug("Prefetch worker of {} interrupted", request.getRepoPath().getRepoKey());
+                    Thread.currentThread().interrupt();
+                    discard(queue);
+                    return;
+                } catch (Exception e) {
+                    log.debug("Prefetch of " + request.getRepoPath() + " failed", e);
+                } finally {
+                    queue.done(request);
+                }
+            }
+        } finally {
+            SecurityContextHolder.getContext().setAuthentication(workerAuthentication);
+        }
+    }
+
+    /**
+     * Discards the queued requests of a queue whose worker could not be started, releasing the worker slot
+     */
+    private void discard(RemotePrefetchQueue queue) {
+        RemotePrefetchQueue.PrefetchRequest request;
+        while ((request = queue.poll()) != null) {
+            queue.done(request);
+            log.debug("Dropped prefetch of {}", request.getRepoPath());
+        }
+    }
+
+    /**
+     * @return True if the resource is in the cache of its remote repository, or if the repository no longer exists
+     */
+    private boolean isCached(RepoPath repoPath) {
+        InternalRepositoryService repositoryService = ContextHelper.get().beanForType(InternalRepositoryService.class);
+        RemoteRepo remoteRepo = repositoryService.remoteRepositoryByKey(repoPath.getRepoKey());
+        if (remoteRepo == null) {
+            return true;
+        }
+        return remoteRepo.isStoreArtifactsLocally() && remoteRepo.getLocalCacheRepo().itemExists(repoPath.getPath());
+    }
+
+    private RemotePrefetchQueue getPrefetchQueue(String repoKey) {
+        RemotePrefetchQueue queue = prefetchQueues.get(repoKey);
+        if (queue == null) {
+            queue = new RemotePrefetchQueue(ConstantValues.eagerPrefetchQueueSize.getInt(),
+                    ConstantValues.eagerPrefetchMaxConcurrentPerRepo.getInt(),
+                    ConstantValues.eagerPrefetchMaxPerSecond.getInt());
+            RemotePrefetchQueue existing = prefetchQueues.putIfAbsent(repoKey, queue);
+            if (existing != null) {
+                queue = existing;
+            }
+        }
+        return queue;
+    }
+
+    /**
+     * @return The executor of the prefetch workers, null once destroyed
+     */
+    @Nullable
+    private synchronized ArtifactoryConcurrentExecutor getPrefetchExecutor() {
+        if (prefetchExecutor == null && !destroyed) {
+            int threads = Math.max(1, ConstantValues.eagerPrefetchThreads.getInt());
+            prefetchExecutor = new ArtifactoryConcurrentExecutor("eager-prefetch-", threads,
+                    ConstantValues.asyncPoolMaxQueueSize.getInt());
+        }
+        return prefetchExecutor;
+    }
 }
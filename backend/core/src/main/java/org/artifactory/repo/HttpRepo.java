@@ -32,6 +32,7 @@ import org.apache.commons.httpclient.methods.GetMethod;
 import org.apache.commons.httpclient.methods.HeadMethod;
 import org.apache.commons.httpclient.util.DateParseException;
 import org.apache.commons.httpclient.util.DateUtil;
+import org.apache.commons.httpclient.util.IdleConnectionTimeoutThread;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang.StringUtils;
 import org.artifactory.addon.AddonsManager;
@@ -50,6 +51,7 @@ import org.artifactory.io.RemoteResourceStreamHandle;
 import org.artifactory.md.Properties;
 import org.artifactory.mime.MavenNaming;
 import org.artifactory.mime.NamingUtils;
+import org.artifactory.repo.remote.InstrumentedHttpConnectionManager;
 import org.artifactory.repo.remote.browse.HtmlRepositoryBrowser;
 import org.artifactory.repo.remote.browse.HttpExecutor;
 import org.artifactory.repo.remote.browse.RemoteItem;
@@ -87,6 +89,11 @@ import java.util.concurrent.TimeUnit;
 public class HttpRepo extends RemoteRepoBase<HttpRepoDescriptor> {
     private static final Logger log = LoggerFactory.getLogger(HttpRepo.class);
 
+    @GuardedBy("HttpRepo.class")
+    private static IdleConnectionTimeoutThread idleConnectionEvictor;
+    @GuardedBy("HttpRepo.class")
+    private static final Set<HttpConnectionManager> evictedConnectionManagers = Sets.newHashSet();
+
     @Nullable
     private HttpClient client;
     private boolean handleGzipResponse;
@@ -110,6 +117,7 @@ public class HttpRepo extends RemoteRepoBase<HttpRepoDescriptor> {
         handleGzipResponse = ConstantValues.httpAcceptEncodingGzip.getBoolean();
         if (!isOffline()) {
             this.client = createHttpClient();
+            registerForIdleConnectionEviction(client.getHttpConnectionManager());
         }
     }
 
@@ -137,6 +145,7 @@ public class HttpRepo extends RemoteRepoBase<HttpRepoDescriptor> {
         super.destroy();
         if (client != null) {
             HttpConnectionManager cm = client.getHttpConnectionManager();
+            unregisterFromIdleConnectionEviction(cm);
             if (cm instanceof MultiThreadedHttpConnectionManager) {
                 MultiThreadedHttpConnectionManager mtcm = (MultiThreadedHttpConnectionManager) cm;
                 int inPool = mtcm.getConnectionsInPool();
@@ -152,6 +161,14 @@ public class HttpRepo extends RemoteRepoBase<HttpRepoDescriptor> {
     @Override
     public void cleanupResources() {
         stopOfflineCheckThread();
+        // a reloaded repository is replaced without being destroyed and its in-flight requests may still use the
+        // client, so only drop its idle connections and stop evicting them
+        HttpClient httpClient = client;
+        if (httpClient != null) {
+            HttpConnectionManager cm = httpClient.getHttpConnectionManager();
+            unregisterFromIdleConnectionEviction(cm);
+            cm.closeIdleConnections(0);
+        }
     }
 
     public String getUsername() {
@@ -335,7 +352,51 @@ public class HttpRepo extends RemoteRepoBase<HttpRepoDescriptor> {
      */
     public int executeMethod(HttpMethod method, boolean followRedirects) throws IOException {
         updateMethod(method, followRedirects);
-        return getHttpClient().executeMethod(method);
+        HttpClient httpClient = getHttpClient();
+        InstrumentedHttpConnectionManager connectionManager = getConnectionManager();
+        // the time spent waiting for a pooled connection is not server latency
+        long leaseWaitBefore = connectionManager != null ? connectionManager.getCurrentThreadLeaseWaitNanos() : 0;
+        long start = System.nanoTime();
+        int status;
+        try {
+            status = httpClient.executeMethod(method);
+        } catch (IOException e) {
+            getHealth().recordFailure(serverTimeMillis(connectionManager, start, leaseWaitBefore));
+            throw e;
+        }
+        // the client returns once the response headers are read
+        long timeToFirstByteMillis = serverTimeMillis(connectionManager, start, leaseWaitBefore);
+        if (connectionManager != null) {
+            connectionManager.recordTimeToFirstByte(timeToFirstByteMillis);
+        }
+        if (status >= HttpStatus.SC_INTERNAL_SERVER_ERROR) {
+            getHealth().recordFailure(timeToFirstByteMillis);
+        } else {
+            getHealth().recordSuccess(timeToFirstByteMillis);
+        }
+        return status;
+    }
+
+    private long serverTimeMillis(@Nullable InstrumentedHttpConnectionManager connectionManager, long start,
+            long leaseWaitBefore) {
+        long elapsed = System.nanoTime() - start;
+        if (connectionManager != null) {
+            elapsed -= connectionManager.getCurrentThreadLeaseWaitNanos() - leaseWaitBefore;
+        }
+        return TimeUnit.NANOSECONDS.toMillis(Math.max(0, elapsed));
+    }
+
+    /**
+     * @return The pooling connection manager of this repository with its usage metrics, null if the repository is
+     *         offline
+     */
+    @Nullable
+    public InstrumentedHttpConnectionManager getConnectionManager() {
+        HttpClient httpClient = client;
+        if (httpClient != null && httpClient.getHttpConnectionManager() instanceof InstrumentedHttpConnectionManager) {
+            return (InstrumentedHttpConnectionManager) httpClient.getHttpConnectionManager();
+        }
+        return null;
     }
 
     @Override
@@ -451,10 +512,10 @@ public class HttpRepo extends RemoteRepoBase<HttpRepoDescriptor> {
     }
 
     HttpClient createHttpClient() {
-        return new HttpClientConfigurator(true)
+        return new HttpClientConfigurator(new InstrumentedHttpConnectionManager())
                 .hostFromUrl(getUrl())
-                .defaultMaxConnectionsPerHost(50)
-                .maxTotalConnections(50)
+                .defaultMaxConnectionsPerHost(ConstantValues.httpRepoMaxConnectionsPerHost.getInt(getKey()))
+                .maxTotalConnections(ConstantValues.httpRepoMaxTotalConnections.getInt(getKey()))
                 .connectionTimeout(getSocketTimeoutMillis())
                 .soTimeout(getSocketTimeoutMillis())
                 .staleCheckingEnabled(true)
@@ -643,6 +704,7 @@ public class HttpRepo extends RemoteRepoBase<HttpRepoDescriptor> {
             stopOfflineCheckThread();
             assumedOffline = false;
         }
+        getHealth().reset();
     }
 
     private void stopOfflineCheckThread() {
@@ -656,6 +718,42 @@ public class HttpRepo extends RemoteRepoBase<HttpRepoDescriptor> {
         }
     }
 
+    /**
+     * Closes the pooled connections of the given manager once they are idle for longer than the configured timeout.
+     * A single daemon thread serves all the repositories. It is stopped once the last manager is unregistered.
+     */
+    private static void registerForIdleConnectionEviction(HttpConnectionManager connectionManager) {
+        long idleTimeoutMillis = TimeUnit.SECONDS.toMillis(ConstantValues.httpRepoIdleConnectionTimeoutSecs.getLong());
+        if (idleTimeoutMillis <= 0) {
+            return;
+        }
+        synchronized (HttpRepo.class) {
+            if (idleConnectionEvictor == null) {
+                idleConnectionEvictor = new IdleConnectionTimeoutThread();
+                idleConnectionEvictor.setName("http-idle-connection-evictor");
+                idleConnectionEvictor.setConnectionTimeout(idleTimeoutMillis);
+                idleConnectionEvictor.setTimeoutInterval(Math.min(idleTimeoutMillis, TimeUnit.SECONDS.toMillis(30)));
+                idleConnectionEvictor.start();
+            }
+            if (evictedConnectionManagers.add(connectionManager)) {
+                idleConnectionEvictor.addConnectionManager(connectionManager);
+            }
+        }
+    }
+
+    private static void unregisterFromIdleConnectionEviction(HttpConnectionManager connectionManager) {
+        synchronized (HttpRepo.class) {
+            if (idleConnectionEvictor == null || !evictedConnectionManagers.remove(connectionManager)) {
+                return;
+            }
+            idleConnectionEvictor.removeConnectionManager(connectionManager);
+            if (evictedConnectionManagers.isEmpty()) {
+                idleConnectionEvictor.shutdown();
+                idleConnectionEvictor = null;
+            }
+        }
+    }
+
     private HttpClient getHttpClient() {
         if (client == null) {
             throw new IllegalStateException("Repo is offline. Cannot use the HTTP client.");
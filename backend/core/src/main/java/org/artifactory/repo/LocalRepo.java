@@ -23,6 +23,7 @@ import org.artifactory.descriptor.repo.LocalRepoDescriptor;
 import org.artifactory.descriptor.repo.SnapshotVersionBehavior;
 import org.artifactory.repo.snapshot.MavenSnapshotVersionAdapter;
 import org.artifactory.resource.ResourceStreamHandle;
+import org.artifactory.storage.fs.lock.FsItemLockStatistics;
 
 public interface LocalRepo<T extends LocalRepoDescriptor> extends RealRepo<T>, StoringRepo<T>, ImportableExportable {
 
@@ -46,4 +47,9 @@ public interface LocalRepo<T extends LocalRepoDescriptor> extends RealRepo<T>, S
      *         Handle is to be closed by clients to avoid stream leaks!
      */
     ResourceStreamHandle getFileContent(RepoPath repoPath);
+
+    /**
+     * @return The wait and hold time statistics of the item locks of this repository
+     */
+    FsItemLockStatistics getLockStatistics();
 }
\ No newline at end of file
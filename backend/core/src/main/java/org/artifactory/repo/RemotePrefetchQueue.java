@@ -0,0 +1,173 @@
+/*
+ * Artifactory is a binaries repository manager.
+ * Copyright (C) 2012 JFrog Ltd.
+ *
+ * Artifactory is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Artifactory is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Artifactory.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.artifactory.repo;
+
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Sets;
+import org.springframework.security.core.Authentication;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The queue of resources to prefetch from a single remote repository. Requests for a path that is already queued or
+ * being fetched are dropped, as are requests that exceed the queue capacity. High priority requests are fetched
+ * before the low priority ones, no more than the given number of workers drain the queue at the same time and the
+ * fetches are spread to no more than the given rate.
+ */
+class RemotePrefetchQueue {
+    private final int capacity;
+    private final int maxWorkers;
+    /**
+     * Minimal time between the starts of two fetches, 0 if the rate is not limited
+     */
+    private final long fetchIntervalMillis;
+    private final Deque<PrefetchRequest> highPriority = new ArrayDeque<>();
+    private final Deque<PrefetchRequest> lowPriority = new ArrayDeque<>();
+    private final Set<RepoPath> pendingPaths = Sets.newHashSet();
+    private int activeWorkers;
+    private long nextFetchTime;
+
+    /**
+     * @param maxFetchesPerSecond Maximum number of fetches started per second, 0 or less for no limit
+     */
+    RemotePrefetchQueue(int capacity, int maxWorkers, int maxFetchesPerSecond) {
+        this.capacity = capacity;
+        this.maxWorkers = Math.max(1, maxWorkers);
+        this.fetchIntervalMillis = maxFetchesPerSecond > 0 ? TimeUnit.SECONDS.toMillis(1) / maxFetchesPerSecond : 0;
+    }
+
+    /**
+     * Queues the given request
+     *
+     * @return {@link Offer#REJECTED} if the request was dropped, {@link Offer#START_WORKER} if it was queued and a new
+     *         worker should be started to drain the queue and {@link Offer#QUEUED} otherwise
+     */
+    synchronized Offer offer(PrefetchRequest request) {
+        if (pendingPaths.contains(request.getRepoPath()) || size() >= capacity) {
+            return Offer.REJECTED;
+        }
+        pendingPaths.add(request.getRepoPath());
+        if (request.isHighPriority()) {
+            highPriority.add(request);
+        } else {
+            lowPriority.add(request);
+        }
+        if (activeWorkers < maxWorkers) {
+            activeWorkers++;
+            return Offer.START_WORKER;
+        }
+        return Offer.QUEUED;
+    }
+
+    /**
+     * Returns the next request to fetch. A worker that receives null is considered done and must stop polling.
+     */
+    synchronized PrefetchRequest poll() {
+        PrefetchRequest request = highPriority.poll();
+        if (request == null) {
+            request = lowPriority.poll();
+        }
+        if (request == null) {
+            activeWorkers--;
+        }
+        return request;
+    }
+
+    /**
+     * Marks the given polled request as fetched, so the same path can be queued again
+     */
+    synchronized void done(PrefetchRequest request) {
+        pendingPaths.remove(request.getRepoPath());
+    }
+
+    /**
+     * Reserves the next fetch slot of the rate limit
+     *
+     * @param now The current time in milliseconds
+     * @return The time in milliseconds to wait before starting the fetch
+     */
+    synchronized long reserveFetch(long now) {
+        if (fetchIntervalMillis == 0) {
+            return 0;
+        }
+        long fetchTime = Math.max(now, nextFetchTime);
+        nextFetchTime = fetchTime + fetchIntervalMillis;
+        return fetchTime - now;
+    }
+
+    /**
+     * Drops the queued requests. Requests being fetched are not affected.
+     */
+    synchronized void clear() {
+        for (PrefetchRequest request : Iterables.concat(highPriority, lowPriority)) {
+            pendingPaths.remove(request.getRepoPath());
+        }
+        highPriority.clear();
+        lowPriority.clear();
+    }
+
+    synchronized int size() {
+        return highPriority.size() + lowPriority.size();
+    }
+
+    synchronized int getActiveWorkers() {
+        return activeWorkers;
+    }
+
+    enum Offer {
+        REJECTED, QUEUED, START_WORKER
+    }
+
+    static class PrefetchRequest {
+        private final RepoPath repoPath;
+        private final String matrixParams;
+        private final boolean highPriority;
+        private final Authentication authentication;
+
+        PrefetchRequest(RepoPath repoPath, String matrixParams, boolean highPriority,
+                Authentication authentication) {
+            this.repoPath = repoPath;
+            this.matrixParams = matrixParams;
+            this.highPriority = highPriority;
+            this.authentication = authentication;
+        }
+
+        RepoPath getRepoPath() {
+            return repoPath;
+        }
+
+        /**
+         * @return The matrix params to send with the download request, empty if none
+         */
+        String getMatrixParams() {
+            return matrixParams;
+        }
+
+        boolean isHighPriority() {
+            return highPriority;
+        }
+
+        Authentication getAuthentication() {
+            return authentication;
+        }
+    }
+}
@@ -21,6 +21,7 @@ package org.artifactory.repo;
 import org.artifactory.api.repo.exception.RepoRejectException;
 import org.artifactory.descriptor.repo.RemoteRepoDescriptor;
 import org.artifactory.fs.RepoResource;
+import org.artifactory.repo.remote.RemoteRepoHealth;
 import org.artifactory.repo.remote.browse.RemoteItem;
 import org.artifactory.request.InternalRequestContext;
 import org.artifactory.request.RequestContext;
@@ -92,7 +93,7 @@ public interface RemoteRepo<T extends RemoteRepoDescriptor> extends RealRepo<T>
      * List remote resources from a remote path.
      *
      * @param directoryPath The path of the remote repository listing
-     * @return A list of URLs that represent the remote hrefs of the remote resources.
+     * @return An immutable list of URLs that represent the remote hrefs of the remote resources. Listings are cached.
      * @throws IOException On any communication of parsing exception
      */
     @Nonnull
@@ -120,6 +121,11 @@ public interface RemoteRepo<T extends RemoteRepoDescriptor> extends RealRepo<T>
      */
     void resetAssumedOffline();
 
+    /**
+     * @return The health of this repository, based on the outcome of the latest remote requests
+     */
+    RemoteRepoHealth getHealth();
+
     /**
      * Cleanup any resources/threads this repository holds in order to be eligible for garbage collection
      */
@@ -18,8 +18,9 @@
 
 package org.artifactory.repo;
 
-import com.google.common.collect.Lists;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.MapMaker;
+import com.google.common.collect.Maps;
 import org.apache.commons.httpclient.HttpStatus;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang.StringUtils;
@@ -33,6 +34,9 @@ import org.artifactory.addon.plugin.download.ResourceStreamCtx;
 import org.artifactory.addon.replication.ReplicationAddon;
 import org.artifactory.api.context.ContextHelper;
 import org.artifactory.api.maven.MavenArtifactInfo;
+import org.artifactory.api.module.ModuleInfo;
+import org.artifactory.api.module.ModuleInfoBuilder;
+import org.artifactory.api.module.ModuleInfoUtils;
 import org.artifactory.api.repo.exception.FileExpectedException;
 import org.artifactory.api.repo.exception.RepoRejectException;
 import org.artifactory.api.search.ArchiveIndexer;
@@ -43,6 +47,7 @@ import org.artifactory.common.StatusHolder;
 import org.artifactory.concurrent.ExpiringDelayed;
 import org.artifactory.descriptor.repo.ChecksumPolicyType;
 import org.artifactory.descriptor.repo.RemoteRepoDescriptor;
+import org.artifactory.descriptor.repo.RepoLayout;
 import org.artifactory.engine.InternalDownloadService;
 import org.artifactory.factory.InfoFactoryHolder;
 import org.artifactory.fs.RepoResource;
@@ -53,6 +58,7 @@ import org.artifactory.io.checksum.policy.ChecksumPolicyBase;
 import org.artifactory.md.Properties;
 import org.artifactory.mime.NamingUtils;
 import org.artifactory.repo.db.DbCacheRepo;
+import org.artifactory.repo.remote.RemoteRepoHealth;
 import org.artifactory.repo.remote.browse.RemoteItem;
 import org.artifactory.repo.service.InternalRepositoryService;
 import org.artifactory.request.ArtifactoryRequest;
@@ -129,6 +135,7 @@ public abstract class RemoteRepoBase<T extends RemoteRepoDescriptor> extends Rea
     private boolean globalOfflineMode;
     private final HandleRefsTracker handleRefsTracker;
     private final ConcurrentMap<String, DownloadEntry> inTransit;
+    private final RemoteRepoHealth health;
 
     protected RemoteRepoBase(T descriptor, InternalRepositoryService repositoryService,
             boolean globalOfflineMode,
@@ -149,6 +156,12 @@ public abstract class RemoteRepoBase<T extends RemoteRepoDescriptor> extends Rea
             this.inTransit = new ConcurrentHashMap<String, DownloadEntry>();
             this.handleRefsTracker = new HandleRefsTracker();
         }
+        String key = descriptor.getKey();
+        health = new RemoteRepoHealth(ConstantValues.remoteHealthWindowSize.getInt(key),
+                ConstantValues.remoteHealthMinRequests.getInt(key),
+                ConstantValues.remoteHealthErrorRatePercent.getInt(key),
+                ConstantValues.remoteHealthSlowThresholdMillis.getInt(key),
+                TimeUnit.SECONDS.toMillis(ConstantValues.remoteHealthOpenPeriodSecs.getInt(key)));
     }
 
     @Override
@@ -174,11 +187,20 @@ public abstract class RemoteRepoBase<T extends RemoteRepoDescriptor> extends Rea
         if (isStoreArtifactsLocally()) {
             localCacheRepo.destroy();
         }
+        InternalContextHelper.get().beanForType(EagerResourcesDownloader.class).removeQueue(getKey());
     }
 
     protected void initCaches() {
         missedRetrievalsCache = initCache(500, getDescriptor().getMissedRetrievalCachePeriodSecs(), false);
-        remoteResourceCache = initCache(1000, getDescriptor().getRetrievalCachePeriodSecs(), true);
+        remoteResourceCache = initCache(1000, getRemoteListingCachePeriodSecs(), true);
+    }
+
+    /**
+     * @return The time to keep remote directory listings. Defaults to the retrieval cache period unless overridden.
+     */
+    private long getRemoteListingCachePeriodSecs() {
+        long listingCachePeriodSecs = ConstantValues.remoteListingCachePeriodSecs.getLong();
+        return listingCachePeriodSecs >= 0 ? listingCachePeriodSecs : getDescriptor().getRetrievalCachePeriodSecs();
     }
 
     private <V> Map<String, V> initCache(int initialCapacity, long expirationSeconds, boolean softValues) {
@@ -201,6 +223,7 @@ public abstract class RemoteRepoBase<T extends RemoteRepoDescriptor> extends Rea
         } else {
             log.debug("{}: Retrieval cache will be disabled.", this);
         }
+        log.debug("{}: Remote listing cache period is {} seconds", this, getRemoteListingCachePeriodSecs());
         long missedRetrievalCachePeriodSecs = getDescriptor().getMissedRetrievalCachePeriodSecs();
         if (missedRetrievalCachePeriodSecs > 0) {
             log.debug("{}: Enabling misses retrieval cache with period of {} seconds",
@@ -383,6 +406,12 @@ public abstract class RemoteRepoBase<T extends RemoteRepoDescriptor> extends Rea
         if (!repoPath.getPath().equals(path)) {
             RepoRequests.logToContext("Remote resource path was altered by the user plugins to - %s", path);
         }
+        if (!health.allowRequest()) {
+            RepoRequests.logToContext("Remote requests are suspended due to repeated failures (%s) - returning " +
+                    "unfound resource", health);
+            return new UnfoundRepoResource(repoPath, this + ": remote requests are suspended due to repeated " +
+                    "failures, '" + repoPath + "' is not retrieved from '" + path + "'.");
+        }
         try {
             remoteResource = retrieveInfo(path, context);
             if (!remoteResource.isFound() && !foundExpiredInCache) {
@@ -425,6 +454,11 @@ public abstract class RemoteRepoBase<T extends RemoteRepoDescriptor> extends Rea
         return cachedResource;
     }
 
+    @Override
+    public RemoteRepoHealth getHealth() {
+        return health;
+    }
+
     /**
      * Temporarily puts the repository in an assumed offline mode.
      */
@@ -814,7 +848,7 @@ public abstract class RemoteRepoBase<T extends RemoteRepoDescriptor> extends Rea
     public List<RemoteItem> listRemoteResources(String directoryPath) throws IOException {
         assert !isOffline() : "Should never be called in offline mode";
         List<RemoteItem> cachedUrls = remoteResourceCache.get(directoryPath);
-        if (CollectionUtils.notNullOrEmpty(cachedUrls)) {
+        if (cachedUrls != null) {
             return cachedUrls;
         }
 
@@ -830,9 +864,13 @@ public abstract class RemoteRepoBase<T extends RemoteRepoDescriptor> extends Rea
         }
 
         if (CollectionUtils.isNullOrEmpty(urls)) {
-            log.debug("No remote URLS where found for: ", fullDirectoryUrl);
-            return Lists.newArrayList();
+            log.debug("No remote URLS where found for: {}", fullDirectoryUrl);
+            urls = ImmutableList.of();
+        } else {
+            // the cached listing is shared by all the browsing requests
+            urls = ImmutableList.copyOf(urls);
         }
+        // empty listings are cached as well to avoid re-fetching and re-parsing them on every browse
         remoteResourceCache.put(directoryPath, urls);
         return urls;
     }
@@ -894,46 +932,88 @@ public abstract class RemoteRepoBase<T extends RemoteRepoDescriptor> extends Rea
             RepoRequests.logToContext("Eager JAR and source JAR fetching is disabled for replication download request");
             return;
         }
-        RepoPath repoPath = resource.getRepoPath();
-        MavenArtifactInfo artifactInfo = MavenArtifactInfo.fromRepoPath(repoPath);
-        boolean validMavenArtifactInfo = artifactInfo.isValid();
-        boolean artifactHasClassifier = artifactInfo.hasClassifier();
-
-        RepoRequests.logToContext("Valid Maven artifact info = %s", validMavenArtifactInfo);
-        RepoRequests.logToContext("Artifact has classifier = %s", artifactHasClassifier);
-
-        if (!validMavenArtifactInfo || artifactHasClassifier) {
+        String path = resource.getRepoPath().getPath();
+        Map<String, Boolean> eagerPaths = getEagerPaths(path, fetchJarsEagerly, fetchSourcesEagerly);
+        if (eagerPaths.isEmpty()) {
             RepoRequests.logToContext("Eager JAR and source JAR fetching is not attempted");
             return;
         }
 
-        String path = repoPath.getPath();
-        int lastDotIndex = path.lastIndexOf('.');
-        String eagerPath;
-
-        boolean artifactIsPom = "pom".equals(artifactInfo.getType());
-        boolean artifactIsJar = "jar".equals(artifactInfo.getType());
-
-        if (fetchJarsEagerly && artifactIsPom) {
-            eagerPath = path.substring(0, lastDotIndex) + ".jar";
-            RepoRequests.logToContext("Eagerly fetching JAR '%s'", eagerPath);
-        } else if (fetchSourcesEagerly && artifactIsJar) {
-            // create a path to the sources
-            eagerPath = PathUtils.injectString(path, "-sources", lastDotIndex);
-            RepoRequests.logToContext("Eagerly fetching source JAR '%s'", eagerPath);
-        } else {
-            RepoRequests.logToContext("Eager JAR and source JAR fetching is not attempted");
-            return;
+        EagerResourcesDownloader resourcesDownloader =
+                InternalContextHelper.get().beanForType(EagerResourcesDownloader.class);
+        String matrixParams = buildRequestMatrixParams(properties);
+        for (Map.Entry<String, Boolean> eagerPath : eagerPaths.entrySet()) {
+            String eagerRelPath = eagerPath.getKey();
+            if (missedRetrievalsCache.containsKey(eagerRelPath)) {
+                RepoRequests.logToContext("Eager fetching of '%s' is not needed", eagerRelPath);
+                continue;
+            }
+            // pass the repo path to download eagerly with the matrix params if exist, the prefetch worker skips it if
+            // it is already cached
+            RepoPath eagerRepoPath = InternalRepoPathFactory.create(getDescriptor().getKey(), eagerRelPath);
+            boolean queued = resourcesDownloader.prefetch(eagerRepoPath, matrixParams, eagerPath.getValue());
+            RepoRequests.logToContext("Eagerly fetching '%s' queued = %s", eagerRelPath, queued);
+        }
+    }
+
+    /**
+     * Predicts the resources that are likely to be requested after the given path, according to the repository
+     * layout: the main JAR of a module descriptor, and the source JAR of a module descriptor or main JAR.
+     *
+     * @return The paths to fetch eagerly, mapped to whether they should be fetched with high priority
+     */
+    private Map<String, Boolean> getEagerPaths(String path, boolean fetchJarsEagerly, boolean fetchSourcesEagerly) {
+        Map<String, Boolean> eagerPaths = Maps.newLinkedHashMap();
+        RepoLayout repoLayout = getDescriptor().getRepoLayout();
+        if (repoLayout == null) {
+            addMavenEagerPaths(path, fetchJarsEagerly, fetchSourcesEagerly, eagerPaths);
+            return eagerPaths;
         }
 
-        // Attach matrix params is exist
-        eagerPath += buildRequestMatrixParams(properties);
+        ModuleInfo moduleInfo = getDescriptorModuleInfo(path);
+        boolean descriptor = moduleInfo.isValid();
+        if (!descriptor) {
+            moduleInfo = getArtifactModuleInfo(path);
+        }
+        boolean validModuleInfo = moduleInfo.isValid();
+        boolean hasClassifier = StringUtils.isNotBlank(moduleInfo.getClassifier());
+        RepoRequests.logToContext("Valid module info = %s", validModuleInfo);
+        RepoRequests.logToContext("Artifact has classifier = %s", hasClassifier);
+        if (!validModuleInfo || hasClassifier) {
+            return eagerPaths;
+        }
 
-        // pass the repo path to download eagerly
-        EagerResourcesDownloader resourcesDownloader =
-                InternalContextHelper.get().beanForType(EagerResourcesDownloader.class);
-        RepoPath eagerRepoPath = InternalRepoPathFactory.create(getDescriptor().getKey(), eagerPath);
-        resourcesDownloader.downloadAsync(eagerRepoPath);
+        boolean mainJar = !descriptor && "jar".equals(moduleInfo.getExt());
+        if (fetchJarsEagerly && descriptor) {
+            ModuleInfo jarInfo = new ModuleInfoBuilder(moduleInfo).ext("jar").type("jar").build();
+            eagerPaths.put(ModuleInfoUtils.constructArtifactPath(jarInfo, repoLayout), true);
+        }
+        if (fetchSourcesEagerly && (descriptor || mainJar)) {
+            ModuleInfo sourcesInfo = new ModuleInfoBuilder(moduleInfo).classifier("sources").ext("jar")
+                    .type("source").build();
+            eagerPaths.put(ModuleInfoUtils.constructArtifactPath(sourcesInfo, repoLayout), false);
+        }
+        eagerPaths.remove(path);
+        return eagerPaths;
+    }
+
+    /**
+     * Maven naming based prediction, for repositories without a layout
+     */
+    private void addMavenEagerPaths(String path, boolean fetchJarsEagerly, boolean fetchSourcesEagerly,
+            Map<String, Boolean> eagerPaths) {
+        MavenArtifactInfo artifactInfo = MavenArtifactInfo.fromRepoPath(getRepoPath(path));
+        RepoRequests.logToContext("Valid Maven artifact info = %s", artifactInfo.isValid());
+        RepoRequests.logToContext("Artifact has classifier = %s", artifactInfo.hasClassifier());
+        if (!artifactInfo.isValid() || artifactInfo.hasClassifier()) {
+            return;
+        }
+        int lastDotIndex = path.lastIndexOf('.');
+        if (fetchJarsEagerly && "pom".equals(artifactInfo.getType())) {
+            eagerPaths.put(path.substring(0, lastDotIndex) + ".jar", true);
+        } else if (fetchSourcesEagerly && "jar".equals(artifactInfo.getType())) {
+            eagerPaths.put(PathUtils.injectString(path, "-sources", lastDotIndex), false);
+        }
     }
 
     private void afterResourceDownload(RepoResource resource) {
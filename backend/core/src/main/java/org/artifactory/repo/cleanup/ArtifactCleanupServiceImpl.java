@@ -20,12 +20,10 @@ package org.artifactory.repo.cleanup;
 
 import com.google.common.base.Predicate;
 import com.google.common.collect.Lists;
+import org.apache.commons.lang.StringUtils;
 import org.artifactory.api.common.MultiStatusHolder;
 import org.artifactory.api.config.CentralConfigService;
-import org.artifactory.api.search.ItemSearchResults;
-import org.artifactory.api.search.SearchService;
-import org.artifactory.api.search.stats.StatsSearchControls;
-import org.artifactory.api.search.stats.StatsSearchResult;
+import org.artifactory.common.ConstantValues;
 import org.artifactory.descriptor.cleanup.CleanupConfigDescriptor;
 import org.artifactory.descriptor.config.CentralConfigDescriptor;
 import org.artifactory.descriptor.repo.LocalCacheRepoDescriptor;
@@ -40,6 +38,9 @@ import org.artifactory.schedule.TaskService;
 import org.artifactory.schedule.TaskUtils;
 import org.artifactory.spring.InternalContextHelper;
 import org.artifactory.spring.Reloadable;
+import org.artifactory.storage.db.DbService;
+import org.artifactory.storage.fs.service.ConfigsService;
+import org.artifactory.storage.fs.service.LastDownloadedFile;
 import org.artifactory.storage.fs.service.StatsService;
 import org.artifactory.version.CompoundVersionDetails;
 import org.slf4j.Logger;
@@ -49,7 +50,6 @@ import org.springframework.stereotype.Service;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
-import java.util.Calendar;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
 
@@ -65,6 +65,11 @@ public class ArtifactCleanupServiceImpl implements InternalArtifactCleanupServic
 
     private static final Logger log = LoggerFactory.getLogger(ArtifactCleanupServiceImpl.class);
 
+    /**
+     * Prefix of the configs holding the position reached by an interrupted cleanup of a repository
+     */
+    private static final String CHECKPOINT_CONFIG_PREFIX = "artifactCleanup.checkpoint.";
+
     @Autowired
     private CentralConfigService centralConfigService;
 
@@ -75,7 +80,7 @@ public class ArtifactCleanupServiceImpl implements InternalArtifactCleanupServic
     private InternalRepositoryService repositoryService;
 
     @Autowired
-    private SearchService searchService;
+    private ConfigsService configsService;
 
     @Override
     public void init() {
@@ -211,28 +216,34 @@ public class ArtifactCleanupServiceImpl implements InternalArtifactCleanupServic
 
         //Calculate unused artifact expiry
         long expiryMillis = (System.currentTimeMillis() - periodMillis);
-
-        //Perform a metadata search on the given repo. Look for artifacts that have lastDownloaded stats
-        StatsSearchControls searchControls = new StatsSearchControls();
-        searchControls.setLimitSearchResults(false);
-        searchControls.addRepoToSearch(repoKey);
-        Calendar calendar = Calendar.getInstance();
-        calendar.setTimeInMillis(expiryMillis);
-        searchControls.setDownloadedSince(calendar);
-        ItemSearchResults<StatsSearchResult> metadataSearchResults =
-                searchService.searchArtifactsNotDownloadedSince(searchControls);
+        int pageSize = ConstantValues.artifactCleanupPageSize.getInt();
+        CleanupThrottle throttle = new CleanupThrottle(
+                ConstantValues.artifactCleanupThrottleTargetDeleteMillis.getLong(),
+                ConstantValues.artifactCleanupThrottleMaxPauseMillis.getLong());
+
+        // resume after the last page of an interrupted run
+        long afterDownload = Long.MIN_VALUE;
+        long afterNodeId = DbService.NO_DB_ID;
+        long[] checkpoint = loadCheckpoint(repoKey);
+        if (checkpoint != null) {
+            afterDownload = checkpoint[0];
+            afterNodeId = checkpoint[1];
+            log.info("Resuming auto-clean on the repository '{}' from artifacts last downloaded at {}.", repoKey,
+                    afterDownload);
+        }
 
         int iterationCount = 0;
         int cleanedArtifactsCount = 0;
-        for (StatsSearchResult searchResult : metadataSearchResults.getResults()) {
-            if ((++iterationCount % 10 == 0) && TaskUtils.pauseOrBreak()) {
-                throw new TaskInterruptedException();
-            }
-            RepoPath repoPath = searchResult.getItemInfo().getRepoPath();
-            long lastDownloaded = searchResult.getLastDownloaded();
-
-            //If the artifact wasn't downloaded within the expiry window, remove it
-            if (expiryMillis > lastDownloaded) {
+        List<LastDownloadedFile> page;
+        do {
+            page = statsService.getFilesNotDownloadedSince(repoKey, expiryMillis, afterDownload, afterNodeId,
+                    pageSize);
+            for (LastDownloadedFile file : page) {
+                if ((++iterationCount % 10 == 0) && TaskUtils.pauseOrBreak()) {
+                    throw new TaskInterruptedException();
+                }
+                RepoPath repoPath = file.getRepoPath();
+                long start = System.nanoTime();
                 try {
                     repositoryService.undeploy(repoPath,
                             false);  // no need for maven metadata calculation on cache repos
@@ -240,15 +251,71 @@ public class ArtifactCleanupServiceImpl implements InternalArtifactCleanupServic
                 } catch (Exception e) {
                     log.error(String.format("Could not auto-clean artifact '%s'.", repoPath.getId()), e);
                 }
-            } else {
-                log.warn("Querying for unused artifacts returned a used one " + repoPath);
+                throttle.deleted(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
             }
-        }
+            if (!page.isEmpty()) {
+                LastDownloadedFile last = page.get(page.size() - 1);
+                afterDownload = last.getLastDownloaded();
+                afterNodeId = last.getNodeId();
+                saveCheckpoint(repoKey, afterDownload, afterNodeId);
+                pause(throttle.pageDone());
+            }
+        } while (page.size() == pageSize);
+        deleteCheckpoint(repoKey);
 
         log.info("Auto-clean on the repository '{}' has ended. {} artifact(s) were cleaned",
                 repoKey, cleanedArtifactsCount);
     }
 
+    private void pause(long pauseMillis) {
+        if (pauseMillis > 0) {
+            log.debug("Artifact cleanup pausing for {} millis", pauseMillis);
+        }
+        long pauseEnd = System.currentTimeMillis() + pauseMillis;
+        long remaining;
+        while ((remaining = pauseEnd - System.currentTimeMillis()) > 0) {
+            try {
+                Thread.sleep(Math.min(remaining, 500));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new TaskInterruptedException();
+            }
+            if (TaskUtils.pauseOrBreak()) {
+                throw new TaskInterruptedException();
+            }
+        }
+    }
+
+    /**
+     * @return The last download time and node id of the last cleaned page of an interrupted run. Null if none
+     */
+    @Nullable
+    private long[] loadCheckpoint(String repoKey) {
+        String checkpointName = CHECKPOINT_CONFIG_PREFIX + repoKey;
+        if (!configsService.hasConfig(checkpointName)) {
+            return null;
+        }
+        String checkpoint = configsService.getConfig(checkpointName);
+        try {
+            String[] position = StringUtils.split(checkpoint, ':');
+            return new long[]{Long.parseLong(position[0]), Long.parseLong(position[1])};
+        } catch (RuntimeException e) {
+            log.warn("Ignoring invalid auto-clean checkpoint '{}' of the repository '{}'.", checkpoint, repoKey);
+            return null;
+        }
+    }
+
+    private void saveCheckpoint(String repoKey, long afterDownload, long afterNodeId) {
+        configsService.addOrUpdateConfig(CHECKPOINT_CONFIG_PREFIX + repoKey, afterDownload + ":" + afterNodeId);
+    }
+
+    private void deleteCheckpoint(String repoKey) {
+        String checkpointName = CHECKPOINT_CONFIG_PREFIX + repoKey;
+        if (configsService.hasConfig(checkpointName)) {
+            configsService.deleteConfig(checkpointName);
+        }
+    }
+
     /**
      * Returns the given number of hours, in milliseconds
      *
@@ -0,0 +1,62 @@
+/*
+ * Artifactory is a binaries repository manager.
+ * Copyright (C) 2012 JFrog Ltd.
+ *
+ * Artifactory is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Artifactory is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Artifactory.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.artifactory.repo.cleanup;
+
+/**
+ * Paces the artifact cleanup by the time its deletions take. Slow deletions mean the database or the disk is busy, so
+ * the pause between pages doubles while the average deletion time of a page is above the target, and halves once it
+ * drops back below it.
+ */
+class CleanupThrottle {
+    static final long MIN_PAUSE_MILLIS = 100;
+
+    private final long targetDeleteMillis;
+    private final long maxPauseMillis;
+    private long pauseMillis;
+    private long pageDeletes;
+    private long pageDeletesMillis;
+
+    CleanupThrottle(long targetDeleteMillis, long maxPauseMillis) {
+        this.targetDeleteMillis = targetDeleteMillis;
+        this.maxPauseMillis = maxPauseMillis;
+    }
+
+    void deleted(long millis) {
+        pageDeletes++;
+        pageDeletesMillis += millis;
+    }
+
+    /**
+     * Ends the current page.
+     *
+     * @return Time to pause before starting the next page
+     */
+    long pageDone() {
+        if (pageDeletes > 0) {
+            if (pageDeletesMillis / pageDeletes > targetDeleteMillis) {
+                pauseMillis = Math.min(maxPauseMillis, Math.max(MIN_PAUSE_MILLIS, pauseMillis * 2));
+            } else {
+                pauseMillis = pauseMillis / 2 < MIN_PAUSE_MILLIS ? 0 : pauseMillis / 2;
+            }
+        }
+        pageDeletes = 0;
+        pageDeletesMillis = 0;
+        return pauseMillis;
+    }
+}
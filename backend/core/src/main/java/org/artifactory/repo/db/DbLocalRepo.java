@@ -57,6 +57,7 @@ import org.artifactory.sapi.fs.VfsFolder;
 import org.artifactory.sapi.fs.VfsItem;
 import org.artifactory.security.AccessLogger;
 import org.artifactory.storage.StorageException;
+import org.artifactory.storage.fs.lock.FsItemLockStatistics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -187,6 +188,11 @@ public class DbLocalRepo<T extends LocalRepoDescriptor> extends RealRepoBase<T>
         }
     }
 
+    @Override
+    public FsItemLockStatistics getLockStatistics() {
+        return mixin.getLockStatistics();
+    }
+
     @Override
     public void undeploy(RepoPath repoPath) {
         undeploy(repoPath, false);
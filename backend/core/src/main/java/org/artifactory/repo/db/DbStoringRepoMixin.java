@@ -88,6 +88,7 @@ import org.artifactory.storage.fs.VfsFileProvider;
 import org.artifactory.storage.fs.VfsFolderProvider;
 import org.artifactory.storage.fs.VfsItemProvider;
 import org.artifactory.storage.fs.VfsItemProviderFactory;
+import org.artifactory.storage.fs.lock.FsItemLockStatistics;
 import org.artifactory.storage.fs.lock.FsItemsVault;
 import org.artifactory.storage.fs.lock.LockingHelper;
 import org.artifactory.storage.fs.repo.StoringRepo;
@@ -533,6 +534,10 @@ public class DbStoringRepoMixin<T extends RepoBaseDescriptor> /*implements Stori
         return descriptor;
     }
 
+    public FsItemLockStatistics getLockStatistics() {
+        return fsItemsVault.getStatistics();
+    }
+
     private void overrideFileDetailsFromRequest(SaveResourceContext context, MutableVfsFile mutableFile) {
         // Only administrators can override the core attributed of a file. This is mainly used during replication
         // This is not open to non-admin to prevent faked data (e.g., createdBy)
@@ -19,10 +19,15 @@
 package org.artifactory.repo.db.importexport;
 
 import com.google.common.base.Charsets;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang.StringUtils;
 import org.artifactory.api.context.ContextHelper;
+import org.artifactory.backup.BackupBlobStore;
+import org.artifactory.backup.BackupManifestEntry;
+import org.artifactory.backup.BackupManifestWriter;
 import org.artifactory.backup.FileExportInfoImpl;
 import org.artifactory.checksum.ChecksumInfo;
 import org.artifactory.common.Info;
@@ -40,6 +45,7 @@ import org.artifactory.md.XmlMetadataProvider;
 import org.artifactory.sapi.common.ExportSettings;
 import org.artifactory.sapi.common.FileExportEvent;
 import org.artifactory.sapi.common.FileExportInfo;
+import org.artifactory.storage.binstore.service.InternalBinaryStore;
 import org.artifactory.storage.fs.VfsItemNotFoundException;
 import org.artifactory.storage.fs.service.ItemMetaInfo;
 import org.artifactory.storage.fs.service.NodeMetaInfoService;
@@ -57,6 +63,8 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Base class for exporting repository content.
@@ -71,6 +79,15 @@ public abstract class DbExportBase extends DbRepoImportExportBase {
     protected MutableStatusHolder status;
     @Nullable
     protected ImportExportAccumulator accumulator;
+    /**
+     * The repository manifest of a content addressed backup, null for a regular export
+     */
+    @Nullable
+    protected BackupManifestWriter manifest;
+    /**
+     * Lazily resolved answer whether the export target and the filestore share the same file system
+     */
+    private volatile Boolean linkableTarget;
 
     protected void setExportSettings(ExportSettings settings) {
         this.settings = settings;
@@ -78,6 +95,10 @@ public abstract class DbExportBase extends DbRepoImportExportBase {
     }
 
     protected void exportFile(FileInfo sourceFile) {
+        if (manifest != null) {
+            exportFileToManifest(sourceFile, manifest);
+            return;
+        }
         status.setDebug("Exporting file '" + sourceFile.getRepoKey() + "'...", log);
         File targetFile = new File(settings.getBaseDir(), sourceFile.getRelPath());
         try {
@@ -128,6 +149,82 @@ public abstract class DbExportBase extends DbRepoImportExportBase {
         }
     }
 
+    /**
+     * Content addressed export of a file - the content is stored in the shared blobs directory only if a blob with the
+     * same checksum does not exist yet, and the file is listed in the manifest.
+     */
+    private void exportFileToManifest(FileInfo sourceFile, BackupManifestWriter manifest) {
+        BackupBlobStore blobStore = new BackupBlobStore(settings.getBlobsDir());
+        File blobFile = blobStore.getBlobFile(sourceFile.getSha1());
+        try {
+            if (!getFileService().exists(sourceFile.getRepoPath())) {
+                log.info("Skipping file export : '{}', the source file doesn't exists.", sourceFile.getRepoPath());
+                return;
+            }
+            settings.executeCallbacks(
+                    new FileExportInfoImpl(sourceFile, blobFile, FileExportInfo.FileExportStatus.PENDING),
+                    FileExportEvent.BEFORE_FILE_EXPORT);
+
+            boolean blobAdded = false;
+            if (!settings.isExcludeContent() && !blobFile.exists()) {
+                blobAdded = exportBlob(sourceFile, blobStore);
+            }
+
+            settings.executeCallbacks(new FileExportInfoImpl(sourceFile, blobFile,
+                    blobAdded ? FileExportInfo.FileExportStatus.ADDED : FileExportInfo.FileExportStatus.SKIPPED),
+                    FileExportEvent.AFTER_FILE_EXPORT);
+
+            manifest.write(createManifestEntry(sourceFile));
+            if (accumulator != null) {
+                accumulator.accumulateFile();
+            }
+        } catch (Exception e) {
+            status.setError("Failed to export '" + sourceFile.getRepoPath() + "' to blob '" +
+                    blobFile.getPath() + "'.", e, log);
+        }
+    }
+
+    private boolean exportBlob(FileInfo sourceFile, BackupBlobStore blobStore) throws IOException {
+        File tempFile = blobStore.createTempFile(sourceFile.getSha1());
+        try {
+            if (!exportFileContent(sourceFile, tempFile)) {
+                return false;
+            }
+            blobStore.commit(tempFile, sourceFile.getSha1());
+            return true;
+        } finally {
+            FileUtils.deleteQuietly(tempFile);
+        }
+    }
+
+    protected BackupManifestEntry createManifestEntry(ItemInfo item) {
+        BackupManifestEntry entry = new BackupManifestEntry();
+        entry.setPath(item.getRelPath());
+        entry.setFolder(item.isFolder());
+        entry.setCreated(item.getCreated());
+        entry.setLastModified(item.getLastModified());
+        entry.setCreatedBy(item.getCreatedBy());
+        entry.setModifiedBy(item.getModifiedBy());
+        if (!item.isFolder()) {
+            FileInfo file = (FileInfo) item;
+            entry.setSha1(file.getSha1());
+            entry.setMd5(file.getMd5());
+            entry.setSize(file.getSize());
+            entry.setMimeType(file.getMimeType());
+        }
+        if (settings.isIncludeMetadata()) {
+            Properties properties = getPropertiesService().getProperties(item.getRepoPath());
+            if (!properties.isEmpty()) {
+                Map<String, List<String>> entryProperties = Maps.newTreeMap();
+                for (String key : properties.keySet()) {
+                    entryProperties.put(key, Lists.newArrayList(properties.get(key)));
+                }
+                entry.setProperties(entryProperties);
+            }
+        }
+        return entry;
+    }
+
     private boolean isSkipFileContentExport(FileInfo sourceFile, File targetFile) {
         if (settings.isExcludeContent()) {
             return true;
@@ -145,6 +242,13 @@ public abstract class DbExportBase extends DbRepoImportExportBase {
     private boolean exportFileContent(FileInfo sourceFile, File targetFile) throws IOException {
 
         log.debug("Exporting file content to {}", targetFile.getAbsolutePath());
+        if (targetFile.exists()) {
+            // never write through an existing target, it might be a hard link into the filestore
+            FileUtils.forceDelete(targetFile);
+        }
+        if (settings.isLinkBinaries() && linkFileContent(sourceFile, targetFile)) {
+            return true;
+        }
         OutputStream os = null;
         InputStream is = null;
         try {
@@ -166,6 +270,46 @@ public abstract class DbExportBase extends DbRepoImportExportBase {
         return true;
     }
 
+    /**
+     * Hard-links the target file to the checksum file of the source in the filestore. The linked file shares the
+     * filestore inode, so its last modified time is left untouched.
+     *
+     * @return True if the link was created, false if the content should be copied instead
+     */
+    private boolean linkFileContent(FileInfo sourceFile, File targetFile) {
+        InternalBinaryStore binaryStore = StorageContextHelper.get().beanForType(InternalBinaryStore.class);
+        File binaryFile = binaryStore.getBinaryFile(sourceFile.getSha1());
+        if (binaryFile == null || !isLinkableTarget(binaryFile)) {
+            return false;
+        }
+        try {
+            java.nio.file.Files.createLink(targetFile.toPath(), binaryFile.toPath());
+            return true;
+        } catch (IOException | UnsupportedOperationException e) {
+            // the binary might have been removed from the cache or the target doesn't support links
+            log.debug("Could not link '{}' to '{}': {}. Copying content instead.",
+                    targetFile.getAbsolutePath(), binaryFile.getAbsolutePath(), e.getMessage());
+            return false;
+        }
+    }
+
+    private boolean isLinkableTarget(File binaryFile) {
+        if (linkableTarget == null) {
+            try {
+                linkableTarget = java.nio.file.Files.getFileStore(binaryFile.toPath()).equals(
+                        java.nio.file.Files.getFileStore(settings.getBaseDir().toPath()));
+            } catch (IOException e) {
+                log.debug("Could not resolve file stores of the export: {}", e.getMessage());
+                linkableTarget = false;
+            }
+            if (!linkableTarget) {
+                status.setWarning("Export target '" + settings.getBaseDir().getAbsolutePath() + "' is not on the " +
+                        "same file system as the filestore. Binaries will be copied instead of linked.", log);
+            }
+        }
+        return linkableTarget;
+    }
+
     private void writeChecksums(File targetFile, FileInfo sourceFile) throws IOException {
         // Write the checksum files next to the file which they belong to.
         for (ChecksumInfo checksumInfo : sourceFile.getChecksumsInfo().getChecksums()) {
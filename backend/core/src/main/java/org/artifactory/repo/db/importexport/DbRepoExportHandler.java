@@ -18,6 +18,7 @@
 
 package org.artifactory.repo.db.importexport;
 
+import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.filefilter.AbstractFileFilter;
@@ -25,6 +26,8 @@ import org.apache.commons.io.filefilter.DirectoryFileFilter;
 import org.apache.commons.io.filefilter.IOFileFilter;
 import org.apache.commons.io.filefilter.NotFileFilter;
 import org.artifactory.api.repo.RepositoryService;
+import org.artifactory.backup.BackupManifestWriter;
+import org.artifactory.common.ConstantValues;
 import org.artifactory.fs.FileInfo;
 import org.artifactory.fs.FolderInfo;
 import org.artifactory.fs.ItemInfo;
@@ -36,6 +39,9 @@ import org.artifactory.repo.RepoPath;
 import org.artifactory.repo.StoringRepo;
 import org.artifactory.sapi.common.ExportSettings;
 import org.artifactory.sapi.common.RepositoryRuntimeException;
+import org.artifactory.sapi.fs.Visitor;
+import org.artifactory.schedule.ArtifactoryConcurrentExecutor;
+import org.artifactory.schedule.TaskInterruptedException;
 import org.artifactory.schedule.TaskService;
 import org.artifactory.spring.InternalContextHelper;
 import org.artifactory.storage.spring.StorageContextHelper;
@@ -50,6 +56,8 @@ import java.io.IOException;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.artifactory.repo.db.importexport.ImportExportAccumulator.ProgressAccumulatorType.EXPORT;
 
@@ -83,7 +91,19 @@ public class DbRepoExportHandler extends DbExportBase {
         }
         ItemInfo rootFolder = getFileService().loadItem(new RepoPathImpl(repo.getKey(), ""));
         accumulator = new ImportExportAccumulator(repo.getKey(), EXPORT);
-        exportRecursive(rootFolder);
+        if (settings.getBlobsDir() != null) {
+            openManifest(fileSystemBaseDir);
+        }
+        try {
+            int workerThreads = ConstantValues.exportWorkerThreads.getInt();
+            if (workerThreads > 1) {
+                exportParallel(rootFolder, workerThreads);
+            } else {
+                exportRecursive(rootFolder);
+            }
+        } finally {
+            closeManifest();
+        }
         accumulator.finished();
         status.setStatus(String.format("%s export finished: Items exported: %s (%s files and %s folders). " +
                 "Duration: %s IPS: %s Target: '%s'",
@@ -92,6 +112,48 @@ public class DbRepoExportHandler extends DbExportBase {
                 targetExportFolder), log);
     }
 
+    private void openManifest(File exportDir) {
+        File manifestFile = new File(exportDir, BackupManifestWriter.MANIFEST_FILE_NAME);
+        try {
+            manifest = new BackupManifestWriter(manifestFile);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to create backup manifest '" + manifestFile.getAbsolutePath() + "'.", e);
+        }
+    }
+
+    private void closeManifest() {
+        if (manifest != null) {
+            try {
+                manifest.close();
+            } catch (IOException e) {
+                status.setError("Failed to write backup manifest '" +
+                        manifest.getManifestFile().getAbsolutePath() + "'.", e, log);
+            }
+            manifest = null;
+        }
+    }
+
+    /**
+     * Exports the repository using a pool of workers. The whole tree is streamed in path and name order, in which the
+     * children of each folder arrive as one contiguous block. Each block is handed to the workers in bounded
+     * batches, or as a whole for incremental exports since the backup directory cleanup needs all the children.
+     */
+    private void exportParallel(ItemInfo rootFolder, int workerThreads) {
+        ArtifactoryConcurrentExecutor executor = new ArtifactoryConcurrentExecutor(
+                "export-" + repo.getKey() + "-", workerThreads, workerThreads * 2);
+        ParallelExportVisitor visitor = new ParallelExportVisitor(executor, workerThreads * 2);
+        try {
+            getFileService().visitSubtree(rootFolder.getRepoPath(), visitor);
+            visitor.flush();
+        } catch (TaskInterruptedException e) {
+            status.setError("Export of " + repo.getKey() + " was stopped.", log);
+        } finally {
+            visitor.awaitCompletion();
+            executor.shutdown();
+        }
+        visitor.rethrowFailure();
+    }
+
     private void exportRecursive(ItemInfo sourceItem) {
         TaskService taskService = InternalContextHelper.get().getTaskService();
         //Check if we need to break/pause
@@ -100,11 +162,14 @@ public class DbRepoExportHandler extends DbExportBase {
             status.setError("Export of " + repo.getKey() + " was stopped.", log);
             return;
         }
+        exportItem(sourceItem, true);
+    }
 
+    private void exportItem(ItemInfo sourceItem, boolean recursive) {
         try {
             if (sourceItem.isFolder()) {
                 if (isStorableFolder(sourceItem.getName())) {
-                    exportFolder((FolderInfo) sourceItem);
+                    exportFolder((FolderInfo) sourceItem, recursive);
                 }
             } else {
                 if (isStorableFile(sourceItem.getName())) {
@@ -124,7 +189,7 @@ public class DbRepoExportHandler extends DbExportBase {
         }
     }
 
-    private void exportFolder(FolderInfo sourceFolder) throws IOException {
+    private void exportFolder(FolderInfo sourceFolder, boolean recursive) throws IOException {
         File targetDir = new File(settings.getBaseDir(), sourceFolder.getRelPath());
         status.setDebug("Exporting directory '" + sourceFolder.getRepoPath() + "'...", log);
         // Insure that the source folder still exists.
@@ -133,6 +198,17 @@ public class DbRepoExportHandler extends DbExportBase {
             log.info("Skipping folder export : '{}', the source folder doesn't exists.", sourceFolder.getRepoPath());
             return;
         }
+        if (manifest != null) {
+            // content addressed backup - folders are only listed in the manifest
+            manifest.write(createManifestEntry(sourceFolder));
+            accumulator.accumulateFolder();
+            if (recursive) {
+                for (ItemInfo child : getRepositoryService().getChildren(sourceFolder.getRepoPath())) {
+                    exportRecursive(child);
+                }
+            }
+            return;
+        }
         FileUtils.forceMkdir(targetDir);
 
         targetDir.setLastModified(sourceFolder.getLastModified());
@@ -143,19 +219,35 @@ public class DbRepoExportHandler extends DbExportBase {
 
         accumulator.accumulateFolder();
 
-        List<ItemInfo> children = getRepositoryService().getChildren(sourceFolder.getRepoPath());
-        for (ItemInfo child : children) {
-            exportRecursive(child);
-        }
+        if (recursive) {
+            List<ItemInfo> children = getRepositoryService().getChildren(sourceFolder.getRepoPath());
+            for (ItemInfo child : children) {
+                exportRecursive(child);
+            }
 
-        if (settings.isIncremental()) {
-            cleanupIncrementalBackupDirectory(sourceFolder, children, targetDir);
+            if (settings.isIncremental()) {
+                cleanupIncrementalBackupDirectory(sourceFolder.getRepoPath(), children, targetDir);
+            }
+        } else if (settings.isIncremental() && hasArtifacts(targetDir)
+                && !getFileService().hasChildren(sourceFolder.getRepoPath())) {
+            // an empty folder has no children block in the subtree stream, so it is cleaned here
+            cleanupIncrementalBackupDirectory(sourceFolder.getRepoPath(), Collections.<ItemInfo>emptyList(),
+                    targetDir);
         }
     }
 
+    private boolean hasArtifacts(File targetDir) {
+        File[] artifacts = targetDir.listFiles((FileFilter) new NotFileFilter(new MetadataFileFilter()));
+        return artifacts != null && artifacts.length > 0;
+    }
+
     //TORE: [by YS] this requires a nice refactoring
-    private void cleanupIncrementalBackupDirectory(FolderInfo sourceFolder, List<ItemInfo> currentFolderChildren,
+    private void cleanupIncrementalBackupDirectory(RepoPath sourceFolder, List<ItemInfo> currentFolderChildren,
             File targetDir) {
+        if (!targetDir.exists()) {
+            // nothing was exported to this folder yet
+            return;
+        }
 
         //Metadata File filter
         IOFileFilter metadataFilter = new MetadataFileFilter();
@@ -273,21 +365,21 @@ public class DbRepoExportHandler extends DbExportBase {
      * Locates metadata that was removed from the current target since last backup, but still remain in the backup
      * folder and clean them out.
      *
-     * @param currentFolderInfo   The folder info the cleanup is working with
+     * @param currentFolder       The repo path of the folder the cleanup is working with
      * @param targetMetadataFiles List of metadata files in the current target's metadata folder
      */
-    private void cleanTargetMetadata(FolderInfo currentFolderInfo, Collection<File> targetMetadataFiles) {
+    private void cleanTargetMetadata(RepoPath currentFolder, Collection<File> targetMetadataFiles) {
         for (File metadataFile : targetMetadataFiles) {
             if ((metadataFile != null) && metadataFile.isFile()) {
                 //Extract the metadata name from the metadata file name
                 String metadataName = PathUtils.stripExtension(metadataFile.getName());
                 boolean hasMetadata = false;
                 try {
-                    hasMetadata = hasMetadata(currentFolderInfo.getRepoPath(), metadataName);
+                    hasMetadata = hasMetadata(currentFolder, metadataName);
                 } catch (RepositoryRuntimeException e) {
                     // File may be deleted in the meantime, so this is just a warning
                     String message = String.format("Unable to determine whether %s is annotated by metadata of type " +
-                            "%s. Metadata entry not present!", currentFolderInfo.getRepoPath(), metadataName);
+                            "%s. Metadata entry not present!", currentFolder, metadataName);
                     status.setWarning(message, e, log);
                 }
                 //If the metadata container does not contain this metadata anymore
@@ -347,6 +439,113 @@ public class DbRepoExportHandler extends DbExportBase {
         }
     }
 
+    /**
+     * Receives the ordered subtree stream and hands the children blocks to the export workers. The number of batches
+     * in flight is bounded, so the reader waits for the workers instead of buffering the repository in memory.
+     */
+    private class ParallelExportVisitor implements Visitor<ItemInfo> {
+        private final ArtifactoryConcurrentExecutor executor;
+        private final Semaphore inFlight;
+        private final int maxInFlight;
+        private final int batchSize = ConstantValues.exportWorkerBatchSize.getInt();
+        private final AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        private String currentParentPath;
+        private List<ItemInfo> currentBatch = Lists.newArrayList();
+
+        private ParallelExportVisitor(ArtifactoryConcurrentExecutor executor, int maxInFlight) {
+            this.executor = executor;
+            this.maxInFlight = maxInFlight;
+            this.inFlight = new Semaphore(maxInFlight);
+        }
+
+        @Override
+        public void visit(ItemInfo item) {
+            String relPath = item.getRelPath();
+            if (relPath.isEmpty()) {
+                // the repository root is exported on its own
+                submit(Collections.singletonList(item), null);
+                return;
+            }
+            int lastSlash = relPath.lastIndexOf('/');
+            String parentPath = lastSlash < 0 ? "" : relPath.substring(0, lastSlash);
+            if (!parentPath.equals(currentParentPath)) {
+                flush();
+                checkStop();
+                currentParentPath = parentPath;
+            }
+            if (isUnderNonStorableFolder(parentPath)) {
+                return;
+            }
+            currentBatch.add(item);
+            if (!settings.isIncremental() && currentBatch.size() >= batchSize) {
+                submit(currentBatch, null);
+                currentBatch = Lists.newArrayList();
+            }
+        }
+
+        private void flush() {
+            if (currentParentPath != null && !currentBatch.isEmpty()) {
+                submit(currentBatch, settings.isIncremental() ? currentParentPath : null);
+                currentBatch = Lists.newArrayList();
+            }
+        }
+
+        private void checkStop() {
+            if (InternalContextHelper.get().getTaskService().pauseOrBreak()) {
+                throw new TaskInterruptedException();
+            }
+        }
+
+        private boolean isUnderNonStorableFolder(String parentPath) {
+            for (String folderName : PathUtils.getPathElements(parentPath)) {
+                if (!isStorableFolder(folderName)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * @param items            The items to export
+         * @param cleanupParentPath Relative path of the items parent to clean after the export, or null for no cleanup
+         */
+        private void submit(final List<ItemInfo> items, final String cleanupParentPath) {
+            rethrowFailure();
+            inFlight.acquireUninterruptibly();
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        for (ItemInfo item : items) {
+                            exportItem(item, false);
+                        }
+                        if (cleanupParentPath != null) {
+                            cleanupIncrementalBackupDirectory(new RepoPathImpl(repo.getKey(), cleanupParentPath),
+                                    items, new File(settings.getBaseDir(), cleanupParentPath));
+                        }
+                    } catch (RuntimeException e) {
+                        // fast fail status holders throw on errors
+                        failure.compareAndSet(null, e);
+                    } finally {
+                        inFlight.release();
+                    }
+                }
+            });
+        }
+
+        private void awaitCompletion() {
+            inFlight.acquireUninterruptibly(maxInFlight);
+            inFlight.release(maxInFlight);
+        }
+
+        private void rethrowFailure() {
+            RuntimeException e = failure.get();
+            if (e != null) {
+                throw e;
+            }
+        }
+    }
+
     private RepositoryService getRepositoryService() {
         return StorageContextHelper.get().getRepositoryService();
     }
@@ -26,7 +26,14 @@ import org.artifactory.addon.YumAddon;
 import org.artifactory.api.config.ImportSettingsImpl;
 import org.artifactory.api.context.ContextHelper;
 import org.artifactory.api.repo.exception.RepoRejectException;
+import org.artifactory.api.storage.StorageUnit;
+import org.artifactory.backup.BackupBlobStore;
+import org.artifactory.backup.BackupManifestEntry;
+import org.artifactory.backup.BackupManifestReader;
+import org.artifactory.backup.BackupManifestWriter;
+import org.artifactory.binstore.BinaryInfo;
 import org.artifactory.checksum.ChecksumType;
+import org.artifactory.common.ConstantValues;
 import org.artifactory.common.MutableStatusHolder;
 import org.artifactory.descriptor.repo.LocalRepoDescriptor;
 import org.artifactory.fs.FileInfo;
@@ -50,6 +57,8 @@ import org.artifactory.sapi.fs.MetadataReader;
 import org.artifactory.sapi.fs.MutableVfsFile;
 import org.artifactory.sapi.fs.MutableVfsFolder;
 import org.artifactory.sapi.fs.MutableVfsItem;
+import org.artifactory.sapi.fs.Visitor;
+import org.artifactory.schedule.ArtifactoryConcurrentExecutor;
 import org.artifactory.schedule.TaskService;
 import org.artifactory.security.AccessLogger;
 import org.artifactory.spring.InternalContextHelper;
@@ -77,8 +86,14 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
 
 import static org.artifactory.repo.db.importexport.ImportExportAccumulator.ProgressAccumulatorType.IMPORT;
 
@@ -90,12 +105,22 @@ import static org.artifactory.repo.db.importexport.ImportExportAccumulator.Progr
  */
 public class DbRepoImportHandler extends DbRepoImportExportBase {
     private static final Logger log = LoggerFactory.getLogger(DbRepoImportHandler.class);
-    private static final int MAX_ITEMS_PER_TRANSACTION = 1000;
     private final LocalRepo<? extends LocalRepoDescriptor> repo;
     private final ImportSettings settings;
+    private final int maxItemsPerTransaction = ConstantValues.importMaxItemsPerTransaction.getInt();
     private ImportExportAccumulator progressAccumulator;
     private MutableStatusHolder status;
     private TransactionStatus txStatus;
+    private int itemsInTransaction;
+    /**
+     * Workers preparing file imports (metadata reading and checksum calculation). Null for a serial import
+     */
+    private ArtifactoryConcurrentExecutor prepareExecutor;
+    /**
+     * Prepared file imports waiting for the writer, in walk order
+     */
+    private final Deque<FileImport> pendingFileImports = new ArrayDeque<>();
+    private int maxPendingFileImports;
 
     public DbRepoImportHandler(LocalRepo<? extends LocalRepoDescriptor> repo, ImportSettings settings) {
         this.repo = repo;
@@ -121,7 +146,15 @@ public class DbRepoImportHandler extends DbRepoImportExportBase {
         progressAccumulator = new ImportExportAccumulator(repo.getKey(), IMPORT);
         startTransaction();
         try {
-            importRecursive(fileSystemBaseDir, rootRepoPath);
+            File manifestFile = new File(fileSystemBaseDir, BackupManifestWriter.MANIFEST_FILE_NAME);
+            int workerThreads = ConstantValues.importWorkerThreads.getInt();
+            if (manifestFile.isFile()) {
+                importManifest(manifestFile, workerThreads);
+            } else if (workerThreads > 1) {
+                importParallel(fileSystemBaseDir, rootRepoPath, workerThreads);
+            } else {
+                importRecursive(fileSystemBaseDir, rootRepoPath);
+            }
         } finally {
             commitTransaction(txStatus);
         }
@@ -138,13 +171,162 @@ public class DbRepoImportHandler extends DbRepoImportExportBase {
         }
 
         status.setStatus(String.format("%s import finished: Items imported: %s (%s files %s folders). " +
-                "Duration: %s IPS: %s Target: '%s'",
+                "Duration: %s IPS: %s Content: %s (%s) Target: '%s'",
                 repo.getKey(), progressAccumulator.getItemsCount(), progressAccumulator.getFilesCount(),
                 progressAccumulator.getFoldersCount(),
-                progressAccumulator.getDurationString(), progressAccumulator.getItemsPerSecond(), fileSystemBaseDir),
+                progressAccumulator.getDurationString(), progressAccumulator.getItemsPerSecond(),
+                StorageUnit.toReadableString(progressAccumulator.getBytesCount()),
+                progressAccumulator.getBytesPerSecond(), fileSystemBaseDir),
                 log);
     }
 
+    /**
+     * Imports the repository as a pipeline: this thread walks the directory tree and writes the items, while a pool
+     * of workers reads the file metadata and streams the file content into the binary store. The nodes of the
+     * prepared files are then created by this thread only, in walk order and in the current transaction.
+     */
+    private void importParallel(File baseDir, RepoPath rootRepoPath, int workerThreads) {
+        startPrepareExecutor(workerThreads);
+        try {
+            importRecursive(baseDir, rootRepoPath);
+            writePendingFileImports(0);
+        } finally {
+            stopPrepareExecutor();
+        }
+    }
+
+    private void startPrepareExecutor(int workerThreads) {
+        prepareExecutor = new ArtifactoryConcurrentExecutor(
+                "import-" + repo.getKey() + "-", workerThreads, workerThreads * 2);
+        maxPendingFileImports = workerThreads * 2;
+    }
+
+    private void stopPrepareExecutor() {
+        for (FileImport pending : pendingFileImports) {
+            pending.preparation.cancel(false);
+        }
+        pendingFileImports.clear();
+        prepareExecutor.shutdown();
+        prepareExecutor = null;
+    }
+
+    /**
+     * Imports a repository exported by a content addressed backup: the items and their metadata are read from the
+     * repository manifest and the file content from the blobs directory shared by the backup runs. The blobs are
+     * streamed into the binary store by the same worker pipeline as the parallel import, skipping the blobs the
+     * binary store already holds.
+     */
+    private void importManifest(File manifestFile, int workerThreads) {
+        File blobsDir = BackupBlobStore.findBlobsDir(manifestFile.getParentFile());
+        if (blobsDir == null) {
+            status.setError("Cannot import " + repo.getKey() + ": no '" + BackupBlobStore.BLOBS_DIR_NAME +
+                    "' directory found for the content addressed backup manifest " + manifestFile + ".", log);
+            return;
+        }
+        status.setStatus("Importing " + repo.getKey() + " from content addressed backup manifest " +
+                manifestFile, log);
+        final BackupBlobStore blobStore = new BackupBlobStore(blobsDir);
+        if (workerThreads > 1) {
+            startPrepareExecutor(workerThreads);
+        }
+        try {
+            final TaskService taskService = InternalContextHelper.get().getTaskService();
+            BackupManifestReader.read(manifestFile, new Visitor<BackupManifestEntry>() {
+                private boolean stopped;
+
+                @Override
+                public void visit(BackupManifestEntry entry) {
+                    if (stopped) {
+                        return;
+                    }
+                    if (taskService.pauseOrBreak()) {
+                        status.setError("Import of " + repo.getKey() + " was stopped", log);
+                        stopped = true;
+                        return;
+                    }
+                    RepoPath target = InternalRepoPathFactory.create(repo.getKey(), entry.getPath());
+                    if (entry.isFolder()) {
+                        importManifestFolder(entry, target);
+                    } else {
+                        importManifestFile(entry, target, blobStore);
+                    }
+                }
+            });
+            if (prepareExecutor != null) {
+                writePendingFileImports(0);
+            }
+        } catch (IOException e) {
+            status.setError("Failed to read the backup manifest " + manifestFile + ".", e, log);
+        } finally {
+            if (prepareExecutor != null) {
+                stopPrepareExecutor();
+            }
+        }
+    }
+
+    private void importManifestFolder(BackupManifestEntry entry, RepoPath target) {
+        MutableVfsFolder mutableFolder = null;
+        try {
+            mutableFolder = repo.createOrGetFolder(target);
+            applyManifestEntry(entry, mutableFolder);
+            progressAccumulator.accumulateFolder();
+            itemWritten();
+        } catch (Exception e) {
+            status.setError("Failed to import folder '" + target + "' from the backup manifest.", e, log);
+            if (mutableFolder != null) {
+                mutableFolder.markError();
+            }
+        }
+    }
+
+    private void importManifestFile(BackupManifestEntry entry, RepoPath target, BackupBlobStore blobStore) {
+        log.debug("Importing '{}' from the backup manifest.", target);
+        if (!ChecksumType.sha1.isValid(entry.getSha1())) {
+            status.setError("Cannot import '" + target + "': invalid sha1 checksum '" + entry.getSha1() +
+                    "' in the backup manifest.", log);
+            return;
+        }
+        try {
+            StorageContextHelper.get().getRepositoryService().assertValidDeployPath(target, entry.getSize());
+        } catch (RepoRejectException e) {
+            status.setError("Artifact rejected: " + e.getMessage(), log);
+            return;
+        }
+        FileImport fileImport = new FileImport(blobStore.getBlobFile(entry.getSha1()), target);
+        fileImport.manifestEntry = entry;
+        fileImport.expectedSha1 = entry.getSha1();
+        fileImport.expectedMd5 = entry.getMd5();
+        fileImport.expectedLength = entry.getSize();
+        submitFileImport(fileImport);
+    }
+
+    /**
+     * Applies the times, users and properties recorded in the backup manifest to an imported item
+     */
+    private void applyManifestEntry(BackupManifestEntry entry, MutableVfsItem mutableItem) {
+        if (entry.getCreated() > 0) {
+            mutableItem.setCreated(entry.getCreated());
+        }
+        if (entry.getLastModified() > 0) {
+            mutableItem.setModified(entry.getLastModified());
+            mutableItem.setUpdated(entry.getLastModified());
+        }
+        if (entry.getCreatedBy() != null) {
+            mutableItem.setCreatedBy(entry.getCreatedBy());
+        }
+        if (entry.getModifiedBy() != null) {
+            mutableItem.setModifiedBy(entry.getModifiedBy());
+        }
+        Map<String, List<String>> entryProperties = entry.getProperties();
+        if (settings.isIncludeMetadata() && entryProperties != null && !entryProperties.isEmpty()) {
+            PropertiesImpl properties = new PropertiesImpl();
+            for (Map.Entry<String, List<String>> property : entryProperties.entrySet()) {
+                properties.putAll(property.getKey(), property.getValue());
+            }
+            mutableItem.setProperties(properties);
+        }
+    }
+
     private void importRecursive(final File fileToImport, final RepoPath target) {
         TaskService taskService = InternalContextHelper.get().getTaskService();
         if (taskService.pauseOrBreak()) {
@@ -152,13 +334,6 @@ public class DbRepoImportHandler extends DbRepoImportExportBase {
             return;
         }
 
-        if (progressAccumulator.getItemsCount() > 0 &&
-                progressAccumulator.getItemsCount() % MAX_ITEMS_PER_TRANSACTION == 0) {
-            log.debug("Committing transaction artifacts count: {}", progressAccumulator.getItemsCount());
-            commitTransaction(txStatus);
-            startTransaction();
-        }
-
         if (!fileToImport.exists()) {
             // skeleton import? looks for file metadata
             File fileInfoMetadata = new File(
@@ -215,18 +390,74 @@ public class DbRepoImportHandler extends DbRepoImportExportBase {
             status.setError("Artifact rejected: " + e.getMessage(), log);
             return;
         }
+        submitFileImport(new FileImport(fileToImport, target));
+    }
+
+    /**
+     * Prepares and writes a file import, by the prepare workers when the import is parallel
+     */
+    private void submitFileImport(final FileImport fileImport) {
+        if (prepareExecutor != null) {
+            // prepare the file by the workers and write it once its turn comes
+            writePendingFileImports(maxPendingFileImports - 1);
+            fileImport.preparation = new FutureTask<>(new Callable<FileImport>() {
+                @Override
+                public FileImport call() throws Exception {
+                    return prepareFileImport(fileImport);
+                }
+            });
+            prepareExecutor.execute(fileImport.preparation);
+            pendingFileImports.add(fileImport);
+            return;
+        }
+        try {
+            prepareFileImport(fileImport);
+        } catch (Exception e) {
+            status.setError("Could not import file '" + fileImport.sourceFile.getAbsolutePath() + "' into " +
+                    fileImport.target + ".", e, log);
+            return;
+        }
+        writeFileImport(fileImport);
+    }
+
+    /**
+     * Writes the oldest prepared file imports until no more than the given number of imports are pending
+     */
+    private void writePendingFileImports(int maxPending) {
+        while (pendingFileImports.size() > maxPending) {
+            FileImport fileImport = pendingFileImports.poll();
+            try {
+                fileImport.preparation.get();
+            } catch (ExecutionException e) {
+                status.setError("Could not import file '" + fileImport.sourceFile.getAbsolutePath() + "' into " +
+                        fileImport.target + ".", e.getCause(), log);
+                continue;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Import of " + repo.getKey() + " was interrupted", e);
+            }
+            writeFileImport(fileImport);
+        }
+    }
+
+    private void writeFileImport(FileImport fileImport) {
+        RepoPath target = fileImport.target;
         MutableVfsFile mutableFile = null;
         try {
             mutableFile = repo.createOrGetFile(target);
-            importFileFrom(fileToImport, mutableFile);
+            applyFileImport(fileImport, mutableFile);
 
-            context.beanForType(ImportInterceptors.class).afterImport(mutableFile, status);
+            StorageContextHelper.get().beanForType(ImportInterceptors.class).afterImport(mutableFile, status);
             log.debug("Imported '{}'.", target);
             AccessLogger.deployed(target);
             progressAccumulator.accumulateFile();
+            if (fileImport.contentAdded) {
+                progressAccumulator.accumulateBytes(mutableFile.length());
+            }
+            itemWritten();
         } catch (Exception e) {
-            status.setError("Could not import file '" + fileToImport.getAbsolutePath() + "' into " + target + ".",
-                    e, log);
+            status.setError("Could not import file '" + fileImport.sourceFile.getAbsolutePath() + "' into " +
+                    target + ".", e, log);
             // mark the mutable item in error and let the session manager handle it
             if (mutableFile != null) {
                 mutableFile.markError();
@@ -235,30 +466,38 @@ public class DbRepoImportHandler extends DbRepoImportExportBase {
     }
 
     public void importFileFrom(File sourceFile, MutableVfsFile mutableFile) throws IOException, RepoRejectException {
-        updateMutableFromImportedFile(sourceFile, mutableFile);
-
-        boolean fileInfoImported = false;
-        String expectedSha1 = null;
-        String expectedMd5 = null;
-        long expectedLength = -1L;
+        applyFileImport(prepareFileImport(new FileImport(sourceFile, mutableFile.getRepoPath())), mutableFile);
+    }
 
-        RepoPath targetRepoPath = mutableFile.getRepoPath();
+    /**
+     * Prepares a file for import without touching the repository tree: reads the file metadata and makes sure the
+     * file content is in the binary store. Safe to call concurrently for different files.
+     */
+    private FileImport prepareFileImport(FileImport fileImport) throws IOException {
+        File sourceFile = fileImport.sourceFile;
+        RepoPath targetRepoPath = fileImport.target;
+        if (fileImport.manifestEntry != null) {
+            return prepareManifestFileImport(fileImport);
+        }
         if (settings.isIncludeMetadata()) {
             List<MetadataEntryInfo> metadataEntries = getMetadataEntryInfos(sourceFile, status);
             FileInfo fileInfoToImport = (FileInfo) readItemInfoMetadata(
                     FileInfo.ROOT, sourceFile, targetRepoPath, metadataEntries);
             if (fileInfoToImport != null) {
-                mutableFile.fillInfo(fileInfoToImport);
-                expectedSha1 = fileInfoToImport.getSha1();
-                expectedMd5 = fileInfoToImport.getMd5();
-                expectedLength = fileInfoToImport.getSize();
-                fileInfoImported = true;
+                fileImport.fileInfo = fileInfoToImport;
+                fileImport.expectedSha1 = fileInfoToImport.getSha1();
+                fileImport.expectedMd5 = fileInfoToImport.getMd5();
+                fileImport.expectedLength = fileInfoToImport.getSize();
             }
-            importProperties(sourceFile, mutableFile, metadataEntries);
-            importWatches(sourceFile, mutableFile, metadataEntries);
-            importStats(sourceFile, mutableFile, metadataEntries);
+            fileImport.properties = (PropertiesInfo) readItemInfoMetadata(
+                    PropertiesInfo.ROOT, sourceFile, targetRepoPath, metadataEntries);
+            fileImport.watchers = (WatchersInfo) readItemInfoMetadata(
+                    WatchersInfo.ROOT, sourceFile, targetRepoPath, metadataEntries);
+            fileImport.stats = (StatsInfo) readItemInfoMetadata(
+                    StatsInfo.ROOT, sourceFile, targetRepoPath, metadataEntries);
         }
 
+        boolean fileInfoImported = fileImport.fileInfo != null;
         if (!fileInfoImported && !sourceFile.exists()) {
             throw new FileNotFoundException("Cannot import non existent file " + sourceFile.getAbsolutePath()
                     + " since metadata information was not found!");
@@ -266,21 +505,20 @@ public class DbRepoImportHandler extends DbRepoImportExportBase {
 
         if (!fileInfoImported) {
             // Couldn't import metadata, try to import client checksums from files (FILENAME.sha1, FILENAME.md5)
-            expectedLength = sourceFile.length();
+            fileImport.expectedLength = sourceFile.length();
             String sha1FileValue = getOriginalChecksumFromFile(sourceFile, ChecksumType.sha1);
             if (StringUtils.isNotBlank(sha1FileValue)) {
-                expectedSha1 = sha1FileValue;
-                mutableFile.setClientSha1(sha1FileValue);
+                fileImport.expectedSha1 = sha1FileValue;
+                fileImport.clientSha1 = sha1FileValue;
             }
             String md5FileValue = getOriginalChecksumFromFile(sourceFile, ChecksumType.md5);
             if (StringUtils.isNotBlank(md5FileValue)) {
-                expectedMd5 = md5FileValue;
-                mutableFile.setClientMd5(md5FileValue);
+                fileImport.expectedMd5 = md5FileValue;
+                fileImport.clientMd5 = md5FileValue;
             }
         }
 
-        //Stream the file directly into the storage
-        boolean usedFileInfoImportedChecksums = false;
+        String expectedSha1 = fileImport.expectedSha1;
         if (fileInfoImported && ChecksumType.sha1.isValid(expectedSha1)) {
             status.setDebug("Using metadata import for " + sourceFile, log);
             if (sourceFile.exists() && settings.isExcludeContent()) {
@@ -294,14 +532,88 @@ public class DbRepoImportHandler extends DbRepoImportExportBase {
                     }
                 }
             }
-            // Found file info in metadata : Try deploy by checksum
-            usedFileInfoImportedChecksums = mutableFile.useData(expectedSha1, expectedMd5, expectedLength);
-            if (usedFileInfoImportedChecksums) {
+            // Found file info in metadata : the binary is deployed by checksum when it is already known
+            fileImport.binary = getBinaryStore().findBinary(expectedSha1);
+            if (fileImport.binary != null) {
                 status.setDebug("Found existing binary in the filestore for " + expectedSha1, log);
             }
         }
 
-        if (!usedFileInfoImportedChecksums) {
+        if (fileImport.binary == null && sourceFile.exists()) {
+            //Stream the file directly into the storage
+            try (InputStream is = new BufferedInputStream(new FileInputStream(sourceFile))) {
+                fileImport.binary = getBinaryStore().addBinary(is);
+            }
+            fileImport.contentAdded = true;
+        }
+        return fileImport;
+    }
+
+    /**
+     * Makes sure the content of a file listed in a backup manifest is in the binary store. The blob is only read when
+     * the binary store doesn't already hold its checksum.
+     */
+    private FileImport prepareManifestFileImport(FileImport fileImport) throws IOException {
+        File blobFile = fileImport.sourceFile;
+        fileImport.binary = getBinaryStore().findBinary(fileImport.expectedSha1);
+        if (fileImport.binary == null) {
+            if (!blobFile.isFile()) {
+                throw new FileNotFoundException("Blob " + blobFile.getAbsolutePath() + " of " + fileImport.target +
+                        " is missing from the backup");
+            }
+            try (InputStream is = new BufferedInputStream(new FileInputStream(blobFile))) {
+                fileImport.binary = getBinaryStore().addBinary(is);
+            }
+            fileImport.contentAdded = true;
+        }
+        return fileImport;
+    }
+
+    /**
+     * Fills the mutable file from a prepared import. Must be called by the thread holding the import transaction.
+     */
+    private void applyFileImport(FileImport fileImport, MutableVfsFile mutableFile)
+            throws IOException, RepoRejectException {
+        File sourceFile = fileImport.sourceFile;
+        updateMutableFromImportedFile(sourceFile, mutableFile);
+        if (fileImport.fileInfo != null) {
+            mutableFile.fillInfo(fileImport.fileInfo);
+        }
+        if (fileImport.manifestEntry != null) {
+            applyManifestEntry(fileImport.manifestEntry, mutableFile);
+        }
+        if (fileImport.properties != null) {
+            mutableFile.setProperties(new PropertiesImpl(fileImport.properties));
+        }
+        if (fileImport.watchers != null) {
+            for (WatcherInfo watcherInfo : fileImport.watchers.getWatchers()) {
+                mutableFile.addWatch(watcherInfo);
+            }
+        }
+        if (fileImport.stats != null) {
+            mutableFile.setStats(fileImport.stats);
+        }
+        if (fileImport.clientSha1 != null) {
+            mutableFile.setClientSha1(fileImport.clientSha1);
+        }
+        if (fileImport.clientMd5 != null) {
+            mutableFile.setClientMd5(fileImport.clientMd5);
+        }
+
+        String expectedSha1 = fileImport.expectedSha1;
+        String expectedMd5 = fileImport.expectedMd5;
+        boolean usedChecksums;
+        BinaryInfo binary = fileImport.binary;
+        if (binary != null) {
+            usedChecksums = mutableFile.useData(binary.getSha1(), binary.getMd5(), binary.getLength());
+        } else if (fileImport.fileInfo != null && ChecksumType.sha1.isValid(expectedSha1)) {
+            // the binary might only exist in an external filestore
+            usedChecksums = mutableFile.useData(expectedSha1, expectedMd5, fileImport.expectedLength);
+        } else {
+            usedChecksums = false;
+        }
+
+        if (!usedChecksums) {
             if (!sourceFile.exists()) {
                 throw new FileNotFoundException(sourceFile.getAbsolutePath() + ": File doesn't exist and matching " +
                         "binary either doesn't exist of settings are not configured to use it");
@@ -311,6 +623,7 @@ public class DbRepoImportHandler extends DbRepoImportExportBase {
             }
         }
 
+        RepoPath targetRepoPath = mutableFile.getRepoPath();
         if (PathUtils.hasText(expectedSha1) && !mutableFile.getSha1().equals(expectedSha1)) {
             status.setWarning("Received file " + targetRepoPath + " with Checksum error on SHA1 " +
                     "actual=" + mutableFile.getSha1() + " expected=" + expectedSha1, log);
@@ -406,6 +719,7 @@ public class DbRepoImportHandler extends DbRepoImportExportBase {
                 }
                 folderExistAfterImport = true;
                 progressAccumulator.accumulateFolder();
+                itemWritten();
             } catch (Exception e) {
                 // Just log an error and continue - will not import children
                 String msg = "Failed to import folder " + sourceFolder.getAbsolutePath() + " into '" + target + "'.";
@@ -437,14 +751,6 @@ public class DbRepoImportHandler extends DbRepoImportExportBase {
         }
     }
 
-    private void importStats(File sourceFile, MutableVfsFile mutableFile, List<MetadataEntryInfo> metadataEntries) {
-        StatsInfo statsInfo = (StatsInfo) readItemInfoMetadata(
-                StatsInfo.ROOT, sourceFile, mutableFile.getRepoPath(), metadataEntries);
-        if (statsInfo != null) {
-            mutableFile.setStats(statsInfo);
-        }
-    }
-
     public MetadataReader findBestMatchMetadataReader(ImportSettings importSettings, File metadataFolder) {
         ImportSettingsImpl settings = (ImportSettingsImpl) importSettings;
         MetadataReader metadataReader = settings.getMetadataReader();
@@ -464,6 +770,19 @@ public class DbRepoImportHandler extends DbRepoImportExportBase {
         return InternalContextHelper.get().getAuthorizationService().currentUsername();
     }
 
+    /**
+     * Commits the import transaction once it holds the maximum number of items
+     */
+    private void itemWritten() {
+        itemsInTransaction++;
+        if (itemsInTransaction >= maxItemsPerTransaction) {
+            log.debug("Committing transaction artifacts count: {}", progressAccumulator.getItemsCount());
+            commitTransaction(txStatus);
+            startTransaction();
+            itemsInTransaction = 0;
+        }
+    }
+
     private void startTransaction() {
         DefaultTransactionDefinition def = new DefaultTransactionDefinition();
         def.setName("ImportTransaction");
@@ -479,4 +798,30 @@ public class DbRepoImportHandler extends DbRepoImportExportBase {
     private AbstractPlatformTransactionManager getTransactionManager() {
         return (AbstractPlatformTransactionManager) ContextHelper.get().getBean("artifactoryTransactionManager");
     }
+
+    /**
+     * A file import prepared by {@link #prepareFileImport(FileImport)}
+     */
+    private static class FileImport {
+        private final File sourceFile;
+        private final RepoPath target;
+        private FutureTask<FileImport> preparation;
+        private FileInfo fileInfo;
+        private PropertiesInfo properties;
+        private WatchersInfo watchers;
+        private StatsInfo stats;
+        private BackupManifestEntry manifestEntry;
+        private String expectedSha1;
+        private String expectedMd5;
+        private long expectedLength = -1L;
+        private String clientSha1;
+        private String clientMd5;
+        private BinaryInfo binary;
+        private boolean contentAdded;
+
+        private FileImport(File sourceFile, RepoPath target) {
+            this.sourceFile = sourceFile;
+            this.target = target;
+        }
+    }
 }
@@ -18,6 +18,7 @@
 
 package org.artifactory.repo.db.importexport;
 
+import org.artifactory.api.storage.StorageUnit;
 import org.artifactory.util.TimeUnitFormat;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -25,9 +26,11 @@ import org.slf4j.LoggerFactory;
 import javax.annotation.Nonnull;
 import java.text.DecimalFormat;
 import java.text.NumberFormat;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
- * Progress notifier, logs out import export progress.
+ * Progress notifier, logs out import export progress. Safe to use from multiple worker threads.
  *
  * @author Gidi Shabat
  */
@@ -45,8 +48,9 @@ public class ImportExportAccumulator {
     private final long startTime;
     private long endTime;
 
-    private int filesCount = 0;
-    private int foldersCount = 0;
+    private final AtomicInteger filesCount = new AtomicInteger();
+    private final AtomicInteger foldersCount = new AtomicInteger();
+    private final AtomicLong bytesCount = new AtomicLong();
 
     public ImportExportAccumulator(String repositoryKey, @Nonnull ProgressAccumulatorType type) {
         this.emitMessageValueEvery = ProgressAccumulatorType.EXPORT.equals(type) ? 3000 : 1000;
@@ -56,12 +60,19 @@ public class ImportExportAccumulator {
     }
 
     public void accumulateFile() {
-        filesCount++;
+        filesCount.incrementAndGet();
         printProgress();
     }
 
+    /**
+     * Accumulates the size of file content that was actually read or written, excluding content that was reused
+     */
+    public void accumulateBytes(long bytes) {
+        bytesCount.addAndGet(bytes);
+    }
+
     public void accumulateFolder() {
-        foldersCount++;
+        foldersCount.incrementAndGet();
         printProgress();
     }
 
@@ -70,6 +81,8 @@ public class ImportExportAccumulator {
     }
 
     private void printProgress() {
+        int filesCount = getFilesCount();
+        int foldersCount = getFoldersCount();
         int totalItemsCount = filesCount + foldersCount;
         if (totalItemsCount % emitMessageValueEvery == 0) {
             boolean exportProcess = ProgressAccumulatorType.EXPORT.equals(type);
@@ -77,8 +90,8 @@ public class ImportExportAccumulator {
                 log.info("{} exported {} items ({} files {} folders {} ips) ...", repositoryKey,
                         totalItemsCount, filesCount, foldersCount, getItemsPerSecond());
             } else {
-                log.info("{} imported {} items ({} files {} folders {} ips) ...", repositoryKey,
-                        totalItemsCount, filesCount, foldersCount, getItemsPerSecond());
+                log.info("{} imported {} items ({} files {} folders {} ips {}) ...", repositoryKey,
+                        totalItemsCount, filesCount, foldersCount, getItemsPerSecond(), getBytesPerSecond());
             }
         }
     }
@@ -88,11 +101,15 @@ public class ImportExportAccumulator {
     }
 
     public int getFilesCount() {
-        return filesCount;
+        return filesCount.get();
     }
 
     public int getFoldersCount() {
-        return foldersCount;
+        return foldersCount.get();
+    }
+
+    public long getBytesCount() {
+        return bytesCount.get();
     }
 
     public String getDurationString() {
@@ -105,10 +122,18 @@ public class ImportExportAccumulator {
     public String getItemsPerSecond() {
         long duration = getDurationNanos();
         double durationSecs = duration / 1_000_000_000.0;
-        double itemsPerSecond = (filesCount + foldersCount) / durationSecs;
+        double itemsPerSecond = getItemsCount() / durationSecs;
         return numberFormat.format(itemsPerSecond);
     }
 
+    /**
+     * @return A human readable string of the content throughput per second
+     */
+    public String getBytesPerSecond() {
+        double durationSecs = getDurationNanos() / 1_000_000_000.0;
+        return StorageUnit.toReadableString((long) (getBytesCount() / durationSecs)) + "/s";
+    }
+
     private long getDurationNanos() {
         return endTime > 0 ? endTime - startTime : System.nanoTime() - startTime;
     }
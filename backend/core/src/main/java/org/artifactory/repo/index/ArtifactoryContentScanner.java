@@ -33,8 +33,6 @@ import org.slf4j.LoggerFactory;
 import java.io.File;
 import java.util.Arrays;
 import java.util.Comparator;
-import java.util.Set;
-import java.util.TreeSet;
 
 /**
  * A repository scanner to scan the content of a single repository.
@@ -75,11 +73,10 @@ public class ArtifactoryContentScanner extends AbstractLogEnabled implements Sca
             return;
         }
 
-        Set<File> files = new TreeSet<File>(new ScannerFileComparator());
+        //Names are unique within a directory, so sorting the listed array in place is enough
+        Arrays.sort(fileArray, new ScannerFileComparator());
 
-        files.addAll(Arrays.asList(fileArray));
-
-        for (File file : files) {
+        for (File file : fileArray) {
             if (file.isDirectory()) {
                 scanDirectory(file, request);
             } else {
@@ -0,0 +1,188 @@
+/*
+ * Artifactory is a binaries repository manager.
+ * Copyright (C) 2012 JFrog Ltd.
+ *
+ * Artifactory is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Artifactory is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Artifactory.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.artifactory.repo.index;
+
+import com.google.common.collect.Maps;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.maven.index.ArtifactAvailablility;
+import org.apache.maven.index.ArtifactContext;
+import org.apache.maven.index.ArtifactInfo;
+import org.apache.maven.index.DefaultIndexerEngine;
+import org.apache.maven.index.context.IndexingContext;
+import org.apache.maven.index.locator.Locator;
+import org.artifactory.repo.index.locator.ExtensionBasedLocator;
+
+import javax.annotation.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Date;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * An indexer engine that skips the artifacts whose file was not modified since they were last indexed.
+ * <p/>
+ * Used for update scans of a context seeded with the previously published index: only new and modified artifacts
+ * have their content (pom, jar entries, plugin descriptors) read again. Deleted artifacts are removed by the
+ * {@link IncrementalScannerListener}.
+ * <p/>
+ * An artifact is indexed again when its file or its pom changed, or when the presence of its companion files (sources,
+ * javadoc, signature) differs from the indexed one. Companions often arrive after the artifact, for example when they
+ * are cached by a remote repository.
+ */
+class IncrementalIndexerEngine extends DefaultIndexerEngine {
+    private static final Pattern INFO_SEPARATOR = Pattern.compile("\\|");
+    // Positions in the artifact info field, as written by the minimal artifact info creator
+    private static final int LAST_MODIFIED_INDEX = 1;
+    private static final int SOURCES_INDEX = 3;
+    private static final int JAVADOC_INDEX = 4;
+    private static final int SIGNATURE_INDEX = 5;
+
+    // Same companions the minimal artifact info creator looks for
+    private final Locator sourcesLocator = new ExtensionBasedLocator("-sources.jar");
+    private final Locator javadocLocator = new ExtensionBasedLocator("-javadoc.jar");
+    private final Locator signatureLocator = new ExtensionBasedLocator(".jar.asc");
+
+    /**
+     * Indexed artifact info field of each artifact, by artifact uinfo
+     */
+    private final Map<String, String> indexedInfos;
+    /**
+     * Time the seeded index was published, null if unknown
+     */
+    private final Date indexedTimestamp;
+    private int skippedCount;
+
+    IncrementalIndexerEngine(Map<String, String> indexedInfos, @Nullable Date indexedTimestamp) {
+        this.indexedInfos = indexedInfos;
+        this.indexedTimestamp = indexedTimestamp;
+    }
+
+    /**
+     * Reads the artifact info field of each artifact document of the context.
+     */
+    static Map<String, String> readIndexedInfos(IndexingContext context) throws IOException {
+        Map<String, String> indexedInfos = Maps.newHashMap();
+        IndexSearcher searcher = context.acquireIndexSearcher();
+        try {
+            IndexReader reader = searcher.getIndexReader();
+            int maxDoc = reader.maxDoc();
+            for (int i = 0; i < maxDoc; i++) {
+                if (reader.isDeleted(i)) {
+                    continue;
+                }
+                Document document = reader.document(i);
+                String info = document.get(ArtifactInfo.INFO);
+                String uinfo = document.get(ArtifactInfo.UINFO);
+                if (uinfo != null && info != null) {
+                    indexedInfos.put(uinfo, info);
+                }
+            }
+        } finally {
+            context.releaseIndexSearcher(searcher);
+        }
+        return indexedInfos;
+    }
+
+    /**
+     * @return The last modified time of the indexed file, the second element of the artifact info field
+     */
+    static Long parseLastModified(String info) {
+        if (info == null) {
+            return null;
+        }
+        String[] elements = INFO_SEPARATOR.split(info);
+        if (elements.length <= LAST_MODIFIED_INDEX) {
+            return null;
+        }
+        try {
+            return Long.parseLong(elements[LAST_MODIFIED_INDEX]);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public void update(IndexingContext context, ArtifactContext ac) throws IOException {
+        if (isUnchanged(ac)) {
+            skippedCount++;
+            return;
+        }
+        super.update(context, ac);
+    }
+
+    boolean isUnchanged(ArtifactContext ac) {
+        String info = indexedInfos.get(ac.getArtifactInfo().getUinfo());
+        Long lastModified = parseLastModified(info);
+        if (lastModified == null) {
+            return false;
+        }
+        // Same file the minimal creator takes the last modified time from
+        File artifact = ac.getArtifact();
+        File pom = ac.getPom();
+        File file = artifact != null ? artifact : pom;
+        if (file == null || file.lastModified() != lastModified) {
+            return false;
+        }
+        if (artifact != null && pom != null) {
+            // The indexed time is the artifact's, a pom edited under an unchanged artifact is newer than the index
+            long indexedTime = indexedTimestamp != null ? indexedTimestamp.getTime() : lastModified;
+            if (pom.lastModified() > indexedTime) {
+                return false;
+            }
+        }
+        ArtifactAvailablility sources = null;
+        ArtifactAvailablility javadoc = null;
+        if (pom != null && ac.getArtifactInfo().classifier == null) {
+            sources = availability(sourcesLocator.locate(pom));
+            javadoc = availability(javadocLocator.locate(pom));
+        }
+        ArtifactAvailablility signature = artifact != null ? availability(signatureLocator.locate(artifact)) : null;
+        return isCompanionsUnchanged(info, sources, javadoc, signature);
+    }
+
+    /**
+     * @return True if the companions availability in the artifact info field is the same as the current one. A null
+     *         availability is not compared, the indexer does not look for that companion
+     */
+    static boolean isCompanionsUnchanged(String info, @Nullable ArtifactAvailablility sources,
+            @Nullable ArtifactAvailablility javadoc, @Nullable ArtifactAvailablility signature) {
+        String[] elements = INFO_SEPARATOR.split(info);
+        if (elements.length <= SIGNATURE_INDEX) {
+            return false;
+        }
+        return isSameAvailability(elements[SOURCES_INDEX], sources)
+                && isSameAvailability(elements[JAVADOC_INDEX], javadoc)
+                && isSameAvailability(elements[SIGNATURE_INDEX], signature);
+    }
+
+    private static boolean isSameAvailability(String indexed, @Nullable ArtifactAvailablility current) {
+        return current == null || current.toString().equals(indexed);
+    }
+
+    private static ArtifactAvailablility availability(File companion) {
+        return companion.exists() ? ArtifactAvailablility.PRESENT : ArtifactAvailablility.NOT_PRESENT;
+    }
+
+    int getSkippedCount() {
+        return skippedCount;
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * Artifactory is a binaries repository manager.
+ * Copyright (C) 2012 JFrog Ltd.
+ *
+ * Artifactory is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Artifactory is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Artifactory.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.artifactory.repo.index;
+
+import com.google.common.collect.Sets;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.maven.index.ArtifactContext;
+import org.apache.maven.index.ArtifactInfo;
+import org.apache.maven.index.ArtifactScanningListener;
+import org.apache.maven.index.IndexerEngine;
+import org.apache.maven.index.ScanningResult;
+import org.apache.maven.index.context.IndexingContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * A scanner listener that passes every discovered artifact to the indexer engine and removes the indexed artifacts
+ * that were not discovered.
+ * <p/>
+ * The update mode of {@link org.apache.maven.index.DefaultScannerListener} never hands an artifact that is already in
+ * the index to the engine, so a context seeded with the published index would keep the old content of modified
+ * artifacts. Here the engine decides which artifacts are indexed again.
+ */
+class IncrementalScannerListener implements ArtifactScanningListener {
+    private static final Logger log = LoggerFactory.getLogger(IncrementalScannerListener.class);
+
+    private final IndexingContext context;
+    private final IndexerEngine indexerEngine;
+    private final ArtifactScanningListener listener;
+    /**
+     * Uinfos of the indexed artifacts that were not discovered yet
+     */
+    private final Set<String> undiscoveredUinfos = Sets.newHashSet();
+    private final Set<String> processedUinfos = Sets.newHashSet();
+    private final Set<String> allGroups = Sets.newHashSet();
+    private final Set<String> rootGroups = Sets.newHashSet();
+    private int count;
+
+    IncrementalScannerListener(IndexingContext context, IndexerEngine indexerEngine,
+            ArtifactScanningListener listener) {
+        this.context = context;
+        this.indexerEngine = indexerEngine;
+        this.listener = listener;
+    }
+
+    @Override
+    public void scanningStarted(IndexingContext ctx) {
+        try {
+            readIndexedUinfos();
+        } catch (IOException e) {
+            throw new RuntimeException("Could not read the indexed artifacts of " + ctx.getId() + ".", e);
+        }
+        listener.scanningStarted(ctx);
+    }
+
+    @Override
+    public void artifactDiscovered(ArtifactContext ac) {
+        String uinfo = ac.getArtifactInfo().getUinfo();
+        if (!processedUinfos.add(uinfo)) {
+            //Already processed through its pom or main artifact
+            return;
+        }
+        undiscoveredUinfos.remove(uinfo);
+        count++;
+        listener.artifactDiscovered(ac);
+        try {
+            indexerEngine.update(context, ac);
+        } catch (IOException e) {
+            ac.addError(e);
+        }
+        for (Exception error : ac.getErrors()) {
+            listener.artifactError(ac, error);
+        }
+        rootGroups.add(ac.getArtifactInfo().getRootGroup());
+        allGroups.add(ac.getArtifactInfo().groupId);
+    }
+
+    @Override
+    public void scanningFinished(IndexingContext ctx, ScanningResult result) {
+        result.setTotalFiles(count);
+        try {
+            removeUndiscoveredArtifacts();
+            result.setDeletedFiles(undiscoveredUinfos.size());
+            context.setRootGroups(rootGroups);
+            context.setAllGroups(allGroups);
+            context.commit();
+            context.optimize();
+        } catch (IOException e) {
+            result.addException(e);
+        }
+        listener.scanningFinished(ctx, result);
+    }
+
+    @Override
+    public void artifactError(ArtifactContext ac, Exception e) {
+        listener.artifactError(ac, e);
+    }
+
+    private void readIndexedUinfos() throws IOException {
+        IndexSearcher searcher = context.acquireIndexSearcher();
+        try {
+            IndexReader reader = searcher.getIndexReader();
+            int maxDoc = reader.maxDoc();
+            for (int i = 0; i < maxDoc; i++) {
+                if (reader.isDeleted(i)) {
+                    continue;
+                }
+                Document document = reader.document(i);
+                String uinfo = document.get(ArtifactInfo.UINFO);
+                if (uinfo != null) {
+                    undiscoveredUinfos.add(uinfo);
+                }
+            }
+        } finally {
+            context.releaseIndexSearcher(searcher);
+        }
+    }
+
+    /**
+     * Removes the artifacts that are no longer in the repository, leaving a deletion marker for the incremental chunk
+     */
+    private void removeUndiscoveredArtifacts() throws IOException {
+        for (String uinfo : undiscoveredUinfos) {
+            log.trace("Removing deleted artifact '{}' from the index of '{}'.", uinfo, context.getRepositoryId());
+            String[] elements = ArtifactInfo.FS_PATTERN.split(uinfo);
+            ArtifactInfo ai = new ArtifactInfo();
+            ai.repository = context.getRepositoryId();
+            ai.groupId = elements[0];
+            ai.artifactId = elements[1];
+            ai.version = elements[2];
+            if (elements.length > 3) {
+                ai.classifier = ArtifactInfo.renvl(elements[3]);
+            }
+            if (elements.length > 4) {
+                ai.fextension = ArtifactInfo.renvl(elements[4]);
+            }
+            indexerEngine.remove(context, new ArtifactContext(null, null, null, ai, null));
+        }
+    }
+}
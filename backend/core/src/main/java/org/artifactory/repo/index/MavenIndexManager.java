@@ -40,7 +40,6 @@ import org.artifactory.schedule.TaskInterruptedException;
 import org.artifactory.schedule.TaskUtils;
 import org.artifactory.spring.InternalContextHelper;
 import org.artifactory.util.ExceptionUtils;
-import org.artifactory.util.Pair;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -48,7 +47,10 @@ import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Collections;
 import java.util.Date;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * @author freds
@@ -61,6 +63,8 @@ public class MavenIndexManager {
     StoringRepo indexStorageRepo;
     ResourceStreamHandle indexHandle;
     ResourceStreamHandle propertiesHandle;
+    Map<String, ? extends ResourceStreamHandle> chunkHandles = Collections.emptyMap();
+    Set<String> obsoleteChunks = Collections.emptySet();
     IndexStatus indexStatus = IndexStatus.NOT_CREATED;
 
     private enum IndexStatus {
@@ -78,11 +82,9 @@ public class MavenIndexManager {
     /**
      * Used for virtual repo merged index, where there's no need to compute the index (scan)
      */
-    public MavenIndexManager(
-            StoringRepo indexStorageRepo, ResourceStreamHandle indexHandle, ResourceStreamHandle propertiesHandle) {
+    MavenIndexManager(StoringRepo indexStorageRepo, RepoIndexFiles indexFiles) {
         this.indexStorageRepo = indexStorageRepo;
-        this.indexHandle = indexHandle;
-        this.propertiesHandle = propertiesHandle;
+        setIndexFiles(indexFiles);
         indexedRepo = null;
         indexStatus = IndexStatus.NEEDS_SAVING;
     }
@@ -214,9 +216,18 @@ public class MavenIndexManager {
         return indexGzDoesntExist || indexPropertiesDontExist;
     }
 
+    private void setIndexFiles(RepoIndexFiles indexFiles) {
+        indexHandle = indexFiles.getIndexHandle();
+        propertiesHandle = indexFiles.getPropertiesHandle();
+        chunkHandles = indexFiles.getChunkHandles();
+        obsoleteChunks = indexFiles.getObsoleteChunks();
+    }
+
     private void abort() {
         indexHandle = null;
         propertiesHandle = null;
+        chunkHandles = Collections.emptyMap();
+        obsoleteChunks = Collections.emptySet();
         indexStatus = IndexStatus.ABORTED;
     }
 
@@ -236,9 +247,7 @@ public class MavenIndexManager {
         log.debug("Creating index files for {}", indexedRepo);
         RepoIndexer repoIndexer = new RepoIndexer(indexStorageRepo);
         try {
-            Pair<TempFileStreamHandle, TempFileStreamHandle> tempFileStreamHandlesPair = repoIndexer.index(fireTime);
-            indexHandle = tempFileStreamHandlesPair.getFirst();
-            propertiesHandle = tempFileStreamHandlesPair.getSecond();
+            setIndexFiles(repoIndexer.index(fireTime));
             indexStatus = IndexStatus.NEEDS_SAVING;
             log.debug("Created index files for {}", indexedRepo);
         } catch (Exception e) {
@@ -282,6 +291,18 @@ public class MavenIndexManager {
             InputStream propertiesInputStream = propertiesHandle.getInputStream();
             repoService.saveFileInternal(indexPropsRepoPath, propertiesInputStream);
 
+            // save the new incremental chunks and remove the ones no longer listed in the properties
+            for (Map.Entry<String, ? extends ResourceStreamHandle> chunk : chunkHandles.entrySet()) {
+                RepoPath chunkRepoPath = new RepoPathImpl(indexFolderRepoPath, chunk.getKey());
+                repoService.saveFileInternal(chunkRepoPath, chunk.getValue().getInputStream());
+            }
+            for (String obsoleteChunk : obsoleteChunks) {
+                RepoPath chunkRepoPath = new RepoPathImpl(indexFolderRepoPath, obsoleteChunk);
+                if (indexStorageRepo.itemExists(chunkRepoPath.getPath())) {
+                    indexStorageRepo.undeploy(chunkRepoPath, false);
+                }
+            }
+
             log.info("Successfully saved index file '{}' and index info '{}'.",
                     indexGzRepoPath, indexPropsRepoPath);
             log.debug("Saved index file for {}", indexStorageRepo);
@@ -302,6 +323,9 @@ public class MavenIndexManager {
         if (propertiesHandle != null) {
             propertiesHandle.close();
         }
+        for (ResourceStreamHandle chunkHandle : chunkHandles.values()) {
+            chunkHandle.close();
+        }
     }
 
     private boolean shouldFetchRemoteIndex(RemoteRepo remoteRepo) {
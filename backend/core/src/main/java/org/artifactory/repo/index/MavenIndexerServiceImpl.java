@@ -26,20 +26,20 @@ import org.apache.lucene.store.FSDirectory;
 import org.artifactory.api.config.CentralConfigService;
 import org.artifactory.api.context.ContextHelper;
 import org.artifactory.common.ArtifactoryHome;
+import org.artifactory.common.ConstantValues;
 import org.artifactory.common.MutableStatusHolder;
 import org.artifactory.descriptor.config.CentralConfigDescriptor;
 import org.artifactory.descriptor.index.IndexerDescriptor;
 import org.artifactory.descriptor.repo.RepoBaseDescriptor;
 import org.artifactory.descriptor.repo.RepoDescriptor;
 import org.artifactory.descriptor.repo.VirtualRepoDescriptor;
-import org.artifactory.io.TempFileStreamHandle;
 import org.artifactory.repo.LocalRepo;
 import org.artifactory.repo.RealRepo;
 import org.artifactory.repo.RemoteRepo;
 import org.artifactory.repo.StoringRepo;
 import org.artifactory.repo.service.InternalRepositoryService;
 import org.artifactory.repo.virtual.VirtualRepo;
-import org.artifactory.resource.ResourceStreamHandle;
+import org.artifactory.schedule.ArtifactoryConcurrentExecutor;
 import org.artifactory.schedule.BaseTaskServiceDescriptorHandler;
 import org.artifactory.schedule.JobCommand;
 import org.artifactory.schedule.Task;
@@ -52,7 +52,6 @@ import org.artifactory.spring.InternalContextHelper;
 import org.artifactory.spring.Reloadable;
 import org.artifactory.util.ExceptionUtils;
 import org.artifactory.util.Files;
-import org.artifactory.util.Pair;
 import org.artifactory.version.CompoundVersionDetails;
 import org.quartz.JobExecutionContext;
 import org.slf4j.Logger;
@@ -65,6 +64,8 @@ import javax.annotation.Nullable;
 import java.io.File;
 import java.net.SocketTimeoutException;
 import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * @author Yoav Landman
@@ -239,37 +240,90 @@ public class MavenIndexerServiceImpl implements InternalMavenIndexerService {
         List<RealRepo> indexedRepos = getNonVirtualRepositoriesToIndex(excludedRepositories);
         log.info("Non virtual repositories to index: {}", indexedRepos);
         //Do the indexing work
-        for (RealRepo indexedRepo : indexedRepos) {
-            //Check if we need to stop/suspend
+        if (!indexRepositories(indexedRepos, settings)) {
+            log.info("Stopped indexing on demand");
+            return;
+        }
+        getTransactionalMe().mergeVirtualRepoIndexes(excludedRepositories, indexedRepos);
+        log.info("Finished repositories indexing...");
+    }
+
+    /**
+     * Indexes the given repositories, several at a time according to the configured number of indexer threads.
+     *
+     * @return False if the indexing was stopped before all the repositories were indexed
+     */
+    private boolean indexRepositories(List<RealRepo> indexedRepos, final MavenIndexerRunSettings settings) {
+        int threads = Math.min(ConstantValues.mvnIndexerThreads.getInt(), indexedRepos.size());
+        if (threads <= 1) {
+            for (RealRepo indexedRepo : indexedRepos) {
+                if (!indexRepository(indexedRepo, settings)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        //The worker threads are created by the indexer job thread and inherit its task, so they can pause or break
+        ArtifactoryConcurrentExecutor executor = new ArtifactoryConcurrentExecutor("mvn-indexer-", threads,
+                indexedRepos.size());
+        final CountDownLatch indexed = new CountDownLatch(indexedRepos.size());
+        final AtomicBoolean stopped = new AtomicBoolean();
+        try {
+            for (final RealRepo indexedRepo : indexedRepos) {
+                executor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            if (!stopped.get() && !indexRepository(indexedRepo, settings)) {
+                                stopped.set(true);
+                            }
+                        } finally {
+                            indexed.countDown();
+                        }
+                    }
+                });
+            }
+            indexed.await();
+        } catch (InterruptedException e) {
+            log.warn("Interrupted while indexing repositories");
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            executor.shutdown();
+        }
+        return !stopped.get();
+    }
+
+    /**
+     * @return False if the indexing was stopped on demand
+     */
+    private boolean indexRepository(RealRepo indexedRepo, MavenIndexerRunSettings settings) {
+        //Check if we need to stop/suspend
+        if (taskService.pauseOrBreak()) {
+            return false;
+        }
+        MavenIndexManager mavenIndexManager = new MavenIndexManager(indexedRepo);
+        try {
+            //Execute separate tasks in order to have shorter transactions - can be done in a more elegant way...
+            findOrCreateRepositoryIndex(settings.getFireTime(), settings.isForceRemoteDownload(),
+                    mavenIndexManager);
+            //Check again if we need to stop/suspend
             if (taskService.pauseOrBreak()) {
-                log.info("Stopped indexing on demand");
-                return;
+                return false;
             }
-            MavenIndexManager mavenIndexManager = new MavenIndexManager(indexedRepo);
-            try {
-                //Execute separate tasks in order to have shorter transactions - can be done in a more elegant way...
-                findOrCreateRepositoryIndex(settings.getFireTime(), settings.isForceRemoteDownload(),
-                        mavenIndexManager);
-                //Check again if we need to stop/suspend
-                if (taskService.pauseOrBreak()) {
-                    log.info("Stopped indexing on demand");
-                    return;
-                }
-                saveIndex(mavenIndexManager);
-            } catch (Exception e) {
-                //If we failed to index because of a socket timeout, issue a terse warning instead of a complete stack
-                //trace
-                Throwable cause = ExceptionUtils.getCauseOfTypes(e, SocketTimeoutException.class);
-                if (cause != null) {
-                    log.warn("Indexing for repo '" + indexedRepo.getKey() + "' failed: " + e.getMessage() + ".");
-                } else {
-                    //Just report - don't stop indexing of other repos
-                    log.error("Indexing for repo '" + indexedRepo.getKey() + "' failed.", e);
-                }
+            saveIndex(mavenIndexManager);
+        } catch (Exception e) {
+            //If we failed to index because of a socket timeout, issue a terse warning instead of a complete stack
+            //trace
+            Throwable cause = ExceptionUtils.getCauseOfTypes(e, SocketTimeoutException.class);
+            if (cause != null) {
+                log.warn("Indexing for repo '" + indexedRepo.getKey() + "' failed: " + e.getMessage() + ".");
+            } else {
+                //Just report - don't stop indexing of other repos
+                log.error("Indexing for repo '" + indexedRepo.getKey() + "' failed.", e);
             }
         }
-        getTransactionalMe().mergeVirtualRepoIndexes(excludedRepositories, indexedRepos);
-        log.info("Finished repositories indexing...");
+        return true;
     }
 
     private Set<? extends RepoDescriptor> calcSpecificRepoForIndexing(@Nullable final List<String> repoKeys) {
@@ -382,13 +436,8 @@ public class MavenIndexerServiceImpl implements InternalMavenIndexerService {
                     }
                     //Store the index into the virtual repo
                     //Get the last gz and props and store them - we need to return them or create them from the dir
-                    Pair<TempFileStreamHandle, TempFileStreamHandle> tempFileStreamHandlesPair = indexer.createIndex(
-                            dir,
-                            false);
-                    ResourceStreamHandle indexHandle = tempFileStreamHandlesPair.getFirst();
-                    ResourceStreamHandle properties = tempFileStreamHandlesPair.getSecond();
-                    MavenIndexManager mavenIndexManager =
-                            new MavenIndexManager(indexer.getRepo(), indexHandle, properties);
+                    RepoIndexFiles indexFiles = indexer.createIndex(dir, false, false);
+                    MavenIndexManager mavenIndexManager = new MavenIndexManager(indexer.getRepo(), indexFiles);
                     mavenIndexManager.saveIndexFiles();
                 } finally {
                     if (indexer != null) {
@@ -0,0 +1,77 @@
+/*
+ * Artifactory is a binaries repository manager.
+ * Copyright (C) 2012 JFrog Ltd.
+ *
+ * Artifactory is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Artifactory is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Artifactory.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.artifactory.repo.index;
+
+import org.artifactory.io.TempFileStreamHandle;
+import org.artifactory.mime.MavenNaming;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * The packed index files of a repository: the full index, its properties and the incremental chunks created by this
+ * run.
+ */
+class RepoIndexFiles {
+    private static final Pattern CHUNK_NAME_PATTERN =
+            Pattern.compile(Pattern.quote(MavenNaming.NEXUS_INDEX_PREFIX + ".") + "\\d+\\.gz");
+
+    private final TempFileStreamHandle indexHandle;
+    private final TempFileStreamHandle propertiesHandle;
+    private final Map<String, TempFileStreamHandle> chunkHandles;
+    private final Set<String> obsoleteChunks;
+
+    RepoIndexFiles(TempFileStreamHandle indexHandle, TempFileStreamHandle propertiesHandle) {
+        this(indexHandle, propertiesHandle, Collections.<String, TempFileStreamHandle>emptyMap(),
+                Collections.<String>emptySet());
+    }
+
+    /**
+     * @param chunkHandles    The incremental chunks created by this run, by file name
+     * @param obsoleteChunks  The file names of previously published chunks that are no longer listed in the properties
+     */
+    RepoIndexFiles(TempFileStreamHandle indexHandle, TempFileStreamHandle propertiesHandle,
+            Map<String, TempFileStreamHandle> chunkHandles, Set<String> obsoleteChunks) {
+        this.indexHandle = indexHandle;
+        this.propertiesHandle = propertiesHandle;
+        this.chunkHandles = chunkHandles;
+        this.obsoleteChunks = obsoleteChunks;
+    }
+
+    static boolean isChunkName(String fileName) {
+        return CHUNK_NAME_PATTERN.matcher(fileName).matches();
+    }
+
+    TempFileStreamHandle getIndexHandle() {
+        return indexHandle;
+    }
+
+    TempFileStreamHandle getPropertiesHandle() {
+        return propertiesHandle;
+    }
+
+    Map<String, TempFileStreamHandle> getChunkHandles() {
+        return chunkHandles;
+    }
+
+    Set<String> getObsoleteChunks() {
+        return obsoleteChunks;
+    }
+}
@@ -11,6 +11,9 @@
 
 package org.artifactory.repo.index;
 
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
 import org.apache.lucene.store.FSDirectory;
 import org.apache.maven.index.ArtifactContext;
@@ -18,11 +21,11 @@ import org.apache.maven.index.ArtifactScanningListener;
 import org.apache.maven.index.DefaultIndexer;
 import org.apache.maven.index.DefaultIndexerEngine;
 import org.apache.maven.index.DefaultQueryCreator;
-import org.apache.maven.index.DefaultScannerListener;
 import org.apache.maven.index.DefaultSearchEngine;
 import org.apache.maven.index.ScanningRequest;
 import org.apache.maven.index.ScanningResult;
 import org.apache.maven.index.context.IndexCreator;
+import org.apache.maven.index.context.IndexUtils;
 import org.apache.maven.index.context.IndexingContext;
 import org.apache.maven.index.context.UnsupportedExistingLuceneIndexException;
 import org.apache.maven.index.incremental.DefaultIncrementalHandler;
@@ -33,6 +36,7 @@ import org.apache.maven.index.packer.IndexPackingRequest;
 import org.apache.maven.index.updater.DefaultIndexUpdater;
 import org.artifactory.api.context.ContextHelper;
 import org.artifactory.common.ArtifactoryHome;
+import org.artifactory.common.ConstantValues;
 import org.artifactory.fs.RepoResource;
 import org.artifactory.io.TempFileStreamHandle;
 import org.artifactory.mime.MavenNaming;
@@ -48,21 +52,24 @@ import org.artifactory.schedule.TaskUtils;
 import org.artifactory.storage.fs.tree.ItemTree;
 import org.artifactory.storage.fs.tree.file.JavaIOFileAdapter;
 import org.artifactory.util.Files;
-import org.artifactory.util.Pair;
 import org.codehaus.plexus.logging.console.ConsoleLogger;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.security.util.FieldUtils;
 
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
 
 /**
  * @author yoavl
@@ -74,14 +81,16 @@ class RepoIndexer extends DefaultIndexer implements ArtifactScanningListener {
     private StoringRepo repo;
     private IndexingContext context;
     private IndexPacker packer;
-    private final DefaultIndexerEngine defaultIndexerEngine;
     private final ArtifactoryContentScanner scanner;
+    /**
+     * Time the index the context was seeded from was published, null if not seeded
+     */
+    private Date seededTimestamp;
 
     RepoIndexer(StoringRepo repo) {
         this.repo = repo;
         //Unplexus
-        defaultIndexerEngine = new DefaultIndexerEngine();
-        FieldUtils.setProtectedFieldValue("indexerEngine", this, defaultIndexerEngine);
+        FieldUtils.setProtectedFieldValue("indexerEngine", this, new DefaultIndexerEngine());
         DefaultQueryCreator queryCreator = new DefaultQueryCreator();
         FieldUtils.setProtectedFieldValue("logger", queryCreator,
                 new ConsoleLogger(org.codehaus.plexus.logging.Logger.LEVEL_INFO, "console"));
@@ -126,14 +135,18 @@ class RepoIndexer extends DefaultIndexer implements ArtifactScanningListener {
     }
 
     @SuppressWarnings({"UnusedDeclaration"})
-    Pair<TempFileStreamHandle, TempFileStreamHandle> index(Date fireTime) throws Exception {
+    RepoIndexFiles index(Date fireTime) throws Exception {
         //Use a file based dir with a temp file to conserve memory
         ArtifactoryHome artifactoryHome = ContextHelper.get().getArtifactoryHome();
         // TODO: Should use the temp file of the repo
         File dir = Files.createRandomDir(artifactoryHome.getTempWorkDir(), "artifactory.index." + repo.getKey());
         try {
             createContext(dir);
-            return createIndex(dir, true);
+            boolean incremental = ConstantValues.mvnIndexerIncremental.getBoolean();
+            if (incremental) {
+                seedFromPublishedIndex();
+            }
+            return createIndex(dir, true, incremental);
         } catch (Exception e) {
             throw new RuntimeException("Indexing failed.", e);
         } finally {
@@ -142,22 +155,42 @@ class RepoIndexer extends DefaultIndexer implements ArtifactScanningListener {
         }
     }
 
-    Pair<TempFileStreamHandle, TempFileStreamHandle> createIndex(File indexDir, boolean scan) throws IOException {
+    /**
+     * Packs the context into index files, optionally scanning the repo first.
+     *
+     * @param scan        True to update the context with the repo content before packing
+     * @param incremental True to create an incremental chunk relative to the published index properties of the repo
+     */
+    RepoIndexFiles createIndex(File indexDir, boolean scan, boolean incremental) throws IOException {
         OutputStream os = null;
         try {
-
-            context.updateTimestamp();
             if (scan) {
-                //Update the dir content by scanning the repo
+                //Update the dir content by scanning the repo, skipping artifacts that did not change since they were
+                //indexed. Artifacts that no longer exist are removed by the listener when the scan is done.
+                IncrementalIndexerEngine indexerEngine = new IncrementalIndexerEngine(
+                        IncrementalIndexerEngine.readIndexedInfos(context), seededTimestamp);
                 scanner.scan(new ScanningRequest(context,
-                        new DefaultScannerListener(context, defaultIndexerEngine, true, this), null));
+                        new IncrementalScannerListener(context, indexerEngine, this), null));
+                log.debug("Scanned '{}': {} unchanged artifacts were not indexed again.", repo.getKey(),
+                        indexerEngine.getSkippedCount());
             }
+            //Mark the time after the scan - incremental chunks contain the documents changed since the last mark
+            context.updateTimestamp();
 
             ArtifactoryHome artifactoryHome = ContextHelper.get().getArtifactoryHome();
             File outputFolder = Files.createRandomDir(artifactoryHome.getTempWorkDir(),
                     "artifactory.index." + repo.getKey());
             outputFolder.deleteOnExit();
             IndexPackingRequest request = newIndexPackingRequest(outputFolder);
+            File propertiesFile = new File(outputFolder, MavenNaming.NEXUS_INDEX_PROPERTIES);
+            Set<String> previousChunks = Sets.newHashSet();
+            if (incremental && copyPublishedProperties(propertiesFile)) {
+                previousChunks = readChunkNames(propertiesFile);
+                //The packer reads the previous chunks from the published properties copied to the output folder
+                request.setCreateIncrementalChunks(true);
+                request.setUseTargetProperties(true);
+                request.setMaxIndexChunks(ConstantValues.mvnIndexerMaxIndexChunks.getInt());
+            }
             //Pack - will create the index files inside the folder
             packer.packIndex(request);
             //Return the handle to the zip file (will be remove when the handle is closed)
@@ -165,13 +198,26 @@ class RepoIndexer extends DefaultIndexer implements ArtifactScanningListener {
             if (!tmpGz.exists()) {
                 throw new RuntimeException("Temp index file '" + tmpGz.getAbsolutePath() + "' does not exist.");
             }
-            File propertiesFile = new File(outputFolder, MavenNaming.NEXUS_INDEX_PROPERTIES);
             if (!propertiesFile.exists()) {
                 throw new RuntimeException("Temp properties file '" + tmpGz.getAbsolutePath() + "' does not exist.");
             }
             TempFileStreamHandle zipIndexHandle = new TempFileStreamHandle(tmpGz);
             TempFileStreamHandle propertiesHandle = new TempFileStreamHandle(propertiesFile);
-            return new Pair<>(zipIndexHandle, propertiesHandle);
+            if (!incremental) {
+                return new RepoIndexFiles(zipIndexHandle, propertiesHandle);
+            }
+            Map<String, TempFileStreamHandle> chunkHandles = Maps.newHashMap();
+            File[] outputFiles = outputFolder.listFiles();
+            if (outputFiles != null) {
+                for (File outputFile : outputFiles) {
+                    if (RepoIndexFiles.isChunkName(outputFile.getName())) {
+                        chunkHandles.put(outputFile.getName(), new TempFileStreamHandle(outputFile));
+                    }
+                }
+            }
+            //Chunks dropped from the properties (beyond the max chunks count) can be removed from the repo
+            previousChunks.removeAll(readChunkNames(propertiesFile));
+            return new RepoIndexFiles(zipIndexHandle, propertiesHandle, chunkHandles, previousChunks);
         } catch (Exception e) {
             IOUtils.closeQuietly(os);
             throw new RuntimeException("Index creation failed.", e);
@@ -197,6 +243,70 @@ class RepoIndexer extends DefaultIndexer implements ArtifactScanningListener {
         }
     }
 
+    /**
+     * Seeds the context with the currently published index of the repo, so that the scan only needs to index the
+     * artifacts that changed since. Falls back to a full scan if the published index cannot be read.
+     */
+    private void seedFromPublishedIndex() {
+        Map<StoringRepo, FSDirectory> extractedIndex = Maps.newHashMap();
+        try {
+            mergeInto(repo, extractedIndex);
+            FSDirectory publishedIndexDir = extractedIndex.get(repo);
+            if (publishedIndexDir != null) {
+                seededTimestamp = IndexUtils.getTimestamp(publishedIndexDir);
+            }
+        } catch (Exception e) {
+            log.warn("Could not reuse the published index of '{}', a full index will be created: {}", repo.getKey(),
+                    e.getMessage());
+            log.debug("Could not reuse the published index.", e);
+        } finally {
+            for (FSDirectory directory : extractedIndex.values()) {
+                FileUtils.deleteQuietly(directory.getFile());
+            }
+        }
+    }
+
+    /**
+     * Copies the published index properties of the repo to the given file.
+     *
+     * @return True if the repo has published index properties
+     */
+    private boolean copyPublishedProperties(File propertiesFile) throws Exception {
+        NullRequestContext requestContext =
+                new NullRequestContext(repo.getRepoPath(MavenNaming.NEXUS_INDEX_PROPERTIES_PATH));
+        RepoResource propertiesRes = repo.getInfo(requestContext);
+        if (!propertiesRes.isFound()) {
+            return false;
+        }
+        ResourceStreamHandle handle = repo.getResourceStreamHandle(requestContext, propertiesRes);
+        try {
+            FileUtils.copyInputStreamToFile(handle.getInputStream(), propertiesFile);
+        } finally {
+            handle.close();
+        }
+        return true;
+    }
+
+    /**
+     * @return The file names of the incremental chunks listed in the given index properties
+     */
+    private Set<String> readChunkNames(File propertiesFile) throws IOException {
+        Properties properties = new Properties();
+        InputStream is = new FileInputStream(propertiesFile);
+        try {
+            properties.load(is);
+        } finally {
+            IOUtils.closeQuietly(is);
+        }
+        Set<String> chunkNames = Sets.newHashSet();
+        for (String key : properties.stringPropertyNames()) {
+            if (key.startsWith(IndexingContext.INDEX_CHUNK_PREFIX)) {
+                chunkNames.add(MavenNaming.NEXUS_INDEX_PREFIX + "." + properties.getProperty(key) + ".gz");
+            }
+        }
+        return chunkNames;
+    }
+
     StoringRepo getRepo() {
         return repo;
     }
@@ -262,8 +372,9 @@ class RepoIndexer extends DefaultIndexer implements ArtifactScanningListener {
                         "artifactory.merged-index." + repo.getKey());
                 indexUnzippedDir.deleteOnExit();
                 indexDir = FSDirectory.open(indexUnzippedDir);
-                //Get the extracted lucene dir
-                DefaultIndexUpdater.unpackIndexData(handle.getInputStream(), indexDir, context);
+                //Get the extracted lucene dir, keeping the timestamp of the index with it
+                Date timestamp = DefaultIndexUpdater.unpackIndexData(handle.getInputStream(), indexDir, context);
+                IndexUtils.updateTimestamp(indexDir, timestamp);
             } finally {
                 handle.close();
             }
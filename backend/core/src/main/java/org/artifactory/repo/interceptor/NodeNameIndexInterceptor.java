@@ -0,0 +1,134 @@
+/*
+ * Artifactory is a binaries repository manager.
+ * Copyright (C) 2012 JFrog Ltd.
+ *
+ * Artifactory is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Artifactory is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Artifactory.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.artifactory.repo.interceptor;
+
+import com.google.common.collect.Lists;
+import org.artifactory.api.context.ContextHelper;
+import org.artifactory.common.MutableStatusHolder;
+import org.artifactory.md.Properties;
+import org.artifactory.repo.interceptor.storage.StorageInterceptorAdapter;
+import org.artifactory.sapi.fs.VfsItem;
+import org.artifactory.sapi.interceptor.ImportInterceptor;
+import org.artifactory.search.ngram.NodeNameIndex;
+import org.artifactory.storage.fs.session.StorageSession;
+import org.artifactory.storage.fs.session.StorageSessionHolder;
+import org.artifactory.storage.tx.SessionResource;
+
+import java.util.List;
+
+/**
+ * Keeps the node name index up to date with the created and deleted files. The changes are applied once the
+ * transaction is committed, when the ids of the new nodes are known.
+ */
+public class NodeNameIndexInterceptor extends StorageInterceptorAdapter implements ImportInterceptor {
+
+    @Override
+    public void afterCreate(VfsItem fsItem, MutableStatusHolder statusHolder) {
+        fileCreated(fsItem);
+    }
+
+    @Override
+    public void afterImport(VfsItem fsItem, MutableStatusHolder statusHolder) {
+        fileCreated(fsItem);
+    }
+
+    @Override
+    public void afterDelete(VfsItem fsItem, MutableStatusHolder statusHolder) {
+        if (!fsItem.isFile()) {
+            return;
+        }
+        NodeNameIndex index = getIndex();
+        if (!index.isEnabled()) {
+            return;
+        }
+        NodeNameIndexSessionResource sessionResource = getSessionResource();
+        if (sessionResource != null) {
+            sessionResource.deletedIds.add(fsItem.getId());
+        } else {
+            index.fileDeleted(fsItem.getId());
+        }
+    }
+
+    @Override
+    public void afterMove(VfsItem sourceItem, VfsItem targetItem, MutableStatusHolder statusHolder,
+            Properties properties) {
+        afterDelete(sourceItem, statusHolder);
+        fileCreated(targetItem);
+    }
+
+    @Override
+    public void afterCopy(VfsItem sourceItem, VfsItem targetItem, MutableStatusHolder statusHolder,
+            Properties properties) {
+        fileCreated(targetItem);
+    }
+
+    private void fileCreated(VfsItem fsItem) {
+        if (!fsItem.isFile()) {
+            return;
+        }
+        NodeNameIndex index = getIndex();
+        if (!index.isEnabled()) {
+            return;
+        }
+        NodeNameIndexSessionResource sessionResource = getSessionResource();
+        if (sessionResource != null) {
+            sessionResource.createdItems.add(fsItem);
+        } else {
+            index.fileCreated(fsItem.getId(), fsItem.getName());
+        }
+    }
+
+    private NodeNameIndexSessionResource getSessionResource() {
+        StorageSession session = StorageSessionHolder.getSession();
+        return session == null ? null : session.getOrCreateResource(NodeNameIndexSessionResource.class);
+    }
+
+    private static NodeNameIndex getIndex() {
+        return ContextHelper.get().beanForType(NodeNameIndex.class);
+    }
+
+    public static class NodeNameIndexSessionResource implements SessionResource {
+        final List<VfsItem> createdItems = Lists.newArrayList();
+        final List<Long> deletedIds = Lists.newArrayList();
+
+        @Override
+        public void onSessionSave() {
+        }
+
+        @Override
+        public void afterCompletion(boolean commit) {
+            if (commit) {
+                NodeNameIndex index = getIndex();
+                for (Long deletedId : deletedIds) {
+                    index.fileDeleted(deletedId);
+                }
+                for (VfsItem createdItem : createdItems) {
+                    index.fileCreated(createdItem.getId(), createdItem.getName());
+                }
+            }
+            createdItems.clear();
+            deletedIds.clear();
+        }
+
+        @Override
+        public boolean hasPendingResources() {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * Artifactory is a binaries repository manager.
+ * Copyright (C) 2012 JFrog Ltd.
+ *
+ * Artifactory is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Artifactory is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Artifactory.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.artifactory.repo.mbean;
+
+import org.artifactory.descriptor.repo.LocalCacheRepoDescriptor;
+import org.artifactory.repo.HttpRepo;
+import org.artifactory.repo.RemoteRepo;
+import org.artifactory.repo.remote.InstrumentedHttpConnectionManager;
+import org.artifactory.repo.remote.RemoteRepoHealth;
+import org.artifactory.util.LatencyHistogram;
+
+import javax.annotation.Nullable;
+
+/**
+ * An MBean to expose the data of a remote repository cache and the connection metrics of its remote repository.
+ * The remote repository is looked up on every call, so the metrics follow the repository across config reloads.
+ */
+public class ManagedRemoteRepository extends ManagedRepository implements ManagedRemoteRepositoryMBean {
+    private static final LatencyHistogram EMPTY_HISTOGRAM = new LatencyHistogram();
+
+    private final String remoteRepoKey;
+
+    public ManagedRemoteRepository(LocalCacheRepoDescriptor descriptor) {
+        super(descriptor);
+        remoteRepoKey = descriptor.getRemoteRepo().getKey();
+    }
+
+    @Override
+    public String getRemoteRepositoryKey() {
+        return remoteRepoKey;
+    }
+
+    @Override
+    public int getMaxConnectionsPerHost() {
+        InstrumentedHttpConnectionManager connectionManager = getConnectionManager();
+        return connectionManager == null ? 0 : connectionManager.getParams().getDefaultMaxConnectionsPerHost();
+    }
+
+    @Override
+    public int getMaxTotalConnections() {
+        InstrumentedHttpConnectionManager connectionManager = getConnectionManager();
+        return connectionManager == null ? 0 : connectionManager.getParams().getMaxTotalConnections();
+    }
+
+    @Override
+    public int getLeasedConnections() {
+        InstrumentedHttpConnectionManager connectionManager = getConnectionManager();
+        return connectionManager == null ? 0 : connectionManager.getLeasedConnections();
+    }
+
+    @Override
+    public int getPendingConnections() {
+        InstrumentedHttpConnectionManager connectionManager = getConnectionManager();
+        return connectionManager == null ? 0 : connectionManager.getPendingConnections();
+    }
+
+    @Override
+    public int getAvailableConnections() {
+        InstrumentedHttpConnectionManager connectionManager = getConnectionManager();
+        return connectionManager == null ? 0 : connectionManager.getAvailableConnections();
+    }
+
+    @Override
+    public long getReusedConnections() {
+        InstrumentedHttpConnectionManager connectionManager = getConnectionManager();
+        return connectionManager == null ? 0 : connectionManager.getReusedConnections();
+    }
+
+    @Override
+    public long getNewConnections() {
+        InstrumentedHttpConnectionManager connectionManager = getConnectionManager();
+        return connectionManager == null ? 0 : connectionManager.getNewConnections();
+    }
+
+    @Override
+    public double getConnectionLeaseMeanMillis() {
+        return getLeaseLatency().getMeanMillis();
+    }
+
+    @Override
+    public long getConnectionLeaseP99Millis() {
+        return getLeaseLatency().getPercentileMillis(99);
+    }
+
+    @Override
+    public String getConnectionLeaseHistogram() {
+        return getLeaseLatency().toString();
+    }
+
+    @Override
+    public long getRequestsCount() {
+        return getTimeToFirstByte().getCount();
+    }
+
+    @Override
+    public double getTimeToFirstByteMeanMillis() {
+        return getTimeToFirstByte().getMeanMillis();
+    }
+
+    @Override
+    public long getTimeToFirstByteP95Millis() {
+        return getTimeToFirstByte().getPercentileMillis(95);
+    }
+
+    @Override
+    public long getTimeToFirstByteP99Millis() {
+        return getTimeToFirstByte().getPercentileMillis(99);
+    }
+
+    @Override
+    public String getTimeToFirstByteHistogram() {
+        return getTimeToFirstByte().toString();
+    }
+
+    @Override
+    public String getHealthState() {
+        RemoteRepoHealth health = getHealth();
+        return health == null ? "" : health.getState().name();
+    }
+
+    @Override
+    public int getHealthErrorRatePercent() {
+        RemoteRepoHealth health = getHealth();
+        return health == null ? 0 : health.getErrorRatePercent();
+    }
+
+    @Override
+    public long getHealthAverageLatencyMillis() {
+        RemoteRepoHealth health = getHealth();
+        return health == null ? 0 : health.getAverageLatencyMillis();
+    }
+
+    @Override
+    public long getHealthCircuitOpenedCount() {
+        RemoteRepoHealth health = getHealth();
+        return health == null ? 0 : health.getOpenedCount();
+    }
+
+    private LatencyHistogram getLeaseLatency() {
+        InstrumentedHttpConnectionManager connectionManager = getConnectionManager();
+        return connectionManager == null ? EMPTY_HISTOGRAM : connectionManager.getLeaseLatency();
+    }
+
+    private LatencyHistogram getTimeToFirstByte() {
+        InstrumentedHttpConnectionManager connectionManager = getConnectionManager();
+        return connectionManager == null ? EMPTY_HISTOGRAM : connectionManager.getTimeToFirstByte();
+    }
+
+    @Nullable
+    private RemoteRepoHealth getHealth() {
+        RemoteRepo remoteRepo = repositoryService.remoteRepositoryByKey(remoteRepoKey);
+        return remoteRepo == null ? null : remoteRepo.getHealth();
+    }
+
+    @Nullable
+    private InstrumentedHttpConnectionManager getConnectionManager() {
+        RemoteRepo remoteRepo = repositoryService.remoteRepositoryByKey(remoteRepoKey);
+        if (remoteRepo instanceof HttpRepo) {
+            return ((HttpRepo) remoteRepo).getConnectionManager();
+        }
+        return null;
+    }
+}
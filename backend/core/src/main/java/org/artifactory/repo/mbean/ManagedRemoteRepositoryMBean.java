@@ -0,0 +1,67 @@
+/*
+ * Artifactory is a binaries repository manager.
+ * Copyright (C) 2012 JFrog Ltd.
+ *
+ * Artifactory is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Artifactory is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Artifactory.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.artifactory.repo.mbean;
+
+/**
+ * An MBean to expose the data of a remote repository cache, including the connection pool and latency metrics of the
+ * remote repository. Pool metrics are 0 and histograms are empty while the remote repository is offline.
+ */
+@SuppressWarnings("UnusedDeclaration")  // mbean
+public interface ManagedRemoteRepositoryMBean extends ManagedRepositoryMBean {
+
+    public String getRemoteRepositoryKey();
+
+    public int getMaxConnectionsPerHost();
+
+    public int getMaxTotalConnections();
+
+    public int getLeasedConnections();
+
+    public int getPendingConnections();
+
+    public int getAvailableConnections();
+
+    public long getReusedConnections();
+
+    public long getNewConnections();
+
+    public double getConnectionLeaseMeanMillis();
+
+    public long getConnectionLeaseP99Millis();
+
+    public String getConnectionLeaseHistogram();
+
+    public long getRequestsCount();
+
+    public double getTimeToFirstByteMeanMillis();
+
+    public long getTimeToFirstByteP95Millis();
+
+    public long getTimeToFirstByteP99Millis();
+
+    public String getTimeToFirstByteHistogram();
+
+    public String getHealthState();
+
+    public int getHealthErrorRatePercent();
+
+    public long getHealthAverageLatencyMillis();
+
+    public long getHealthCircuitOpenedCount();
+}
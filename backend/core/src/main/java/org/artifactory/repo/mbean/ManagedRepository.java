@@ -21,20 +21,30 @@ package org.artifactory.repo.mbean;
 import org.artifactory.api.context.ContextHelper;
 import org.artifactory.descriptor.repo.LocalRepoDescriptor;
 import org.artifactory.model.common.RepoPathImpl;
+import org.artifactory.repo.LocalRepo;
+import org.artifactory.repo.service.InternalRepositoryService;
+import org.artifactory.storage.fs.lock.FsItemLockStatistics;
 import org.artifactory.storage.fs.service.FileService;
 
+import javax.annotation.Nullable;
+import java.util.List;
+
 /**
  * An MBean to expose repository data.
  *
  * @author Yossi Shaul
  */
 public class ManagedRepository implements ManagedRepositoryMBean {
+    private static final int TOP_CONTENDED_PATHS = 10;
+
     private final LocalRepoDescriptor descriptor;
     private final FileService fileService;
+    protected final InternalRepositoryService repositoryService;
 
     public ManagedRepository(LocalRepoDescriptor descriptor) {
         this.descriptor = descriptor;
         fileService = ContextHelper.get().beanForType(FileService.class);
+        repositoryService = ContextHelper.get().beanForType(InternalRepositoryService.class);
     }
 
     @Override
@@ -51,4 +61,60 @@ public class ManagedRepository implements ManagedRepositoryMBean {
     public long getArtifactsTotalSize() {
         return fileService.getFilesTotalCount(new RepoPathImpl(descriptor.getKey(), ""));
     }
+
+    @Override
+    public long getLocksAcquiredCount() {
+        FsItemLockStatistics statistics = getLockStatistics();
+        return statistics == null ? 0 : statistics.getAcquiredCount();
+    }
+
+    @Override
+    public long getLocksContendedCount() {
+        FsItemLockStatistics statistics = getLockStatistics();
+        return statistics == null ? 0 : statistics.getContendedCount();
+    }
+
+    @Override
+    public long getLocksTimeoutsCount() {
+        FsItemLockStatistics statistics = getLockStatistics();
+        return statistics == null ? 0 : statistics.getTimeoutsCount();
+    }
+
+    @Override
+    public long getLockWaitP99Millis() {
+        FsItemLockStatistics statistics = getLockStatistics();
+        return statistics == null ? 0 : statistics.getWaitTimes().getPercentileMillis(99);
+    }
+
+    @Override
+    public String getLockWaitHistogram() {
+        FsItemLockStatistics statistics = getLockStatistics();
+        return statistics == null ? "" : statistics.getWaitTimes().toString();
+    }
+
+    @Override
+    public String getLockHoldHistogram() {
+        FsItemLockStatistics statistics = getLockStatistics();
+        return statistics == null ? "" : statistics.getHoldTimes().toString();
+    }
+
+    @Override
+    public String[] getTopContendedPaths() {
+        FsItemLockStatistics statistics = getLockStatistics();
+        if (statistics == null) {
+            return new String[0];
+        }
+        List<FsItemLockStatistics.ContendedPath> paths = statistics.getTopContendedPaths(TOP_CONTENDED_PATHS);
+        String[] result = new String[paths.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = paths.get(i).toString();
+        }
+        return result;
+    }
+
+    @Nullable
+    private FsItemLockStatistics getLockStatistics() {
+        LocalRepo localRepo = repositoryService.localOrCachedRepositoryByKey(descriptor.getKey());
+        return localRepo == null ? null : localRepo.getLockStatistics();
+    }
 }
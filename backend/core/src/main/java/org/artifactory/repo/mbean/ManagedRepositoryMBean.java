@@ -32,4 +32,18 @@ public interface ManagedRepositoryMBean {
 
     public long getArtifactsTotalSize();
 
+    public long getLocksAcquiredCount();
+
+    public long getLocksContendedCount();
+
+    public long getLocksTimeoutsCount();
+
+    public long getLockWaitP99Millis();
+
+    public String getLockWaitHistogram();
+
+    public String getLockHoldHistogram();
+
+    public String[] getTopContendedPaths();
+
 }
@@ -0,0 +1,122 @@
+/*
+ * Artifactory is a binaries repository manager.
+ * Copyright (C) 2012 JFrog Ltd.
+ *
+ * Artifactory is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Artifactory is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Artifactory.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.artifactory.repo.remote;
+
+import org.apache.commons.httpclient.ConnectionPoolTimeoutException;
+import org.apache.commons.httpclient.HostConfiguration;
+import org.apache.commons.httpclient.HttpConnection;
+import org.apache.commons.httpclient.MultiThreadedHttpConnectionManager;
+import org.artifactory.util.LatencyHistogram;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A pooling connection manager that keeps usage metrics of its pool: leased and pending connections, how many leases
+ * reused a kept-alive connection, the time spent waiting for a connection and the time to the first response byte of
+ * the requests executed with it.
+ */
+public class InstrumentedHttpConnectionManager extends MultiThreadedHttpConnectionManager {
+    private final AtomicInteger leased = new AtomicInteger();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final AtomicLong reusedConnections = new AtomicLong();
+    private final AtomicLong newConnections = new AtomicLong();
+    private final LatencyHistogram leaseLatency = new LatencyHistogram();
+    private final LatencyHistogram timeToFirstByte = new LatencyHistogram();
+    private final ThreadLocal<long[]> threadLeaseWaitNanos = new ThreadLocal<long[]>() {
+        @Override
+        protected long[] initialValue() {
+            return new long[1];
+        }
+    };
+
+    @Override
+    public HttpConnection getConnectionWithTimeout(HostConfiguration hostConfiguration, long timeout)
+            throws ConnectionPoolTimeoutException {
+        long start = System.nanoTime();
+        pending.incrementAndGet();
+        HttpConnection connection;
+        try {
+            connection = super.getConnectionWithTimeout(hostConfiguration, timeout);
+        } finally {
+            pending.decrementAndGet();
+            long waitNanos = System.nanoTime() - start;
+            threadLeaseWaitNanos.get()[0] += waitNanos;
+            leaseLatency.record(TimeUnit.NANOSECONDS.toMillis(waitNanos));
+        }
+        leased.incrementAndGet();
+        if (connection.isOpen()) {
+            reusedConnections.incrementAndGet();
+        } else {
+            newConnections.incrementAndGet();
+        }
+        return connection;
+    }
+
+    @Override
+    public void releaseConnection(HttpConnection conn) {
+        super.releaseConnection(conn);
+        leased.decrementAndGet();
+    }
+
+    /**
+     * @return The total time the current thread waited for connections of this manager. The difference between two
+     *         reads is the lease wait of the requests executed in between.
+     */
+    public long getCurrentThreadLeaseWaitNanos() {
+        return threadLeaseWaitNanos.get()[0];
+    }
+
+    /**
+     * Records the time it took to receive the response headers of a request executed with this manager, not including
+     * the time spent waiting for a connection
+     */
+    public void recordTimeToFirstByte(long millis) {
+        timeToFirstByte.record(millis);
+    }
+
+    public int getLeasedConnections() {
+        return Math.max(0, leased.get());
+    }
+
+    public int getPendingConnections() {
+        return pending.get();
+    }
+
+    public int getAvailableConnections() {
+        return Math.max(0, getConnectionsInPool() - getLeasedConnections());
+    }
+
+    public long getReusedConnections() {
+        return reusedConnections.get();
+    }
+
+    public long getNewConnections() {
+        return newConnections.get();
+    }
+
+    public LatencyHistogram getLeaseLatency() {
+        return leaseLatency;
+    }
+
+    public LatencyHistogram getTimeToFirstByte() {
+        return timeToFirstByte;
+    }
+}
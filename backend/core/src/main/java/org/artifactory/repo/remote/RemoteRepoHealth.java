@@ -0,0 +1,205 @@
+/*
+ * Artifactory is a binaries repository manager.
+ * Copyright (C) 2012 JFrog Ltd.
+ *
+ * Artifactory is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Artifactory is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Artifactory.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.artifactory.repo.remote;
+
+/**
+ * Tracks the health of a remote repository over a sliding window of the latest request outcomes and acts as a circuit
+ * breaker: once the error rate in the window crosses the threshold the circuit opens and remote requests are refused
+ * until the open period passes. A single probe request is then let through (half open); its outcome either closes the
+ * circuit or opens it for another period.
+ * <p/>
+ * The average latency of the window is used to rank healthy but slow remotes after faster ones.
+ */
+public class RemoteRepoHealth {
+
+    public enum State {
+        CLOSED, HALF_OPEN, OPEN
+    }
+
+    private final int windowSize;
+    private final int minRequests;
+    private final int errorRatePercentThreshold;
+    private final long slowThresholdMillis;
+    private final long openPeriodMillis;
+
+    // ring buffer of the latest outcomes
+    private final boolean[] failures;
+    private final long[] latencies;
+    private int next;
+    private int size;
+    private int failuresCount;
+    private long latenciesSum;
+
+    private State state = State.CLOSED;
+    private long stateChangedMillis;
+    private long openedCount;
+
+    /**
+     * @param windowSize                Number of latest outcomes to consider
+     * @param minRequests               Minimum number of outcomes in the window before the circuit may open
+     * @param errorRatePercentThreshold Error rate, in percent, from which the circuit opens. 0 disables circuit
+     *                                  breaking
+     * @param slowThresholdMillis       Average latency from which the remote is considered slow. 0 disables it
+     * @param openPeriodMillis          Time to refuse requests before letting a probe through
+     */
+    public RemoteRepoHealth(int windowSize, int minRequests, int errorRatePercentThreshold, long slowThresholdMillis,
+            long openPeriodMillis) {
+        this.windowSize = Math.max(1, windowSize);
+        this.minRequests = Math.max(1, Math.min(minRequests, this.windowSize));
+        this.errorRatePercentThreshold = errorRatePercentThreshold;
+        this.slowThresholdMillis = slowThresholdMillis;
+        this.openPeriodMillis = Math.max(0, openPeriodMillis);
+        failures = new boolean[this.windowSize];
+        latencies = new long[this.windowSize];
+    }
+
+    /**
+     * @return True if a remote request may be sent. While half open only one probe is allowed at a time; a probe
+     *         which didn't report back within the open period is replaced by a new one.
+     */
+    public synchronized boolean allowRequest() {
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+            case HALF_OPEN:
+                long now = currentTimeMillis();
+                if (now - stateChangedMillis >= openPeriodMillis) {
+                    state = State.HALF_OPEN;
+                    stateChangedMillis = now;
+                    return true;
+                }
+                return false;
+            default:
+                throw new IllegalStateException("Unknown state " + state);
+        }
+    }
+
+    public synchronized void recordSuccess(long latencyMillis) {
+        if (state == State.HALF_OPEN) {
+            // the probe succeeded - start over with a clean window
+            state = State.CLOSED;
+            stateChangedMillis = currentTimeMillis();
+            clearWindow();
+        }
+        add(false, latencyMillis);
+    }
+
+    public synchronized void recordFailure(long latencyMillis) {
+        add(true, latencyMillis);
+        if (state == State.HALF_OPEN) {
+            open();
+        } else if (state == State.CLOSED && errorRatePercentThreshold > 0 && size >= minRequests &&
+                failuresCount * 100 >= errorRatePercentThreshold * size) {
+            open();
+        }
+    }
+
+    /**
+     * Closes the circuit and forgets the recorded outcomes
+     */
+    public synchronized void reset() {
+        state = State.CLOSED;
+        stateChangedMillis = currentTimeMillis();
+        clearWindow();
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * @return True if the average latency of the window is above the slow threshold
+     */
+    public synchronized boolean isSlow() {
+        return slowThresholdMillis > 0 && size > 0 && latenciesSum / size >= slowThresholdMillis;
+    }
+
+    /**
+     * @return The rank of the remote for resolution ordering, lower is better: 0 for healthy, 1 for slow, 2 for half
+     *         open and 3 for open
+     */
+    public synchronized int getRank() {
+        switch (state) {
+            case OPEN:
+                return 3;
+            case HALF_OPEN:
+                return 2;
+            default:
+                return isSlow() ? 1 : 0;
+        }
+    }
+
+    public synchronized int getErrorRatePercent() {
+        return size == 0 ? 0 : failuresCount * 100 / size;
+    }
+
+    public synchronized long getAverageLatencyMillis() {
+        return size == 0 ? 0 : latenciesSum / size;
+    }
+
+    /**
+     * @return The number of times the circuit opened
+     */
+    public synchronized long getOpenedCount() {
+        return openedCount;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return state + " (errors: " + getErrorRatePercent() + "%, avg latency: " + getAverageLatencyMillis() + "ms)";
+    }
+
+    protected long currentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+
+    private void open() {
+        state = State.OPEN;
+        stateChangedMillis = currentTimeMillis();
+        openedCount++;
+    }
+
+    private void add(boolean failure, long latencyMillis) {
+        latencyMillis = Math.max(0, latencyMillis);
+        if (size == windowSize) {
+            // evict the oldest outcome
+            if (failures[next]) {
+                failuresCount--;
+            }
+            latenciesSum -= latencies[next];
+        } else {
+            size++;
+        }
+        failures[next] = failure;
+        latencies[next] = latencyMillis;
+        if (failure) {
+            failuresCount++;
+        }
+        latenciesSum += latencyMillis;
+        next = (next + 1) % windowSize;
+    }
+
+    private void clearWindow() {
+        next = 0;
+        size = 0;
+        failuresCount = 0;
+        latenciesSum = 0;
+    }
+}
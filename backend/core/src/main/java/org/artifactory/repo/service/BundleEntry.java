@@ -0,0 +1,64 @@
+/*
+ * Artifactory is a binaries repository manager.
+ * Copyright (C) 2012 JFrog Ltd.
+ *
+ * Artifactory is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Artifactory is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Artifactory.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.artifactory.repo.service;
+
+import org.apache.commons.io.IOUtils;
+
+import java.io.Closeable;
+
+/**
+ * An archive bundle entry that was stored in the binary store and is waiting for its node to be created.
+ * The entry holds a protection of the stored binary from the garbage collector, released when the entry is closed.
+ */
+public class BundleEntry implements Closeable {
+    private final String relPath;
+    private final String sha1;
+    private final Closeable binaryProtection;
+    private final long length;
+    private final long lastModified;
+
+    public BundleEntry(String relPath, String sha1, Closeable binaryProtection, long length, long lastModified) {
+        this.relPath = relPath;
+        this.sha1 = sha1;
+        this.binaryProtection = binaryProtection;
+        this.length = length;
+        this.lastModified = lastModified;
+    }
+
+    public String getRelPath() {
+        return relPath;
+    }
+
+    public String getSha1() {
+        return sha1;
+    }
+
+    public long getLength() {
+        return length;
+    }
+
+    public long getLastModified() {
+        return lastModified;
+    }
+
+    @Override
+    public void close() {
+        IOUtils.closeQuietly(binaryProtection);
+    }
+}
@@ -0,0 +1,39 @@
+/*
+ * Artifactory is a binaries repository manager.
+ * Copyright (C) 2012 JFrog Ltd.
+ *
+ * Artifactory is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Artifactory is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Artifactory.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.artifactory.repo.service;
+
+/**
+ * Thrown when an entry of a bundle entries batch failed to deploy, to roll back the transaction of the whole batch.
+ * The failure is already reported to the status holder of the deployment.
+ */
+public class BundleEntryDeployException extends RuntimeException {
+    private final BundleEntry entry;
+
+    public BundleEntryDeployException(BundleEntry entry, Throwable cause) {
+        super("Failed to deploy bundle entry '" + entry.getRelPath() + "'", cause);
+        this.entry = entry;
+    }
+
+    /**
+     * @return The entry that failed to deploy
+     */
+    public BundleEntry getEntry() {
+        return entry;
+    }
+}
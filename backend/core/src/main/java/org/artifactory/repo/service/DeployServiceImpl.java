@@ -21,22 +21,17 @@ package org.artifactory.repo.service;
 import com.google.common.collect.Lists;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
-import org.apache.commons.io.filefilter.AbstractFileFilter;
-import org.apache.commons.io.filefilter.DirectoryFileFilter;
-import org.apache.commons.io.filefilter.IOFileFilter;
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.lang.time.DurationFormatUtils;
-import org.artifactory.api.artifact.ArtifactInfo;
 import org.artifactory.api.artifact.UnitInfo;
 import org.artifactory.api.common.BasicStatusHolder;
-import org.artifactory.api.context.ContextHelper;
 import org.artifactory.api.maven.MavenArtifactInfo;
 import org.artifactory.api.maven.MavenService;
-import org.artifactory.api.module.ModuleInfo;
-import org.artifactory.api.repo.DeployService;
 import org.artifactory.api.repo.exception.RepoRejectException;
 import org.artifactory.api.request.UploadService;
 import org.artifactory.api.search.ArchiveIndexer;
+import org.artifactory.binstore.BinaryInfo;
+import org.artifactory.common.ConstantValues;
 import org.artifactory.descriptor.repo.RealRepoDescriptor;
 import org.artifactory.descriptor.repo.RepoDescriptor;
 import org.artifactory.md.Properties;
@@ -48,7 +43,9 @@ import org.artifactory.repo.Repo;
 import org.artifactory.repo.RepoPath;
 import org.artifactory.request.InternalArtifactoryResponse;
 import org.artifactory.sapi.common.RepositoryRuntimeException;
+import org.artifactory.schedule.ArtifactoryConcurrentExecutor;
 import org.artifactory.spring.InternalContextHelper;
+import org.artifactory.storage.binstore.service.BinaryStore;
 import org.artifactory.util.PathMatcher;
 import org.artifactory.util.PathUtils;
 import org.artifactory.util.ZipUtils;
@@ -57,10 +54,18 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Provides artifacts deploy services from the UI.
@@ -68,7 +73,7 @@ import java.util.List;
  * @author Yossi Shaul
  */
 @Service
-public class DeployServiceImpl implements DeployService {
+public class DeployServiceImpl implements InternalDeployService {
     private static final Logger log = LoggerFactory.getLogger(DeployServiceImpl.class);
 
     @Autowired
@@ -83,6 +88,9 @@ public class DeployServiceImpl implements DeployService {
     @Autowired
     private MavenService mavenService;
 
+    @Autowired
+    private BinaryStore binaryStore;
+
     @Override
     public void deploy(RepoDescriptor targetRepo, UnitInfo artifactInfo, File file) throws RepoRejectException {
         String pomString = mavenService.getPomModelString(file);
@@ -182,9 +190,14 @@ public class DeployServiceImpl implements DeployService {
             status.setError(message, log);
             return;
         }
-        File extractFolder;
+        Repo repo = repositoryService.repositoryByKey(targetRepo.getKey());
+        if (repo == null || repositoryService.localRepositoryByKey(targetRepo.getKey()) == null) {
+            status.setError("No target repository found for deployment.", log);
+            return;
+        }
+        File archive;
         try {
-            extractFolder = extractArchive(status, bundle);
+            archive = fixArchiveName(bundle);
         } catch (Exception e) {
             if (!status.isVerbose()) {
                 status.setVerbose(true);
@@ -192,83 +205,75 @@ public class DeployServiceImpl implements DeployService {
             status.setError(e.getLocalizedMessage(), e, log);
             return;
         }
-        if (extractFolder == null) {
-            //We have errors
+
+        BundleEntriesDeployer deployer = new BundleEntriesDeployer(repo, targetRepo, status, failFast, prefix,
+                properties);
+        try {
+            ZipUtils.visitFileEntries(archive, deployer);
+            deployer.flush();
+        } catch (Exception e) {
+            if (e.getMessage() == null) {
+                if (e instanceof IllegalArgumentException) {
+                    e = new Exception("Please make sure the textual values in the archive are encoded in UTF-8.", e);
+                } else {
+                    e = new Exception("Please ensure the integrity of the selected archive", e);
+                }
+            }
+            synchronized (status) {
+                status.setError(e.getMessage(), e, log);
+            }
+            return;
+        } finally {
+            deployer.close();
+        }
+        if (deployer.isAborted()) {
             return;
         }
-        try {
-            IOFileFilter deployableFilesFilter = new AbstractFileFilter() {
-                @Override
-                public boolean accept(File file) {
-                    if (NamingUtils.isSystem(file.getAbsolutePath()) || PathMatcher.isInGlobalExcludes(file) ||
-                            file.getName().contains(MavenNaming.MAVEN_METADATA_NAME)) {
-                        status.setDebug("Excluding '" + file.getAbsolutePath() + "' from bundle deployment.", log);
-                        return false;
-                    }
 
-                    return true;
-                }
-            };
-            List<File> archiveContent = Lists.newArrayList(FileUtils.listFiles(
-                    extractFolder, deployableFilesFilter, DirectoryFileFilter.DIRECTORY));
-            Collections.sort(archiveContent);
-
-            Repo repo = repositoryService.repositoryByKey(targetRepo.getKey());
-            for (File file : archiveContent) {
-                String parentPath = extractFolder.getAbsolutePath();
-                String filePath = file.getAbsolutePath();
-                String relPath = PathUtils.trimSlashes(
-                        prefix + "/" + PathUtils.getRelativePath(parentPath, filePath)).toString();
-
-                ModuleInfo moduleInfo = repo.getItemModuleInfo(relPath);
-                if (MavenNaming.isPom(file.getName())) {
-                    try {
-                        mavenService.validatePomFile(file, relPath, moduleInfo,
-                                targetRepo.isSuppressPomConsistencyChecks());
-                    } catch (Exception e) {
-                        String msg = "The pom: " + file.getName() +
-                                " could not be validated, and thus was not deployed.";
-                        status.setWarning(msg, e, log);
-                        if (failFast) {
-                            return;
-                        }
-                        continue;
-                    }
-                }
+        String timeTaken = DurationFormatUtils.formatPeriod(start, System.currentTimeMillis(), "s");
+        status.setStatus("Successfully deployed " + deployer.getDeployedCount() + " artifacts from archive: " +
+                archive.getName() + " (" + timeTaken + " seconds).", log);
+        //Trigger indexing for marked files
+        archiveIndexer.asyncIndexMarkedArchives();
+    }
 
-                try {
-                    getTransactionalMe().deploy(targetRepo, new ArtifactInfo(relPath), file, null, false, true,
-                            properties);
-                } catch (IllegalArgumentException iae) {
+    @Override
+    public void deployBundleEntries(RealRepoDescriptor targetRepo, List<BundleEntry> entries,
+            Properties properties, BasicStatusHolder status) {
+        for (BundleEntry entry : entries) {
+            RepoPath repoPath = InternalRepoPathFactory.create(targetRepo.getKey(), entry.getRelPath());
+            InputStream binaryStream = null;
+            try {
+                long length = entry.getLength();
+                // the stream of the stored binary lets the upload reuse it without storing the content again
+                binaryStream = binaryStore.getBinary(entry.getSha1());
+                ArtifactoryDeployRequest request = new ArtifactoryDeployRequestBuilder(repoPath)
+                        .inputStream(binaryStream)
+                        .contentLength(length > Integer.MAX_VALUE ? -1 : (int) length)
+                        .lastModified(entry.getLastModified())
+                        .properties(properties)
+                        .build();
+                request.setSkipJarIndexing(true);
+                InternalArtifactoryResponse response = new InternalArtifactoryResponse();
+                uploadService.upload(request, response);
+                assertNotFailedRequest(repoPath.getName(), response);
+            } catch (IllegalArgumentException iae) {
+                synchronized (status) {
                     status.setWarning(iae.getMessage(), iae, log);
-                    if (failFast) {
-                        return;
-                    }
-                } catch (Exception e) {
-                    // Fail fast
+                }
+                throw new BundleEntryDeployException(entry, iae);
+            } catch (Exception e) {
+                synchronized (status) {
                     status.setError("Error during deployment: " + e.getMessage(), e, log);
-                    if (failFast) {
-                        return;
-                    }
                 }
+                throw new BundleEntryDeployException(entry, e);
+            } finally {
+                IOUtils.closeQuietly(binaryStream);
             }
-
-            String bundleName = bundle.getName();
-            String timeTaken = DurationFormatUtils.formatPeriod(start, System.currentTimeMillis(), "s");
-            int archiveContentSize = archiveContent.size();
-
-            status.setStatus("Successfully deployed " + archiveContentSize + " artifacts from archive: " + bundleName
-                    + " (" + timeTaken + " seconds).", log);
-            //Trigger indexing for marked files
-            archiveIndexer.asyncIndexMarkedArchives();
-        } catch (Exception e) {
-            status.setError(e.getMessage(), e, log);
-        } finally {
-            FileUtils.deleteQuietly(extractFolder);
         }
     }
 
-    private File extractArchive(BasicStatusHolder status, File archive) throws Exception {
+    private File fixArchiveName(File archive) throws Exception {
         String archiveName = archive.getName();
         String fixedArchiveName = new String(archiveName.getBytes("utf-8"));
         File fixedArchive = new File(archive.getParentFile(), fixedArchiveName);
@@ -279,46 +284,246 @@ public class DeployServiceImpl implements DeployService {
         } catch (IOException e) {
             throw new Exception("Could not encode archive name to UTF-8.", e);
         }
-        File extractFolder = new File(ContextHelper.get().getArtifactoryHome().getTempUploadDir(),
-                fixedArchive.getName() + "_extracted_" + System.currentTimeMillis());
-        if (extractFolder.exists()) {
-            //Clean up any existing folder
+        return fixedArchive;
+    }
+
+    private static InternalDeployService getTransactionalMe() {
+        return InternalContextHelper.get().beanForType(InternalDeployService.class);
+    }
+
+    /**
+     * Deploys the entries of an archive bundle while it is being read: the content of every entry that may be
+     * deployed is streamed straight into the binary store by the reading thread, and the nodes of the stored entries
+     * are created in batches, one transaction per batch, by a pool of workers. A failed entry rolls back its batch,
+     * whose other entries are then deployed one per transaction. The stored binaries are protected from the garbage
+     * collector until their entries are deployed or skipped.
+     */
+    private class BundleEntriesDeployer implements ZipUtils.ArchiveEntryVisitor {
+        private final Repo repo;
+        private final RealRepoDescriptor targetRepo;
+        private final BasicStatusHolder status;
+        private final boolean failFast;
+        private final String prefix;
+        private final Properties properties;
+        private final int maxItemsPerTransaction;
+        private final ArtifactoryConcurrentExecutor executor;
+        private final int maxPendingBatches;
+        private final Deque<Future<?>> pendingBatches = new ArrayDeque<>();
+        private List<BundleEntry> batch = Lists.newArrayList();
+        private final AtomicInteger deployedCount = new AtomicInteger();
+        private volatile boolean aborted;
+
+        private BundleEntriesDeployer(Repo repo, RealRepoDescriptor targetRepo, BasicStatusHolder status,
+                boolean failFast, String prefix, Properties properties) {
+            this.repo = repo;
+            this.targetRepo = targetRepo;
+            this.status = status;
+            this.failFast = failFast;
+            this.prefix = prefix;
+            this.properties = properties;
+            maxItemsPerTransaction = Math.max(1, ConstantValues.bundleDeployMaxItemsPerTransaction.getInt());
+            int workerThreads = ConstantValues.bundleDeployWorkerThreads.getInt();
+            if (workerThreads > 1) {
+                executor = new ArtifactoryConcurrentExecutor("bundle-deploy-", workerThreads, workerThreads);
+                maxPendingBatches = workerThreads * 2;
+            } else {
+                executor = null;
+                maxPendingBatches = 0;
+            }
+        }
+
+        @Override
+        public boolean visit(String entryName, long size, long lastModified, InputStream entryStream)
+                throws IOException {
+            if (aborted) {
+                return false;
+            }
+            String fileName = PathUtils.getFileName(entryName);
+            if (NamingUtils.isSystem(entryName) || PathMatcher.isInGlobalExcludes(new File(entryName)) ||
+                    fileName.contains(MavenNaming.MAVEN_METADATA_NAME)) {
+                synchronized (status) {
+                    status.setDebug("Excluding '" + entryName + "' from bundle deployment.", log);
+                }
+                return true;
+            }
+            String relPath = PathUtils.trimSlashes(prefix + "/" + entryName).toString();
             try {
-                FileUtils.deleteDirectory(extractFolder);
-            } catch (IOException e) {
-                status.setError("Could not delete existing extracted archive folder: " +
-                        extractFolder.getAbsolutePath() + ".", e, log);
-                return null;
+                // check the include/exclude patterns and the permissions before storing anything
+                repositoryService.assertValidDeployPath(
+                        InternalRepoPathFactory.create(targetRepo.getKey(), relPath), size);
+            } catch (RepoRejectException e) {
+                synchronized (status) {
+                    status.setError("Error during deployment of '" + relPath + "': " + e.getMessage(), e, log);
+                }
+                return !abortIfFailFast();
+            }
+
+            InputStream content = entryStream;
+            if (MavenNaming.isPom(fileName)) {
+                byte[] pomBytes = IOUtils.toByteArray(entryStream);
+                try {
+                    mavenService.validatePomStream(new ByteArrayInputStream(pomBytes), relPath,
+                            repo.getItemModuleInfo(relPath), targetRepo.isSuppressPomConsistencyChecks());
+                } catch (Exception e) {
+                    String msg = "The pom: " + fileName + " could not be validated, and thus was not deployed.";
+                    synchronized (status) {
+                        status.setWarning(msg, e, log);
+                    }
+                    return !abortIfFailFast();
+                }
+                content = new ByteArrayInputStream(pomBytes);
+            }
+
+            BundleEntry entry;
+            try {
+                BinaryInfo binaryInfo = binaryStore.addBinary(content);
+                String sha1 = binaryInfo.getSha1();
+                entry = new BundleEntry(relPath, sha1, binaryStore.protectBinary(sha1), binaryInfo.getLength(),
+                        lastModified);
+            } catch (Exception e) {
+                synchronized (status) {
+                    status.setError("Error during deployment of '" + relPath + "': " + e.getMessage(), e, log);
+                }
+                return !abortIfFailFast();
+            }
+            batch.add(entry);
+            if (batch.size() >= maxItemsPerTransaction) {
+                submitBatch();
             }
+            return !aborted;
         }
-        try {
-            FileUtils.forceMkdir(extractFolder);
-        } catch (IOException e) {
-            log.error("Could not created the extracted archive folder: " +
-                    extractFolder.getAbsolutePath() + ".", log);
-            return null;
+
+        /**
+         * Deploys the entries left in the current batch and waits for all the batches to be deployed
+         */
+        void flush() {
+            if (!batch.isEmpty()) {
+                submitBatch();
+            }
+            awaitPendingBatches(0);
         }
 
-        try {
-            ZipUtils.extract(fixedArchive, extractFolder);
-        } catch (Exception e) {
-            FileUtils.deleteQuietly(extractFolder);
-            if (e.getMessage() == null) {
-                String errorMessage;
-                if (e instanceof IllegalArgumentException) {
-                    errorMessage =
-                            "Please make sure the textual values in the archive are encoded in UTF-8.";
-                } else {
-                    errorMessage = "Please ensure the integrity of the selected archive";
+        /**
+         * Releases the entries that were not deployed and the workers. Pending batches are skipped.
+         */
+        void close() {
+            if (!pendingBatches.isEmpty()) {
+                aborted = true;
+                awaitPendingBatches(0);
+            }
+            closeEntries(batch);
+            batch.clear();
+            if (executor != null) {
+                executor.shutdown();
+            }
+        }
+
+        boolean isAborted() {
+            return aborted;
+        }
+
+        /**
+         * @return The number of entries actually deployed
+         */
+        int getDeployedCount() {
+            return deployedCount.get();
+        }
+
+        private boolean abortIfFailFast() {
+            if (failFast) {
+                aborted = true;
+            }
+            return aborted;
+        }
+
+        private void submitBatch() {
+            final List<BundleEntry> entries = batch;
+            batch = Lists.newArrayList();
+            if (executor == null) {
+                deployBatch(entries);
+                return;
+            }
+            awaitPendingBatches(maxPendingBatches - 1);
+            FutureTask<Void> task = new FutureTask<>(new Runnable() {
+                @Override
+                public void run() {
+                    deployBatch(entries);
+                }
+            }, null);
+            executor.execute(task);
+            pendingBatches.add(task);
+        }
+
+        private void deployBatch(List<BundleEntry> entries) {
+            if (aborted) {
+                closeEntries(entries);
+                return;
+            }
+            try {
+                getTransactionalMe().deployBundleEntries(targetRepo, entries, properties, status);
+                deployedCount.addAndGet(entries.size());
+            } catch (BundleEntryDeployException e) {
+                // the whole batch was rolled back, deploy the other entries on their own
+                int failedIndex = entries.indexOf(e.getEntry());
+                deployEachEntry(failFast ? entries.subList(0, failedIndex) : entries, e.getEntry());
+                abortIfFailFast();
+            } catch (Exception e) {
+                synchronized (status) {
+                    status.setError("Error during deployment of " + entries.size() + " archive entries: " +
+                            e.getMessage(), e, log);
                 }
-                throw new Exception(errorMessage, e);
+                abortIfFailFast();
+            } finally {
+                closeEntries(entries);
             }
-            throw e;
         }
-        return extractFolder;
-    }
 
-    private static DeployService getTransactionalMe() {
-        return InternalContextHelper.get().beanForType(DeployService.class);
+        private void deployEachEntry(List<BundleEntry> entries, BundleEntry failedEntry) {
+            for (BundleEntry entry : entries) {
+                if (aborted) {
+                    return;
+                }
+                if (entry == failedEntry) {
+                    continue;
+                }
+                try {
+                    getTransactionalMe().deployBundleEntries(targetRepo, Collections.singletonList(entry),
+                            properties, status);
+                    deployedCount.incrementAndGet();
+                } catch (BundleEntryDeployException e) {
+                    // already reported
+                    abortIfFailFast();
+                } catch (Exception e) {
+                    synchronized (status) {
+                        status.setError("Error during deployment of '" + entry.getRelPath() + "': " +
+                                e.getMessage(), e, log);
+                    }
+                    abortIfFailFast();
+                }
+            }
+        }
+
+        private void awaitPendingBatches(int maxPending) {
+            while (pendingBatches.size() > maxPending) {
+                Future<?> pendingBatch = pendingBatches.poll();
+                try {
+                    pendingBatch.get();
+                } catch (ExecutionException e) {
+                    synchronized (status) {
+                        status.setError("Error during deployment: " + e.getCause().getMessage(), e.getCause(), log);
+                    }
+                    abortIfFailFast();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException("Bundle deployment was interrupted", e);
+                }
+            }
+        }
+
+        private void closeEntries(List<BundleEntry> entries) {
+            for (BundleEntry entry : entries) {
+                entry.close();
+            }
+        }
     }
 }
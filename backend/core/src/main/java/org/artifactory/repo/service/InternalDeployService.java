@@ -0,0 +1,50 @@
+/*
+ * Artifactory is a binaries repository manager.
+ * Copyright (C) 2012 JFrog Ltd.
+ *
+ * Artifactory is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Artifactory is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Artifactory.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.artifactory.repo.service;
+
+import org.artifactory.api.common.BasicStatusHolder;
+import org.artifactory.api.repo.DeployService;
+import org.artifactory.api.repo.Request;
+import org.artifactory.descriptor.repo.RealRepoDescriptor;
+import org.artifactory.md.Properties;
+import org.artifactory.sapi.common.Lock;
+
+import java.util.List;
+
+/**
+ * The internal interface of the deploy service
+ */
+public interface InternalDeployService extends DeployService {
+
+    /**
+     * Creates the nodes of a batch of bundle entries, whose content is already in the binary store, within a single
+     * transaction. A failed entry is reported to the status holder and rolls back the whole batch, since the failure
+     * marks the transaction for rollback anyway.
+     *
+     * @param targetRepo The target repository
+     * @param entries    The entries to deploy, released by the caller
+     * @param properties Properties to attach to every deployed entry, may be null
+     * @param status     Status holder to report the entry failure to
+     * @throws BundleEntryDeployException If an entry failed, none of the entries is deployed then
+     */
+    @Lock
+    @Request
+    void deployBundleEntries(RealRepoDescriptor targetRepo, List<BundleEntry> entries, Properties properties,
+            BasicStatusHolder status);
+}
@@ -165,6 +165,15 @@ public interface InternalRepositoryService extends RepositoryService, Reloadable
     @Lock
     void reload(CentralConfigDescriptor oldDescriptor);
 
+    /**
+     * Initializes the repository in a new storage session. Used by the threads initializing repositories concurrently,
+     * which don't share the session of the initializing caller, to create the repository root folders.
+     *
+     * @param repo The repository to initialize
+     */
+    @Lock
+    void initRepository(Repo repo);
+
     RepoPath getExplicitDescriptorPathByArtifact(RepoPath repoPath);
 
     VirtualRepo getGlobalVirtualRepo();
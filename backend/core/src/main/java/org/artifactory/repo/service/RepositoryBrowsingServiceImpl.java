@@ -18,14 +18,11 @@
 
 package org.artifactory.repo.service;
 
-import com.google.common.base.Function;
 import com.google.common.base.Predicate;
-import com.google.common.collect.Collections2;
-import com.google.common.collect.HashMultimap;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
-import com.google.common.collect.Multimap;
+import com.google.common.collect.Sets;
 import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.lang.StringUtils;
 import org.artifactory.api.repo.BaseBrowsableItem;
@@ -46,6 +43,7 @@ import org.artifactory.fs.ItemInfo;
 import org.artifactory.md.Properties;
 import org.artifactory.mime.MavenNaming;
 import org.artifactory.mime.NamingUtils;
+import org.artifactory.model.xstream.fs.PropertiesImpl;
 import org.artifactory.repo.InternalRepoPathFactory;
 import org.artifactory.repo.LocalRepo;
 import org.artifactory.repo.RealRepo;
@@ -54,7 +52,8 @@ import org.artifactory.repo.RepoPath;
 import org.artifactory.repo.remote.browse.RemoteItem;
 import org.artifactory.repo.virtual.VirtualRepo;
 import org.artifactory.sapi.common.RepositoryRuntimeException;
-import org.artifactory.storage.fs.service.PropertiesService;
+import org.artifactory.sapi.fs.Visitor;
+import org.artifactory.storage.fs.service.FileService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -63,7 +62,6 @@ import org.springframework.stereotype.Service;
 import javax.annotation.Nonnull;
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
@@ -84,7 +82,7 @@ public class RepositoryBrowsingServiceImpl implements RepositoryBrowsingService
     private InternalRepositoryService repoService;
 
     @Autowired
-    private PropertiesService propertiesService;
+    private FileService fileService;
 
     @Override
     public BrowsableItem getLocalRepoBrowsableItem(RepoPath repoPath) {
@@ -135,12 +133,22 @@ public class RepositoryBrowsingServiceImpl implements RepositoryBrowsingService
             throw new FolderExpectedException(repoPath);
         }
 
-        List<ItemInfo> children = repoService.getChildren(repoPath);
+        // load the children and, when needed, their properties in a single query instead of one per child
+        Properties requestProperties = criteria.getRequestProperties();
+        Map<RepoPath, Properties> childrenProperties = null;
+        List<ItemInfo> children;
+        if (requestProperties == null || requestProperties.isEmpty()) {
+            children = fileService.loadChildren(repoPath);
+        } else {
+            childrenProperties = Maps.newHashMap();
+            children = fileService.loadChildren(repoPath, childrenProperties);
+        }
         if (children.isEmpty()) {
             return Lists.newArrayList();
         }
 
         LocalRepo repo = repoService.localOrCachedRepositoryByKey(repoPath.getRepoKey());
+        ChildrenReadPermission readPermission = new ChildrenReadPermission(repoPath);
         List<BaseBrowsableItem> repoPathChildren = Lists.newArrayList();
         for (ItemInfo child : children) {
             //Check if we should return the child
@@ -148,10 +156,11 @@ public class RepositoryBrowsingServiceImpl implements RepositoryBrowsingService
 
             BrowsableItem browsableItem = BrowsableItem.getItem(child);
 
-            if (canRead(repo, childRepoPath, child.isFolder())) {
+            if (readPermission.canRead(repo, childRepoPath, child.isFolder())) {
                 if (child.isFolder()) {
                     repoPathChildren.add(browsableItem);
-                } else if (isPropertiesMatch(child, criteria.getRequestProperties())) {   // match props for files
+                } else if (isPropertiesMatch(childrenProperties, childRepoPath, requestProperties)) {
+                    // match props for files
                     repoPathChildren.add(browsableItem);
                     if (criteria.isIncludeChecksums()) {
                         repoPathChildren.addAll(getBrowsableItemChecksumItems(repo,
@@ -165,6 +174,50 @@ public class RepositoryBrowsingServiceImpl implements RepositoryBrowsingService
         return repoPathChildren;
     }
 
+    @Override
+    public void visitLocalRepoBrowsableSubtree(@Nonnull final BrowsableItemCriteria criteria, int depth,
+            final Visitor<BaseBrowsableItem> visitor) {
+        final RepoPath repoPath = criteria.getRepoPath();
+        ItemInfo itemInfo = getItemInfo(repoPath);
+        if (itemInfo == null || depth <= 0) {
+            return;
+        }
+        if (!itemInfo.isFolder()) {
+            throw new FolderExpectedException(repoPath);
+        }
+
+        final LocalRepo repo = repoService.localOrCachedRepositoryByKey(repoPath.getRepoKey());
+        fileService.visitSubtree(repoPath, depth, new Visitor<ItemInfo>() {
+            // the children of a folder are received together, so the read permission is kept per parent folder
+            private RepoPath currentParent;
+            private ChildrenReadPermission readPermission;
+
+            @Override
+            public void visit(ItemInfo item) {
+                RepoPath itemRepoPath = item.getRepoPath();
+                if (itemRepoPath.equals(repoPath)) {
+                    return;
+                }
+                RepoPath parent = itemRepoPath.getParent();
+                if (readPermission == null || !parent.equals(currentParent)) {
+                    currentParent = parent;
+                    readPermission = new ChildrenReadPermission(parent);
+                }
+                if (!readPermission.canRead(repo, itemRepoPath, item.isFolder())) {
+                    return;
+                }
+                BrowsableItem browsableItem = BrowsableItem.getItem(item);
+                visitor.visit(browsableItem);
+                if (!item.isFolder() && criteria.isIncludeChecksums()) {
+                    for (BrowsableItem checksumItem : getBrowsableItemChecksumItems(repo,
+                            ((FileInfo) item).getChecksumsInfo(), browsableItem)) {
+                        visitor.visit(checksumItem);
+                    }
+                }
+            }
+        });
+    }
+
     private boolean canRead(RealRepo repo, RepoPath childRepoPath, boolean folder) {
         boolean canRead;
         if (folder) {
@@ -177,11 +230,15 @@ public class RepositoryBrowsingServiceImpl implements RepositoryBrowsingService
         return canRead;
     }
 
-    private boolean isPropertiesMatch(ItemInfo itemInfo, Properties requestProps) {
+    private boolean isPropertiesMatch(Map<RepoPath, Properties> childrenProperties, RepoPath childRepoPath,
+            Properties requestProps) {
         if (requestProps == null || requestProps.isEmpty()) {
             return true;
         }
-        Properties nodeProps = propertiesService.getProperties(itemInfo.getRepoPath());
+        Properties nodeProps = childrenProperties.get(childRepoPath);
+        if (nodeProps == null) {
+            nodeProps = new PropertiesImpl();
+        }
         Properties.MatchResult result = nodeProps.matchQuery(requestProps);
         return !Properties.MatchResult.CONFLICT.equals(result);
     }
@@ -227,9 +284,9 @@ public class RepositoryBrowsingServiceImpl implements RepositoryBrowsingService
     private void listRemoteBrowsableChildren(List<BaseBrowsableItem> children, RemoteRepo repo, String relativePath,
             boolean pathExistsInCache) {
         RepoPath repoPath = repo.getRepoPath(relativePath);
-        List<RemoteItem> remoteItems = Lists.newArrayList();
+        List<RemoteItem> remoteItems = Collections.emptyList();
         try {
-            remoteItems.addAll(repo.listRemoteResources(relativePath));
+            remoteItems = repo.listRemoteResources(relativePath);
         } catch (IOException e) {
             log.debug("Error while listing remote resources", e);
             // probably remote not found - return 404 only if current folder doesn't exist in the cache
@@ -239,9 +296,9 @@ public class RepositoryBrowsingServiceImpl implements RepositoryBrowsingService
             }
         }
         // filter already existing local items
-        remoteItems = Lists.newArrayList(
-                Iterables.filter(remoteItems, new RemoteOnlyBrowsableItemPredicate(children)));
-        for (RemoteItem remoteItem : remoteItems) {
+        Iterable<RemoteItem> remoteOnlyItems =
+                Iterables.filter(remoteItems, new RemoteOnlyBrowsableItemPredicate(children));
+        for (RemoteItem remoteItem : remoteOnlyItems) {
             // remove the remote repository base url
             String path = StringUtils.removeStart(remoteItem.getUrl(), repo.getUrl());
             RepoPath remoteRepoPath = InternalRepoPathFactory.create(repoPath.getRepoKey(), path);
@@ -266,41 +323,18 @@ public class RepositoryBrowsingServiceImpl implements RepositoryBrowsingService
             throw new IllegalArgumentException("No virtual repo found: " + virtualRepoKey);
         }
 
-        List<BaseBrowsableItem> candidateChildren = Lists.newArrayList();
+        VirtualChildrenMerger merger = new VirtualChildrenMerger(virtualRepo);
         List<VirtualRepo> searchableRepos = getSearchableRepos(virtualRepo, repoPath);
-        Multimap<String, VirtualRepo> pathToVirtualRepos = HashMultimap.create();
-        // add children from all local repos
+        // add children from all local and remote repos
         for (VirtualRepo repo : searchableRepos) {
-            addVirtualBrowsableItemsFromLocal(criteria, repo, candidateChildren, pathToVirtualRepos);
-            addVirtualBrowsableItemsFromRemote(criteria, repo, candidateChildren, pathToVirtualRepos);
-        }
-        // only add the candidate that this virtual repository accepts via its include/exclude rules
-        Map<String, BaseBrowsableItem> childrenToReturn = Maps.newHashMap();
-        for (BaseBrowsableItem child : candidateChildren) {
-
-            String childRelativePath = child.getRelativePath();
-            if (virtualRepoAccepts(virtualRepo, childRelativePath, child.isFolder())) {
-                VirtualBrowsableItem virtualItem;
-                if (childrenToReturn.containsKey(childRelativePath)) {
-                    virtualItem = (VirtualBrowsableItem) childrenToReturn.get(childRelativePath);
-                } else {
-                    Collection<VirtualRepo> virtualRepos = pathToVirtualRepos.get(childRelativePath);
-                    virtualItem = new VirtualBrowsableItem(child.getName(), child.isFolder(), child.getCreated(),
-                            child.getLastModified(), child.getSize(), InternalRepoPathFactory.create(virtualRepoKey,
-                            childRelativePath),
-                            Lists.<String>newArrayList(getSearchableRepoKeys(virtualRepos)));
-                    virtualItem.setRemote(true);    // default to true
-                    childrenToReturn.put(childRelativePath, virtualItem);
-                }
-                virtualItem.setRemote(virtualItem.isRemote() && child.isRemote());   // remote if all are remote
-                virtualItem.addRepoKey(child.getRepoKey());
-            }
+            addVirtualBrowsableItemsFromLocal(criteria, repo, merger);
+            addVirtualBrowsableItemsFromRemote(criteria, repo, merger);
         }
-        return Lists.newArrayList(childrenToReturn.values());
+        return merger.getMergedChildren();
     }
 
     private void addVirtualBrowsableItemsFromLocal(BrowsableItemCriteria criteria, VirtualRepo repo,
-            List<BaseBrowsableItem> candidateChildren, Multimap<String, VirtualRepo> pathToVirtualRepos) {
+            VirtualChildrenMerger merger) {
         String relativePath = criteria.getRepoPath().getPath();
         List<LocalRepo> localRepositories = repo.getLocalRepositories();
 
@@ -316,8 +350,7 @@ public class RepositoryBrowsingServiceImpl implements RepositoryBrowsingService
                 for (BaseBrowsableItem localRepoBrowsableChild : localRepoBrowsableChildren) {
                     if (virtualRepoAccepts(repo, localRepoBrowsableChild.getRelativePath(),
                             localRepoBrowsableChild.isFolder())) {
-                        pathToVirtualRepos.put(localRepoBrowsableChild.getRelativePath(), repo);
-                        candidateChildren.add(localRepoBrowsableChild);
+                        merger.add(repo, localRepoBrowsableChild);
                     }
                 }
             } catch (ItemNotFoundRuntimeException e) {
@@ -327,7 +360,7 @@ public class RepositoryBrowsingServiceImpl implements RepositoryBrowsingService
     }
 
     private void addVirtualBrowsableItemsFromRemote(BrowsableItemCriteria criteria, VirtualRepo repo,
-            List<BaseBrowsableItem> candidateChildren, Multimap<String, VirtualRepo> pathToVirtualRepos) {
+            VirtualChildrenMerger merger) {
         List<RemoteRepo> remoteRepositories = repo.getRemoteRepositories();
         // add children from all remote repos (and their caches)
         for (RemoteRepo remoteRepo : remoteRepositories) {
@@ -341,8 +374,7 @@ public class RepositoryBrowsingServiceImpl implements RepositoryBrowsingService
                 for (BaseBrowsableItem remoteRepoBrowsableChild : remoteRepoBrowsableChildren) {
                     if (virtualRepoAccepts(repo, remoteRepoBrowsableChild.getRelativePath(),
                             remoteRepoBrowsableChild.isFolder())) {
-                        pathToVirtualRepos.put(remoteRepoBrowsableChild.getRelativePath(), repo);
-                        candidateChildren.add(remoteRepoBrowsableChild);
+                        merger.add(repo, remoteRepoBrowsableChild);
                     }
                 }
             } catch (ItemNotFoundRuntimeException e) {
@@ -363,15 +395,6 @@ public class RepositoryBrowsingServiceImpl implements RepositoryBrowsingService
         return repos;
     }
 
-    private Collection<String> getSearchableRepoKeys(Collection<VirtualRepo> virtualRepos) {
-        return Collections2.transform(virtualRepos, new Function<VirtualRepo, String>() {
-            @Override
-            public String apply(@Nonnull VirtualRepo input) {
-                return input.getKey();
-            }
-        });
-    }
-
     private boolean virtualRepoAccepts(VirtualRepo virtualRepo, String relativePath, boolean isFolder) {
         if (isFolder) {
             relativePath += "/";
@@ -447,21 +470,80 @@ public class RepositoryBrowsingServiceImpl implements RepositoryBrowsingService
      * This predicate returns true if a given item, represented by URL, doesn't already exists in the local items.
      */
     private static class RemoteOnlyBrowsableItemPredicate implements Predicate<RemoteItem> {
-        private List<BaseBrowsableItem> localItems;
+        private final Set<String> localNames;
 
         private RemoteOnlyBrowsableItemPredicate(List<BaseBrowsableItem> localItems) {
-            this.localItems = localItems;
+            localNames = Sets.newHashSetWithExpectedSize(localItems.size());
+            for (BaseBrowsableItem localItem : localItems) {
+                localNames.add(localItem.getName());
+            }
         }
 
         @Override
         public boolean apply(@Nonnull RemoteItem input) {
-            for (BaseBrowsableItem localItem : localItems) {
-                if (localItem.getName().equals(input.getName())) {
-                    return false;
+            return !localNames.contains(input.getName());
+        }
+    }
+
+    /**
+     * Merges the children of the repositories aggregated by a virtual repository into a single virtual item per
+     * relative path. Children are merged as they are listed using a hash lookup on the relative path.
+     */
+    private class VirtualChildrenMerger {
+        private final VirtualRepo virtualRepo;
+        private final Map<String, MergedChild> mergedChildren = Maps.newLinkedHashMap();
+
+        private VirtualChildrenMerger(VirtualRepo virtualRepo) {
+            this.virtualRepo = virtualRepo;
+        }
+
+        /**
+         * @param repo  The aggregated virtual repository (might be the browsed one) that accepted the child
+         * @param child The child listed from one of the repositories of the aggregated virtual repository
+         */
+        private void add(VirtualRepo repo, BaseBrowsableItem child) {
+            String childRelativePath = child.getRelativePath();
+            MergedChild mergedChild = mergedChildren.get(childRelativePath);
+            if (mergedChild == null) {
+                mergedChild = new MergedChild();
+                mergedChildren.put(childRelativePath, mergedChild);
+            }
+            mergedChild.virtualRepoKeys.add(repo.getKey());
+            // only add the children that this virtual repository accepts via its include/exclude rules
+            if (virtualRepoAccepts(virtualRepo, childRelativePath, child.isFolder())) {
+                if (mergedChild.first == null) {
+                    mergedChild.first = child;
                 }
+                mergedChild.remote &= child.isRemote();   // remote if all are remote
+                mergedChild.repoKeys.add(child.getRepoKey());
             }
-            return true;
         }
+
+        private List<BaseBrowsableItem> getMergedChildren() {
+            List<BaseBrowsableItem> children = Lists.newArrayListWithCapacity(mergedChildren.size());
+            for (Map.Entry<String, MergedChild> entry : mergedChildren.entrySet()) {
+                MergedChild mergedChild = entry.getValue();
+                BaseBrowsableItem child = mergedChild.first;
+                if (child == null) {
+                    continue;
+                }
+                List<String> repoKeys = Lists.newArrayList(mergedChild.virtualRepoKeys);
+                repoKeys.addAll(mergedChild.repoKeys);
+                VirtualBrowsableItem virtualItem = new VirtualBrowsableItem(child.getName(), child.isFolder(),
+                        child.getCreated(), child.getLastModified(), child.getSize(),
+                        InternalRepoPathFactory.create(virtualRepo.getKey(), entry.getKey()), repoKeys);
+                virtualItem.setRemote(mergedChild.remote);
+                children.add(virtualItem);
+            }
+            return children;
+        }
+    }
+
+    private static class MergedChild {
+        private final Set<String> virtualRepoKeys = Sets.newLinkedHashSet();
+        private final List<String> repoKeys = Lists.newArrayList();
+        private BaseBrowsableItem first;
+        private boolean remote = true;
     }
 
     /**
@@ -491,4 +573,35 @@ public class RepositoryBrowsingServiceImpl implements RepositoryBrowsingService
 
         return browsableChecksumItems;
     }
+
+    /**
+     * Evaluates the read permission of the children of a folder. When no permission target can distinguish among
+     * the children, the permission is evaluated once for files and once for folders instead of once per child.
+     */
+    private class ChildrenReadPermission {
+        private final boolean uniform;
+        private Boolean canReadFiles;
+        private Boolean canReadFolders;
+
+        private ChildrenReadPermission(RepoPath folderRepoPath) {
+            uniform = authService.isChildrenReadUniform(folderRepoPath);
+        }
+
+        private boolean canRead(RealRepo repo, RepoPath childRepoPath, boolean folder) {
+            if (!uniform) {
+                return RepositoryBrowsingServiceImpl.this.canRead(repo, childRepoPath, folder);
+            }
+            if (folder) {
+                if (canReadFolders == null) {
+                    canReadFolders = authService.canImplicitlyReadParentPath(childRepoPath);
+                }
+                return canReadFolders && repo.accepts(childRepoPath.getPath() + "/");
+            } else {
+                if (canReadFiles == null) {
+                    canReadFiles = authService.canRead(childRepoPath);
+                }
+                return canReadFiles && repo.accepts(childRepoPath.getPath());
+            }
+        }
+    }
 }
@@ -23,6 +23,7 @@ import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.Uninterruptibles;
 import org.apache.commons.httpclient.HttpClient;
 import org.apache.commons.httpclient.HttpStatus;
 import org.apache.commons.httpclient.methods.GetMethod;
@@ -44,6 +45,7 @@ import org.artifactory.api.module.ModuleInfo;
 import org.artifactory.api.module.ModuleInfoUtils;
 import org.artifactory.api.module.VersionUnit;
 import org.artifactory.api.repo.ArchiveFileContent;
+import org.artifactory.api.repo.ChildrenPage;
 import org.artifactory.api.repo.exception.FileExpectedException;
 import org.artifactory.api.repo.exception.FolderExpectedException;
 import org.artifactory.api.repo.exception.ItemNotFoundRuntimeException;
@@ -81,6 +83,7 @@ import org.artifactory.fs.ZipEntryInfo;
 import org.artifactory.info.InfoWriter;
 import org.artifactory.io.StringResourceStreamHandle;
 import org.artifactory.maven.MavenMetadataCalculator;
+import org.artifactory.maven.MavenMetadataRecalculationPlan;
 import org.artifactory.maven.MavenPluginsMetadataCalculator;
 import org.artifactory.mbean.MBeanRegistrationService;
 import org.artifactory.md.Properties;
@@ -92,6 +95,7 @@ import org.artifactory.repo.count.ArtifactCountRetriever;
 import org.artifactory.repo.db.DbLocalRepo;
 import org.artifactory.repo.db.importexport.DbRepoExportSearchHandler;
 import org.artifactory.repo.interceptor.StorageInterceptors;
+import org.artifactory.repo.mbean.ManagedRemoteRepository;
 import org.artifactory.repo.mbean.ManagedRepository;
 import org.artifactory.repo.service.mover.MoverConfig;
 import org.artifactory.repo.service.mover.MoverConfigBuilder;
@@ -115,6 +119,7 @@ import org.artifactory.sapi.fs.MutableVfsItem;
 import org.artifactory.sapi.fs.VfsFile;
 import org.artifactory.sapi.fs.VfsFolder;
 import org.artifactory.sapi.fs.VfsItem;
+import org.artifactory.schedule.ArtifactoryConcurrentExecutor;
 import org.artifactory.schedule.Task;
 import org.artifactory.schedule.TaskBase;
 import org.artifactory.schedule.TaskCallback;
@@ -126,6 +131,7 @@ import org.artifactory.security.ArtifactoryPermission;
 import org.artifactory.security.PermissionTargetInfo;
 import org.artifactory.spring.InternalContextHelper;
 import org.artifactory.spring.Reloadable;
+import org.artifactory.storage.fs.aggregate.FolderAggregatesFlushJob;
 import org.artifactory.storage.fs.lock.LockingHelper;
 import org.artifactory.storage.fs.service.FileService;
 import org.artifactory.storage.fs.service.ItemMetaInfo;
@@ -159,12 +165,15 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.zip.ZipEntry;
@@ -249,6 +258,14 @@ public class RepositoryServiceImpl implements InternalRepositoryService {
                 TimeUnit.SECONDS.toMillis(ConstantValues.statsFlushIntervalSecs.getLong()),
                 TimeUnit.SECONDS.toMillis(ConstantValues.statsFlushIntervalSecs.getLong()));
         taskService.startTask(statsFlushTask, false);
+
+        if (ConstantValues.folderAggregatesEnabled.getBoolean()) {
+            // register folder aggregates flushing job, also calculating the aggregates of existing databases
+            TaskBase aggregatesFlushTask = TaskUtils.createRepeatingTask(FolderAggregatesFlushJob.class,
+                    TimeUnit.SECONDS.toMillis(ConstantValues.folderAggregatesFlushIntervalSecs.getLong()),
+                    TimeUnit.SECONDS.toMillis(ConstantValues.folderAggregatesFlushIntervalSecs.getLong()));
+            taskService.startTask(aggregatesFlushTask, false);
+        }
     }
 
     @Override
@@ -383,13 +400,6 @@ public class RepositoryServiceImpl implements InternalRepositoryService {
                 }
             }
             LocalRepo repo = new DbLocalRepo<LocalRepoDescriptor>(repoDescriptor, transactionalMe, oldLocalRepo);
-            try {
-                repo.init();
-            } catch (Exception e) {
-                log.error("Failed to initialize local repository '{}'. Repository will be blacked-out", repo.getKey(),
-                        e);
-                ((LocalRepoDescriptor) repo.getDescriptor()).setBlackedOut(true);
-            }
             localRepositoriesMap.put(repo.getKey(), repo);
         }
 
@@ -408,14 +418,25 @@ public class RepositoryServiceImpl implements InternalRepositoryService {
             }
             RemoteRepo repo = nuGetAddon.createRemoteRepo(transactionalMe, repoDescriptor,
                     centralConfig.isOfflineMode(), oldRemoteRepo);
-            try {
-                repo.init();
-            } catch (Exception e) {
+            remoteRepositoriesMap.put(repo.getKey(), repo);
+        }
+
+        // local and remote repos don't depend on each other and are initialized concurrently
+        List<Repo> realRepos = Lists.newArrayList();
+        realRepos.addAll(localRepositoriesMap.values());
+        realRepos.addAll(remoteRepositoriesMap.values());
+        Map<Repo, Exception> realReposFailures = initRepositories(realRepos, "local and remote");
+        for (Map.Entry<Repo, Exception> failure : realReposFailures.entrySet()) {
+            Repo repo = failure.getKey();
+            if (repo instanceof RemoteRepo) {
                 log.error("Failed to initialize remote repository '" + repo.getKey() + "'. " +
-                        "Repository will be blacked-out!", e);
+                        "Repository will be blacked-out!", failure.getValue());
                 ((HttpRepoDescriptor) repo.getDescriptor()).setBlackedOut(true);
+            } else {
+                log.error("Failed to initialize local repository '{}'. Repository will be blacked-out",
+                        repo.getKey(), failure.getValue());
+                ((LocalRepoDescriptor) repo.getDescriptor()).setBlackedOut(true);
             }
-            remoteRepositoriesMap.put(repo.getKey(), repo);
         }
 
         // create on-the-fly repo descriptor to be used by the global virtual repo
@@ -445,9 +466,12 @@ public class RepositoryServiceImpl implements InternalRepositoryService {
             virtualRepositoriesMap.put(repo.getKey(), repo);
         }
 
-        // 2. call the init method only after all virtual repos exist
-        for (VirtualRepo virtualRepo : virtualRepositoriesMap.values()) {
-            virtualRepo.init();
+        // 2. call the init method only after all virtual repos exist and all their real members are initialized
+        Map<Repo, Exception> virtualReposFailures =
+                initRepositories(Lists.<Repo>newArrayList(virtualRepositoriesMap.values()), "virtual");
+        if (!virtualReposFailures.isEmpty()) {
+            Exception failure = virtualReposFailures.values().iterator().next();
+            throw failure instanceof RuntimeException ? (RuntimeException) failure : new RuntimeException(failure);
         }
 
         initAllRepoKeysCache();
@@ -455,6 +479,105 @@ public class RepositoryServiceImpl implements InternalRepositoryService {
         registerRepositoriesMBeans();
     }
 
+    /**
+     * Initializes the given repositories using up to {@link ConstantValues#repoInitThreads} threads and waits for all
+     * of them to complete. The init time of each repository is logged.
+     * <p/>
+     * The storage session of the caller is bound to the calling thread, so repositories initialized by worker threads
+     * are initialized in a session of their own, through {@link InternalRepositoryService#initRepository(Repo)}.
+     *
+     * @param repos    Repositories to initialize
+     * @param repoType Type of the repositories for the log messages
+     * @return The repositories which failed to initialize, in the given order, mapped to the failure
+     */
+    Map<Repo, Exception> initRepositories(List<Repo> repos, String repoType) {
+        final Map<Repo, Exception> failures = new ConcurrentHashMap<>();
+        final Map<String, Long> initTimes = new ConcurrentHashMap<>();
+        int threads = Math.min(ConstantValues.repoInitThreads.getInt(), repos.size());
+        long start = System.nanoTime();
+        if (threads <= 1) {
+            for (Repo repo : repos) {
+                initRepository(repo, false, failures, initTimes);
+            }
+        } else {
+            ArtifactoryConcurrentExecutor executor = new ArtifactoryConcurrentExecutor("repo-init-", threads,
+                    repos.size());
+            final CountDownLatch initialized = new CountDownLatch(repos.size());
+            try {
+                for (final Repo repo : repos) {
+                    executor.execute(new Runnable() {
+                        @Override
+                        public void run() {
+                            try {
+                                initRepository(repo, true, failures, initTimes);
+                            } finally {
+                                initialized.countDown();
+                            }
+                        }
+                    });
+                }
+                // half initialized repositories are worse than a late interrupt
+                Uninterruptibles.awaitUninterruptibly(initialized);
+            } finally {
+                executor.shutdown();
+            }
+        }
+        logInitTimes(repoType, initTimes, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), threads);
+
+        Map<Repo, Exception> orderedFailures = Maps.newLinkedHashMap();
+        for (Repo repo : repos) {
+            if (failures.containsKey(repo)) {
+                orderedFailures.put(repo, failures.get(repo));
+            }
+        }
+        return orderedFailures;
+    }
+
+    @Override
+    public void initRepository(Repo repo) {
+        repo.init();
+    }
+
+    private void initRepository(Repo repo, boolean newSession, Map<Repo, Exception> failures,
+            Map<String, Long> initTimes) {
+        long start = System.nanoTime();
+        try {
+            if (newSession) {
+                getTransactionalMe().initRepository(repo);
+            } else {
+                repo.init();
+            }
+        } catch (Exception e) {
+            failures.put(repo, e);
+        } finally {
+            long initMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            initTimes.put(repo.getKey(), initMillis);
+            log.debug("Repository '{}' initialized in {}ms", repo.getKey(), initMillis);
+        }
+    }
+
+    private void logInitTimes(String repoType, Map<String, Long> initTimes, long totalMillis, int threads) {
+        if (initTimes.isEmpty()) {
+            return;
+        }
+        List<Map.Entry<String, Long>> slowest = Lists.newArrayList(initTimes.entrySet());
+        Collections.sort(slowest, new Comparator<Map.Entry<String, Long>>() {
+            @Override
+            public int compare(Map.Entry<String, Long> o1, Map.Entry<String, Long> o2) {
+                return o2.getValue().compareTo(o1.getValue());
+            }
+        });
+        StringBuilder slowestRepos = new StringBuilder();
+        for (Map.Entry<String, Long> initTime : slowest.subList(0, Math.min(5, slowest.size()))) {
+            if (slowestRepos.length() > 0) {
+                slowestRepos.append(", ");
+            }
+            slowestRepos.append(initTime.getKey()).append(" (").append(initTime.getValue()).append("ms)");
+        }
+        log.info("Initialized {} {} repositories in {}ms using {} thread(s). Slowest: {}",
+                new Object[]{initTimes.size(), repoType, totalMillis, Math.max(1, threads), slowestRepos});
+    }
+
     @Override
     public List<ItemInfo> getChildrenDeeply(RepoPath path) {
         List<ItemInfo> result = Lists.newArrayList();
@@ -590,9 +713,14 @@ public class RepositoryServiceImpl implements InternalRepositoryService {
         LocalRepo repo = localOrCachedRepositoryByKey(repoPath.getRepoKey());
         if (repo != null && repo.itemExists(repoPath.getPath())) {
             List<ItemInfo> children = fileService.loadChildren(repoPath);
+            // a single check is enough when no permission target can tell the children apart
+            boolean uniform = !children.isEmpty() && authService.isChildrenReadUniform(repoPath);
+            if (uniform && !authService.canImplicitlyReadParentPath(children.get(0).getRepoPath())) {
+                children = Collections.emptyList();
+            }
             for (ItemInfo child : children) {
                 //Check if we should return the child
-                boolean childReader = authService.canImplicitlyReadParentPath(child.getRepoPath());
+                boolean childReader = uniform || authService.canImplicitlyReadParentPath(child.getRepoPath());
                 if (!childReader) {
                     //Don't bother with stuff that we do not have read access to
                     continue;
@@ -606,6 +734,34 @@ public class RepositoryServiceImpl implements InternalRepositoryService {
         return filteredChildren;
     }
 
+    @Override
+    @Nonnull
+    public ChildrenPage getChildren(RepoPath repoPath, @Nullable String continuation, int pageSize) {
+        if (pageSize <= 0) {
+            pageSize = ConstantValues.childrenPageSize.getInt();
+        }
+        pageSize = Math.min(pageSize, ConstantValues.childrenMaxPageSize.getInt());
+        LocalRepo repo = localOrCachedRepositoryByKey(repoPath.getRepoKey());
+        if (repo == null || !repo.itemExists(repoPath.getPath())) {
+            return new ChildrenPage(Collections.<ItemInfo>emptyList(), null);
+        }
+
+        // the continuation is the last scanned child, readable or not, so unreadable children are never rescanned
+        ChildrenPage page = fileService.loadChildren(repoPath, continuation, pageSize);
+        List<ItemInfo> children = page.getChildren();
+        List<ItemInfo> filteredChildren = Lists.newArrayListWithCapacity(children.size());
+        boolean uniform = !children.isEmpty() && authService.isChildrenReadUniform(repoPath);
+        if (uniform && !authService.canImplicitlyReadParentPath(children.get(0).getRepoPath())) {
+            children = Collections.emptyList();
+        }
+        for (ItemInfo child : children) {
+            if (uniform || authService.canImplicitlyReadParentPath(child.getRepoPath())) {
+                filteredChildren.add(child);
+            }
+        }
+        return new ChildrenPage(filteredChildren, page.getContinuation());
+    }
+
     @Override
     public List<String> getChildrenNames(RepoPath repoPath) {
         List<ItemInfo> childrenInfo = getChildren(repoPath);
@@ -1307,14 +1463,72 @@ public class RepositoryServiceImpl implements InternalRepositoryService {
     @Override
     public void recalculateMavenMetadataOnMarkedFolders() {
         Set<RepoPath> pendingCalculations = tasksService.getMavenMetadataCalculationTasks();
-        for (RepoPath repoPath : pendingCalculations) {
-            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-            securityService.authenticateAsSystem();
-            try {
-                calculateMavenMetadataAsync(repoPath);
-            } finally {
-                // restore the previous authentication
-                SecurityContextHolder.getContext().setAuthentication(authentication);
+        if (pendingCalculations.isEmpty()) {
+            return;
+        }
+        // marks under another marked folder are covered by the recursive calculation of the ancestor
+        final MavenMetadataRecalculationPlan plan = new MavenMetadataRecalculationPlan(pendingCalculations);
+        List<RepoPath> roots = plan.getRoots();
+        log.info("Recalculating maven metadata on {} marked folders ({} after coalescing)",
+                plan.getMarksCount(), roots.size());
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        securityService.authenticateAsSystem();
+        int threads = Math.min(ConstantValues.mvnMetadataRecalculationThreads.getInt(), roots.size());
+        try {
+            if (threads <= 1) {
+                for (RepoPath root : roots) {
+                    recalculateMavenMetadataOnMarkedRoot(root, plan.getCoveredMarks(root));
+                }
+            } else {
+                // the roots are disjoint subtrees and are calculated concurrently
+                ArtifactoryConcurrentExecutor executor = new ArtifactoryConcurrentExecutor("mvn-metadata-", threads,
+                        roots.size());
+                final CountDownLatch calculated = new CountDownLatch(roots.size());
+                try {
+                    for (final RepoPath root : roots) {
+                        executor.execute(new Runnable() {
+                            @Override
+                            public void run() {
+                                try {
+                                    recalculateMavenMetadataOnMarkedRoot(root, plan.getCoveredMarks(root));
+                                } finally {
+                                    calculated.countDown();
+                                }
+                            }
+                        });
+                    }
+                    calculated.await();
+                } catch (InterruptedException e) {
+                    // remaining marks stay in place and are picked up on the next recalculation
+                    log.warn("Interrupted while recalculating maven metadata on marked folders");
+                    Thread.currentThread().interrupt();
+                } finally {
+                    executor.shutdown();
+                }
+            }
+        } finally {
+            // restore the previous authentication
+            SecurityContextHolder.getContext().setAuthentication(authentication);
+        }
+    }
+
+    /**
+     * Calculates the metadata of a coalesced root and removes the marks it covered. Each root removes its marks as it
+     * completes, so an interrupted recalculation resumes with the remaining roots only. If the root calculation fails
+     * the covered marks are kept, and the next recalculation retries them on their own.
+     */
+    private void recalculateMavenMetadataOnMarkedRoot(RepoPath root, List<RepoPath> coveredMarks) {
+        try {
+            // removes the mark of the root itself
+            calculateMavenMetadata(root);
+        } catch (Exception e) {
+            log.error("Failed to recalculate maven metadata on '" + root + "'", e);
+            return;
+        }
+        for (RepoPath coveredMark : coveredMarks) {
+            if (!coveredMark.equals(root)) {
+                getTransactionalMe().removeMarkForMavenMetadataRecalculation(coveredMark);
             }
         }
     }
@@ -1739,8 +1953,19 @@ public class RepositoryServiceImpl implements InternalRepositoryService {
             throw new ItemNotFoundRuntimeException("Could not find item: " + pathToSearch.getId());
         }
 
-        ItemInfo itemLastModified = collectLastModifiedRecursively(pathToSearch);
-        return itemLastModified;
+        ItemInfo itemInfo = getItemInfo(pathToSearch);
+        if (!itemInfo.isFolder()) {
+            return itemInfo;
+        }
+        FileInfo lastModifiedFile = fileService.loadLastModifiedFile(pathToSearch);
+        if (lastModifiedFile == null || lastModifiedFile.getLastModified() <= itemInfo.getLastModified()) {
+            return itemInfo;
+        }
+        if (authService.canImplicitlyReadParentPath(lastModifiedFile.getRepoPath())) {
+            return lastModifiedFile;
+        }
+        // the latest file is hidden from the current user, look for the latest readable item
+        return collectLastModifiedRecursively(pathToSearch);
     }
 
     @Override
@@ -2223,8 +2448,13 @@ public class RepositoryServiceImpl implements InternalRepositoryService {
         MBeanRegistrationService registrationService = ContextHelper.get().beanForType(MBeanRegistrationService.class);
         registrationService.unregisterAll(REPOSITORIES_MBEAN_TYPE);
         for (LocalRepoDescriptor descriptor : getLocalAndCachedRepoDescriptors()) {
-            registrationService.register(new ManagedRepository(descriptor), REPOSITORIES_MBEAN_TYPE,
-                    descriptor.getKey());
+            ManagedRepository managedRepository;
+            if (descriptor instanceof LocalCacheRepoDescriptor) {
+                managedRepository = new ManagedRemoteRepository((LocalCacheRepoDescriptor) descriptor);
+            } else {
+                managedRepository = new ManagedRepository(descriptor);
+            }
+            registrationService.register(managedRepository, REPOSITORIES_MBEAN_TYPE, descriptor.getKey());
         }
     }
 }
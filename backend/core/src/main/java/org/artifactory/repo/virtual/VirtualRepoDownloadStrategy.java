@@ -29,6 +29,7 @@ import org.artifactory.api.module.ModuleInfo;
 import org.artifactory.api.repo.exception.FileExpectedException;
 import org.artifactory.api.repo.exception.RepoRejectException;
 import org.artifactory.api.request.TranslatedArtifactoryRequest;
+import org.artifactory.common.ConstantValues;
 import org.artifactory.descriptor.repo.LocalRepoDescriptor;
 import org.artifactory.descriptor.repo.RemoteRepoDescriptor;
 import org.artifactory.descriptor.repo.RepoLayout;
@@ -242,16 +243,46 @@ public class VirtualRepoDownloadStrategy {
                     "received from another Artifactory instance but is forbidden to search in remote repositories.");
         } else {
             RepoRequests.logToContext("Appending collective remote repositories");
+            List<RemoteRepo> remoteRepositories = Lists.newArrayList();
             for (RemoteRepoDescriptor remoteRepoDescriptor : resolver.getRemoteRepos()) {
                 RemoteRepo remoteRepo = repositoryService.remoteRepositoryByKey(remoteRepoDescriptor.getKey());
                 if (remoteRepo != null) {
-                    repositories.add(remoteRepo);
+                    remoteRepositories.add(remoteRepo);
                 }
             }
+            if (ConstantValues.remoteHealthOrderVirtualResolution.getBoolean()) {
+                remoteRepositories = orderByHealth(remoteRepositories);
+            }
+            repositories.addAll(remoteRepositories);
         }
         return repositories;
     }
 
+    /**
+     * Moves slow and failing remote repositories after the healthy ones, keeping the configured order among remote
+     * repositories of the same health rank.
+     */
+    private List<RemoteRepo> orderByHealth(List<RemoteRepo> remoteRepositories) {
+        // bucket by a snapshot of the rank, as the health may change concurrently
+        List<List<RemoteRepo>> byRank = Lists.newArrayList();
+        for (RemoteRepo remoteRepo : remoteRepositories) {
+            int rank = remoteRepo.getHealth().getRank();
+            while (byRank.size() <= rank) {
+                byRank.add(Lists.<RemoteRepo>newArrayList());
+            }
+            byRank.get(rank).add(remoteRepo);
+            if (rank > 0) {
+                RepoRequests.logToContext("Deferring remote repository %s - %s", remoteRepo.getKey(),
+                        remoteRepo.getHealth());
+            }
+        }
+        List<RemoteRepo> ordered = Lists.newArrayListWithCapacity(remoteRepositories.size());
+        for (List<RemoteRepo> sameRank : byRank) {
+            ordered.addAll(sameRank);
+        }
+        return ordered;
+    }
+
     /**
      * Iterate over a list of repos until a resource is found in one of them, and return that resource. The first
      * resource that is found is returned. The order of searching is: local repos, cache repos and remote repos (unless
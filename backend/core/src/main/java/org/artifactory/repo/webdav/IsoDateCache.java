@@ -0,0 +1,61 @@
+/*
+ * Artifactory is a binaries repository manager.
+ * Copyright (C) 2012 JFrog Ltd.
+ *
+ * Artifactory is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Artifactory is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Artifactory.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.artifactory.repo.webdav;
+
+import org.apache.commons.lang.time.FastDateFormat;
+
+import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A thread safe cache of dates formatted in the ISO representation used by webdav responses. Dates are formatted to
+ * the second and the items of a folder are usually created and modified together, so most lookups are hits.
+ */
+class IsoDateCache {
+
+    /**
+     * GMT timezone - all HTTP dates are on GMT
+     */
+    private static final FastDateFormat ISO_DATE_FORMAT =
+            FastDateFormat.getInstance("yyyy-MM-dd'T'HH:mm:ss'Z'", TimeZone.getTimeZone("GMT"));
+
+    private final int maxSize;
+    private final ConcurrentMap<Long, String> formattedDates = new ConcurrentHashMap<>();
+
+    IsoDateCache(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    String format(long millis) {
+        long seconds = millis / 1000;
+        if (millis % 1000 < 0) {
+            seconds--;
+        }
+        String formattedDate = formattedDates.get(seconds);
+        if (formattedDate == null) {
+            if (formattedDates.size() >= maxSize) {
+                formattedDates.clear();
+            }
+            formattedDate = ISO_DATE_FORMAT.format(seconds * 1000);
+            formattedDates.put(seconds, formattedDate);
+        }
+        return formattedDate;
+    }
+}
@@ -40,6 +40,7 @@ import org.artifactory.repo.RepoPath;
 import org.artifactory.repo.service.InternalRepositoryService;
 import org.artifactory.request.ArtifactoryRequest;
 import org.artifactory.sapi.fs.VfsFolder;
+import org.artifactory.sapi.fs.Visitor;
 import org.artifactory.util.HttpUtils;
 import org.artifactory.util.PathUtils;
 import org.slf4j.Logger;
@@ -64,11 +65,8 @@ import java.io.IOException;
 import java.io.StringWriter;
 import java.io.Writer;
 import java.net.URLDecoder;
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
-import java.util.Date;
 import java.util.List;
-import java.util.TimeZone;
 
 /**
  * Service class to handle webdav protocol.<p/> Webdav RFCc at: <a href="http://www.ietf.org/rfc/rfc2518.txt">rfc2518</a>,
@@ -106,15 +104,14 @@ public class WebdavServiceImpl implements WebdavService {
     protected static final String DEFAULT_NAMESPACE = "DAV:";
 
     /**
-     * Simple date format for the creation date ISO representation (partial).
+     * Number of response elements buffered before they are written to the client
      */
-    protected static final SimpleDateFormat creationDateFormat =
-            new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss'Z'");
+    private static final int RESPONSES_PER_WRITE = 100;
 
-    static {
-        //GMT timezone - all HTTP dates are on GMT
-        creationDateFormat.setTimeZone(TimeZone.getTimeZone("GMT"));
-    }
+    /**
+     * Creation and modification dates in ISO representation (partial), shared by all the requests
+     */
+    private static final IsoDateCache isoDates = new IsoDateCache(10000);
 
     @Autowired
     private AuthorizationService authService;
@@ -200,8 +197,10 @@ public class WebdavServiceImpl implements WebdavService {
             rootItem = repoBrowsing.getLocalRepoBrowsableItem(repoPath);
         }
         if (rootItem != null) {
-            recursiveParseProperties(request, response, generatedXml, rootItem, propertyFindType, properties,
-                    depth);
+            parseProperties(request, generatedXml, rootItem, propertyFindType, properties);
+            if (depth > 0 && rootItem.isFolder()) {
+                streamSubtreeProperties(request, generatedXml, rootItem, propertyFindType, properties, depth);
+            }
         } else {
             log.warn("Item '" + request.getRepoPath() + "' not found.");
         }
@@ -579,26 +578,41 @@ public class WebdavServiceImpl implements WebdavService {
     }
 
     /**
-     * goes recursive through all folders. used by propfind
+     * Writes the properties of all the items under the folder up to the given depth, as they are read by a single
+     * subtree query. Used by propfind.
      */
-    private void recursiveParseProperties(ArtifactoryRequest request, ArtifactoryResponse response,
-            XmlWriter generatedXml, BaseBrowsableItem currentItem, int propertyFindType, List<String> properties,
-            int depth)
+    private void streamSubtreeProperties(final ArtifactoryRequest request, final XmlWriter generatedXml,
+            BaseBrowsableItem folder, final int propertyFindType, final List<String> properties, int depth)
             throws IOException {
-
-        parseProperties(request, generatedXml, currentItem, propertyFindType, properties);
-
-        if (depth <= 0) {
-            return;
+        BrowsableItemCriteria criteria = new BrowsableItemCriteria.Builder(folder.getRepoPath()).build();
+        try {
+            repoBrowsing.visitLocalRepoBrowsableSubtree(criteria, depth, new Visitor<BaseBrowsableItem>() {
+                private int bufferedResponses;
+
+                @Override
+                public void visit(BaseBrowsableItem item) {
+                    try {
+                        parseProperties(request, generatedXml, item, propertyFindType, properties);
+                        if (++bufferedResponses == RESPONSES_PER_WRITE) {
+                            generatedXml.sendData();
+                            bufferedResponses = 0;
+                        }
+                    } catch (IOException e) {
+                        throw new PropfindStreamException(e);
+                    }
+                }
+            });
+        } catch (PropfindStreamException e) {
+            throw (IOException) e.getCause();
         }
+    }
 
-        if (currentItem.isFolder()) {
-            BrowsableItemCriteria criteria = new BrowsableItemCriteria.Builder(currentItem.getRepoPath()).build();
-            List<BaseBrowsableItem> browsableChildren = repoBrowsing.getLocalRepoBrowsableChildren(criteria);
-            for (BaseBrowsableItem child : browsableChildren) {
-                recursiveParseProperties(request, response, generatedXml, child,
-                        propertyFindType, properties, depth - 1);
-            }
+    /**
+     * Carries a failure to write the response out of the subtree visitor
+     */
+    private static class PropfindStreamException extends RuntimeException {
+        private PropfindStreamException(IOException cause) {
+            super(cause);
         }
     }
 
@@ -613,8 +627,8 @@ public class WebdavServiceImpl implements WebdavService {
     /**
      * Get creation date in ISO format.
      */
-    private static synchronized String getIsoDate(long creationDate) {
-        return creationDateFormat.format(new Date(creationDate));
+    private static String getIsoDate(long creationDate) {
+        return isoDates.format(creationDate);
     }
 
     private void logWebdavRequest(Document document) throws TransformerException {
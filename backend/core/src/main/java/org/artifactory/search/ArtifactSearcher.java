@@ -21,6 +21,7 @@ package org.artifactory.search;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import org.apache.commons.lang.StringUtils;
+import org.artifactory.api.context.ContextHelper;
 import org.artifactory.api.search.ItemSearchResults;
 import org.artifactory.api.search.artifact.ArtifactSearchControls;
 import org.artifactory.api.search.artifact.ArtifactSearchResult;
@@ -33,7 +34,9 @@ import org.artifactory.sapi.search.VfsQuery;
 import org.artifactory.sapi.search.VfsQueryResult;
 import org.artifactory.sapi.search.VfsQueryResultType;
 import org.artifactory.sapi.search.VfsQueryRow;
+import org.artifactory.search.ngram.NodeNameIndex;
 
+import javax.annotation.Nullable;
 import java.util.Collection;
 import java.util.EnumMap;
 import java.util.List;
@@ -55,6 +58,13 @@ public class ArtifactSearcher extends SearcherBase<ArtifactSearchControls, Artif
         if (StringUtils.isNotBlank(relativePath)) {
             query.addPathFilter(relativePath);
         }
+        Collection<Long> candidates = findNameCandidates(providedQuery);
+        if (candidates != null) {
+            if (candidates.isEmpty()) {
+                return new ItemSearchResults<ArtifactSearchResult>(results, 0);
+            }
+            query.nodeIds(candidates);
+        }
         query.expectedResult(VfsQueryResultType.FILE)
                 .prop("node_name").val(providedQuery);
         VfsQueryResult queryResult = query.execute(limit);
@@ -71,6 +81,21 @@ public class ArtifactSearcher extends SearcherBase<ArtifactSearchControls, Artif
         return new ItemSearchResults<ArtifactSearchResult>(results, queryResult.getCount());
     }
 
+    /**
+     * A name pattern starting with a wildcard cannot use the node name database index, so the node name index is
+     * consulted (when ready) to narrow the nodes the query has to check.
+     *
+     * @param namePattern The searched name pattern
+     * @return The ids of the nodes that may match, or null if the whole nodes table has to be searched
+     */
+    @Nullable
+    private Collection<Long> findNameCandidates(String namePattern) {
+        if (StringUtils.isBlank(namePattern) || !StringUtils.startsWithAny(namePattern, new String[]{"*", "?", "%"})) {
+            return null;
+        }
+        return ContextHelper.get().beanForType(NodeNameIndex.class).findCandidates(namePattern);
+    }
+
     /**
      * Searches for artifacts by their checksum values
      *
@@ -55,6 +55,7 @@ import org.artifactory.repo.Repo;
 import org.artifactory.repo.RepoPath;
 import org.artifactory.repo.service.InternalRepositoryService;
 import org.artifactory.sapi.common.RepositoryRuntimeException;
+import org.artifactory.sapi.fs.Visitor;
 import org.artifactory.sapi.search.VfsQuery;
 import org.artifactory.sapi.search.VfsQueryResult;
 import org.artifactory.sapi.search.VfsQueryRow;
@@ -192,6 +193,14 @@ public class SearchServiceImpl implements InternalSearchService {
         return results;
     }
 
+    @Override
+    public long searchProperty(PropertySearchControls controls, Visitor<PropertySearchResult> visitor) {
+        if (shouldReturnEmptyResults(controls)) {
+            return 0;
+        }
+        return new PropertySearcher().searchStreaming(controls, visitor);
+    }
+
     @Override
     public List<SerializablePair<RepoPath, Calendar>> searchArtifactsCreatedOrModifiedInRange(Calendar from,
             Calendar to,
@@ -313,8 +322,7 @@ public class SearchServiceImpl implements InternalSearchService {
                         }
                     }
                     if (repoKey != null) {
-                        collectLocalRepoItemsRecursively(patternFragments, pathsToReturn,
-                                InternalRepoPathFactory.create(repoKey, ""));
+                        collectLocalRepoItemsByQuery(patternFragments, pathsToReturn, repoKey);
                     }
                 } else {
                     collectVirtualRepoItemsRecursively(patternFragments, pathsToReturn,
@@ -358,40 +366,50 @@ public class SearchServiceImpl implements InternalSearchService {
     }
 
     /**
-     * Recursively collect items matching a given pattern from a local repo
+     * Collect the files matching a given pattern from a local repo with a single query. The pattern fragments are
+     * compiled to a path filter at the exact depth of the files plus a name filter, and each file returned is then
+     * checked against the fragments since the database wildcards are looser than the pattern ones. Like the children
+     * listings the folder by folder walk used, only the files the user can read are returned.
      *
-     * @param patternFragments Accepted pattern fragments
+     * @param patternFragments Accepted pattern fragments, the last one matching the file name
      * @param pathsToReturn    Result path aggregator
-     * @param repoPath         Repo path to search at
+     * @param repoKey          Key of the local repo to search in
      */
-    private void collectLocalRepoItemsRecursively(List<String> patternFragments, Set<String> pathsToReturn,
-            RepoPath repoPath) {
-
-        org.artifactory.fs.ItemInfo itemInfo = repoService.getItemInfo(repoPath);
-
-        if (!patternFragments.isEmpty()) {
-
-            if (itemInfo.isFolder()) {
-
-                String firstFragment = patternFragments.get(0);
-                if (StringUtils.isBlank(firstFragment)) {
-                    return;
-                }
-
-                for (String childName : repoService.getChildrenNames(repoPath)) {
+    private void collectLocalRepoItemsByQuery(List<String> patternFragments, Set<String> pathsToReturn,
+            String repoKey) {
+        if (patternFragments.isEmpty()) {
+            return;
+        }
+        int fragmentsCount = patternFragments.size();
+        VfsQuery query = vfsQueryService.createQuery()
+                .setSingleRepoKey(repoKey)
+                .expectedResult(FILE)
+                .depth(fragmentsCount);
+        if (fragmentsCount > 1) {
+            query.addPathFilter(StringUtils.join(patternFragments.subList(0, fragmentsCount - 1), "/"));
+        }
+        query.name(patternFragments.get(fragmentsCount - 1));
 
-                    if (patternMatches(firstFragment, childName)) {
+        for (VfsQueryRow row : query.executeCursor(null, ConstantValues.searchCursorPageSize.getInt())) {
+            RepoPath repoPath = row.getItem().getRepoPath();
+            if (pathMatchesFragments(patternFragments, repoPath.getPath())
+                    && authService.canImplicitlyReadParentPath(repoPath)) {
+                pathsToReturn.add(repoPath.getPath());
+            }
+        }
+    }
 
-                        List<String> fragmentsToPass = Lists.newArrayList(patternFragments);
-                        fragmentsToPass.remove(0);
-                        collectLocalRepoItemsRecursively(fragmentsToPass, pathsToReturn,
-                                InternalRepoPathFactory.create(repoPath, childName));
-                    }
-                }
+    private boolean pathMatchesFragments(List<String> patternFragments, String path) {
+        String[] pathElements = StringUtils.split(path, "/");
+        if (pathElements.length != patternFragments.size()) {
+            return false;
+        }
+        for (int i = 0; i < pathElements.length; i++) {
+            if (!patternMatches(patternFragments.get(i), pathElements[i])) {
+                return false;
             }
-        } else if (!itemInfo.isFolder()) {
-            pathsToReturn.add(repoPath.getPath());
         }
+        return true;
     }
 
     /**
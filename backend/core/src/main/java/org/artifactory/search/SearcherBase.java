@@ -65,16 +65,7 @@ public abstract class SearcherBase<C extends SearchControls, R extends ItemSearc
         } catch (TaskInterruptedException e) {
             throw e;
         } catch (Exception e) {
-            //Handle bad queries
-            @SuppressWarnings({"unchecked", "ThrowableResultOfMethodCallIgnored"})
-            Throwable invalidQueryException = ExceptionUtils.getCauseOfTypes(e, InvalidQueryRuntimeException.class);
-            if (invalidQueryException != null) {
-                log.debug("Invalid query encountered.", e);
-                throw (InvalidQueryRuntimeException) e;
-            } else {
-                log.error("Could not perform search.", e);
-                throw new RepositoryRuntimeException("Could not execute search query", e);
-            }
+            throw toSearchException(e);
         }
         long time = System.currentTimeMillis() - start;
         results.setTime(time);
@@ -82,6 +73,25 @@ public abstract class SearcherBase<C extends SearchControls, R extends ItemSearc
         return results;
     }
 
+    /**
+     * Translates a failure of the search into the exception thrown to the caller
+     *
+     * @param e The search failure
+     * @return The invalid query exception if the query is invalid, a generic repository exception otherwise
+     */
+    protected RepositoryRuntimeException toSearchException(Exception e) {
+        //Handle bad queries
+        @SuppressWarnings({"unchecked", "ThrowableResultOfMethodCallIgnored"})
+        Throwable invalidQueryException = ExceptionUtils.getCauseOfTypes(e, InvalidQueryRuntimeException.class);
+        if (invalidQueryException != null) {
+            log.debug("Invalid query encountered.", e);
+            return (InvalidQueryRuntimeException) invalidQueryException;
+        } else {
+            log.error("Could not perform search.", e);
+            return new RepositoryRuntimeException("Could not execute search query", e);
+        }
+    }
+
     protected VfsQuery createQuery(SearchControls controls) {
         VfsQuery query = getVfsQueryService().createQuery();
         if (controls.isSpecificRepoSearch()) {
@@ -134,6 +144,14 @@ public abstract class SearcherBase<C extends SearchControls, R extends ItemSearc
                 (!NamingUtils.isChecksum(repoPath.getPath()));
     }
 
+    /**
+     * @param limit The maximum number of results the search returns
+     * @return The page size to use when reading the given number of results with a query cursor
+     */
+    protected int getCursorPageSize(int limit) {
+        return Math.max(1, Math.min(limit, ConstantValues.searchCursorPageSize.getInt()));
+    }
+
     protected int getLimit(SearchControls controls) {
         if (controls.isLimitSearchResults()) {
             return getMaxResults();
@@ -31,7 +31,7 @@ import org.artifactory.sapi.search.InvalidQueryRuntimeException;
 import org.artifactory.sapi.search.VfsBoolType;
 import org.artifactory.sapi.search.VfsComparatorType;
 import org.artifactory.sapi.search.VfsQuery;
-import org.artifactory.sapi.search.VfsQueryResult;
+import org.artifactory.sapi.search.VfsQueryCursor;
 import org.artifactory.sapi.search.VfsQueryResultType;
 import org.artifactory.sapi.search.VfsQueryRow;
 import org.artifactory.search.SearcherBase;
@@ -82,42 +82,43 @@ public class ArchiveSearcher extends SearcherBase<ArchiveSearchControls, Archive
             query.archiveName("*$*").comp(VfsComparatorType.NOT_CONTAINS);
         }
         int limit = getLimit(controls);
-        VfsQueryResult queryResult = query.execute(limit);
+        VfsQueryCursor cursor = query.executeCursor(null, getCursorPageSize(limit));
 
         List<ArchiveSearchResult> resultList = Lists.newArrayList();
-        for (VfsQueryRow row : queryResult.getAllRows()) {
-            //If the search results are limited, stop when reached more than max results + 1
-            if (resultList.size() < limit) {
-                ItemInfo item = row.getItem();
-                RepoPath repoPath = item.getRepoPath();
-                if (!isResultAcceptable(repoPath)) {
-                    continue;
-                }
+        for (VfsQueryRow row : cursor) {
+            //If the search results are limited, stop reading pages when reached more than max results + 1
+            if (resultList.size() >= limit) {
+                break;
+            }
+            ItemInfo item = row.getItem();
+            RepoPath repoPath = item.getRepoPath();
+            if (!isResultAcceptable(repoPath)) {
+                continue;
+            }
 
-                boolean shouldCalc = controls.shouldCalcEntries();
-                if (shouldCalc) {
-                    Iterable<ArchiveEntryRow> archiveEntries = row.getArchiveEntries();
-                    /**
-                     * Handle normal archive search (needs to calculate entry paths for display and results were
-                     * returned)
-                     */
-                    for (ArchiveEntryRow entry : archiveEntries) {
-                        String entryName = entry.getEntryName();
-                        if (StringUtils.isEmpty(entryName)) {
-                            entryName = name;
-                        }
-                        resultList.add(new ArchiveSearchResult(item,
-                                entryName, entry.getEntryPath() + "/" + entryName, true));
+            boolean shouldCalc = controls.shouldCalcEntries();
+            if (shouldCalc) {
+                Iterable<ArchiveEntryRow> archiveEntries = row.getArchiveEntries();
+                /**
+                 * Handle normal archive search (needs to calculate entry paths for display and results were
+                 * returned)
+                 */
+                for (ArchiveEntryRow entry : archiveEntries) {
+                    String entryName = entry.getEntryName();
+                    if (StringUtils.isEmpty(entryName)) {
+                        entryName = name;
                     }
-                } else {
-                    /**
-                     * Create generic entries when we don't need to calculate paths (performing a search for the
-                     * "saved search results") or if the search query was too ambiguous (no results returned because
-                     * there were too many)
-                     */
-                    resultList.add(new ArchiveSearchResult(item, "Empty",
-                            "Entry path calculation is disabled.", false));
+                    resultList.add(new ArchiveSearchResult(item,
+                            entryName, entry.getEntryPath() + "/" + entryName, true));
                 }
+            } else {
+                /**
+                 * Create generic entries when we don't need to calculate paths (performing a search for the
+                 * "saved search results") or if the search query was too ambiguous (no results returned because
+                 * there were too many)
+                 */
+                resultList.add(new ArchiveSearchResult(item, "Empty",
+                        "Entry path calculation is disabled.", false));
             }
         }
         return new ItemSearchResults<>(resultList, resultList.size());
@@ -0,0 +1,162 @@
+/*
+ * Artifactory is a binaries repository manager.
+ * Copyright (C) 2012 JFrog Ltd.
+ *
+ * Artifactory is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Artifactory is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Artifactory.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.artifactory.search.ngram;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * A sorted list of distinct non negative ints compressed as variable length deltas. Appending a value greater than
+ * the last one is cheap, any other change re-encodes the whole list.
+ * <p/>
+ * Not thread safe.
+ */
+class IntPostings {
+    private static final byte[] EMPTY = new byte[0];
+
+    private byte[] data = EMPTY;
+    private int length;
+    private int count;
+    private int last = -1;
+
+    /**
+     * @return The number of values in the list
+     */
+    int size() {
+        return count;
+    }
+
+    void add(int value) {
+        if (value > last) {
+            append(value);
+            return;
+        }
+        int[] values = toArray();
+        int index = Arrays.binarySearch(values, value);
+        if (index >= 0) {
+            return;
+        }
+        int insertAt = -index - 1;
+        int[] inserted = new int[values.length + 1];
+        System.arraycopy(values, 0, inserted, 0, insertAt);
+        inserted[insertAt] = value;
+        System.arraycopy(values, insertAt, inserted, insertAt + 1, values.length - insertAt);
+        encode(inserted, inserted.length);
+    }
+
+    /**
+     * Removes all the values set in the given bit set
+     */
+    void removeAll(BitSet removed) {
+        int[] values = toArray();
+        int kept = 0;
+        for (int value : values) {
+            if (!removed.get(value)) {
+                values[kept++] = value;
+            }
+        }
+        if (kept != values.length) {
+            encode(values, kept);
+        }
+    }
+
+    int[] toArray() {
+        int[] values = new int[count];
+        int pos = 0;
+        int value = -1;
+        for (int i = 0; i < count; i++) {
+            int delta = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data[pos++];
+                delta |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            value += delta;
+            values[i] = value;
+        }
+        return values;
+    }
+
+    /**
+     * @param sorted Sorted values to intersect with
+     * @return The values found both in the given array and in this list
+     */
+    int[] intersect(int[] sorted) {
+        int[] result = new int[Math.min(sorted.length, count)];
+        int found = 0;
+        int sortedIndex = 0;
+        int pos = 0;
+        int value = -1;
+        for (int i = 0; i < count && sortedIndex < sorted.length; i++) {
+            int delta = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data[pos++];
+                delta |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            value += delta;
+            while (sortedIndex < sorted.length && sorted[sortedIndex] < value) {
+                sortedIndex++;
+            }
+            if (sortedIndex < sorted.length && sorted[sortedIndex] == value) {
+                result[found++] = value;
+                sortedIndex++;
+            }
+        }
+        return found == result.length ? result : Arrays.copyOf(result, found);
+    }
+
+    /**
+     * Releases the spare capacity left by appends
+     */
+    void trimToSize() {
+        if (data.length != length) {
+            data = Arrays.copyOf(data, length);
+        }
+    }
+
+    private void encode(int[] values, int valuesCount) {
+        data = EMPTY;
+        length = 0;
+        count = 0;
+        last = -1;
+        for (int i = 0; i < valuesCount; i++) {
+            append(values[i]);
+        }
+        trimToSize();
+    }
+
+    private void append(int value) {
+        int delta = value - last;
+        if (length + 5 > data.length) {
+            data = Arrays.copyOf(data, Math.max(8, length + 5 + (data.length >> 1)));
+        }
+        while ((delta & ~0x7F) != 0) {
+            data[length++] = (byte) ((delta & 0x7F) | 0x80);
+            delta >>>= 7;
+        }
+        data[length++] = (byte) delta;
+        last = value;
+        count++;
+    }
+}
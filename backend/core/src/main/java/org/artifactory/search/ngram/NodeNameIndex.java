@@ -0,0 +1,61 @@
+/*
+ * Artifactory is a binaries repository manager.
+ * Copyright (C) 2012 JFrog Ltd.
+ *
+ * Artifactory is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Artifactory is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Artifactory.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.artifactory.search.ngram;
+
+import org.artifactory.api.repo.Async;
+
+import javax.annotation.Nullable;
+import java.util.Collection;
+
+/**
+ * An optional in memory trigram index over the names of the files, used to narrow the nodes a leading wildcard name
+ * search has to check instead of scanning the whole nodes table.
+ */
+public interface NodeNameIndex {
+
+    /**
+     * @return True if the index is being built or ready, and should be told about file changes
+     */
+    boolean isEnabled();
+
+    /**
+     * @return True if the index is enabled and fully built
+     */
+    boolean isReady();
+
+    /**
+     * Finds the ids of the files whose name may match the given pattern. The candidates are a superset of the matches
+     * so the pattern must still be applied on them.
+     *
+     * @param namePattern A name pattern where '*', '%', '?' and '_' are wildcards
+     * @return The candidate node ids, or null if the index cannot narrow the search for this pattern
+     */
+    @Nullable
+    Collection<Long> findCandidates(String namePattern);
+
+    void fileCreated(long nodeId, String name);
+
+    void fileDeleted(long nodeId);
+
+    /**
+     * Builds the index from the files in the database
+     */
+    @Async
+    void asyncBuild();
+}
@@ -0,0 +1,157 @@
+/*
+ * Artifactory is a binaries repository manager.
+ * Copyright (C) 2012 JFrog Ltd.
+ *
+ * Artifactory is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Artifactory is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Artifactory.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.artifactory.search.ngram;
+
+import org.artifactory.api.context.ContextHelper;
+import org.artifactory.common.ConstantValues;
+import org.artifactory.spring.ContextReadinessListener;
+import org.artifactory.storage.fs.service.FileService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Builds the node name index once the context is created, when enabled by {@link ConstantValues#searchNameIndexEnabled}.
+ * Files created or deleted while the index is built are applied to it directly, so it is complete once the build is
+ * done. Node ids are kept as ints, the index disables itself if a node id does not fit.
+ */
+@Service
+public class NodeNameIndexImpl implements NodeNameIndex, ContextReadinessListener {
+    private static final Logger log = LoggerFactory.getLogger(NodeNameIndexImpl.class);
+
+    @Autowired
+    private FileService fileService;
+
+    private final TrigramIndex index = new TrigramIndex();
+    private final AtomicBoolean building = new AtomicBoolean();
+    private volatile boolean ready;
+    private volatile boolean failed;
+
+    @Override
+    public void onContextCreated() {
+        if (ConstantValues.searchNameIndexEnabled.getBoolean()) {
+            ContextHelper.get().beanForType(NodeNameIndex.class).asyncBuild();
+        }
+    }
+
+    @Override
+    public void onContextReady() {
+        // nothing to do
+    }
+
+    @Override
+    public void onContextUnready() {
+        // nothing to do
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return building.get() && !failed;
+    }
+
+    @Override
+    public boolean isReady() {
+        return ready && !failed;
+    }
+
+    @Override
+    @Nullable
+    public Collection<Long> findCandidates(String namePattern) {
+        if (!isReady()) {
+            return null;
+        }
+        int[] candidates = index.findCandidates(namePattern,
+                ConstantValues.searchNameIndexMaxCandidates.getInt());
+        if (candidates == null) {
+            return null;
+        }
+        List<Long> nodeIds = new ArrayList<>(candidates.length);
+        for (int candidate : candidates) {
+            nodeIds.add((long) candidate);
+        }
+        return nodeIds;
+    }
+
+    @Override
+    public void fileCreated(long nodeId, String name) {
+        if (isEnabled() && checkNodeId(nodeId)) {
+            index.add((int) nodeId, name);
+        }
+    }
+
+    @Override
+    public void fileDeleted(long nodeId) {
+        if (isEnabled() && checkNodeId(nodeId)) {
+            index.remove((int) nodeId);
+        }
+    }
+
+    @Override
+    public void asyncBuild() {
+        if (!building.compareAndSet(false, true)) {
+            log.debug("Node name index is already built");
+            return;
+        }
+        log.info("Building the node name index");
+        long start = System.currentTimeMillis();
+        final int[] filesCount = {0};
+        try {
+            fileService.visitFileNames(ConstantValues.searchCursorPageSize.getInt(),
+                    new FileService.FileNameVisitor() {
+                        @Override
+                        public void visit(long nodeId, String name) {
+                            if (!checkNodeId(nodeId)) {
+                                throw new IllegalStateException("Node id " + nodeId + " cannot be indexed");
+                            }
+                            index.add((int) nodeId, name);
+                            filesCount[0]++;
+                        }
+                    });
+            index.trimToSize();
+            ready = true;
+            log.info("Node name index built with {} files and {} trigrams in {} ms", filesCount[0],
+                    index.getTrigramsCount(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            failed = true;
+            log.error("Could not build the node name index, name searches will not use it: " + e.getMessage(), e);
+        }
+    }
+
+    private boolean checkNodeId(long nodeId) {
+        if (nodeId < 0) {
+            log.debug("Ignoring unsaved node in the node name index");
+            return false;
+        }
+        if (nodeId > Integer.MAX_VALUE) {
+            if (!failed) {
+                failed = true;
+                log.warn("Node id {} is out of the node name index range, disabling the index", nodeId);
+            }
+            return false;
+        }
+        return true;
+    }
+}
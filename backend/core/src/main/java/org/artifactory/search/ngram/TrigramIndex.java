@@ -0,0 +1,218 @@
+/*
+ * Artifactory is a binaries repository manager.
+ * Copyright (C) 2012 JFrog Ltd.
+ *
+ * Artifactory is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Artifactory is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Artifactory.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.artifactory.search.ngram;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
+import javax.annotation.Nullable;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * An in memory index from the lower cased trigrams of names to the ids of the nodes having them. It narrows the nodes
+ * a wildcard name pattern may match to a superset of the real matches, which still have to be checked against the
+ * pattern.
+ * <p/>
+ * Removed ids are only marked as removed and filtered out of the results until enough of them piled up to be worth
+ * rewriting the postings.
+ */
+public class TrigramIndex {
+    private static final int MIN_COMPACTION_REMOVALS = 10000;
+
+    private final Map<Long, IntPostings> postings = Maps.newHashMap();
+    private final BitSet removed = new BitSet();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private int addedCount;
+    private int removedCount;
+
+    public void add(int id, String name) {
+        Set<Long> trigrams = trigramsOf(name);
+        lock.writeLock().lock();
+        try {
+            for (Long trigram : trigrams) {
+                IntPostings idPostings = postings.get(trigram);
+                if (idPostings == null) {
+                    idPostings = new IntPostings();
+                    postings.put(trigram, idPostings);
+                }
+                idPostings.add(id);
+            }
+            addedCount++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(int id) {
+        lock.writeLock().lock();
+        try {
+            if (removed.get(id)) {
+                return;
+            }
+            removed.set(id);
+            removedCount++;
+            if (removedCount >= MIN_COMPACTION_REMOVALS && removedCount > addedCount / 4) {
+                compact();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the ids of the nodes whose name may match the given pattern.
+     *
+     * @param namePattern   A name pattern where '*', '%', '?' and '_' are wildcards
+     * @param maxCandidates The maximum number of candidates worth returning
+     * @return The sorted candidate ids, or null if the pattern has no literal part of three characters or more, or if
+     *         it matches more than the maximum number of candidates
+     */
+    @Nullable
+    public int[] findCandidates(String namePattern, int maxCandidates) {
+        Set<Long> trigrams = Sets.newHashSet();
+        for (String literal : literalsOf(namePattern)) {
+            trigrams.addAll(trigramsOf(literal));
+        }
+        if (trigrams.isEmpty()) {
+            return null;
+        }
+
+        lock.readLock().lock();
+        try {
+            List<IntPostings> patternPostings = Lists.newArrayListWithCapacity(trigrams.size());
+            for (Long trigram : trigrams) {
+                IntPostings idPostings = postings.get(trigram);
+                if (idPostings == null) {
+                    return new int[0];
+                }
+                patternPostings.add(idPostings);
+            }
+            // Start from the rarest trigram so the intermediate results stay small
+            Collections.sort(patternPostings, new Comparator<IntPostings>() {
+                @Override
+                public int compare(IntPostings o1, IntPostings o2) {
+                    return Integer.compare(o1.size(), o2.size());
+                }
+            });
+            int[] candidates = patternPostings.get(0).toArray();
+            for (int i = 1; i < patternPostings.size() && candidates.length > 0; i++) {
+                candidates = patternPostings.get(i).intersect(candidates);
+            }
+
+            int kept = 0;
+            for (int candidate : candidates) {
+                if (!removed.get(candidate)) {
+                    if (kept >= maxCandidates) {
+                        return null;
+                    }
+                    candidates[kept++] = candidate;
+                }
+            }
+            int[] result = new int[kept];
+            System.arraycopy(candidates, 0, result, 0, kept);
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return The number of distinct trigrams in the index
+     */
+    public int getTrigramsCount() {
+        lock.readLock().lock();
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Releases the spare capacity of all the postings, to call once a bulk load is done
+     */
+    public void trimToSize() {
+        lock.writeLock().lock();
+        try {
+            for (IntPostings idPostings : postings.values()) {
+                idPostings.trimToSize();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Rewrites the postings without the removed ids. Expects the write lock to be held.
+     */
+    private void compact() {
+        for (IntPostings idPostings : postings.values()) {
+            idPostings.removeAll(removed);
+        }
+        for (Long trigram : Lists.newArrayList(postings.keySet())) {
+            if (postings.get(trigram).size() == 0) {
+                postings.remove(trigram);
+            }
+        }
+        addedCount = Math.max(0, addedCount - removedCount);
+        removedCount = 0;
+        removed.clear();
+    }
+
+    /**
+     * @return The literal parts of the pattern, split around the wildcards
+     */
+    static List<String> literalsOf(String namePattern) {
+        List<String> literals = Lists.newArrayList();
+        StringBuilder literal = new StringBuilder();
+        for (char c : namePattern.toCharArray()) {
+            if (c == '*' || c == '%' || c == '?' || c == '_') {
+                if (literal.length() > 0) {
+                    literals.add(literal.toString());
+                    literal.setLength(0);
+                }
+            } else {
+                literal.append(c);
+            }
+        }
+        if (literal.length() > 0) {
+            literals.add(literal.toString());
+        }
+        return literals;
+    }
+
+    static Set<Long> trigramsOf(String text) {
+        String lowerCase = text.toLowerCase(Locale.ENGLISH);
+        Set<Long> trigrams = Sets.newHashSet();
+        for (int i = 0; i + 3 <= lowerCase.length(); i++) {
+            trigrams.add(((long) lowerCase.charAt(i) << 32) | ((long) lowerCase.charAt(i + 1) << 16)
+                    | lowerCase.charAt(i + 2));
+        }
+        return trigrams;
+    }
+}
@@ -24,13 +24,16 @@ import org.artifactory.api.search.ItemSearchResults;
 import org.artifactory.api.search.property.PropertySearchControls;
 import org.artifactory.api.search.property.PropertySearchResult;
 import org.artifactory.fs.ItemInfo;
+import org.artifactory.sapi.fs.Visitor;
 import org.artifactory.sapi.search.VfsComparatorType;
 import org.artifactory.sapi.search.VfsQuery;
 import org.artifactory.sapi.search.VfsQueryResult;
 import org.artifactory.sapi.search.VfsQueryResultType;
 import org.artifactory.sapi.search.VfsQueryRow;
+import org.artifactory.schedule.TaskInterruptedException;
 import org.artifactory.search.SearcherBase;
 
+import javax.annotation.Nullable;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
@@ -60,6 +63,68 @@ public class PropertySearcher extends SearcherBase<PropertySearchControls, Prope
                 totalResultCount);
     }
 
+    /**
+     * Streams the search results to the given visitor. A search on a single open property value or on closed
+     * properties only is a single query, which is read page by page with a query cursor; other searches intersect the
+     * results of several queries and are collected first.
+     *
+     * @param controls Search controls
+     * @param visitor  Visitor to receive the accepted results
+     * @return The number of results visited
+     */
+    public long searchStreaming(PropertySearchControls controls, Visitor<PropertySearchResult> visitor) {
+        VfsQuery query = createSingleQuery(controls);
+        if (query == null) {
+            ItemSearchResults<PropertySearchResult> results = search(controls);
+            for (PropertySearchResult result : results.getResults()) {
+                visitor.visit(result);
+            }
+            return results.getResults().size();
+        }
+
+        int limit = getLimit(controls);
+        long resultCount = 0;
+        try {
+            for (VfsQueryRow row : query.executeCursor(null, getCursorPageSize(limit))) {
+                if (resultCount >= limit) {
+                    break;
+                }
+                ItemInfo item = row.getItem();
+                if (isResultAcceptable(item.getRepoPath())) {
+                    visitor.visit(new PropertySearchResult(item));
+                    resultCount++;
+                }
+            }
+        } catch (TaskInterruptedException e) {
+            throw e;
+        } catch (Exception e) {
+            throw toSearchException(e);
+        }
+        return resultCount;
+    }
+
+    /**
+     * @return The query matching the search controls if a single query is enough, null otherwise
+     */
+    @Nullable
+    private VfsQuery createSingleQuery(PropertySearchControls controls) {
+        Set<String> openPropertyKeys = controls.getPropertyKeysByOpenness(PropertySearchControls.OPEN);
+        Set<String> closedPropertyKeys = controls.getPropertyKeysByOpenness(PropertySearchControls.CLOSED);
+        if (openPropertyKeys.isEmpty()) {
+            return closedPropertyKeys.isEmpty() ? null : createClosedPropQuery(controls, closedPropertyKeys);
+        }
+        if (openPropertyKeys.size() == 1 && closedPropertyKeys.isEmpty()) {
+            String key = openPropertyKeys.iterator().next();
+            Set<String> values = controls.get(key);
+            if (values.size() == 1) {
+                return createQuery(controls)
+                        .expectedResult(VfsQueryResultType.ANY_ITEM)
+                        .prop(key).val(values.iterator().next());
+            }
+        }
+        return null;
+    }
+
     /**
      * Searches and aggregates results of open properties
      *
@@ -87,13 +152,19 @@ public class PropertySearcher extends SearcherBase<PropertySearchControls, Prope
      *
      * @param closedPropertyKeys Keys to search through
      */
-    @SuppressWarnings({"WhileLoopReplaceableByForEach"})
     private long executeClosedPropSearch(PropertySearchControls controls,
             Set<String> closedPropertyKeys,
             Set<PropertySearchResult> globalResults) {
         if (closedPropertyKeys.isEmpty()) {
             return 0;
         }
+        VfsQuery repoQuery = createClosedPropQuery(controls, closedPropertyKeys);
+        VfsQueryResult queryResult = repoQuery.execute(getLimit(controls));
+        return processResults(controls, queryResult, globalResults);
+    }
+
+    @SuppressWarnings({"WhileLoopReplaceableByForEach"})
+    private VfsQuery createClosedPropQuery(PropertySearchControls controls, Set<String> closedPropertyKeys) {
         VfsQuery repoQuery = createQuery(controls)
                 .expectedResult(VfsQueryResultType.ANY_ITEM);
 
@@ -108,8 +179,7 @@ public class PropertySearcher extends SearcherBase<PropertySearchControls, Prope
                 repoQuery.prop(key).comp(VfsComparatorType.EQUAL).val(value);
             }
         }
-        VfsQueryResult queryResult = repoQuery.execute(getLimit(controls));
-        return processResults(controls, queryResult, globalResults);
+        return repoQuery;
     }
 
     /**
@@ -768,6 +768,77 @@ public class SecurityServiceImpl implements InternalSecurityService {
         return hasPermission(addSlashToRepoPath(repoPath), ArtifactoryPermission.READ);
     }
 
+    @Override
+    public boolean isChildrenReadUniform(RepoPath folderRepoPath) {
+        Authentication authentication = AuthenticationHelper.getAuthentication();
+        if (!isAuthenticated(authentication) || isAdmin(authentication)) {
+            return true;
+        }
+        if (isAnonymous() && !isAnonAccessEnabled()) {
+            return true;
+        }
+
+        Set<ArtifactorySid> sids = getUserEffectiveSids(getSimpleUser(authentication));
+        String[] folderSegments = StringUtils.split(folderRepoPath.getPath(), '/');
+        for (AclInfo acl : aclStoreService.getAllAcls()) {
+            PermissionTargetInfo permissionTarget = acl.getPermissionTarget();
+            if (!isGranted(acl, ArtifactoryPermission.READ, sids) ||
+                    !isPermissionTargetIncludesRepoKey(folderRepoPath.getRepoKey(), permissionTarget)) {
+                // this acl never grants read under the folder
+                continue;
+            }
+            if (!isChildrenUniform(permissionTarget.getIncludes(), folderSegments) ||
+                    !isChildrenUniform(permissionTarget.getExcludes(), folderSegments)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * A pattern is uniform for the children of a folder if it either matches all of them (the folder is under a
+     * literal prefix followed by **) or none of them (a literal segment diverges from the folder path, or the
+     * pattern ends at or above the folder).
+     */
+    private static boolean isChildrenUniform(@Nullable List<String> patterns, String[] folderSegments) {
+        if (patterns == null) {
+            return true;
+        }
+        for (String pattern : patterns) {
+            String[] patternSegments = StringUtils.split(pattern, '/');
+            boolean uniform = false;
+            for (int i = 0; i < patternSegments.length; i++) {
+                String segment = patternSegments[i];
+                if ("**".equals(segment)) {
+                    // matches all the children only if nothing follows
+                    uniform = i == patternSegments.length - 1 && i <= folderSegments.length;
+                    break;
+                }
+                if (StringUtils.containsAny(segment, "*?")) {
+                    // a wildcard segment at or above the children level might distinguish among them
+                    break;
+                }
+                if (i >= folderSegments.length) {
+                    // a literal child name
+                    break;
+                }
+                if (!segment.equals(folderSegments[i])) {
+                    // diverges from the folder path so no child matches
+                    uniform = true;
+                    break;
+                }
+                if (i == patternSegments.length - 1) {
+                    // the pattern ends at or above the folder so no child matches
+                    uniform = true;
+                }
+            }
+            if (!uniform) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     public static RepoPath addSlashToRepoPath(final RepoPath repoPath) {
         return new RepoPath() {
             @Override
@@ -0,0 +1,146 @@
+/*
+ * Artifactory is a binaries repository manager.
+ * Copyright (C) 2012 JFrog Ltd.
+ *
+ * Artifactory is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Artifactory is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Artifactory.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.artifactory.backup;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import org.apache.commons.io.FileUtils;
+import org.artifactory.sapi.fs.Visitor;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.testng.Assert.*;
+
+/**
+ * Tests the manifest and blobs directory of the content addressed backup.
+ */
+@Test
+public class ContentAddressedBackupTest {
+    private static final String SHA1_A = "aa0d5a6c3d2e6cbb5f29fc9ec1b4f2f5b0c36e31";
+    private static final String SHA1_B = "bb54d6e5f64a2b4a5b1f6f03c3d1b2fe04c0f4d2";
+
+    private File baseTestDir;
+
+    @BeforeMethod
+    public void createTempDir() {
+        baseTestDir = new File(System.getProperty("java.io.tmpdir"), "contentaddressedbackuptest");
+        baseTestDir.mkdirs();
+        assertTrue(baseTestDir.exists(), "Failed to create base test dir");
+    }
+
+    @AfterMethod
+    public void deleteTempDir() throws IOException {
+        FileUtils.deleteDirectory(baseTestDir);
+    }
+
+    public void manifestRoundTrip() throws IOException {
+        File repoDir = new File(baseTestDir, "repositories/libs");
+        repoDir.mkdirs();
+        BackupManifestEntry folder = new BackupManifestEntry();
+        folder.setPath("org/jfrog");
+        folder.setFolder(true);
+        BackupManifestEntry file = new BackupManifestEntry();
+        file.setPath("org/jfrog/a.jar");
+        file.setSha1(SHA1_A);
+        file.setSize(14);
+        file.setLastModified(1360000000000L);
+        file.setProperties(ImmutableMap.<String, List<String>>of("color", Arrays.asList("red", "blue")));
+
+        BackupManifestWriter writer = new BackupManifestWriter(
+                new File(repoDir, BackupManifestWriter.MANIFEST_FILE_NAME));
+        writer.write(folder);
+        writer.write(file);
+        writer.close();
+
+        List<File> manifests = BackupManifestReader.findManifests(baseTestDir);
+        assertEquals(manifests.size(), 1);
+        final List<BackupManifestEntry> entries = Lists.newArrayList();
+        BackupManifestReader.read(manifests.get(0), new Visitor<BackupManifestEntry>() {
+            @Override
+            public void visit(BackupManifestEntry entry) {
+                entries.add(entry);
+            }
+        });
+        assertEquals(entries.size(), 2);
+        assertTrue(entries.get(0).isFolder());
+        assertEquals(entries.get(0).getPath(), "org/jfrog");
+        assertNull(entries.get(0).getProperties());
+        BackupManifestEntry readFile = entries.get(1);
+        assertTrue(readFile.isFile());
+        assertEquals(readFile.getSha1(), SHA1_A);
+        assertEquals(readFile.getSize(), 14);
+        assertEquals(readFile.getLastModified(), 1360000000000L);
+        assertEquals(readFile.getProperties().get("color"), Arrays.asList("red", "blue"));
+    }
+
+    public void commitBlob() throws IOException {
+        BackupBlobStore blobStore = new BackupBlobStore(new File(baseTestDir, BackupBlobStore.BLOBS_DIR_NAME));
+        assertFalse(blobStore.contains(SHA1_A));
+        File tempFile = blobStore.createTempFile(SHA1_A);
+        FileUtils.writeStringToFile(tempFile, "content");
+        blobStore.commit(tempFile, SHA1_A);
+
+        assertTrue(blobStore.contains(SHA1_A));
+        assertFalse(tempFile.exists());
+        File blobFile = blobStore.getBlobFile(SHA1_A);
+        assertEquals(blobFile.getParentFile().getName(), "aa");
+        assertEquals(FileUtils.readFileToString(blobFile), "content");
+
+        // a concurrent writer of the same blob is discarded
+        File duplicate = blobStore.createTempFile(SHA1_A);
+        FileUtils.writeStringToFile(duplicate, "content");
+        blobStore.commit(duplicate, SHA1_A);
+        assertFalse(duplicate.exists());
+        assertTrue(blobStore.contains(SHA1_A));
+    }
+
+    public void removeUnreferencedBlobs() throws IOException {
+        BackupBlobStore blobStore = new BackupBlobStore(new File(baseTestDir, BackupBlobStore.BLOBS_DIR_NAME));
+        for (String sha1 : Arrays.asList(SHA1_A, SHA1_B)) {
+            File tempFile = blobStore.createTempFile(sha1);
+            FileUtils.writeStringToFile(tempFile, sha1);
+            blobStore.commit(tempFile, sha1);
+        }
+        File leftOver = blobStore.createTempFile(SHA1_B);
+
+        int removed = blobStore.removeUnreferenced(Sets.newHashSet(SHA1_A));
+        assertEquals(removed, 1);
+        assertTrue(blobStore.contains(SHA1_A));
+        assertFalse(blobStore.contains(SHA1_B));
+        assertFalse(leftOver.exists(), "Left over temp files should be removed");
+    }
+
+    public void findBlobsDirOfRepositoryExport() throws IOException {
+        File blobsDir = new File(baseTestDir, BackupBlobStore.BLOBS_DIR_NAME);
+        File repoExportDir = new File(baseTestDir, "20130101.000000/repositories/libs-release-local");
+        assertTrue(repoExportDir.mkdirs());
+        assertNull(BackupBlobStore.findBlobsDir(repoExportDir), "No blobs dir was created yet");
+
+        assertTrue(blobsDir.mkdirs());
+        assertEquals(BackupBlobStore.findBlobsDir(repoExportDir), blobsDir);
+    }
+}
@@ -18,13 +18,24 @@
 
 package org.artifactory.io.checksum;
 
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.output.NullOutputStream;
+import com.google.common.collect.Lists;
 import org.artifactory.checksum.ChecksumType;
+import org.artifactory.common.ConstantValues;
+import org.artifactory.test.ArtifactoryHomeBoundTest;
 import org.artifactory.util.StringInputStream;
 import org.testng.annotations.Test;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.util.List;
+import java.util.Random;
 
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
 
 /**
  * Tests {@link ChecksumInputStream}.
@@ -32,7 +43,7 @@ import static org.testng.Assert.assertEquals;
  * @author Yossi Shaul
  */
 @Test
-public class ChecksumInputStreamTest {
+public class ChecksumInputStreamTest extends ArtifactoryHomeBoundTest {
 
     public void simpleInputStream() throws IOException {
         ChecksumInputStream in = new ChecksumInputStream(new StringInputStream("test"),
@@ -66,6 +77,97 @@ public class ChecksumInputStreamTest {
         assertEquals(in.getChecksums()[1].getChecksum(), "098f6bcd4621d373cade4e832627b4f6");
     }
 
+    public void pipelinedInputStream() throws IOException {
+        byte[] content = new byte[1024 * 1024 + 17];
+        new Random(7).nextBytes(content);
+        ChecksumInputStream syncIn = new ChecksumInputStream(new ByteArrayInputStream(content),
+                new Checksum(ChecksumType.sha1), new Checksum(ChecksumType.md5));
+        // start the pipeline after the first read
+        ChecksumInputStream pipelinedIn = new ChecksumInputStream(new ByteArrayInputStream(content), 1000,
+                new Checksum(ChecksumType.sha1), new Checksum(ChecksumType.md5));
+        IOUtils.copy(syncIn, new NullOutputStream());
+        IOUtils.copy(pipelinedIn, new NullOutputStream());
+        syncIn.close();
+        pipelinedIn.close();
+
+        assertEquals(pipelinedIn.getTotalBytesRead(), content.length);
+        assertEquals(pipelinedIn.getChecksums()[0].getChecksum(), syncIn.getChecksums()[0].getChecksum());
+        assertEquals(pipelinedIn.getChecksums()[1].getChecksum(), syncIn.getChecksums()[1].getChecksum());
+    }
+
+    public void pipelinedFromStartInputStream() throws IOException {
+        ChecksumInputStream in = new ChecksumInputStream(new StringInputStream("test"), 0,
+                new Checksum(ChecksumType.sha1), new Checksum(ChecksumType.md5));
+        IOUtils.copy(in, new NullOutputStream());
+        in.close();
+
+        assertEquals(in.getChecksums()[0].getChecksum(), "a94a8fe5ccb19ba61c4c0873d391e987982fbbd3");
+        assertEquals(in.getChecksums()[1].getChecksum(), "098f6bcd4621d373cade4e832627b4f6");
+    }
+
+    public void digestOnReadingThreadWhenNoDigestersFree() throws IOException {
+        // hold all the digester threads
+        List<ChecksumPipeline> pipelines = Lists.newArrayList();
+        try {
+            ChecksumPipeline pipeline;
+            while ((pipeline = ChecksumPipeline.start(new Checksum(ChecksumType.sha1))) != null) {
+                pipelines.add(pipeline);
+                assertTrue(pipelines.size() <= ConstantValues.checksumPipelineMaxDigesterThreads.getInt(),
+                        "Digester threads should be bounded");
+            }
+
+            ChecksumInputStream in = new ChecksumInputStream(new StringInputStream("test"), 0,
+                    new Checksum(ChecksumType.sha1), new Checksum(ChecksumType.md5));
+            IOUtils.copy(in, new NullOutputStream());
+            in.close();
+            assertEquals(in.getChecksums()[0].getChecksum(), "a94a8fe5ccb19ba61c4c0873d391e987982fbbd3");
+            assertEquals(in.getChecksums()[1].getChecksum(), "098f6bcd4621d373cade4e832627b4f6");
+        } finally {
+            for (ChecksumPipeline pipeline : pipelines) {
+                pipeline.finish();
+            }
+        }
+    }
+
+    public void failingCloseStillCalculatesChecksums() throws IOException {
+        ChecksumInputStream in = new ChecksumInputStream(new ByteArrayInputStream("test".getBytes()) {
+            @Override
+            public void close() throws IOException {
+                throw new IOException("Close failed");
+            }
+        }, 0, new Checksum(ChecksumType.sha1));
+        IOUtils.copy(in, new NullOutputStream());
+        try {
+            in.close();
+            fail("Expected the close failure");
+        } catch (IOException e) {
+            assertEquals(e.getMessage(), "Close failed");
+        }
+
+        assertTrue(in.isClosed());
+        assertEquals(in.getChecksums()[0].getChecksum(), "a94a8fe5ccb19ba61c4c0873d391e987982fbbd3");
+    }
+
+    public void digesterFailureIsRethrownOnEveryClose() throws IOException {
+        Checksum failing = new Checksum(ChecksumType.sha1) {
+            @Override
+            void update(byte[] bytes, int off, int length) {
+                throw new IllegalStateException("Digest failed");
+            }
+        };
+        ChecksumInputStream in = new ChecksumInputStream(new StringInputStream("test"), 0, failing);
+        IOUtils.copy(in, new NullOutputStream());
+        for (int i = 0; i < 2; i++) {
+            try {
+                in.close();
+                fail("Expected the digester failure");
+            } catch (IOException e) {
+                assertTrue(e.getCause() instanceof IllegalStateException);
+            }
+        }
+        assertFalse(in.isClosed());
+    }
+
     @Test(expectedExceptions = IllegalStateException.class, expectedExceptionsMessageRegExp = ".*not calculated.*")
     public void nonClosedStream() throws IOException {
         ChecksumInputStream in = new ChecksumInputStream(new StringInputStream("test"),
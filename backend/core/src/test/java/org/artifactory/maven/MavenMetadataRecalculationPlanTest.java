@@ -0,0 +1,80 @@
+/*
+ * Artifactory is a binaries repository manager.
+ * Copyright (C) 2012 JFrog Ltd.
+ *
+ * Artifactory is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Artifactory is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Artifactory.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.artifactory.maven;
+
+import com.google.common.collect.Lists;
+import org.artifactory.repo.InternalRepoPathFactory;
+import org.artifactory.repo.RepoPath;
+import org.testng.annotations.Test;
+
+import java.util.List;
+
+import static org.testng.Assert.*;
+
+/**
+ * Tests the {@link MavenMetadataRecalculationPlan}.
+ */
+@Test
+public class MavenMetadataRecalculationPlanTest {
+
+    public void descendantsAreCoveredByAncestor() {
+        RepoPath groupFolder = path("libs", "org/jfrog");
+        RepoPath artifactFolder = path("libs", "org/jfrog/art");
+        RepoPath versionFolder = path("libs", "org/jfrog/art/1.0");
+        MavenMetadataRecalculationPlan plan = new MavenMetadataRecalculationPlan(
+                Lists.newArrayList(versionFolder, groupFolder, artifactFolder));
+
+        assertEquals(plan.getRoots(), Lists.newArrayList(groupFolder));
+        assertEquals(plan.getCoveredMarks(groupFolder), Lists.newArrayList(groupFolder, artifactFolder, versionFolder));
+        assertEquals(plan.getMarksCount(), 3);
+    }
+
+    public void siblingsWithCommonPrefixAreIndependent() {
+        RepoPath art = path("libs", "org/jfrog/art");
+        RepoPath artDash = path("libs", "org/jfrog/art-core");
+        RepoPath artChild = path("libs", "org/jfrog/art/1.0");
+        MavenMetadataRecalculationPlan plan = new MavenMetadataRecalculationPlan(
+                Lists.newArrayList(artDash, artChild, art));
+
+        List<RepoPath> roots = plan.getRoots();
+        assertEquals(roots, Lists.newArrayList(art, artDash));
+        assertEquals(plan.getCoveredMarks(art), Lists.newArrayList(art, artChild));
+        assertEquals(plan.getCoveredMarks(artDash), Lists.newArrayList(artDash));
+    }
+
+    public void repositoryRootCoversRepository() {
+        RepoPath root = path("libs", "");
+        MavenMetadataRecalculationPlan plan = new MavenMetadataRecalculationPlan(
+                Lists.newArrayList(path("libs", "org/jfrog"), root, path("other", "org/jfrog")));
+
+        assertEquals(plan.getRoots(), Lists.newArrayList(root, path("other", "org/jfrog")));
+        assertEquals(plan.getCoveredMarks(root).size(), 2);
+    }
+
+    public void sameOrDescendant() {
+        assertTrue(MavenMetadataRecalculationPlan.isSameOrDescendant(path("libs", "a/b"), path("libs", "a/b")));
+        assertTrue(MavenMetadataRecalculationPlan.isSameOrDescendant(path("libs", "a/b/c"), path("libs", "a")));
+        assertFalse(MavenMetadataRecalculationPlan.isSameOrDescendant(path("libs", "a/bc"), path("libs", "a/b")));
+        assertFalse(MavenMetadataRecalculationPlan.isSameOrDescendant(path("other", "a/b"), path("libs", "a")));
+    }
+
+    private RepoPath path(String repoKey, String path) {
+        return InternalRepoPathFactory.create(repoKey, path);
+    }
+}
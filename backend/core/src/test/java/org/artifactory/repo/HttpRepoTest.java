@@ -20,14 +20,18 @@ package org.artifactory.repo;
 
 import org.apache.commons.httpclient.Credentials;
 import org.apache.commons.httpclient.HttpClient;
+import org.apache.commons.httpclient.HttpConnectionManager;
 import org.apache.commons.httpclient.UsernamePasswordCredentials;
 import org.apache.commons.httpclient.auth.AuthScope;
+import org.apache.commons.httpclient.params.HttpConnectionManagerParams;
 import org.artifactory.addon.AddonsManager;
 import org.artifactory.addon.LayoutsCoreAddon;
 import org.artifactory.api.context.ArtifactoryContext;
 import org.artifactory.api.context.ArtifactoryContextThreadBinder;
+import org.artifactory.common.ConstantValues;
 import org.artifactory.descriptor.repo.HttpRepoDescriptor;
 import org.artifactory.descriptor.repo.ProxyDescriptor;
+import org.artifactory.repo.remote.InstrumentedHttpConnectionManager;
 import org.artifactory.repo.service.InternalRepositoryService;
 import org.artifactory.spring.InternalArtifactoryContext;
 import org.artifactory.test.ArtifactoryHomeBoundTest;
@@ -48,9 +52,9 @@ public class HttpRepoTest extends ArtifactoryHomeBoundTest {
         internalRepoService = EasyMock.createMock(InternalRepositoryService.class);
         AddonsManager addonsManager = EasyMock.createMock(AddonsManager.class);
         LayoutsCoreAddon layoutsCoreAddon = EasyMock.createMock(LayoutsCoreAddon.class);
-        EasyMock.expect(addonsManager.addonByType(LayoutsCoreAddon.class)).andReturn(layoutsCoreAddon);
+        EasyMock.expect(addonsManager.addonByType(LayoutsCoreAddon.class)).andReturn(layoutsCoreAddon).anyTimes();
         ArtifactoryContext contextMock = EasyMock.createMock(InternalArtifactoryContext.class);
-        EasyMock.expect(contextMock.beanForType(AddonsManager.class)).andReturn(addonsManager);
+        EasyMock.expect(contextMock.beanForType(AddonsManager.class)).andReturn(addonsManager).anyTimes();
         ArtifactoryContextThreadBinder.bind(contextMock);
         EasyMock.replay(contextMock, addonsManager);
     }
@@ -97,4 +101,23 @@ public class HttpRepoTest extends ArtifactoryHomeBoundTest {
 
         Assert.assertEquals(client.getHostConfiguration().getLocalAddress().getHostAddress(), "0.0.0.0");
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testPerRepoConnectionPoolLimits() {
+        getBound().setProperty(ConstantValues.httpRepoMaxTotalConnections, "30");
+        getBound().setProperty(ConstantValues.httpRepoMaxConnectionsPerHost.getPropertyName() + ".pooled", "10");
+
+        HttpRepoDescriptor httpRepoDescriptor = new HttpRepoDescriptor();
+        httpRepoDescriptor.setKey("pooled");
+        httpRepoDescriptor.setUrl("http://test");
+        HttpRepo httpRepo = new HttpRepo(httpRepoDescriptor, internalRepoService, false, null);
+        HttpClient client = httpRepo.createHttpClient();
+
+        HttpConnectionManager connectionManager = client.getHttpConnectionManager();
+        Assert.assertTrue(connectionManager instanceof InstrumentedHttpConnectionManager,
+                "Repository connections should be instrumented");
+        HttpConnectionManagerParams params = connectionManager.getParams();
+        Assert.assertEquals(params.getDefaultMaxConnectionsPerHost(), 10, "Per-repo limit should be used");
+        Assert.assertEquals(params.getMaxTotalConnections(), 30, "Global limit should be used");
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Artifactory is a binaries repository manager.
+ * Copyright (C) 2012 JFrog Ltd.
+ *
+ * Artifactory is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Artifactory is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Artifactory.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.artifactory.repo;
+
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.*;
+
+/**
+ * Tests the {@link RemotePrefetchQueue}.
+ */
+@Test
+public class RemotePrefetchQueueTest {
+
+    public void duplicatePathsAreDropped() {
+        RemotePrefetchQueue queue = new RemotePrefetchQueue(10, 1, 0);
+        assertEquals(queue.offer(request("a/a.jar", true)), RemotePrefetchQueue.Offer.START_WORKER);
+        assertEquals(queue.offer(request("a/a.jar", false)), RemotePrefetchQueue.Offer.REJECTED);
+
+        RemotePrefetchQueue.PrefetchRequest polled = queue.poll();
+        assertEquals(queue.offer(request("a/a.jar", true)), RemotePrefetchQueue.Offer.REJECTED,
+                "Path being fetched should not be queued again");
+        queue.done(polled);
+        assertEquals(queue.offer(request("a/a.jar", true)), RemotePrefetchQueue.Offer.QUEUED,
+                "Path should be queued again once fetched");
+    }
+
+    public void capacityIsBounded() {
+        RemotePrefetchQueue queue = new RemotePrefetchQueue(2, 1, 0);
+        queue.offer(request("a/a.jar", true));
+        queue.offer(request("b/b.jar", true));
+        assertEquals(queue.offer(request("c/c.jar", true)), RemotePrefetchQueue.Offer.REJECTED);
+        assertEquals(queue.size(), 2);
+    }
+
+    public void highPriorityIsPolledFirst() {
+        RemotePrefetchQueue queue = new RemotePrefetchQueue(10, 1, 0);
+        queue.offer(request("a/a-sources.jar", false));
+        queue.offer(request("b/b.jar", true));
+        assertEquals(queue.poll().getRepoPath().getPath(), "b/b.jar");
+        assertEquals(queue.poll().getRepoPath().getPath(), "a/a-sources.jar");
+    }
+
+    public void workersAreLimited() {
+        RemotePrefetchQueue queue = new RemotePrefetchQueue(10, 2, 0);
+        assertEquals(queue.offer(request("a/a.jar", true)), RemotePrefetchQueue.Offer.START_WORKER);
+        assertEquals(queue.offer(request("b/b.jar", true)), RemotePrefetchQueue.Offer.START_WORKER);
+        assertEquals(queue.offer(request("c/c.jar", true)), RemotePrefetchQueue.Offer.QUEUED);
+        assertEquals(queue.getActiveWorkers(), 2);
+
+        // a worker that finds the queue empty releases its slot
+        for (int i = 0; i < 3; i++) {
+            queue.done(queue.poll());
+        }
+        assertNull(queue.poll());
+        assertEquals(queue.getActiveWorkers(), 1);
+        assertEquals(queue.offer(request("d/d.jar", true)), RemotePrefetchQueue.Offer.START_WORKER);
+    }
+
+    public void fetchesAreSpreadByRate() {
+        RemotePrefetchQueue queue = new RemotePrefetchQueue(10, 2, 4);
+        assertEquals(queue.reserveFetch(1000), 0);
+        assertEquals(queue.reserveFetch(1000), 250);
+        assertEquals(queue.reserveFetch(1100), 400);
+        assertEquals(queue.reserveFetch(5000), 0, "Idle time should not be accumulated");
+
+        RemotePrefetchQueue unlimited = new RemotePrefetchQueue(10, 2, 0);
+        assertEquals(unlimited.reserveFetch(1000), 0);
+        assertEquals(unlimited.reserveFetch(1000), 0);
+    }
+
+    public void clearDropsQueuedRequests() {
+        RemotePrefetchQueue queue = new RemotePrefetchQueue(10, 1, 0);
+        queue.offer(request("a/a.jar", true));
+        queue.offer(request("b/b.jar", false));
+        queue.clear();
+        assertEquals(queue.size(), 0);
+        assertEquals(queue.offer(request("a/a.jar", true)), RemotePrefetchQueue.Offer.QUEUED);
+    }
+
+    private RemotePrefetchQueue.PrefetchRequest request(String path, boolean highPriority) {
+        return new RemotePrefetchQueue.PrefetchRequest(InternalRepoPathFactory.create("remote", path), "",
+                highPriority, null);
+    }
+}
@@ -27,6 +27,7 @@ import org.artifactory.common.StatusHolder;
 import org.artifactory.descriptor.repo.HttpRepoDescriptor;
 import org.artifactory.io.checksum.Checksum;
 import org.artifactory.repo.db.DbCacheRepo;
+import org.artifactory.repo.remote.browse.RemoteItem;
 import org.artifactory.repo.service.InternalRepositoryService;
 import org.artifactory.spring.InternalArtifactoryContext;
 import org.artifactory.test.ArtifactoryHomeBoundTest;
@@ -38,7 +39,11 @@ import org.testng.annotations.BeforeClass;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * This class tests the behaviour of the allowsDownloadMethod and checks that it returns the proper results on different
@@ -174,6 +179,33 @@ public class RemoteRepoBaseTest extends ArtifactoryHomeBoundTest {
         invokeReadChecksum("empty", "");
     }
 
+    /**
+     * Remote listings, including empty ones, should be fetched once and then served from the listing cache
+     */
+    @Test
+    public void testRemoteListingCached() throws Exception {
+        final AtomicInteger listingsCount = new AtomicInteger();
+        HttpRepoDescriptor listingRepoDescriptor = new HttpRepoDescriptor();
+        listingRepoDescriptor.setKey("listing-repo");
+        listingRepoDescriptor.setUrl("http://localhost/listing-repo");
+        HttpRepo listingRepo = new HttpRepo(listingRepoDescriptor, internalRepoService, false, null) {
+            @Override
+            protected List<RemoteItem> getChildUrls(String dirUrl) throws IOException {
+                listingsCount.incrementAndGet();
+                return Collections.emptyList();
+            }
+        };
+        listingRepo.initCaches();
+
+        Assert.assertTrue(listingRepo.listRemoteResources("org/test").isEmpty());
+        Assert.assertTrue(listingRepo.listRemoteResources("org/test").isEmpty());
+        Assert.assertEquals(listingsCount.get(), 1, "Empty remote listing should have been cached.");
+
+        listingRepo.clearCaches();
+        listingRepo.listRemoteResources("org/test");
+        Assert.assertEquals(listingsCount.get(), 2, "Remote listing should have been fetched after clearing caches.");
+    }
+
     /**
      * Check the different values that are read from the given checksum are as expected
      *
@@ -0,0 +1,77 @@
+/*
+ * Artifactory is a binaries repository manager.
+ * Copyright (C) 2012 JFrog Ltd.
+ *
+ * Artifactory is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Artifactory is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Artifactory.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.artifactory.repo.cleanup;
+
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+
+/**
+ * Tests the {@link CleanupThrottle}.
+ */
+@Test
+public class CleanupThrottleTest {
+
+    public void noPauseWhenDeletesAreFast() {
+        CleanupThrottle throttle = new CleanupThrottle(100, 10000);
+        deletes(throttle, 10, 50);
+        assertEquals(throttle.pageDone(), 0);
+    }
+
+    public void pauseDoublesWhileDeletesAreSlow() {
+        CleanupThrottle throttle = new CleanupThrottle(100, 1000);
+        deletes(throttle, 10, 150);
+        assertEquals(throttle.pageDone(), CleanupThrottle.MIN_PAUSE_MILLIS);
+        deletes(throttle, 10, 150);
+        assertEquals(throttle.pageDone(), 200);
+        deletes(throttle, 10, 150);
+        assertEquals(throttle.pageDone(), 400);
+        deletes(throttle, 10, 150);
+        assertEquals(throttle.pageDone(), 800);
+        deletes(throttle, 10, 150);
+        assertEquals(throttle.pageDone(), 1000, "Pause should not exceed the max");
+    }
+
+    public void pauseHalvesWhenDeletesRecover() {
+        CleanupThrottle throttle = new CleanupThrottle(100, 1000);
+        for (int i = 0; i < 3; i++) {
+            deletes(throttle, 1, 500);
+            throttle.pageDone();
+        }
+        deletes(throttle, 10, 10);
+        assertEquals(throttle.pageDone(), 200);
+        deletes(throttle, 10, 10);
+        assertEquals(throttle.pageDone(), 100);
+        deletes(throttle, 10, 10);
+        assertEquals(throttle.pageDone(), 0);
+    }
+
+    public void emptyPageKeepsPause() {
+        CleanupThrottle throttle = new CleanupThrottle(100, 1000);
+        deletes(throttle, 1, 500);
+        assertEquals(throttle.pageDone(), CleanupThrottle.MIN_PAUSE_MILLIS);
+        assertEquals(throttle.pageDone(), CleanupThrottle.MIN_PAUSE_MILLIS);
+    }
+
+    private void deletes(CleanupThrottle throttle, int count, long millis) {
+        for (int i = 0; i < count; i++) {
+            throttle.deleted(millis);
+        }
+    }
+}
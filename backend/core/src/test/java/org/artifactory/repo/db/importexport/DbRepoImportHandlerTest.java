@@ -0,0 +1,331 @@
+/*
+ * Artifactory is a binaries repository manager.
+ * Copyright (C) 2012 JFrog Ltd.
+ *
+ * Artifactory is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Artifactory is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Artifactory.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.artifactory.repo.db.importexport;
+
+import com.google.common.collect.Lists;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.artifactory.api.common.MultiStatusHolder;
+import org.artifactory.api.config.ImportSettingsImpl;
+import org.artifactory.api.context.ArtifactoryContextThreadBinder;
+import org.artifactory.api.repo.RepositoryService;
+import org.artifactory.api.security.AuthorizationService;
+import org.artifactory.binstore.BinaryInfo;
+import org.artifactory.common.ConstantValues;
+import org.artifactory.common.StatusEntry;
+import org.artifactory.repo.LocalRepo;
+import org.artifactory.repo.RepoPath;
+import org.artifactory.repo.interceptor.ImportInterceptors;
+import org.artifactory.sapi.fs.MutableVfsFile;
+import org.artifactory.sapi.fs.MutableVfsFolder;
+import org.artifactory.schedule.TaskService;
+import org.artifactory.spring.InternalArtifactoryContext;
+import org.artifactory.storage.binstore.service.BinaryStore;
+import org.artifactory.test.ArtifactoryHomeBoundTest;
+import org.easymock.EasyMock;
+import org.easymock.IAnswer;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.testng.Assert.*;
+
+/**
+ * Tests the repository import pipeline of the {@link DbRepoImportHandler}: files are prepared by a pool of workers
+ * while the importing thread writes the items in walk order.
+ */
+@Test
+public class DbRepoImportHandlerTest extends ArtifactoryHomeBoundTest {
+    private static final String REPO_KEY = "import-test";
+    private static final String WORKER_PREFIX = "import-" + REPO_KEY + "-";
+
+    private File baseDir;
+    private MultiStatusHolder status;
+    private CountingTransactionManager txManager;
+    private LocalRepo repo;
+    private RepositoryService repositoryService;
+    private TaskService taskService;
+    private BinaryStore binaryStore;
+    private CountDownLatch releaseBinaries;
+    /**
+     * Repo paths validated by the walker, in walk order
+     */
+    private final List<RepoPath> walked = Collections.synchronizedList(Lists.<RepoPath>newArrayList());
+    /**
+     * Repo paths of the created folders and files, in write order
+     */
+    private final List<RepoPath> written = Collections.synchronizedList(Lists.<RepoPath>newArrayList());
+    private final List<String> writerThreads = Collections.synchronizedList(Lists.<String>newArrayList());
+    private final List<String> binaryThreads = Collections.synchronizedList(Lists.<String>newArrayList());
+
+    @BeforeMethod
+    public void setup() throws IOException {
+        getBound().setProperty(ConstantValues.importWorkerThreads, "3");
+        baseDir = new File(FileUtils.getTempDirectory(), "import-test-" + System.nanoTime());
+        write("a/a1.jar", "a1");
+        write("a/b/b1.jar", "b1");
+        write("a/b/b2.jar", "b2");
+        write("c/c1.jar", "c1");
+        write("top.jar", "top");
+        status = new MultiStatusHolder();
+        txManager = new CountingTransactionManager();
+        releaseBinaries = new CountDownLatch(0);
+        walked.clear();
+        written.clear();
+        writerThreads.clear();
+        binaryThreads.clear();
+
+        repo = EasyMock.createNiceMock(LocalRepo.class);
+        EasyMock.expect(repo.getKey()).andReturn(REPO_KEY).anyTimes();
+        EasyMock.expect(repo.isCache()).andReturn(true).anyTimes();
+        EasyMock.expect(repo.createOrGetFolder(EasyMock.<RepoPath>anyObject())).andAnswer(
+                new IAnswer<MutableVfsFolder>() {
+                    @Override
+                    public MutableVfsFolder answer() throws Throwable {
+                        recordWrite();
+                        return replayed(EasyMock.createNiceMock(MutableVfsFolder.class));
+                    }
+                }).anyTimes();
+        EasyMock.expect(repo.createOrGetFile(EasyMock.<RepoPath>anyObject())).andAnswer(
+                new IAnswer<MutableVfsFile>() {
+                    @Override
+                    public MutableVfsFile answer() throws Throwable {
+                        recordWrite();
+                        return replayed(EasyMock.createNiceMock(MutableVfsFile.class));
+                    }
+                }).anyTimes();
+
+        binaryStore = EasyMock.createNiceMock(BinaryStore.class);
+        EasyMock.expect(binaryStore.addBinary(EasyMock.<InputStream>anyObject())).andAnswer(new IAnswer<BinaryInfo>() {
+            @Override
+            public BinaryInfo answer() throws Throwable {
+                binaryThreads.add(Thread.currentThread().getName());
+                String content = IOUtils.toString((InputStream) EasyMock.getCurrentArguments()[0], "utf-8");
+                releaseBinaries.await();
+                if ("fail".equals(content)) {
+                    throw new IOException("Failed to store " + content);
+                }
+                return null;
+            }
+        }).anyTimes();
+
+        repositoryService = EasyMock.createNiceMock(RepositoryService.class);
+        taskService = EasyMock.createNiceMock(TaskService.class);
+
+        InternalArtifactoryContext context = EasyMock.createNiceMock(InternalArtifactoryContext.class);
+        EasyMock.expect(context.getBean("artifactoryTransactionManager")).andReturn(txManager).anyTimes();
+        EasyMock.expect(context.getRepositoryService()).andReturn(repositoryService).anyTimes();
+        EasyMock.expect(context.getTaskService()).andReturn(taskService).anyTimes();
+        EasyMock.expect(context.getAuthorizationService()).andReturn(
+                replayed(EasyMock.createNiceMock(AuthorizationService.class))).anyTimes();
+        EasyMock.expect(context.beanForType(BinaryStore.class)).andReturn(binaryStore).anyTimes();
+        EasyMock.expect(context.beanForType(ImportInterceptors.class)).andReturn(
+                replayed(EasyMock.createNiceMock(ImportInterceptors.class))).anyTimes();
+        EasyMock.expect(context.getArtifactoryHome()).andReturn(getBound()).anyTimes();
+        EasyMock.replay(context, repo, binaryStore);
+        ArtifactoryContextThreadBinder.bind(context);
+    }
+
+    @AfterMethod
+    public void cleanup() throws IOException {
+        releaseBinaries.countDown();
+        ArtifactoryContextThreadBinder.unbind();
+        FileUtils.deleteDirectory(baseDir);
+    }
+
+    public void foldersWrittenBeforeTheirChildren() throws Throwable {
+        expectWalk(-1);
+        EasyMock.replay(repositoryService, taskService);
+
+        importRepo();
+
+        assertFalse(status.hasErrors(), "Unexpected import errors: " + status.getErrors());
+        assertEquals(written.size(), 9, "Expected 4 folders and 5 files to be written: " + written);
+        for (int i = 0; i < written.size(); i++) {
+            RepoPath parent = written.get(i).getParent();
+            if (parent != null) {
+                assertTrue(written.subList(0, i).contains(parent), parent + " written after its child: " + written);
+            }
+        }
+        // the files are written in walk order even though they are prepared concurrently
+        assertEquals(writtenFiles(), walked);
+
+        // only the importing thread writes the tree, the content is stored by the workers
+        for (String writerThread : writerThreads) {
+            assertEquals(writerThread, Thread.currentThread().getName());
+        }
+        assertEquals(binaryThreads.size(), 5);
+        for (String binaryThread : binaryThreads) {
+            assertTrue(binaryThread.startsWith(WORKER_PREFIX), binaryThread + " is not an import worker");
+        }
+        assertEquals(txManager.begins.get(), txManager.commits.get());
+    }
+
+    public void workerErrorReportedAndImportContinues() throws Throwable {
+        write("c/c1.jar", "fail");
+        expectWalk(-1);
+        EasyMock.replay(repositoryService, taskService);
+
+        importRepo();
+
+        List<StatusEntry> errors = status.getErrors();
+        assertEquals(errors.size(), 1, "Expected a single import error: " + errors);
+        assertTrue(errors.get(0).getMessage().contains("c1.jar"), errors.get(0).getMessage());
+        assertTrue(errors.get(0).getException() instanceof IOException, "Worker exception not propagated");
+        List<RepoPath> files = writtenFiles();
+        assertEquals(files.size(), 4, "The other files should still be imported: " + files);
+        for (RepoPath file : files) {
+            assertFalse(file.getName().equals("c1.jar"), "Failed file was written");
+        }
+    }
+
+    public void failureStopsThePipeline() throws Throwable {
+        // the workers hold the binaries, so the walker fails while all the files are still pending
+        releaseBinaries = new CountDownLatch(1);
+        expectWalk(3);
+        EasyMock.replay(repositoryService, taskService);
+
+        try {
+            importRepo();
+            fail("Expected the walker failure to stop the import");
+        } catch (IllegalStateException e) {
+            assertEquals(e.getMessage(), "Walker failure");
+        }
+        releaseBinaries.countDown();
+
+        assertEquals(walked.size(), 2);
+        assertTrue(writtenFiles().isEmpty(), "Pending files should not be written: " + writtenFiles());
+        assertEquals(txManager.begins.get(), txManager.commits.get(), "Import transaction not committed");
+        assertWorkersStopped();
+    }
+
+    private void importRepo() {
+        new DbRepoImportHandler(repo, settings()).executeImport();
+    }
+
+    private ImportSettingsImpl settings() {
+        ImportSettingsImpl settings = new ImportSettingsImpl(baseDir, status);
+        settings.setIncludeMetadata(false);
+        return settings;
+    }
+
+    /**
+     * Records the files validated by the walker
+     *
+     * @param failOnFile The 1-based index of the walked file to fail on, -1 to never fail
+     */
+    private void expectWalk(final int failOnFile) throws Exception {
+        repositoryService.assertValidDeployPath(EasyMock.<RepoPath>anyObject(), EasyMock.anyLong());
+        EasyMock.expectLastCall().andAnswer(new IAnswer<Object>() {
+            @Override
+            public Object answer() throws Throwable {
+                if (walked.size() + 1 == failOnFile) {
+                    throw new IllegalStateException("Walker failure");
+                }
+                walked.add((RepoPath) EasyMock.getCurrentArguments()[0]);
+                return null;
+            }
+        }).anyTimes();
+    }
+
+    private void recordWrite() {
+        written.add((RepoPath) EasyMock.getCurrentArguments()[0]);
+        writerThreads.add(Thread.currentThread().getName());
+    }
+
+    private List<RepoPath> writtenFiles() {
+        List<RepoPath> files = Lists.newArrayList();
+        synchronized (written) {
+            for (RepoPath repoPath : written) {
+                if (repoPath.getName().endsWith(".jar")) {
+                    files.add(repoPath);
+                }
+            }
+        }
+        return files;
+    }
+
+    private void assertWorkersStopped() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (System.currentTimeMillis() < deadline) {
+            if (!hasLiveWorker()) {
+                return;
+            }
+            Thread.sleep(50);
+        }
+        fail("Import workers still alive after the import failed");
+    }
+
+    private boolean hasLiveWorker() {
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.getName().startsWith(WORKER_PREFIX) && thread.isAlive()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void write(String path, String content) throws IOException {
+        FileUtils.writeStringToFile(new File(baseDir, path), content, "utf-8");
+    }
+
+    private static <T> T replayed(T mock) {
+        EasyMock.replay(mock);
+        return mock;
+    }
+
+    private static class CountingTransactionManager extends AbstractPlatformTransactionManager {
+        private final AtomicInteger begins = new AtomicInteger();
+        private final AtomicInteger commits = new AtomicInteger();
+
+        private CountingTransactionManager() {
+            setTransactionSynchronization(SYNCHRONIZATION_NEVER);
+        }
+
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+            begins.incrementAndGet();
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+            commits.incrementAndGet();
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Artifactory is a binaries repository manager.
+ * Copyright (C) 2012 JFrog Ltd.
+ *
+ * Artifactory is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Artifactory is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Artifactory.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.artifactory.repo.index;
+
+import org.apache.maven.index.ArtifactAvailablility;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.*;
+
+/**
+ * Tests the helpers of the incremental repository indexing.
+ */
+@Test
+public class IncrementalIndexerEngineTest {
+
+    public void parseLastModifiedFromInfo() {
+        assertEquals(IncrementalIndexerEngine.parseLastModified("jar|1351234567000|2048|2|1|0|jar"),
+                Long.valueOf(1351234567000L));
+    }
+
+    public void parseLastModifiedFromMalformedInfo() {
+        assertNull(IncrementalIndexerEngine.parseLastModified(null));
+        assertNull(IncrementalIndexerEngine.parseLastModified("jar"));
+        assertNull(IncrementalIndexerEngine.parseLastModified("jar|NA|2048"));
+    }
+
+    public void chunkNames() {
+        assertTrue(RepoIndexFiles.isChunkName("nexus-maven-repository-index.1.gz"));
+        assertTrue(RepoIndexFiles.isChunkName("nexus-maven-repository-index.42.gz"));
+        assertFalse(RepoIndexFiles.isChunkName("nexus-maven-repository-index.gz"));
+        assertFalse(RepoIndexFiles.isChunkName("nexus-maven-repository-index.properties"));
+        assertFalse(RepoIndexFiles.isChunkName("nexus-maven-repository-index.1.gz.sha1"));
+    }
+
+    public void companionsUnchanged() {
+        assertTrue(IncrementalIndexerEngine.isCompanionsUnchanged("jar|1351234567000|2048|1|0|0|jar",
+                ArtifactAvailablility.PRESENT, ArtifactAvailablility.NOT_PRESENT, ArtifactAvailablility.NOT_PRESENT));
+        // Companions the indexer does not look for are not compared
+        assertTrue(IncrementalIndexerEngine.isCompanionsUnchanged("jar|1351234567000|2048|2|2|0|jar",
+                null, null, ArtifactAvailablility.NOT_PRESENT));
+    }
+
+    public void companionAddedOrRemoved() {
+        // Sources cached after the jar
+        assertFalse(IncrementalIndexerEngine.isCompanionsUnchanged("jar|1351234567000|2048|0|0|0|jar",
+                ArtifactAvailablility.PRESENT, ArtifactAvailablility.NOT_PRESENT, ArtifactAvailablility.NOT_PRESENT));
+        // Signature removed
+        assertFalse(IncrementalIndexerEngine.isCompanionsUnchanged("jar|1351234567000|2048|0|0|1|jar",
+                ArtifactAvailablility.NOT_PRESENT, ArtifactAvailablility.NOT_PRESENT,
+                ArtifactAvailablility.NOT_PRESENT));
+    }
+
+    public void companionsOfMalformedInfo() {
+        assertFalse(IncrementalIndexerEngine.isCompanionsUnchanged("jar|1351234567000|2048",
+                null, null, null));
+    }
+}
@@ -0,0 +1,413 @@
+/*
+ * Artifactory is a binaries repository manager.
+ * Copyright (C) 2012 JFrog Ltd.
+ *
+ * Artifactory is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Artifactory is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Artifactory.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.artifactory.repo.index;
+
+import com.google.common.collect.HashMultiset;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Multiset;
+import com.google.common.collect.Sets;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.lucene.document.Document;
+import org.apache.maven.index.ArtifactInfo;
+import org.apache.maven.index.context.IndexingContext;
+import org.apache.maven.index.updater.IndexDataReader;
+import org.artifactory.api.context.ArtifactoryContextThreadBinder;
+import org.artifactory.api.security.AuthorizationService;
+import org.artifactory.checksum.ChecksumInfo;
+import org.artifactory.checksum.ChecksumType;
+import org.artifactory.common.ConstantValues;
+import org.artifactory.factory.InfoFactoryHolder;
+import org.artifactory.fs.ItemInfo;
+import org.artifactory.fs.RepoResource;
+import org.artifactory.fs.ZipEntryInfo;
+import org.artifactory.io.SimpleResourceStreamHandle;
+import org.artifactory.mime.MavenNaming;
+import org.artifactory.model.xstream.fs.FileInfoImpl;
+import org.artifactory.model.xstream.fs.FolderInfoImpl;
+import org.artifactory.repo.InternalRepoPathFactory;
+import org.artifactory.repo.RepoPath;
+import org.artifactory.repo.StoringRepo;
+import org.artifactory.request.InternalRequestContext;
+import org.artifactory.resource.FileResource;
+import org.artifactory.resource.UnfoundRepoResource;
+import org.artifactory.resource.ResourceStreamHandle;
+import org.artifactory.schedule.TaskService;
+import org.artifactory.spring.InternalArtifactoryContext;
+import org.artifactory.storage.binstore.service.BinaryStore;
+import org.artifactory.storage.fs.service.ArchiveEntriesService;
+import org.artifactory.storage.fs.service.FileService;
+import org.artifactory.test.ArtifactoryHomeBoundTest;
+import org.artifactory.test.TestUtils;
+import org.easymock.EasyMock;
+import org.easymock.IAnswer;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipEntry;
+
+import static org.testng.Assert.*;
+
+/**
+ * Tests that repeated indexing runs of the {@link RepoIndexer} build on the index published by the previous run: only
+ * the changed artifacts are read again and each run publishes an incremental chunk.
+ */
+@Test
+public class RepoIndexerTest extends ArtifactoryHomeBoundTest {
+    private static final String REPO_KEY = "libs";
+    private static final long INITIAL_TIME = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(1);
+
+    private File tempWorkDir;
+    /**
+     * The repo items by repo path
+     */
+    private final Map<RepoPath, ItemInfo> items = Maps.newHashMap();
+    private final Map<String, byte[]> binaries = Maps.newHashMap();
+    /**
+     * The published index files by path
+     */
+    private final Map<String, byte[]> published = Maps.newHashMap();
+    /**
+     * The archives whose entries were read, counting an archive once per index creator that reads it
+     */
+    private final Multiset<String> readArchives = HashMultiset.create();
+    private RepoIndexFiles lastIndexFiles;
+
+    @BeforeMethod
+    public void setup() throws IOException {
+        tempWorkDir = new File(FileUtils.getTempDirectory(), "index-test-" + System.nanoTime());
+        TestUtils.setField(getBound(), "tempWorkDir", tempWorkDir);
+        getBound().setProperty(ConstantValues.mvnIndexerIncremental, "true");
+        items.clear();
+        binaries.clear();
+        published.clear();
+        readArchives.clear();
+        addFolder("");
+
+        FileService fileService = EasyMock.createNiceMock(FileService.class);
+        EasyMock.expect(fileService.loadItem(EasyMock.<RepoPath>anyObject())).andAnswer(new IAnswer<ItemInfo>() {
+            @Override
+            public ItemInfo answer() throws Throwable {
+                return items.get((RepoPath) EasyMock.getCurrentArguments()[0]);
+            }
+        }).anyTimes();
+        EasyMock.expect(fileService.loadChildren(EasyMock.<RepoPath>anyObject())).andAnswer(
+                new IAnswer<List<ItemInfo>>() {
+                    @Override
+                    public List<ItemInfo> answer() throws Throwable {
+                        return children((RepoPath) EasyMock.getCurrentArguments()[0]);
+                    }
+                }).anyTimes();
+        EasyMock.expect(fileService.hasChildren(EasyMock.<RepoPath>anyObject())).andAnswer(new IAnswer<Boolean>() {
+            @Override
+            public Boolean answer() throws Throwable {
+                return !children((RepoPath) EasyMock.getCurrentArguments()[0]).isEmpty();
+            }
+        }).anyTimes();
+
+        BinaryStore binaryStore = EasyMock.createNiceMock(BinaryStore.class);
+        EasyMock.expect(binaryStore.getBinary(EasyMock.<String>anyObject())).andAnswer(new IAnswer<InputStream>() {
+            @Override
+            public InputStream answer() throws Throwable {
+                return new ByteArrayInputStream(binaries.get((String) EasyMock.getCurrentArguments()[0]));
+            }
+        }).anyTimes();
+
+        ArchiveEntriesService archiveEntriesService = EasyMock.createNiceMock(ArchiveEntriesService.class);
+        EasyMock.expect(archiveEntriesService.getArchiveEntries(EasyMock.<String>anyObject())).andAnswer(
+                new IAnswer<Set<ZipEntryInfo>>() {
+                    @Override
+                    public Set<ZipEntryInfo> answer() throws Throwable {
+                        String sha1 = (String) EasyMock.getCurrentArguments()[0];
+                        readArchives.add(sha1);
+                        ZipEntry classEntry = new ZipEntry("org/test/" + className(sha1) + ".class");
+                        return ImmutableSet.of(InfoFactoryHolder.get().createZipEntry(classEntry));
+                    }
+                }).anyTimes();
+
+        AuthorizationService authService = EasyMock.createNiceMock(AuthorizationService.class);
+        EasyMock.expect(authService.canRead(EasyMock.<RepoPath>anyObject())).andReturn(true).anyTimes();
+
+        InternalArtifactoryContext context = EasyMock.createNiceMock(InternalArtifactoryContext.class);
+        EasyMock.expect(context.getArtifactoryHome()).andReturn(getBound()).anyTimes();
+        EasyMock.expect(context.beanForType(FileService.class)).andReturn(fileService).anyTimes();
+        EasyMock.expect(context.beanForType(BinaryStore.class)).andReturn(binaryStore).anyTimes();
+        EasyMock.expect(context.beanForType(ArchiveEntriesService.class)).andReturn(archiveEntriesService).anyTimes();
+        EasyMock.expect(context.getAuthorizationService()).andReturn(authService).anyTimes();
+        EasyMock.expect(context.getTaskService()).andReturn(
+                replayed(EasyMock.createNiceMock(TaskService.class))).anyTimes();
+        EasyMock.replay(context, fileService, binaryStore, archiveEntriesService, authService);
+        ArtifactoryContextThreadBinder.bind(context);
+    }
+
+    @AfterMethod
+    public void cleanup() throws IOException {
+        ArtifactoryContextThreadBinder.unbind();
+        FileUtils.deleteDirectory(tempWorkDir);
+    }
+
+    public void onlyChangedArtifactsIndexedAgain() throws Exception {
+        String aJar = addArtifact("a", "a1", "pom-a");
+        String bJar = addArtifact("b", "b1", "pom-b");
+        String cJar = addArtifact("c", "c1", "pom-c");
+        String dJar = addArtifact("d", "d1", "pom-d");
+
+        index();
+        assertEquals(readArchives.elementSet(), Sets.newHashSet(aJar, bJar, cJar, dJar));
+        Map<String, Document> documents = readPublishedDocuments();
+        assertEquals(documents.keySet(), Sets.newHashSet(uinfo("a"), uinfo("b"), uinfo("c"), uinfo("d")));
+        assertTrue(lastIndexFiles.getChunkHandles().isEmpty(), "No previous index to create a chunk from");
+
+        // b has a new jar, c was deleted and d has a new pom under its unchanged jar
+        String newBJar = replaceFile("b", "b-1.0.jar", "b2");
+        removeArtifact("c");
+        replaceFile("d", "d-1.0.pom", "pom-d2");
+
+        index();
+        assertEquals(readArchives.elementSet(), Sets.newHashSet(newBJar, dJar), "Unexpected re-indexed artifacts");
+        documents = readPublishedDocuments();
+        assertEquals(documents.keySet(), Sets.newHashSet(uinfo("a"), uinfo("b"), uinfo("d")));
+        assertTrue(documents.get(uinfo("a")).get(ArtifactInfo.NAMES).contains(className(aJar)),
+                "Skipped artifact should keep its indexed content");
+        assertTrue(documents.get(uinfo("b")).get(ArtifactInfo.NAMES).contains(className(newBJar)),
+                "Changed artifact should have its new content indexed");
+        assertEquals(documents.get(uinfo("b")).get(ArtifactInfo.SHA1), newBJar);
+    }
+
+    public void unchangedRepoIndexesNothing() throws Exception {
+        addArtifact("a", "a1", "pom-a");
+        addArtifact("b", "b1", "pom-b");
+
+        index();
+        index();
+        assertTrue(readArchives.isEmpty(), "Unchanged artifacts were indexed again: " + readArchives);
+        assertEquals(readPublishedDocuments().keySet(), Sets.newHashSet(uinfo("a"), uinfo("b")));
+    }
+
+    public void chunksFollowThePublishedProperties() throws Exception {
+        getBound().setProperty(ConstantValues.mvnIndexerMaxIndexChunks, "1");
+        addArtifact("a", "a1", "pom-a");
+        index();
+
+        addArtifact("b", "b1", "pom-b");
+        index();
+        Set<String> firstChunks = lastIndexFiles.getChunkHandles().keySet();
+        assertEquals(firstChunks.size(), 1, "Expected a chunk of the second run");
+        assertEquals(publishedChunkNames(), firstChunks);
+        assertTrue(lastIndexFiles.getObsoleteChunks().isEmpty());
+
+        addArtifact("c", "c1", "pom-c");
+        index();
+        Set<String> secondChunks = lastIndexFiles.getChunkHandles().keySet();
+        assertEquals(secondChunks.size(), 1, "Expected a chunk of the third run");
+        assertFalse(secondChunks.equals(firstChunks), "Expected a new chunk");
+        // a single chunk is kept, the chunk of the second run is dropped from the properties
+        assertEquals(publishedChunkNames(), secondChunks);
+        assertEquals(lastIndexFiles.getObsoleteChunks(), firstChunks);
+    }
+
+    /**
+     * Indexes the repo and publishes the index files as the index manager does
+     */
+    private void index() throws Exception {
+        readArchives.clear();
+        lastIndexFiles = new RepoIndexer(createRepo()).index(new Date());
+        published.put(MavenNaming.NEXUS_INDEX_GZ_PATH, read(lastIndexFiles.getIndexHandle()));
+        published.put(MavenNaming.NEXUS_INDEX_PROPERTIES_PATH, read(lastIndexFiles.getPropertiesHandle()));
+        for (Map.Entry<String, ? extends ResourceStreamHandle> chunk : lastIndexFiles.getChunkHandles().entrySet()) {
+            published.put(MavenNaming.NEXUS_INDEX_DIR + "/" + chunk.getKey(), read(chunk.getValue()));
+        }
+        for (String obsoleteChunk : lastIndexFiles.getObsoleteChunks()) {
+            published.remove(MavenNaming.NEXUS_INDEX_DIR + "/" + obsoleteChunk);
+        }
+        // later changes are after the time of the published index
+        Thread.sleep(5);
+    }
+
+    private StoringRepo createRepo() throws Exception {
+        StoringRepo repo = EasyMock.createNiceMock(StoringRepo.class);
+        EasyMock.expect(repo.getKey()).andReturn(REPO_KEY).anyTimes();
+        EasyMock.expect(repo.getRepoPath(EasyMock.<String>anyObject())).andAnswer(new IAnswer<RepoPath>() {
+            @Override
+            public RepoPath answer() throws Throwable {
+                return InternalRepoPathFactory.create(REPO_KEY, (String) EasyMock.getCurrentArguments()[0]);
+            }
+        }).anyTimes();
+        EasyMock.expect(repo.getInfo(EasyMock.<InternalRequestContext>anyObject())).andAnswer(
+                new IAnswer<RepoResource>() {
+                    @Override
+                    public RepoResource answer() throws Throwable {
+                        String path = ((InternalRequestContext) EasyMock.getCurrentArguments()[0]).getResourcePath();
+                        RepoPath repoPath = InternalRepoPathFactory.create(REPO_KEY, path);
+                        if (!published.containsKey(path)) {
+                            return new UnfoundRepoResource(repoPath, "Not published");
+                        }
+                        return new FileResource(new FileInfoImpl(repoPath));
+                    }
+                }).anyTimes();
+        EasyMock.expect(repo.getResourceStreamHandle(EasyMock.<InternalRequestContext>anyObject(),
+                EasyMock.<RepoResource>anyObject())).andAnswer(new IAnswer<ResourceStreamHandle>() {
+            @Override
+            public ResourceStreamHandle answer() throws Throwable {
+                RepoResource resource = (RepoResource) EasyMock.getCurrentArguments()[1];
+                byte[] content = published.get(resource.getRepoPath().getPath());
+                return new SimpleResourceStreamHandle(new ByteArrayInputStream(content), content.length);
+            }
+        }).anyTimes();
+        EasyMock.replay(repo);
+        return repo;
+    }
+
+    /**
+     * @return The artifact documents of the published index by uinfo
+     */
+    private Map<String, Document> readPublishedDocuments() throws IOException {
+        Map<String, Document> documents = Maps.newHashMap();
+        IndexDataReader reader =
+                new IndexDataReader(new ByteArrayInputStream(published.get(MavenNaming.NEXUS_INDEX_GZ_PATH)));
+        reader.readHeader();
+        Document document;
+        while ((document = reader.readDocument()) != null) {
+            String uinfo = document.get(ArtifactInfo.UINFO);
+            if (uinfo != null) {
+                documents.put(uinfo, document);
+            }
+        }
+        return documents;
+    }
+
+    private Set<String> publishedChunkNames() throws IOException {
+        Properties properties = new Properties();
+        properties.load(new ByteArrayInputStream(published.get(MavenNaming.NEXUS_INDEX_PROPERTIES_PATH)));
+        Set<String> chunkNames = Sets.newHashSet();
+        for (String key : properties.stringPropertyNames()) {
+            if (key.startsWith(IndexingContext.INDEX_CHUNK_PREFIX)) {
+                chunkNames.add(MavenNaming.NEXUS_INDEX_PREFIX + "." + properties.getProperty(key) + ".gz");
+            }
+        }
+        return chunkNames;
+    }
+
+    /**
+     * Adds the jar and pom of version 1.0 of the given artifact of the org.test group
+     *
+     * @return The sha1 of the jar
+     */
+    private String addArtifact(String artifactId, String jarContent, String pomContent) {
+        String folder = "org/test/" + artifactId + "/1.0";
+        addFolder("org");
+        addFolder("org/test");
+        addFolder("org/test/" + artifactId);
+        addFolder(folder);
+        addFile(folder + "/" + artifactId + "-1.0.pom", pom(artifactId, pomContent), INITIAL_TIME);
+        return addFile(folder + "/" + artifactId + "-1.0.jar", jarContent, INITIAL_TIME);
+    }
+
+    /**
+     * Replaces the content of a file of version 1.0 of the given artifact, modified now
+     *
+     * @return The sha1 of the new content
+     */
+    private String replaceFile(String artifactId, String name, String content) {
+        if (name.endsWith(".pom")) {
+            content = pom(artifactId, content);
+        }
+        return addFile("org/test/" + artifactId + "/1.0/" + name, content, System.currentTimeMillis());
+    }
+
+    private void removeArtifact(String artifactId) {
+        String prefix = "org/test/" + artifactId;
+        for (RepoPath repoPath : Lists.newArrayList(items.keySet())) {
+            if (repoPath.getPath().startsWith(prefix + "/") || repoPath.getPath().equals(prefix)) {
+                items.remove(repoPath);
+            }
+        }
+    }
+
+    private void addFolder(String path) {
+        RepoPath repoPath = InternalRepoPathFactory.create(REPO_KEY, path);
+        if (!items.containsKey(repoPath)) {
+            FolderInfoImpl folderInfo = new FolderInfoImpl(repoPath);
+            folderInfo.setLastModified(INITIAL_TIME);
+            items.put(repoPath, folderInfo);
+        }
+    }
+
+    private String addFile(String path, String content, long lastModified) {
+        String sha1 = DigestUtils.shaHex(content);
+        FileInfoImpl fileInfo = new FileInfoImpl(InternalRepoPathFactory.create(REPO_KEY, path));
+        fileInfo.setSize(content.length());
+        fileInfo.setLastModified(lastModified);
+        fileInfo.addChecksumInfo(new ChecksumInfo(ChecksumType.sha1, sha1, sha1));
+        items.put(fileInfo.getRepoPath(), fileInfo);
+        binaries.put(sha1, content.getBytes());
+        return sha1;
+    }
+
+    private List<ItemInfo> children(RepoPath parent) {
+        List<ItemInfo> children = Lists.newArrayList();
+        for (ItemInfo item : items.values()) {
+            if (parent.equals(item.getRepoPath().getParent())) {
+                children.add(item);
+            }
+        }
+        return children;
+    }
+
+    private static String pom(String artifactId, String description) {
+        return "<project><modelVersion>4.0.0</modelVersion><groupId>org.test</groupId>" +
+                "<artifactId>" + artifactId + "</artifactId><version>1.0</version>" +
+                "<description>" + description + "</description></project>";
+    }
+
+    private static String uinfo(String artifactId) {
+        return "org.test|" + artifactId + "|1.0|NA";
+    }
+
+    private static String className(String jarSha1) {
+        return "Class" + jarSha1.substring(0, 8);
+    }
+
+    private static byte[] read(ResourceStreamHandle handle) throws IOException {
+        try {
+            return IOUtils.toByteArray(handle.getInputStream());
+        } finally {
+            handle.close();
+        }
+    }
+
+    private static <T> T replayed(T mock) {
+        EasyMock.replay(mock);
+        return mock;
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Artifactory is a binaries repository manager.
+ * Copyright (C) 2012 JFrog Ltd.
+ *
+ * Artifactory is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Artifactory is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Artifactory.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.artifactory.repo.remote;
+
+import org.apache.commons.httpclient.ConnectionPoolTimeoutException;
+import org.apache.commons.httpclient.HostConfiguration;
+import org.apache.commons.httpclient.HttpConnection;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+/**
+ * Tests the {@link InstrumentedHttpConnectionManager}.
+ */
+@Test
+public class InstrumentedHttpConnectionManagerTest {
+
+    public void leaseWaitTrackedPerThread() throws Exception {
+        final InstrumentedHttpConnectionManager connectionManager = new InstrumentedHttpConnectionManager();
+        connectionManager.getParams().setDefaultMaxConnectionsPerHost(1);
+        final HostConfiguration hostConfiguration = new HostConfiguration();
+        hostConfiguration.setHost("localhost", 8081);
+
+        HttpConnection connection = connectionManager.getConnectionWithTimeout(hostConfiguration, 0);
+        long ownWait = connectionManager.getCurrentThreadLeaseWaitNanos();
+        assertEquals(connectionManager.getLeasedConnections(), 1);
+
+        final long[] otherWait = new long[1];
+        // failures of the waiter thread die with it, keep them for the test thread
+        final Throwable[] waiterError = new Throwable[1];
+        Thread waiter = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    connectionManager.getConnectionWithTimeout(hostConfiguration, 200);
+                    waiterError[0] = new AssertionError("The pool has no free connection");
+                } catch (ConnectionPoolTimeoutException e) {
+                    otherWait[0] = connectionManager.getCurrentThreadLeaseWaitNanos();
+                } catch (Throwable t) {
+                    waiterError[0] = t;
+                }
+            }
+        };
+        waiter.start();
+        waiter.join();
+        if (waiterError[0] != null) {
+            fail("The waiter thread failed", waiterError[0]);
+        }
+
+        assertTrue(otherWait[0] >= TimeUnit.MILLISECONDS.toNanos(200), "Timed out lease should count as waiting");
+        assertEquals(connectionManager.getCurrentThreadLeaseWaitNanos(), ownWait,
+                "Another thread's wait should not be counted");
+        assertEquals(connectionManager.getLeaseLatency().getCount(), 2);
+        connection.releaseConnection();
+        assertEquals(connectionManager.getLeasedConnections(), 0);
+        connectionManager.shutdown();
+    }
+}
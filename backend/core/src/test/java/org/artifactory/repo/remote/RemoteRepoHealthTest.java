@@ -0,0 +1,136 @@
+/*
+ * Artifactory is a binaries repository manager.
+ * Copyright (C) 2012 JFrog Ltd.
+ *
+ * Artifactory is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Artifactory is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Artifactory.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.artifactory.repo.remote;
+
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.*;
+
+/**
+ * Tests the {@link RemoteRepoHealth} circuit breaking and ranking.
+ */
+@Test
+public class RemoteRepoHealthTest {
+
+    public void opensWhenErrorRateCrossesThreshold() {
+        ManualClockHealth health = new ManualClockHealth(10, 4, 50, 0, 1000);
+        health.recordSuccess(5);
+        health.recordFailure(5);
+        health.recordFailure(5);
+        assertEquals(health.getState(), RemoteRepoHealth.State.CLOSED, "Not enough requests to open the circuit");
+        assertTrue(health.allowRequest());
+
+        health.recordSuccess(5);
+        health.recordFailure(5);
+        assertEquals(health.getState(), RemoteRepoHealth.State.OPEN);
+        assertEquals(health.getErrorRatePercent(), 60);
+        assertEquals(health.getOpenedCount(), 1);
+        assertFalse(health.allowRequest());
+        assertEquals(health.getRank(), 3);
+    }
+
+    public void slidingWindowEvictsOldOutcomes() {
+        ManualClockHealth health = new ManualClockHealth(4, 4, 75, 0, 1000);
+        health.recordFailure(5);
+        health.recordFailure(5);
+        for (int i = 0; i < 4; i++) {
+            health.recordSuccess(5);
+        }
+        assertEquals(health.getErrorRatePercent(), 0);
+        health.recordFailure(5);
+        health.recordFailure(5);
+        assertEquals(health.getState(), RemoteRepoHealth.State.CLOSED, "Old failures should have left the window");
+    }
+
+    public void halfOpenAllowsSingleProbe() {
+        ManualClockHealth health = new ManualClockHealth(2, 1, 100, 0, 1000);
+        health.recordFailure(5);
+        assertFalse(health.allowRequest());
+
+        health.now += 1000;
+        assertTrue(health.allowRequest(), "Probe expected after the open period");
+        assertEquals(health.getState(), RemoteRepoHealth.State.HALF_OPEN);
+        assertFalse(health.allowRequest(), "Only one probe is allowed at a time");
+
+        health.recordFailure(5);
+        assertEquals(health.getState(), RemoteRepoHealth.State.OPEN, "Failed probe should reopen the circuit");
+        assertFalse(health.allowRequest());
+
+        health.now += 1000;
+        assertTrue(health.allowRequest());
+        health.recordSuccess(5);
+        assertEquals(health.getState(), RemoteRepoHealth.State.CLOSED);
+        assertEquals(health.getErrorRatePercent(), 0, "Window should be cleared once the circuit closes");
+        assertTrue(health.allowRequest());
+    }
+
+    public void lostProbeIsReplaced() {
+        ManualClockHealth health = new ManualClockHealth(2, 1, 100, 0, 1000);
+        health.recordFailure(5);
+        health.now += 1000;
+        assertTrue(health.allowRequest());
+        health.now += 1000;
+        assertTrue(health.allowRequest(), "A probe which never reported back should be replaced");
+    }
+
+    public void slowRemoteIsRankedAfterHealthy() {
+        ManualClockHealth health = new ManualClockHealth(4, 2, 50, 100, 1000);
+        assertEquals(health.getRank(), 0);
+        health.recordSuccess(150);
+        health.recordSuccess(90);
+        assertTrue(health.isSlow());
+        assertEquals(health.getRank(), 1);
+        assertEquals(health.getAverageLatencyMillis(), 120);
+        health.recordSuccess(10);
+        health.recordSuccess(10);
+        assertFalse(health.isSlow());
+    }
+
+    public void zeroThresholdNeverOpens() {
+        ManualClockHealth health = new ManualClockHealth(2, 1, 0, 0, 1000);
+        for (int i = 0; i < 5; i++) {
+            health.recordFailure(5);
+        }
+        assertEquals(health.getState(), RemoteRepoHealth.State.CLOSED);
+        assertTrue(health.allowRequest());
+    }
+
+    public void reset() {
+        ManualClockHealth health = new ManualClockHealth(2, 1, 100, 0, 1000);
+        health.recordFailure(5);
+        health.reset();
+        assertEquals(health.getState(), RemoteRepoHealth.State.CLOSED);
+        assertEquals(health.getErrorRatePercent(), 0);
+        assertTrue(health.allowRequest());
+    }
+
+    private static class ManualClockHealth extends RemoteRepoHealth {
+        private long now = 1;
+
+        private ManualClockHealth(int windowSize, int minRequests, int errorRatePercentThreshold,
+                long slowThresholdMillis, long openPeriodMillis) {
+            super(windowSize, minRequests, errorRatePercentThreshold, slowThresholdMillis, openPeriodMillis);
+        }
+
+        @Override
+        protected long currentTimeMillis() {
+            return now;
+        }
+    }
+}
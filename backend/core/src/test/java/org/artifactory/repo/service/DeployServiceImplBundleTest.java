@@ -0,0 +1,330 @@
+/*
+ * Artifactory is a binaries repository manager.
+ * Copyright (C) 2012 JFrog Ltd.
+ *
+ * Artifactory is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Artifactory is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Artifactory.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.artifactory.repo.service;
+
+import com.google.common.collect.Lists;
+import org.apache.commons.io.IOUtils;
+import org.artifactory.api.common.BasicStatusHolder;
+import org.artifactory.api.context.ArtifactoryContextThreadBinder;
+import org.artifactory.api.maven.MavenService;
+import org.artifactory.api.repo.exception.RepoRejectException;
+import org.artifactory.api.request.ArtifactoryResponse;
+import org.artifactory.api.request.UploadService;
+import org.artifactory.api.search.ArchiveIndexer;
+import org.artifactory.binstore.BinaryInfo;
+import org.artifactory.common.ArtifactoryHome;
+import org.artifactory.common.ConstantValues;
+import org.artifactory.descriptor.repo.LocalRepoDescriptor;
+import org.artifactory.md.Properties;
+import org.artifactory.repo.LocalRepo;
+import org.artifactory.repo.RepoPath;
+import org.artifactory.request.ArtifactoryRequest;
+import org.artifactory.spring.InternalArtifactoryContext;
+import org.artifactory.storage.binstore.service.BinaryStore;
+import org.artifactory.test.ArtifactoryHomeBoundTest;
+import org.easymock.IAnswer;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.easymock.EasyMock.*;
+import static org.testng.Assert.*;
+
+/**
+ * Tests the archive bundle deployment of {@link DeployServiceImpl}.
+ */
+@Test
+public class DeployServiceImplBundleTest extends ArtifactoryHomeBoundTest {
+
+    private DeployServiceImpl service;
+    private InternalRepositoryService repositoryService;
+    private UploadService uploadService;
+    private BinaryStore binaryStore;
+    private LocalRepoDescriptor targetRepo;
+    private File bundle;
+    private List<String> storedPaths;
+    private List<String> uploadedPaths;
+    private Map<String, AtomicInteger> protections;
+    private AtomicInteger openStreams;
+    private String failingUploadPath;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        getBound().setProperty(ConstantValues.bundleDeployWorkerThreads, "2");
+        getBound().setProperty(ConstantValues.bundleDeployMaxItemsPerTransaction, "2");
+        service = new DeployServiceImpl();
+        storedPaths = Collections.synchronizedList(Lists.<String>newArrayList());
+        uploadedPaths = Collections.synchronizedList(Lists.<String>newArrayList());
+        protections = new ConcurrentHashMap<>();
+        openStreams = new AtomicInteger();
+        failingUploadPath = null;
+
+        targetRepo = new LocalRepoDescriptor();
+        targetRepo.setKey("libs");
+        LocalRepo repo = createNiceMock(LocalRepo.class);
+        replay(repo);
+        repositoryService = createMock(InternalRepositoryService.class);
+        expect(repositoryService.repositoryByKey("libs")).andReturn(repo).anyTimes();
+        expect(repositoryService.localRepositoryByKey("libs")).andReturn(repo).anyTimes();
+        binaryStore = createBinaryStore();
+        uploadService = createUploadService();
+        ArchiveIndexer archiveIndexer = createNiceMock(ArchiveIndexer.class);
+        replay(archiveIndexer);
+        ReflectionTestUtils.setField(service, "repositoryService", repositoryService);
+        ReflectionTestUtils.setField(service, "uploadService", uploadService);
+        ReflectionTestUtils.setField(service, "binaryStore", binaryStore);
+        ReflectionTestUtils.setField(service, "archiveIndexer", archiveIndexer);
+        ReflectionTestUtils.setField(service, "mavenService", createMock(MavenService.class));
+
+        // simulates the lock interceptor around the batches deployment, rolling back the uploads of a failed batch
+        InternalDeployService transactionalMe = createMock(InternalDeployService.class);
+        transactionalMe.deployBundleEntries(eq(targetRepo), anyObject(List.class), anyObject(Properties.class),
+                anyObject(BasicStatusHolder.class));
+        expectLastCall().andAnswer(new IAnswer<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public Object answer() throws Throwable {
+                Object[] args = getCurrentArguments();
+                List<BundleEntry> entries = (List<BundleEntry>) args[1];
+                try {
+                    service.deployBundleEntries(targetRepo, entries, (Properties) args[2],
+                            (BasicStatusHolder) args[3]);
+                } catch (BundleEntryDeployException e) {
+                    for (BundleEntry entry : entries) {
+                        uploadedPaths.remove(entry.getRelPath());
+                    }
+                    throw e;
+                }
+                return null;
+            }
+        }).anyTimes();
+        replay(transactionalMe);
+
+        InternalArtifactoryContext context = createNiceMock(InternalArtifactoryContext.class);
+        expect(context.beanForType(InternalDeployService.class)).andReturn(transactionalMe).anyTimes();
+        expect(context.getArtifactoryHome()).andReturn(ArtifactoryHome.get()).anyTimes();
+        expect(context.isReady()).andReturn(true).anyTimes();
+        replay(context);
+        ArtifactoryContextThreadBinder.bind(context);
+
+        bundle = File.createTempFile("bundle", ".zip");
+        createBundle(bundle, "a/1.txt", "a/2.txt", "b/3.txt", "b/4.txt", "c/5.txt");
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        ArtifactoryContextThreadBinder.unbind();
+        if (bundle != null) {
+            bundle.delete();
+        }
+    }
+
+    public void storedBinariesAreProtectedUntilDeployed() throws Exception {
+        expectValidDeployPaths(null);
+
+        BasicStatusHolder status = new BasicStatusHolder();
+        service.deployBundle(bundle, targetRepo, status, false);
+
+        assertFalse(status.isError(), "Unexpected deployment error: " + status.getStatusMsg());
+        assertEquals(uploadedPaths.size(), 5);
+        assertProtectionsReleased(5);
+    }
+
+    public void rejectedEntriesAreNotStored() throws Exception {
+        expectValidDeployPaths("libs:b/3.txt");
+
+        BasicStatusHolder status = new BasicStatusHolder();
+        service.deployBundle(bundle, targetRepo, status, false);
+
+        assertTrue(status.isError());
+        assertFalse(storedPaths.contains("b/3.txt"), "A rejected entry was stored");
+        assertEquals(storedPaths.size(), 4);
+        assertFalse(uploadedPaths.contains("b/3.txt"), "A rejected entry was deployed");
+        assertEquals(uploadedPaths.size(), 4);
+        assertProtectionsReleased(4);
+    }
+
+    public void rejectedEntryStopsFailFastDeployment() throws Exception {
+        expectValidDeployPaths("libs:a/2.txt");
+
+        BasicStatusHolder status = new BasicStatusHolder();
+        service.deployBundle(bundle, targetRepo, status, true);
+
+        assertTrue(status.isError());
+        assertEquals(storedPaths, Lists.newArrayList("a/1.txt"));
+        assertTrue(uploadedPaths.isEmpty(), "Entries were deployed after a fail fast rejection: " + uploadedPaths);
+        assertProtectionsReleased(1);
+    }
+
+    public void failedEntryRollsBackOnlyItself() throws Exception {
+        expectValidDeployPaths(null);
+        failingUploadPath = "a/1.txt";
+
+        BasicStatusHolder status = new BasicStatusHolder();
+        service.deployBundle(bundle, targetRepo, status, false);
+
+        assertTrue(status.isError());
+        assertFalse(uploadedPaths.contains("a/1.txt"), "The failed entry was deployed");
+        assertEquals(uploadedPaths.size(), 4, "The other entries of the failed batch should be deployed");
+        assertTrue(uploadedPaths.contains("a/2.txt"));
+        String summary = status.getStatusEntry().getMessage();
+        assertTrue(summary.startsWith("Successfully deployed 4 artifacts"), summary);
+        assertProtectionsReleased(5);
+    }
+
+    public void failedEntryStopsFailFastDeployment() throws Exception {
+        expectValidDeployPaths(null);
+        failingUploadPath = "a/2.txt";
+
+        BasicStatusHolder status = new BasicStatusHolder();
+        service.deployBundle(bundle, targetRepo, status, true);
+
+        assertTrue(status.isError());
+        assertTrue(uploadedPaths.contains("a/1.txt"), "The entry before the failure should be deployed");
+        assertFalse(uploadedPaths.contains("a/2.txt"), "The failed entry was deployed");
+        assertProtectionsReleased(protections.size());
+    }
+
+    private void expectValidDeployPaths(final String rejectedPath) throws RepoRejectException {
+        repositoryService.assertValidDeployPath(anyObject(RepoPath.class), anyLong());
+        expectLastCall().andAnswer(new IAnswer<Object>() {
+            @Override
+            public Object answer() throws Throwable {
+                if (getCurrentArguments()[0].toString().equals(rejectedPath)) {
+                    throw new RepoRejectException("Not permitted to deploy '" + rejectedPath + "'");
+                }
+                return null;
+            }
+        }).anyTimes();
+        replay(repositoryService);
+    }
+
+    private void assertProtectionsReleased(int expectedProtections) {
+        assertEquals(protections.size(), expectedProtections);
+        for (Map.Entry<String, AtomicInteger> protection : protections.entrySet()) {
+            assertEquals(protection.getValue().get(), 0, "Binary " + protection.getKey() + " is still protected");
+        }
+        assertEquals(openStreams.get(), 0, "Binary streams left open");
+    }
+
+    /**
+     * A binary store whose checksums are the stored contents, which are the paths of the bundle entries
+     */
+    private BinaryStore createBinaryStore() throws Exception {
+        BinaryStore store = createMock(BinaryStore.class);
+        expect(store.addBinary(anyObject(InputStream.class))).andAnswer(new IAnswer<BinaryInfo>() {
+            @Override
+            public BinaryInfo answer() throws Throwable {
+                final String content = IOUtils.toString((InputStream) getCurrentArguments()[0], "utf-8");
+                storedPaths.add(content);
+                BinaryInfo binaryInfo = createNiceMock(BinaryInfo.class);
+                expect(binaryInfo.getSha1()).andReturn(content).anyTimes();
+                expect(binaryInfo.getLength()).andReturn((long) content.length()).anyTimes();
+                replay(binaryInfo);
+                return binaryInfo;
+            }
+        }).anyTimes();
+        expect(store.protectBinary(anyObject(String.class))).andAnswer(new IAnswer<Closeable>() {
+            @Override
+            public Closeable answer() throws Throwable {
+                final AtomicInteger counter = new AtomicInteger();
+                AtomicInteger existing = protections.put((String) getCurrentArguments()[0], counter);
+                assertNull(existing, "Binary protected twice");
+                counter.incrementAndGet();
+                return new Closeable() {
+                    @Override
+                    public void close() {
+                        counter.decrementAndGet();
+                    }
+                };
+            }
+        }).anyTimes();
+        expect(store.getBinary(anyObject(String.class))).andAnswer(new IAnswer<InputStream>() {
+            @Override
+            public InputStream answer() throws Throwable {
+                openStreams.incrementAndGet();
+                return new ByteArrayInputStream(((String) getCurrentArguments()[0]).getBytes("utf-8")) {
+                    private boolean closed;
+
+                    @Override
+                    public void close() {
+                        if (!closed) {
+                            closed = true;
+                            openStreams.decrementAndGet();
+                        }
+                    }
+                };
+            }
+        }).anyTimes();
+        replay(store);
+        return store;
+    }
+
+    /**
+     * An upload service asserting that the deployed binary is still protected
+     */
+    private UploadService createUploadService() throws Exception {
+        UploadService upload = createMock(UploadService.class);
+        upload.upload(anyObject(ArtifactoryRequest.class), anyObject(ArtifactoryResponse.class));
+        expectLastCall().andAnswer(new IAnswer<Object>() {
+            @Override
+            public Object answer() throws Throwable {
+                ArtifactoryRequest request = (ArtifactoryRequest) getCurrentArguments()[0];
+                String path = request.getRepoPath().getPath();
+                assertEquals(IOUtils.toString(request.getInputStream(), "utf-8"), path);
+                assertEquals(protections.get(path).get(), 1, "Binary of " + path + " is not protected");
+                if (path.equals(failingUploadPath)) {
+                    throw new RuntimeException("Checksum policy rejected " + path);
+                }
+                uploadedPaths.add(path);
+                ((ArtifactoryResponse) getCurrentArguments()[1]).setStatus(200);
+                return null;
+            }
+        }).anyTimes();
+        replay(upload);
+        return upload;
+    }
+
+    private static void createBundle(File bundle, String... paths) throws Exception {
+        ZipOutputStream zip = new ZipOutputStream(new FileOutputStream(bundle));
+        try {
+            for (String path : paths) {
+                zip.putNextEntry(new ZipEntry(path));
+                zip.write(path.getBytes("utf-8"));
+                zip.closeEntry();
+            }
+        } finally {
+            zip.close();
+        }
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * Artifactory is a binaries repository manager.
+ * Copyright (C) 2012 JFrog Ltd.
+ *
+ * Artifactory is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Artifactory is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Artifactory.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.artifactory.repo.service;
+
+import com.google.common.collect.Lists;
+import org.artifactory.api.context.ArtifactoryContextThreadBinder;
+import org.artifactory.common.ArtifactoryHome;
+import org.artifactory.common.ConstantValues;
+import org.artifactory.repo.Repo;
+import org.artifactory.spring.InternalArtifactoryContext;
+import org.artifactory.storage.fs.session.StorageSession;
+import org.artifactory.storage.fs.session.StorageSessionHolder;
+import org.artifactory.test.ArtifactoryHomeBoundTest;
+import org.easymock.IAnswer;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.easymock.EasyMock.*;
+import static org.testng.Assert.*;
+
+/**
+ * Tests the concurrent initialization of repositories in {@link RepositoryServiceImpl}.
+ */
+@Test
+public class RepositoryServiceImplInitTest extends ArtifactoryHomeBoundTest {
+
+    private RepositoryServiceImpl service;
+    private InternalRepositoryService transactionalMe;
+    private StorageSession session;
+    private Set<String> initThreads;
+
+    @BeforeMethod
+    public void setUp() {
+        service = new RepositoryServiceImpl();
+        session = createMock(StorageSession.class);
+        initThreads = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+        // simulates the lock interceptor: a new storage session around the transactional init
+        transactionalMe = createMock(InternalRepositoryService.class);
+        transactionalMe.initRepository(anyObject(Repo.class));
+        expectLastCall().andAnswer(new IAnswer<Object>() {
+            @Override
+            public Object answer() throws Throwable {
+                StorageSessionHolder.setSession(session);
+                try {
+                    ((Repo) getCurrentArguments()[0]).init();
+                } finally {
+                    StorageSessionHolder.removeSession();
+                }
+                return null;
+            }
+        }).anyTimes();
+        replay(transactionalMe);
+
+        InternalArtifactoryContext context = createNiceMock(InternalArtifactoryContext.class);
+        expect(context.beanForType(InternalRepositoryService.class)).andReturn(transactionalMe).anyTimes();
+        expect(context.getArtifactoryHome()).andReturn(ArtifactoryHome.get()).anyTimes();
+        expect(context.isReady()).andReturn(true).anyTimes();
+        replay(context);
+        ArtifactoryContextThreadBinder.bind(context);
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        ArtifactoryContextThreadBinder.unbind();
+        StorageSessionHolder.removeSession();
+    }
+
+    public void initWithThreadsUsesNewSessions() {
+        getBound().setProperty(ConstantValues.repoInitThreads, "4");
+        List<Repo> repos = createRepos("local", 10, -1);
+
+        // the session of the caller is not visible to the init threads
+        StorageSessionHolder.setSession(createMock(StorageSession.class));
+        Map<Repo, Exception> failures = service.initRepositories(repos, "local");
+
+        assertTrue(failures.isEmpty(), "Unexpected init failures: " + failures);
+        for (String initThread : initThreads) {
+            assertTrue(initThread.startsWith("repo-init-"), "Repository initialized by " + initThread);
+        }
+    }
+
+    public void initFailuresAreReturnedInOrder() {
+        getBound().setProperty(ConstantValues.repoInitThreads, "4");
+        List<Repo> repos = createRepos("local", 10, 3);
+        repos.addAll(createRepos("remote", 3, 0));
+
+        Map<Repo, Exception> failures = service.initRepositories(repos, "local");
+
+        assertEquals(Lists.newArrayList(failures.keySet()), Lists.newArrayList(repos.get(3), repos.get(10)));
+    }
+
+    public void sequentialInitUsesCallerSession() {
+        getBound().setProperty(ConstantValues.repoInitThreads, "1");
+        List<Repo> repos = createRepos("local", 3, -1);
+
+        StorageSessionHolder.setSession(session);
+        Map<Repo, Exception> failures = service.initRepositories(repos, "local");
+
+        assertTrue(failures.isEmpty(), "Unexpected init failures: " + failures);
+        assertEquals(initThreads.size(), 1);
+        assertTrue(initThreads.contains(Thread.currentThread().getName()));
+    }
+
+    /**
+     * Creates repositories that, like a storing repository creating its root folder in an empty database, fail to
+     * initialize without a storage session.
+     */
+    private List<Repo> createRepos(String keyPrefix, int count, int failingIndex) {
+        List<Repo> repos = Lists.newArrayList();
+        for (int i = 0; i < count; i++) {
+            final boolean failing = i == failingIndex;
+            Repo repo = createMock(Repo.class);
+            expect(repo.getKey()).andReturn(keyPrefix + i + (failing ? "-failing" : "")).anyTimes();
+            repo.init();
+            expectLastCall().andAnswer(new IAnswer<Object>() {
+                @Override
+                public Object answer() throws Throwable {
+                    if (StorageSessionHolder.getSession() != session) {
+                        throw new IllegalStateException("Session doesn't exist");
+                    }
+                    if (failing) {
+                        throw new RuntimeException("Failed to initialize");
+                    }
+                    initThreads.add(Thread.currentThread().getName());
+                    return null;
+                }
+            }).once();
+            replay(repo);
+            repos.add(repo);
+        }
+        return repos;
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Artifactory is a binaries repository manager.
+ * Copyright (C) 2012 JFrog Ltd.
+ *
+ * Artifactory is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Artifactory is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Artifactory.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.artifactory.repo.webdav;
+
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+
+/**
+ * Tests the {@link IsoDateCache}.
+ */
+@Test
+public class IsoDateCacheTest {
+
+    public void formatEpoch() {
+        assertEquals(new IsoDateCache(10).format(0), "1970-01-01T00:00:00Z");
+    }
+
+    public void formatInGmt() {
+        assertEquals(new IsoDateCache(10).format(1340283204448L), "2012-06-21T12:53:24Z");
+    }
+
+    public void sameSecondIsCached() {
+        IsoDateCache cache = new IsoDateCache(10);
+        String formatted = cache.format(1340283204001L);
+        assertSame(cache.format(1340283204999L), formatted);
+    }
+
+    public void negativeMillisRoundDown() {
+        assertEquals(new IsoDateCache(10).format(-1), "1969-12-31T23:59:59Z");
+    }
+
+    public void exceedingMaxSize() {
+        IsoDateCache cache = new IsoDateCache(2);
+        for (int i = 0; i < 5; i++) {
+            assertEquals(cache.format(i * 1000), "1970-01-01T00:00:0" + i + "Z");
+        }
+        assertEquals(cache.format(0), "1970-01-01T00:00:00Z");
+    }
+}
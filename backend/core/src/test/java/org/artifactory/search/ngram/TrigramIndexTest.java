@@ -0,0 +1,90 @@
+/*
+ * Artifactory is a binaries repository manager.
+ * Copyright (C) 2012 JFrog Ltd.
+ *
+ * Artifactory is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Artifactory is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Artifactory.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.artifactory.search.ngram;
+
+import org.testng.annotations.Test;
+
+import java.util.BitSet;
+
+import static org.testng.Assert.*;
+
+/**
+ * Tests the {@link TrigramIndex} and its compressed postings.
+ */
+@Test
+public class TrigramIndexTest {
+
+    public void findCandidatesOfLeadingWildcard() {
+        TrigramIndex index = new TrigramIndex();
+        index.add(1, "commons-lang-2.6.jar");
+        index.add(2, "commons-io-2.4.jar");
+        index.add(3, "Lang-Utils.pom");
+        index.add(4, "junit-4.11.jar");
+
+        assertEquals(index.findCandidates("*lang*", 10), new int[]{1, 3});
+        assertEquals(index.findCandidates("*commons*jar", 10), new int[]{1, 2});
+        assertEquals(index.findCandidates("*io-2?4*", 10), new int[]{2});
+        assertEquals(index.findCandidates("*maven*", 10), new int[0]);
+    }
+
+    public void patternWithoutTrigramCannotBeNarrowed() {
+        TrigramIndex index = new TrigramIndex();
+        index.add(1, "commons-lang-2.6.jar");
+        assertNull(index.findCandidates("*", 10));
+        assertNull(index.findCandidates("*co*ja*", 10));
+    }
+
+    public void tooManyCandidates() {
+        TrigramIndex index = new TrigramIndex();
+        for (int i = 0; i < 20; i++) {
+            index.add(i, "artifact-" + i + ".jar");
+        }
+        assertNull(index.findCandidates("*.jar", 10));
+        assertEquals(index.findCandidates("*.jar", 20).length, 20);
+    }
+
+    public void removedIdsAreNotCandidates() {
+        TrigramIndex index = new TrigramIndex();
+        index.add(5, "a.jar");
+        index.add(7, "b.jar");
+        index.remove(5);
+        assertEquals(index.findCandidates("*.jar", 10), new int[]{7});
+    }
+
+    public void postingsKeepSortedDistinctValues() {
+        IntPostings postings = new IntPostings();
+        int[] values = {3, 200, 70000, 70001, Integer.MAX_VALUE};
+        for (int value : values) {
+            postings.add(value);
+        }
+        postings.add(200);
+        postings.add(0);
+        postings.add(150);
+        assertEquals(postings.toArray(), new int[]{0, 3, 150, 200, 70000, 70001, Integer.MAX_VALUE});
+        assertEquals(postings.intersect(new int[]{1, 3, 70001, Integer.MAX_VALUE}),
+                new int[]{3, 70001, Integer.MAX_VALUE});
+
+        BitSet removed = new BitSet();
+        removed.set(150);
+        removed.set(70000);
+        postings.removeAll(removed);
+        assertEquals(postings.toArray(), new int[]{0, 3, 200, 70001, Integer.MAX_VALUE});
+        assertEquals(postings.size(), 5);
+    }
+}
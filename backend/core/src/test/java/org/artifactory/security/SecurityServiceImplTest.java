@@ -561,6 +561,26 @@ public class SecurityServiceImplTest extends ArtifactoryHomeBoundTest {
         assertFalse(service.userPasswordMatches("blabla"));
     }
 
+    @Test
+    public void childrenReadUniform() {
+        Authentication authentication = setSimpleUserAuthentication("shay");
+        expectGetAllAclsCall(authentication);
+        replay(aclStoreServiceMock, repositoryServiceMock);
+
+        // shay can only read com/acme/** in the specific repo
+        assertTrue(service.isChildrenReadUniform(InternalRepoPathFactory.create("specific-repo", "com/acme/foo")),
+                "All the children are under the included path");
+        assertTrue(service.isChildrenReadUniform(InternalRepoPathFactory.create("specific-repo", "com/acme")),
+                "All the children are under the included path");
+        assertTrue(service.isChildrenReadUniform(InternalRepoPathFactory.create("specific-repo", "org/acme")),
+                "None of the children is under the included path");
+        assertFalse(service.isChildrenReadUniform(InternalRepoPathFactory.create("specific-repo", "com")),
+                "Only the acme child is under the included path");
+        assertFalse(service.isChildrenReadUniform(InternalRepoPathFactory.repoRootPath("specific-repo")),
+                "Only the com child is under the included path");
+        verify(aclStoreServiceMock);
+    }
+
     @Test
     public void permissionOnRemoteRoot() {
         Authentication authentication = setSimpleUserAuthentication();
@@ -28,6 +28,7 @@ import org.artifactory.sapi.common.FileExportCallback;
 import org.artifactory.sapi.common.FileExportEvent;
 import org.artifactory.sapi.common.FileExportInfo;
 
+import javax.annotation.Nullable;
 import java.io.File;
 import java.util.Date;
 import java.util.Set;
@@ -51,6 +52,16 @@ public class ExportSettingsImpl extends ImportExportSettingsImpl implements Expo
 
     private boolean excludeBuilds;
 
+    /**
+     * Flag that indicates if to hard-link the binaries from the filestore instead of copying their content
+     */
+    private boolean linkBinaries;
+
+    /**
+     * Shared directory of checksum named binaries used by content addressed backups
+     */
+    private File blobsDir;
+
     /**
      * Callbacks - If we need to perform any special actions before exporting a file
      */
@@ -79,6 +90,8 @@ public class ExportSettingsImpl extends ImportExportSettingsImpl implements Expo
         this.incremental = settings.incremental;
         this.callbacks = settings.callbacks;
         this.excludeBuilds = settings.excludeBuilds;
+        this.linkBinaries = settings.linkBinaries;
+        this.blobsDir = settings.blobsDir;
     }
 
     @Override
@@ -139,6 +152,36 @@ public class ExportSettingsImpl extends ImportExportSettingsImpl implements Expo
         this.m2Compatible = m2Compatible;
     }
 
+    /**
+     * @return True if file content should be hard-linked from the filestore when the export target is on the same
+     *         file system. Linked files share the filestore inode, so their last modified time is not updated.
+     */
+    @Override
+    public boolean isLinkBinaries() {
+        return linkBinaries;
+    }
+
+    @Override
+    public void setLinkBinaries(boolean linkBinaries) {
+        this.linkBinaries = linkBinaries;
+    }
+
+    /**
+     * @return The shared blobs directory of a content addressed backup, null for a regular export. When set, the
+     *         content of each file is stored once by its sha1 checksum under this directory and the exported items
+     *         are listed in a manifest per repository instead of being written to the export tree.
+     */
+    @Override
+    @Nullable
+    public File getBlobsDir() {
+        return blobsDir;
+    }
+
+    @Override
+    public void setBlobsDir(@Nullable File blobsDir) {
+        this.blobsDir = blobsDir;
+    }
+
     @Override
     public void addCallback(FileExportCallback callback) {
         if (callbacks == null) {
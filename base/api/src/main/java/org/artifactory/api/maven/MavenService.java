@@ -23,6 +23,7 @@ import org.artifactory.api.repo.exception.maven.BadPomException;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 
 /**
  * Provides different maven related service methods
@@ -65,6 +66,19 @@ public interface MavenService {
     void validatePomFile(File pomFile, String relPath, ModuleInfo moduleInfo,
             boolean suppressPomConsistencyChecks) throws BadPomException;
 
+    /**
+     * Validates pom content read from the given stream before deployment. The stream is not closed.
+     *
+     * @param pomStream                    Stream of the POM content to validate
+     * @param relPath                      Relative deployment path of the pom
+     * @param moduleInfo                   POM module info
+     * @param suppressPomConsistencyChecks If true will not throw an exception is pom consistency fails (eg, groupId
+     *                                     doesn't match target relative path)
+     * @throws BadPomException If POM is invalid
+     */
+    void validatePomStream(InputStream pomStream, String relPath, ModuleInfo moduleInfo,
+            boolean suppressPomConsistencyChecks) throws BadPomException;
+
     /**
      * Get the artifact model from a jar or pom file
      *
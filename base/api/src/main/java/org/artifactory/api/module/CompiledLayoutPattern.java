@@ -0,0 +1,154 @@
+/*
+ * Artifactory is a binaries repository manager.
+ * Copyright (C) 2012 JFrog Ltd.
+ *
+ * Artifactory is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Artifactory is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Artifactory.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.artifactory.api.module;
+
+import org.artifactory.api.module.regex.NamedMatcher;
+import org.artifactory.api.module.regex.NamedPattern;
+import org.artifactory.descriptor.repo.RepoLayout;
+import org.artifactory.util.RepoLayoutUtils;
+
+import javax.annotation.Nullable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A repository layout path pattern compiled once to a named regular expression, together with the literal prefix and
+ * suffix every matching path must have (e.g. the ".pom" of a maven descriptor pattern), used to reject paths without
+ * running the expression.
+ * <p/>
+ * Compiled patterns are cached by the layout values that affect the expression, so a layout changed by a new
+ * configuration simply maps to a new entry.
+ */
+class CompiledLayoutPattern {
+
+    /**
+     * Layouts are few; the bound only protects against endless configuration changes
+     */
+    private static final int MAX_CACHED_PATTERNS = 256;
+
+    private static final ConcurrentMap<String, CompiledLayoutPattern> cache =
+            new ConcurrentHashMap<String, CompiledLayoutPattern>();
+
+    private final NamedPattern pattern;
+    private final String literalPrefix;
+    private final String literalSuffix;
+
+    private CompiledLayoutPattern(RepoLayout repoLayout, String pathPattern, boolean supportVersionsTokens) {
+        String regExp = RepoLayoutUtils.generateRegExpFromPattern(repoLayout, pathPattern, false,
+                supportVersionsTokens);
+        pattern = NamedPattern.compile(regExp);
+        literalPrefix = getLiteralPrefix(pathPattern);
+        literalSuffix = getLiteralSuffix(pathPattern);
+    }
+
+    static CompiledLayoutPattern get(RepoLayout repoLayout, String pathPattern, boolean supportVersionsTokens) {
+        String key = new StringBuilder(pathPattern).append('\n')
+                .append(repoLayout.getFolderIntegrationRevisionRegExp()).append('\n')
+                .append(repoLayout.getFileIntegrationRevisionRegExp()).append('\n')
+                .append(supportVersionsTokens).toString();
+        CompiledLayoutPattern compiledPattern = cache.get(key);
+        if (compiledPattern == null) {
+            if (cache.size() >= MAX_CACHED_PATTERNS) {
+                cache.clear();
+            }
+            compiledPattern = new CompiledLayoutPattern(repoLayout, pathPattern, supportVersionsTokens);
+            CompiledLayoutPattern existing = cache.putIfAbsent(key, compiledPattern);
+            if (existing != null) {
+                compiledPattern = existing;
+            }
+        }
+        return compiledPattern;
+    }
+
+    static void clearCache() {
+        cache.clear();
+    }
+
+    /**
+     * @param path Path to match
+     * @return A matcher of the whole path against the pattern, null if the path doesn't match
+     */
+    @Nullable
+    NamedMatcher matcher(String path) {
+        if (!path.startsWith(literalPrefix) || !path.endsWith(literalSuffix) ||
+                path.length() < literalPrefix.length() + literalSuffix.length()) {
+            return null;
+        }
+        NamedMatcher matcher = pattern.matcher(path);
+        return matcher.matches() ? matcher : null;
+    }
+
+    NamedPattern getPattern() {
+        return pattern;
+    }
+
+    String getLiteralPrefix() {
+        return literalPrefix;
+    }
+
+    String getLiteralSuffix() {
+        return literalSuffix;
+    }
+
+    /**
+     * @return The leading characters of the pattern which are matched as is, up to the first token, optional area or
+     *         character which has a meaning in regular expressions. A character made optional or repeatable by a
+     *         quantifier is not a part of the prefix, and a pattern with an alternation has no prefix.
+     */
+    static String getLiteralPrefix(String pathPattern) {
+        if (pathPattern.indexOf('|') != -1) {
+            return "";
+        }
+        int end = 0;
+        while (end < pathPattern.length() && isLiteral(pathPattern.charAt(end))) {
+            end++;
+        }
+        if (end > 0 && end < pathPattern.length() && isQuantifier(pathPattern.charAt(end))) {
+            end--;
+        }
+        return pathPattern.substring(0, end);
+    }
+
+    /**
+     * @return The trailing characters of the pattern which are matched as is, from the last token, optional area or
+     *         character which has a meaning in regular expressions. A pattern with an alternation has no suffix.
+     */
+    static String getLiteralSuffix(String pathPattern) {
+        if (pathPattern.indexOf('|') != -1) {
+            return "";
+        }
+        int start = pathPattern.length();
+        while (start > 0 && isLiteral(pathPattern.charAt(start - 1))) {
+            start--;
+        }
+        return pathPattern.substring(start);
+    }
+
+    private static boolean isQuantifier(char c) {
+        return c == '?' || c == '*' || c == '+' || c == '{';
+    }
+
+    /**
+     * Dots and dashes are escaped by the generated expression, any other character but letters, digits, slashes and
+     * underscores might be a part of a token or of a regular expression construct
+     */
+    private static boolean isLiteral(char c) {
+        return Character.isLetterOrDigit(c) || c == '/' || c == '.' || c == '-' || c == '_';
+    }
+}
@@ -21,7 +21,6 @@ package org.artifactory.api.module;
 import com.google.common.collect.Sets;
 import org.apache.commons.lang.StringUtils;
 import org.artifactory.api.module.regex.NamedMatcher;
-import org.artifactory.api.module.regex.NamedPattern;
 import org.artifactory.descriptor.repo.RepoLayout;
 import org.artifactory.util.PathUtils;
 import org.artifactory.util.RepoLayoutUtils;
@@ -331,13 +330,10 @@ public abstract class ModuleInfoUtils {
 
     private static ModuleInfo moduleInfoFromPattern(String itemPath, RepoLayout repoLayout, String pattern,
             boolean supportVersionsTokens) {
-        String itemPathPatternRegExp = RepoLayoutUtils.generateRegExpFromPattern(repoLayout, pattern, false,
-                supportVersionsTokens);
-        //TODO: [by yl] Cache the patterns
-        NamedPattern itemPathRegExPattern = NamedPattern.compile(itemPathPatternRegExp);
-        NamedMatcher itemPathMatcher = itemPathRegExPattern.matcher(itemPath);
+        CompiledLayoutPattern compiledPattern = CompiledLayoutPattern.get(repoLayout, pattern, supportVersionsTokens);
+        NamedMatcher itemPathMatcher = compiledPattern.matcher(itemPath);
         ModuleInfo moduleInfo;
-        if (!itemPathMatcher.matches()) {
+        if (itemPathMatcher == null) {
             moduleInfo = new ModuleInfo();
         } else {
             moduleInfo = createModuleInfo(itemPathMatcher);
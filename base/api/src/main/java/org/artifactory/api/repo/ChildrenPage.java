@@ -0,0 +1,58 @@
+/*
+ * Artifactory is a binaries repository manager.
+ * Copyright (C) 2012 JFrog Ltd.
+ *
+ * Artifactory is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Artifactory is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Artifactory.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.artifactory.api.repo;
+
+import org.artifactory.fs.ItemInfo;
+
+import javax.annotation.Nullable;
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * A value object with a page of folder children ordered by name.
+ */
+public class ChildrenPage implements Serializable {
+
+    private final List<ItemInfo> children;
+    private final String continuation;
+
+    public ChildrenPage(List<ItemInfo> children, @Nullable String continuation) {
+        this.children = children;
+        this.continuation = continuation;
+    }
+
+    /**
+     * @return The readable children of this page, ordered by name. Might be empty even if more pages exist.
+     */
+    public List<ItemInfo> getChildren() {
+        return children;
+    }
+
+    /**
+     * @return Token to pass for fetching the next page, null if this is the last page.
+     */
+    @Nullable
+    public String getContinuation() {
+        return continuation;
+    }
+
+    public boolean hasMore() {
+        return continuation != null;
+    }
+}
@@ -19,6 +19,7 @@
 package org.artifactory.api.repo;
 
 import org.artifactory.repo.RepoPath;
+import org.artifactory.sapi.fs.Visitor;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -56,6 +57,19 @@ public interface RepositoryBrowsingService {
     @Nonnull
     List<BaseBrowsableItem> getLocalRepoBrowsableChildren(@Nonnull BrowsableItemCriteria criteria);
 
+    /**
+     * Streams the local or cache repo items below the given folder, up to the given number of levels, to the visitor
+     * using a single storage query. Items the current user can't read are skipped like in
+     * {@link #getLocalRepoBrowsableChildren(BrowsableItemCriteria)}, but the items are not sorted, the folder itself
+     * is not visited and the request properties of the criteria are not matched.
+     *
+     * @param criteria Browsable item conditions
+     * @param depth    Number of levels below the folder to visit, 1 for the direct children only
+     * @param visitor  The visitor to receive the items. Throw a runtime exception to stop the iteration
+     */
+    void visitLocalRepoBrowsableSubtree(@Nonnull BrowsableItemCriteria criteria, int depth,
+            Visitor<BaseBrowsableItem> visitor);
+
     /**
      * Get external browsable children from a remote repo. Using {@link org.apache.ivy.util.url.ApacheURLLister#listAll}
      * of Ivy in order to get a remote listing.
@@ -323,6 +323,20 @@ public interface RepositoryService extends ImportableExportable {
     @Nonnull
     List<ItemInfo> getChildren(RepoPath repoPath);
 
+    /**
+     * Returns a page of the readable children of the given repo path, ordered by name. Pages are chained with the
+     * continuation token of the previous page, so listing a large folder never loads all of its children at once.
+     *
+     * @param repoPath     The repo path to list children
+     * @param continuation The continuation token of the previous page. Null for the first page
+     * @param pageSize     Maximum number of children to scan for the page. Non positive for the default page size,
+     *                     capped by the artifactory.repo.childrenMaxPageSize system property
+     * @return A page of children. Empty if the path doesn't exist or is not pointing to a folder
+     * @throws IllegalArgumentException If the continuation token is not one returned by a previous page
+     */
+    @Nonnull
+    ChildrenPage getChildren(RepoPath repoPath, @Nullable String continuation, int pageSize);
+
     @Lock
     List<ItemInfo> getChildrenDeeply(RepoPath path);
 
@@ -26,6 +26,10 @@ import java.util.List;
 public class RestFolderInfo extends RestBaseStorageInfo {
 
     public List<DirItem> children;
+    /**
+     * Token for fetching the next page of children, only set on paged listings that have more children
+     */
+    public String continuation;
 
     public static class DirItem {
         public String uri;
@@ -32,6 +32,7 @@ import org.artifactory.api.search.stats.StatsSearchResult;
 import org.artifactory.build.BuildRun;
 import org.artifactory.repo.RepoPath;
 import org.artifactory.sapi.common.RepositoryRuntimeException;
+import org.artifactory.sapi.fs.Visitor;
 import org.artifactory.util.SerializablePair;
 
 import javax.annotation.Nullable;
@@ -85,6 +86,16 @@ public interface SearchService {
 
     ItemSearchResults<PropertySearchResult> searchProperty(PropertySearchControls controls);
 
+    /**
+     * Searches by properties, handing each result to the visitor as it is read instead of collecting all the results
+     * in memory.
+     *
+     * @param controls Search controls
+     * @param visitor  Visitor to receive the results
+     * @return The number of results visited
+     */
+    long searchProperty(PropertySearchControls controls, Visitor<PropertySearchResult> visitor);
+
     Set<BuildRun> getLatestBuilds() throws RepositoryRuntimeException;
 
     Set<BuildRun> findBuildsByArtifactChecksum(@Nullable String sha1, @Nullable String md5)
@@ -58,6 +58,13 @@ public interface AuthorizationService {
      */
     boolean canImplicitlyReadParentPath(RepoPath repoPath);
 
+    /**
+     * @return True if no permission target include or exclude pattern can distinguish among the direct children of
+     *         the specified folder, so the read permission of the current user on any child (file or folder) applies
+     *         to all of them
+     */
+    boolean isChildrenReadUniform(RepoPath folderRepoPath);
+
     /**
      * @return True if the current user can annotate the specified path.
      */
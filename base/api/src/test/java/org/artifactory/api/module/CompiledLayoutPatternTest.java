@@ -0,0 +1,102 @@
+/*
+ * Artifactory is a binaries repository manager.
+ * Copyright (C) 2012 JFrog Ltd.
+ *
+ * Artifactory is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Artifactory is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Artifactory.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.artifactory.api.module;
+
+import org.artifactory.api.module.regex.NamedMatcher;
+import org.artifactory.descriptor.repo.RepoLayout;
+import org.artifactory.descriptor.repo.RepoLayoutBuilder;
+import org.artifactory.util.RepoLayoutUtils;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.*;
+
+/**
+ * Tests the {@link CompiledLayoutPattern}.
+ */
+@Test
+public class CompiledLayoutPatternTest {
+
+    public void literalPrefixAndSuffix() {
+        assertEquals(CompiledLayoutPattern.getLiteralPrefix("[org]/[module]/ivy-[baseRev].xml"), "");
+        assertEquals(CompiledLayoutPattern.getLiteralSuffix("[org]/[module]/ivy-[baseRev].xml"), ".xml");
+        assertEquals(CompiledLayoutPattern.getLiteralPrefix("libs/[org]/[module]-[baseRev].[ext]"), "libs/");
+        assertEquals(CompiledLayoutPattern.getLiteralSuffix("libs/[org]/[module]-[baseRev].[ext]"), "");
+        assertEquals(CompiledLayoutPattern.getLiteralSuffix("[module](-[classifier])"), "");
+        assertEquals(CompiledLayoutPattern.getLiteralSuffix("[module]-[baseRev]*.jar"), ".jar",
+                "Characters with a meaning in regular expressions shouldn't be part of the suffix");
+        assertEquals(CompiledLayoutPattern.getLiteralPrefix("a/b.c"), "a/b.c");
+    }
+
+    public void literalPrefixAndSuffixOfRegExpConstructs() {
+        assertEquals(CompiledLayoutPattern.getLiteralPrefix("libs?/[org]/[module]"), "lib",
+                "A character made optional by a quantifier shouldn't be part of the prefix");
+        assertEquals(CompiledLayoutPattern.getLiteralPrefix("ab*c/[org]"), "a");
+        assertEquals(CompiledLayoutPattern.getLiteralPrefix("libs+/[org]"), "lib");
+        assertEquals(CompiledLayoutPattern.getLiteralPrefix("a{2}/[org]"), "");
+        assertEquals(CompiledLayoutPattern.getLiteralPrefix("libs|ext/[org]/[module].jar"), "",
+                "A branch of an alternation shouldn't be part of the prefix");
+        assertEquals(CompiledLayoutPattern.getLiteralSuffix("[org]/[module].jar|[module].pom"), "",
+                "A branch of an alternation shouldn't be part of the suffix");
+    }
+
+    public void matchPathsOfQuantifiedPrefix() {
+        RepoLayout repoLayout = new RepoLayoutBuilder().name("quantified")
+                .artifactPathPattern("libs?/[org]/[module]-[baseRev].[ext]")
+                .folderIntegrationRevisionRegExp(".*").fileIntegrationRevisionRegExp(".*").build();
+        CompiledLayoutPattern compiledPattern =
+                CompiledLayoutPattern.get(repoLayout, repoLayout.getArtifactPathPattern(), false);
+        assertNotNull(compiledPattern.matcher("libs/jfrog/art-1.0.jar"));
+        assertNotNull(compiledPattern.matcher("lib/jfrog/art-1.0.jar"));
+        assertNull(compiledPattern.matcher("other/jfrog/art-1.0.jar"));
+    }
+
+    public void rejectByLiteralSuffix() {
+        String descriptorPattern = RepoLayoutUtils.MAVEN_2_DEFAULT.getDescriptorPathPattern();
+        CompiledLayoutPattern compiledPattern =
+                CompiledLayoutPattern.get(RepoLayoutUtils.MAVEN_2_DEFAULT, descriptorPattern, false);
+        assertEquals(compiledPattern.getLiteralSuffix(), ".pom");
+        assertNull(compiledPattern.matcher("org/jfrog/art/1.0/art-1.0.jar"));
+        NamedMatcher matcher = compiledPattern.matcher("org/jfrog/art/1.0/art-1.0.pom");
+        assertNotNull(matcher);
+        assertEquals(matcher.namedGroups().get(RepoLayoutUtils.MODULE), "art");
+    }
+
+    public void rejectByLiteralPrefix() {
+        RepoLayout repoLayout = new RepoLayoutBuilder().name("prefixed")
+                .artifactPathPattern("libs/[org]/[module]-[baseRev].[ext]")
+                .folderIntegrationRevisionRegExp(".*").fileIntegrationRevisionRegExp(".*").build();
+        CompiledLayoutPattern compiledPattern =
+                CompiledLayoutPattern.get(repoLayout, repoLayout.getArtifactPathPattern(), false);
+        assertNull(compiledPattern.matcher("other/jfrog/art-1.0.jar"));
+        assertNotNull(compiledPattern.matcher("libs/jfrog/art-1.0.jar"));
+    }
+
+    public void cachedByLayoutValues() {
+        RepoLayout repoLayout = RepoLayoutUtils.MAVEN_2_DEFAULT;
+        String pattern = repoLayout.getArtifactPathPattern();
+        CompiledLayoutPattern compiledPattern = CompiledLayoutPattern.get(repoLayout, pattern, false);
+        assertSame(CompiledLayoutPattern.get(new RepoLayout(repoLayout), pattern, false), compiledPattern);
+        assertNotSame(CompiledLayoutPattern.get(repoLayout, pattern, true), compiledPattern);
+
+        RepoLayout changedLayout = new RepoLayout(repoLayout);
+        changedLayout.setFileIntegrationRevisionRegExp("SNAPSHOT");
+        assertNotSame(CompiledLayoutPattern.get(changedLayout, pattern, false), compiledPattern,
+                "A changed layout should be compiled again");
+    }
+}
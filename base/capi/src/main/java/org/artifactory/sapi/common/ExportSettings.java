@@ -18,6 +18,8 @@
 
 package org.artifactory.sapi.common;
 
+import javax.annotation.Nullable;
+import java.io.File;
 import java.util.Date;
 
 /**
@@ -47,6 +49,15 @@ public interface ExportSettings extends BaseSettings {
 
     void setM2Compatible(boolean m2Compatible);
 
+    boolean isLinkBinaries();
+
+    void setLinkBinaries(boolean linkBinaries);
+
+    @Nullable
+    File getBlobsDir();
+
+    void setBlobsDir(@Nullable File blobsDir);
+
     void addCallback(FileExportCallback callback);
 
     void executeCallbacks(FileExportInfo info, FileExportEvent event);
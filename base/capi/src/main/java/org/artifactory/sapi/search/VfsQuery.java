@@ -48,10 +48,37 @@ public interface VfsQuery {
 
     VfsQuery endGroup(@Nullable VfsBoolType bool);
 
+    /**
+     * Restricts the results to the given node ids, usually candidates found by an in memory index.
+     *
+     * @param nodeIds The ids of the nodes the results may contain
+     */
+    VfsQuery nodeIds(@Nonnull Collection<Long> nodeIds);
+
+    /**
+     * Restricts the results to the nodes at the given depth, overriding the depth deduced from the path filters. The
+     * items directly under the repository root are at depth 1.
+     *
+     * @param depth The depth of the nodes to return
+     */
+    VfsQuery depth(int depth);
+
     VfsQuery addPathFilters(String... folderNames);
 
     VfsQuery addPathFilter(String pathSearch);
 
     @Nonnull
     VfsQueryResult execute(int limit);
+
+    /**
+     * Executes the query lazily, reading the results ordered by node id in pages of the given size. Cursor queries
+     * cannot be combined with an explicit order by.
+     *
+     * @param continuationToken The token returned by a previous cursor of the same query, null to start from the first
+     *                          result
+     * @param pageSize          The maximum number of rows read from the database in a single page
+     * @return A cursor over the query results
+     */
+    @Nonnull
+    VfsQueryCursor executeCursor(@Nullable String continuationToken, int pageSize);
 }
@@ -0,0 +1,17 @@
+package org.artifactory.sapi.search;
+
+import javax.annotation.Nullable;
+
+/**
+ * A lazily iterated query result ordered by node id. Rows are read from the database page by page while iterating, so
+ * a cursor may only be iterated once.
+ */
+public interface VfsQueryCursor extends Iterable<VfsQueryRow> {
+
+    /**
+     * @return The token to pass to {@link VfsQuery#executeCursor(String, int)} in order to resume right after the last
+     *         row returned by this cursor, or null if all the rows were iterated
+     */
+    @Nullable
+    String getContinuationToken();
+}
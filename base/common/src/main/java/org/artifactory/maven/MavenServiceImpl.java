@@ -219,8 +219,8 @@ public class MavenServiceImpl implements MavenService {
         InputStream inputStream = null;
         try {
             inputStream = new BufferedInputStream(new FileInputStream(pomFile));
-            new PomTargetPathValidator(relPath, moduleInfo).validate(inputStream, suppressPomConsistencyChecks);
-        } catch (Exception e) {
+            validatePomStream(inputStream, relPath, moduleInfo, suppressPomConsistencyChecks);
+        } catch (IOException e) {
             String message = "Error while validating POM for path: " + relPath +
                     ". Please assure the validity of the POM file.";
             throw new BadPomException(message);
@@ -229,6 +229,18 @@ public class MavenServiceImpl implements MavenService {
         }
     }
 
+    @Override
+    public void validatePomStream(InputStream pomStream, String relPath, ModuleInfo moduleInfo,
+            boolean suppressPomConsistencyChecks) throws BadPomException {
+        try {
+            new PomTargetPathValidator(relPath, moduleInfo).validate(pomStream, suppressPomConsistencyChecks);
+        } catch (Exception e) {
+            String message = "Error while validating POM for path: " + relPath +
+                    ". Please assure the validity of the POM file.";
+            throw new BadPomException(message);
+        }
+    }
+
     @Override
     public MavenArtifactInfo getMavenArtifactInfo(File uploadedFile) {
         return MavenModelUtils.artifactInfoFromFile(uploadedFile);
@@ -62,11 +62,14 @@ public class HttpClientConfigurator {
     }
 
     public HttpClientConfigurator(boolean multiThreaded) {
-        if (multiThreaded) {
-            connectionManager = new MultiThreadedHttpConnectionManager();
-        } else {
-            connectionManager = new SimpleHttpConnectionManager();
-        }
+        this(multiThreaded ? new MultiThreadedHttpConnectionManager() : new SimpleHttpConnectionManager());
+    }
+
+    /**
+     * @param connectionManager The connection manager of the configured client
+     */
+    public HttpClientConfigurator(HttpConnectionManager connectionManager) {
+        this.connectionManager = connectionManager;
         httpClient = new HttpClient(connectionManager);
 
         configureUserAgent(httpClient);
@@ -0,0 +1,114 @@
+/*
+ * Artifactory is a binaries repository manager.
+ * Copyright (C) 2012 JFrog Ltd.
+ *
+ * Artifactory is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Artifactory is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Artifactory.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.artifactory.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A lock free latency histogram with fixed millisecond buckets, suited for exposing remote call and lock wait
+ * latencies over JMX.
+ */
+public class LatencyHistogram {
+    private static final long[] BUCKET_BOUNDS_MILLIS =
+            {1, 2, 5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000, 30000};
+
+    // one more bucket for values above the last bound
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_BOUNDS_MILLIS.length + 1);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong totalMillis = new AtomicLong();
+    private final AtomicLong maxMillis = new AtomicLong();
+
+    public void record(long millis) {
+        millis = Math.max(0, millis);
+        buckets.incrementAndGet(bucketIndex(millis));
+        count.incrementAndGet();
+        totalMillis.addAndGet(millis);
+        long max;
+        while ((max = maxMillis.get()) < millis && !maxMillis.compareAndSet(max, millis)) {
+            // retry
+        }
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    public double getMeanMillis() {
+        long currentCount = count.get();
+        return currentCount == 0 ? 0 : (double) totalMillis.get() / currentCount;
+    }
+
+    public long getMaxMillis() {
+        return maxMillis.get();
+    }
+
+    /**
+     * @param percentile The percentile to estimate, between 0 and 100
+     * @return The upper bound of the bucket holding the given percentile, or the max recorded value if it lies above
+     *         the last bucket bound. 0 if nothing was recorded.
+     */
+    public long getPercentileMillis(double percentile) {
+        long currentCount = count.get();
+        if (currentCount == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(currentCount * Math.min(100, Math.max(0, percentile)) / 100);
+        long seen = 0;
+        for (int i = 0; i < BUCKET_BOUNDS_MILLIS.length; i++) {
+            seen += buckets.get(i);
+            if (seen >= Math.max(1, rank)) {
+                return BUCKET_BOUNDS_MILLIS[i];
+            }
+        }
+        return maxMillis.get();
+    }
+
+    /**
+     * @return The non empty buckets, for example: {@code <=5ms:12, <=10ms:3, >30000ms:1}
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < buckets.length(); i++) {
+            long bucketCount = buckets.get(i);
+            if (bucketCount > 0) {
+                if (sb.length() > 0) {
+                    sb.append(", ");
+                }
+                if (i < BUCKET_BOUNDS_MILLIS.length) {
+                    sb.append("<=").append(BUCKET_BOUNDS_MILLIS[i]);
+                } else {
+                    sb.append('>').append(BUCKET_BOUNDS_MILLIS[BUCKET_BOUNDS_MILLIS.length - 1]);
+                }
+                sb.append("ms:").append(bucketCount);
+            }
+        }
+        return sb.toString();
+    }
+
+    private static int bucketIndex(long millis) {
+        for (int i = 0; i < BUCKET_BOUNDS_MILLIS.length; i++) {
+            if (millis <= BUCKET_BOUNDS_MILLIS[i]) {
+                return i;
+            }
+        }
+        return BUCKET_BOUNDS_MILLIS.length;
+    }
+}
@@ -28,6 +28,7 @@ import org.apache.commons.compress.archivers.zip.ZipArchiveInputStream;
 import org.apache.commons.compress.compressors.gzip.GzipCompressorInputStream;
 import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.CloseShieldInputStream;
 import org.apache.commons.lang.StringUtils;
 import org.artifactory.api.archive.ArchiveType;
 import org.artifactory.common.ConstantValues;
@@ -94,6 +95,37 @@ public abstract class ZipUtils {
         log.debug("Completed extraction of '{}' into '{}'", sourcePath, destinationPath);
     }
 
+    /**
+     * Streams the file entries of the given archive to the visitor, without extracting them to the disk. Entry names
+     * are validated the same way as when extracting and directory entries are skipped.
+     *
+     * @param sourceArchive Archive to read
+     * @param visitor       Visitor of the archive file entries
+     * @throws IOException              On failure to read the archive or when thrown by the visitor
+     * @throws IllegalArgumentException Thrown when the archive type is not supported
+     */
+    public static void visitFileEntries(File sourceArchive, ArchiveEntryVisitor visitor) throws IOException {
+        ArchiveInputStream archiveInputStream = null;
+        try {
+            archiveInputStream = createArchiveInputStream(sourceArchive);
+            ArchiveEntry archiveEntry;
+            while ((archiveEntry = archiveInputStream.getNextEntry()) != null) {
+                String validatedEntryName = validateEntryName(archiveEntry.getName());
+                if (archiveEntry.isDirectory() || StringUtils.isBlank(validatedEntryName)) {
+                    continue;
+                }
+                Date entryDate = archiveEntry.getLastModifiedDate();
+                long lastModified = entryDate != null ? entryDate.getTime() : System.currentTimeMillis();
+                if (!visitor.visit(validatedEntryName, archiveEntry.getSize(), lastModified,
+                        new CloseShieldInputStream(archiveInputStream))) {
+                    break;
+                }
+            }
+        } finally {
+            IOUtils.closeQuietly(archiveInputStream);
+        }
+    }
+
     /**
      * @param zis       The zip input stream
      * @param entryPath The entry path to search for
@@ -348,4 +380,22 @@ public abstract class ZipUtils {
 
         return result.toString();
     }
+
+    /**
+     * Visitor of the file entries of an archive
+     *
+     * @see ZipUtils#visitFileEntries(java.io.File, org.artifactory.util.ZipUtils.ArchiveEntryVisitor)
+     */
+    public interface ArchiveEntryVisitor {
+
+        /**
+         * @param entryName    The validated name of the entry
+         * @param size         The uncompressed size of the entry, or -1 if unknown
+         * @param lastModified The last modification time of the entry
+         * @param entryStream  Stream of the entry content. Valid only during this call, closing it is a no-op
+         * @return True to continue to the next entry, false to stop visiting
+         * @throws IOException On failure to read the entry
+         */
+        boolean visit(String entryName, long size, long lastModified, InputStream entryStream) throws IOException;
+    }
 }
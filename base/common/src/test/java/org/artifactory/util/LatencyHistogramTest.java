@@ -0,0 +1,63 @@
+/*
+ * Artifactory is a binaries repository manager.
+ * Copyright (C) 2012 JFrog Ltd.
+ *
+ * Artifactory is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Artifactory is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Artifactory.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.artifactory.util;
+
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+
+/**
+ * Tests the {@link LatencyHistogram}.
+ */
+@Test
+public class LatencyHistogramTest {
+
+    public void emptyHistogram() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(histogram.getCount(), 0);
+        assertEquals(histogram.getMeanMillis(), 0.0);
+        assertEquals(histogram.getPercentileMillis(99), 0);
+        assertEquals(histogram.toString(), "");
+    }
+
+    public void percentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 98; i++) {
+            histogram.record(3);
+        }
+        histogram.record(80);
+        histogram.record(40000);
+
+        assertEquals(histogram.getCount(), 100);
+        assertEquals(histogram.getPercentileMillis(50), 5);
+        assertEquals(histogram.getPercentileMillis(99), 100);
+        assertEquals(histogram.getPercentileMillis(100), 40000, "Overflow bucket should report the max value");
+        assertEquals(histogram.getMaxMillis(), 40000);
+        assertEquals(histogram.toString(), "<=5ms:98, <=100ms:1, >30000ms:1");
+    }
+
+    public void mean() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(10);
+        histogram.record(20);
+        histogram.record(-5);
+        assertEquals(histogram.getMeanMillis(), 10.0);
+        assertEquals(histogram.getPercentileMillis(0), 1, "Negative values should be recorded as 0");
+    }
+}
@@ -19,6 +19,7 @@
 package org.artifactory.util;
 
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
 import org.artifactory.test.ArtifactoryHomeBoundTest;
@@ -30,7 +31,10 @@ import org.testng.annotations.Test;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
+import java.util.Map;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 
@@ -96,6 +100,26 @@ public class ZipUtilsTest extends ArtifactoryHomeBoundTest {
         assertExtractedFiles(tempExtractedDir);
     }
 
+    public void visitZipFileEntries() throws Exception {
+        assertVisitedFiles(visitEntries(zipFile));
+    }
+
+    public void visitTarGzFileEntries() throws Exception {
+        assertVisitedFiles(visitEntries(ResourceUtils.getResourceAsFile("/gziptest.tar.gz")));
+    }
+
+    public void stopVisitingEntries() throws Exception {
+        final List<String> visited = Lists.newArrayList();
+        ZipUtils.visitFileEntries(zipFile, new ZipUtils.ArchiveEntryVisitor() {
+            @Override
+            public boolean visit(String entryName, long size, long lastModified, InputStream entryStream) {
+                visited.add(entryName);
+                return false;
+            }
+        });
+        assertEquals(visited.size(), 1, "Visit should have stopped after the first entry");
+    }
+
     @Test(expectedExceptions = RuntimeException.class,
             expectedExceptionsMessageRegExp = "(.*)Unsupported(.*)archive(.*)extension(.*)")
     public void testUnsupportedArchive() throws Exception {
@@ -111,6 +135,27 @@ public class ZipUtilsTest extends ArtifactoryHomeBoundTest {
         return tempExtractedDir;
     }
 
+    private Map<String, String> visitEntries(File archive) throws Exception {
+        final Map<String, String> visited = Maps.newHashMap();
+        ZipUtils.visitFileEntries(archive, new ZipUtils.ArchiveEntryVisitor() {
+            @Override
+            public boolean visit(String entryName, long size, long lastModified, InputStream entryStream)
+                    throws IOException {
+                visited.put(entryName, IOUtils.toString(entryStream, "utf-8"));
+                entryStream.close();
+                return true;
+            }
+        });
+        return visited;
+    }
+
+    private void assertVisitedFiles(Map<String, String> visited) {
+        assertEquals(visited.size(), 2, "Unexpected visited files size: " + visited.keySet());
+        assertTrue(visited.containsKey("file.txt"), "Unexpected file name");
+        assertTrue(visited.containsKey("folder/another.txt"), "Unexpected nested file name");
+        assertFalse(visited.get("folder/another.txt").isEmpty(), "Entry content should have been read");
+    }
+
     private void assertExtractedFiles(File tempExtractedDir) {
         List<String> files = Lists.newArrayList(tempExtractedDir.list());
         assertEquals(files.size(), 2, "Unexpected files size");
@@ -49,12 +49,17 @@ public enum ConstantValues {
     repoConcurrentDownloadSyncTimeoutSecs("repo.concurrentDownloadSyncTimeoutSecs", Seconds.MINUTE * 15),
     downloadStatsEnabled("repo.downloadStatsEnabled", TRUE),
     fsItemCacheIdleTimeSecs("fsitem.cache.idleTimeSecs", Seconds.MINUTE * 20),
+    fsItemLocksStripes("fsitem.locks.stripes", 0),
+    fsItemLocksTrackedContendedPaths("fsitem.locks.trackedContendedPaths", 1000),
     searchMaxResults("search.maxResults", 500),
     searchUserQueryLimit("search.userQueryLimit", 1000),
     searchMaxFragments("search.content.maxFragments", 500),
     searchMaxFragmentsSize("search.content.maxFragmentsSize", 5000),
     searchArchiveMinQueryLength("search.archive.minQueryLength", 3),
     searchPatternTimeoutSecs("search.pattern.timeoutSecs", 30),
+    searchCursorPageSize("search.cursor.pageSize", 1000),
+    searchNameIndexEnabled("search.nameIndex.enabled", FALSE),
+    searchNameIndexMaxCandidates("search.nameIndex.maxCandidates", 1000),
     gcUseIndex("gc.useIndex", FALSE),
     gcIntervalSecs("gc.intervalSecs", Seconds.DAY),
     gcDelaySecs("gc.delaySecs", Seconds.HOUR * 2),
@@ -71,14 +76,19 @@ public enum ConstantValues {
             "security.authentication.encryptedPassword.surroundChars", "{}"),
     mvnCentralHostPattern("mvn.central.hostPattern", ".maven.org"),
     mvnCentralIndexerMaxQueryIntervalSecs("mvn.central.indexerMaxQueryIntervalSecs", Seconds.DAY),
+    mvnIndexerIncremental("mvn.indexer.incremental", TRUE),
+    mvnIndexerMaxIndexChunks("mvn.indexer.maxIndexChunks", 30),
+    mvnIndexerThreads("mvn.indexer.threads", 2),
     mvnMetadataVersionsComparator("mvn.metadataVersionsComparatorFqn"),
     mvnDynamicMetadataCacheRetentionSecs("mvn.dynamicMetadata.cacheRetentionSecs", 10),
+    mvnMetadataRecalculationThreads("mvn.metadata.recalculation.threads", 4),
     mvnMetadataVersion3Enabled("mvn.metadata.version3.enabled", TRUE),
     mvnCustomTypes("mvn.custom.types", "tar.gz"),
     requestDisableVersionTokens("request.disableVersionTokens", FALSE),
     requestSearchLatestReleaseByDateCreated("request.searchLatestReleaseByDateCreated", FALSE),
     buildMaxFoldersToScanForDeletionWarnings("build.maxFoldersToScanForDeletionWarnings", 2),
     missingBuildChecksumCacheIdeTimeSecs("build.checksum.cache.idleTimeSecs", Seconds.MINUTE * 5),
+    buildCompressJson("build.compressJson", TRUE),
     artifactoryUpdatesRefreshIntervalSecs("updates.refreshIntervalSecs", Seconds.HOUR * 4),
     artifactoryUpdatesUrl("updates.url", "http://service.jfrog.org/artifactory/updates"),
     artifactoryRequestsToGlobalCanRetrieveRemoteArtifacts(
@@ -90,14 +100,38 @@ public enum ConstantValues {
     fileRollerMaxFilesToRetain("file.roller.maxFileToRetain", 10),
     backupFileExportSleepIterationMillis("backup.fileExportSleepIterationMillis", 2000),
     backupFileExportSleepMillis("backup.fileExportSleepMillis", 250),
+    exportWorkerThreads("export.workerThreads", 4),
+    exportWorkerBatchSize("export.workerBatchSize", 500),
+    importWorkerThreads("import.workerThreads", 4),
+    importMaxItemsPerTransaction("import.maxItemsPerTransaction", 1000),
+    bundleDeployWorkerThreads("bundleDeploy.workerThreads", 2),
+    bundleDeployMaxItemsPerTransaction("bundleDeploy.maxItemsPerTransaction", 100),
     s3backupBucket("backup.s3.bucket"),
     s3backupFolder("backup.s3.folder"),
     s3backupAccountId("backup.s3.accountId"),
     s3backupAccountSecretKey("backup.s3.accountSecretKey"),
     httpAcceptEncodingGzip("http.acceptEncoding.gzip", true),
     httpUseExpectContinue("http.useExpectContinue", false),
+    httpRepoMaxConnectionsPerHost("repo.http.maxConnectionsPerHost", 50),
+    httpRepoMaxTotalConnections("repo.http.maxTotalConnections", 50),
+    httpRepoIdleConnectionTimeoutSecs("repo.http.idleConnectionTimeoutSecs", 60),
     filteringResourceSizeKb("filtering.resourceSizeKb", 64),
+    checksumPipelineThresholdBytes("checksum.pipeline.thresholdBytes", 8 * 1024 * 1024),
+    checksumPipelineMaxDigesterThreads("checksum.pipeline.maxDigesterThreads", 8),
+    blobReadInMemoryThresholdBytes("binary.blob.readInMemoryThresholdBytes", 1024 * 1024),
     searchForExistingResourceOnRemoteRequest("repo.remote.checkForExistingResourceOnRequest", TRUE),
+    remoteListingCachePeriodSecs("repo.remote.listingCachePeriodSecs", -1),
+    eagerPrefetchThreads("repo.remote.eagerPrefetch.threads", 4),
+    eagerPrefetchMaxConcurrentPerRepo("repo.remote.eagerPrefetch.maxConcurrentPerRepo", 2),
+    eagerPrefetchQueueSize("repo.remote.eagerPrefetch.queueSize", 1000),
+    eagerPrefetchMaxPerSecond("repo.remote.eagerPrefetch.maxPerSecond", 10),
+    repoInitThreads("repo.init.threads", 4),
+    remoteHealthWindowSize("repo.remote.health.windowSize", 50),
+    remoteHealthMinRequests("repo.remote.health.minRequests", 10),
+    remoteHealthErrorRatePercent("repo.remote.health.errorRatePercent", 50),
+    remoteHealthSlowThresholdMillis("repo.remote.health.slowThresholdMillis", 2000),
+    remoteHealthOpenPeriodSecs("repo.remote.health.openPeriodSecs", 30),
+    remoteHealthOrderVirtualResolution("repo.remote.health.orderVirtualResolution", TRUE),
     versionQueryEnabled("version.query.enabled", true),
     hostId("host.id"),
     responseDisableContentDispositionFilename("response.disableContentDispositionFilename", FALSE),
@@ -125,8 +159,18 @@ public enum ConstantValues {
     bintraySystemUserApiKey("bintray.system.api.key"),
     useUserNameAutoCompleteOnLogin("useUserNameAutoCompleteOnLogin", "on"),
     statsFlushIntervalSecs("stats.flushIntervalSecs", 30),
+    folderAggregatesEnabled("folderAggregates.enabled", TRUE),
+    folderAggregatesFlushIntervalSecs("folderAggregates.flushIntervalSecs", 10),
+    folderAggregatesFlushBatchSize("folderAggregates.flushBatchSize", 1000),
+    folderAggregatesRecalculateOnStartup("folderAggregates.recalculateOnStartup", FALSE),
+    childrenPageSize("repo.childrenPageSize", 1000),
+    childrenMaxPageSize("repo.childrenMaxPageSize", 10000),
+    subtreePageSize("repo.subtreePageSize", 1000),
     integrationCleanupIntervalSecs("integrationCleanup.intervalSecs", 300),
     integrationCleanupQuietPeriodSecs("integrationCleanup.quietPeriodSecs", 60),
+    artifactCleanupPageSize("artifactCleanup.pageSize", 500),
+    artifactCleanupThrottleTargetDeleteMillis("artifactCleanup.throttle.targetDeleteMillis", 200),
+    artifactCleanupThrottleMaxPauseMillis("artifactCleanup.throttle.maxPauseMillis", 60000),
     folderPruningIntervalSecs("folderPruning.intervalSecs", 300),
     folderPruningQuietPeriodSecs("folderPruning.quietPeriodSecs", 60),
     defaultSaltValue("security.authentication.password.salt", "CAFEBABEEBABEFAC"),
@@ -166,6 +210,23 @@ public enum ConstantValues {
         return ArtifactoryHome.get().getArtifactoryProperties().getLongProperty(propertyName, defValue);
     }
 
+    /**
+     * Returns the int value of this property for the given qualifier (e.g., a repository key), as set by the property
+     * name suffixed with "." and the qualifier. Falls back to the unqualified value when not set or invalid.
+     */
+    public int getInt(String qualifier) {
+        String qualifiedValue = ArtifactoryHome.get().getArtifactoryProperties().getProperty(
+                propertyName + "." + qualifier, null);
+        if (qualifiedValue != null) {
+            try {
+                return Integer.parseInt(qualifiedValue.trim());
+            } catch (NumberFormatException e) {
+                // use the unqualified value
+            }
+        }
+        return getInt();
+    }
+
     public boolean getBoolean() {
         return ArtifactoryHome.get().getArtifactoryProperties().getBooleanProperty(propertyName, defValue);
     }
@@ -35,7 +35,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 @XmlType(name = "BackupType", propOrder = {"key", "enabled", "dir", "cronExp", "retentionPeriodHours", "createArchive",
-        "excludedRepositories", "sendMailOnError", "excludeBuilds"},
+        "excludedRepositories", "sendMailOnError", "excludeBuilds", "contentAddressed"},
         namespace = Descriptor.NS)
 public class BackupDescriptor implements TaskDescriptor {
 
@@ -72,6 +72,9 @@ public class BackupDescriptor implements TaskDescriptor {
     @XmlElement(defaultValue = "false")
     private boolean excludeBuilds = false;
 
+    @XmlElement(defaultValue = "false")
+    private boolean contentAddressed = false;
+
     public String getKey() {
         return key;
     }
@@ -171,6 +174,18 @@ public class BackupDescriptor implements TaskDescriptor {
         this.excludeBuilds = excludeBuilds;
     }
 
+    /**
+     * @return True if repository content is backed up as a manifest per run with binaries stored once by checksum in
+     *         a blobs directory shared by all the runs of this backup
+     */
+    public boolean isContentAddressed() {
+        return contentAddressed;
+    }
+
+    public void setContentAddressed(boolean contentAddressed) {
+        this.contentAddressed = contentAddressed;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -21,25 +21,47 @@ package org.artifactory.io.checksum;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.BufferedInputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 
-/*
+/**
+ * An input stream that calculates checksums of the bytes read through it. The checksums are available once the stream
+ * is closed.
+ * <p/>
+ * Passed a pipeline threshold, the checksums of the bytes read after the threshold are calculated by a
+ * {@link ChecksumPipeline}, in parallel to the reading thread. If no digester threads are free the checksums are
+ * calculated on the reading thread.
+ *
  * @author Yoav Landman
  */
-public class ChecksumInputStream extends BufferedInputStream {
+public class ChecksumInputStream extends FilterInputStream {
     private static final Logger log = LoggerFactory.getLogger(ChecksumInputStream.class);
 
     private final Checksum[] checksums;
+    private final long pipelineThreshold;
+    private ChecksumPipeline pipeline;
+    private boolean pipelineRequested;
     private boolean closed;
+    private IOException pipelineFailure;
     /**
      * Total bytes read by this stream
      */
     private long totalBytesRead;
 
     public ChecksumInputStream(InputStream is, Checksum... checksums) {
+        this(is, -1, checksums);
+    }
+
+    /**
+     * @param is                The stream to calculate checksums for
+     * @param pipelineThreshold Number of bytes after which the checksums are calculated in parallel to the reading.
+     *                          Negative to always calculate the checksums on the reading thread
+     * @param checksums         The checksums to calculate
+     */
+    public ChecksumInputStream(InputStream is, long pipelineThreshold, Checksum... checksums) {
         super(is);
+        this.pipelineThreshold = pipelineThreshold;
         this.checksums = checksums;
     }
 
@@ -68,12 +90,7 @@ public class ChecksumInputStream extends BufferedInputStream {
 
     @Override
     public synchronized void reset() throws IOException {
-        log.trace("Resetting {}", in);
-        super.reset();
-        totalBytesRead = 0L;
-        for (Checksum checksum : checksums) {
-            checksum.reset();
-        }
+        throw new IOException("Checksum input stream calculator does not support reset!");
     }
 
     @Override
@@ -89,12 +106,21 @@ public class ChecksumInputStream extends BufferedInputStream {
 
     @Override
     public int read(byte b[], int off, int len) throws IOException {
-        int bytesRead = super.read(b, off, len);
+        int bytesRead = in.read(b, off, len);
         log.trace("{} bytes read from {}", bytesRead, in);
-        if (bytesRead != -1) {
+        if (bytesRead > 0) {
             totalBytesRead += bytesRead;
-            for (Checksum checksum : checksums) {
-                checksum.update(b, off, bytesRead);
+            if (!pipelineRequested && pipelineThreshold >= 0 && totalBytesRead > pipelineThreshold) {
+                // the bytes read so far are already digested, hand off the rest to the digesters
+                pipelineRequested = true;
+                pipeline = ChecksumPipeline.start(checksums);
+            }
+            if (pipeline != null) {
+                pipeline.update(b, off, bytesRead);
+            } else {
+                for (Checksum checksum : checksums) {
+                    checksum.update(b, off, bytesRead);
+                }
             }
         }
         return bytesRead;
@@ -102,15 +128,36 @@ public class ChecksumInputStream extends BufferedInputStream {
 
     @Override
     public void close() throws IOException {
-        super.close();
-        if (!closed) {
-            log.trace("Total bytes read: {}", totalBytesRead);
-            for (Checksum checksum : checksums) {
-                checksum.calc();
-                log.trace("Calculated checksum: '{}:{}'", checksum.getType(), checksum.getChecksum());
+        try {
+            super.close();
+        } finally {
+            // always finish the pipeline, its digesters must not wait for bytes of a stream that failed to close
+            calculateChecksums();
+        }
+    }
+
+    private void calculateChecksums() throws IOException {
+        if (closed) {
+            return;
+        }
+        if (pipelineFailure != null) {
+            throw pipelineFailure;
+        }
+        log.trace("Total bytes read: {}", totalBytesRead);
+        if (pipeline != null) {
+            try {
+                pipeline.finish();
+            } catch (IOException e) {
+                // the checksums are incomplete, keep failing on the next closes instead of calculating them
+                pipelineFailure = e;
+                throw e;
             }
-            closed = true;
         }
+        for (Checksum checksum : checksums) {
+            checksum.calc();
+            log.trace("Calculated checksum: '{}:{}'", checksum.getType(), checksum.getChecksum());
+        }
+        closed = true;
     }
 
     /**
@@ -0,0 +1,271 @@
+/*
+ * Artifactory is a binaries repository manager.
+ * Copyright (C) 2012 JFrog Ltd.
+ *
+ * Artifactory is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Artifactory is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Artifactory.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.artifactory.io.checksum;
+
+import com.google.common.collect.Lists;
+import org.artifactory.common.ConstantValues;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Computes several checksums of a stream in parallel to the thread reading the stream. The read bytes are copied to a
+ * bounded ring of pooled chunks which are handed off to one digester thread per checksum, so the reading thread can
+ * keep on writing the stream while the digests are updated. When all the chunks are in use the reading thread waits
+ * for the slowest digester.
+ * <p/>
+ * The digester threads come from a bounded pool shared by all the pipelines. When it has no free threads left no
+ * pipeline is started and the reading thread calculates the checksums itself. The chunks of finished pipelines are
+ * kept for the next ones.
+ * <p/>
+ * A pipeline is used by a single reading thread and is not reusable. It must be finished to release its digester
+ * threads.
+ */
+class ChecksumPipeline {
+
+    private static final int CHUNK_SIZE = 64 * 1024;
+    private static final int CHUNKS_COUNT = 16;
+    private static final long STALL_TIMEOUT_SECS = 60;
+    private static final Chunk END = new Chunk(0);
+
+    private static ExecutorService digestersExecutor;
+    private static BlockingQueue<Chunk> pooledChunks;
+
+    private final Checksum[] checksums;
+    private final BlockingQueue<Chunk> freeChunks = new ArrayBlockingQueue<>(CHUNKS_COUNT);
+    private final List<Digester> digesters;
+    private final CountDownLatch digestersDone;
+    private volatile Throwable failure;
+    private Chunk current;
+
+    private ChecksumPipeline(Checksum... checksums) {
+        this.checksums = checksums;
+        digestersDone = new CountDownLatch(checksums.length);
+        digesters = Lists.newArrayListWithCapacity(checksums.length);
+    }
+
+    /**
+     * Starts a pipeline with a digester thread per checksum.
+     *
+     * @return The started pipeline, null if there are not enough free digester threads in which case the caller
+     *         should calculate the checksums itself
+     */
+    @Nullable
+    static ChecksumPipeline start(Checksum... checksums) {
+        ChecksumPipeline pipeline = new ChecksumPipeline(checksums);
+        ExecutorService executor = getDigestersExecutor();
+        for (Checksum checksum : checksums) {
+            Digester digester = new Digester(pipeline, checksum);
+            try {
+                executor.execute(digester);
+            } catch (RejectedExecutionException e) {
+                // release the digesters already started, no chunk was queued to them
+                for (Digester started : pipeline.digesters) {
+                    started.queue.add(END);
+                }
+                return null;
+            }
+            pipeline.digesters.add(digester);
+        }
+        BlockingQueue<Chunk> pool = getPooledChunks();
+        for (int i = 0; i < CHUNKS_COUNT; i++) {
+            Chunk chunk = pool.poll();
+            pipeline.freeChunks.add(chunk != null ? chunk : new Chunk(CHUNK_SIZE));
+        }
+        return pipeline;
+    }
+
+    /**
+     * Queues the given bytes for all the checksums. The bytes are copied so the buffer can be reused once this method
+     * returns.
+     */
+    void update(byte[] bytes, int off, int length) throws IOException {
+        while (length > 0) {
+            if (current == null) {
+                current = takeFreeChunk();
+            }
+            int copied = Math.min(length, current.data.length - current.length);
+            System.arraycopy(bytes, off, current.data, current.length, copied);
+            current.length += copied;
+            off += copied;
+            length -= copied;
+            if (current.length == current.data.length) {
+                publishCurrent();
+            }
+        }
+    }
+
+    /**
+     * Queues the remaining bytes and waits for all the digesters to complete. The checksums can be calculated once
+     * this method returns.
+     */
+    void finish() throws IOException {
+        if (current != null && current.length > 0) {
+            publishCurrent();
+        }
+        for (Digester digester : digesters) {
+            digester.queue.add(END);
+        }
+        try {
+            if (!digestersDone.await(STALL_TIMEOUT_SECS, TimeUnit.SECONDS)) {
+                throw new IOException("Timed out waiting for checksums calculation of " + checksumsNames());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for checksums calculation", e);
+        }
+        // all the digesters are done so every chunk is back in the free chunks, keep them for the next pipelines
+        BlockingQueue<Chunk> pool = getPooledChunks();
+        Chunk chunk;
+        while ((chunk = freeChunks.poll()) != null) {
+            pool.offer(chunk);
+        }
+        checkFailure();
+    }
+
+    private Chunk takeFreeChunk() throws IOException {
+        checkFailure();
+        try {
+            Chunk chunk = freeChunks.poll(STALL_TIMEOUT_SECS, TimeUnit.SECONDS);
+            if (chunk == null) {
+                throw new IOException("Timed out waiting for checksums calculation of " + checksumsNames());
+            }
+            return chunk;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for checksums calculation", e);
+        }
+    }
+
+    private void publishCurrent() throws IOException {
+        checkFailure();
+        current.pending.set(digesters.size());
+        for (Digester digester : digesters) {
+            // never full: a queue can hold all the chunks plus the end marker
+            digester.queue.add(current);
+        }
+        current = null;
+    }
+
+    private void release(Chunk chunk) {
+        if (chunk.pending.decrementAndGet() == 0) {
+            chunk.length = 0;
+            freeChunks.offer(chunk);
+        }
+    }
+
+    private void checkFailure() throws IOException {
+        Throwable t = failure;
+        if (t != null) {
+            throw new IOException("Failed calculating checksums of " + checksumsNames(), t);
+        }
+    }
+
+    private String checksumsNames() {
+        StringBuilder names = new StringBuilder();
+        for (Checksum checksum : checksums) {
+            names.append(names.length() == 0 ? "" : ",").append(checksum.getType());
+        }
+        return names.toString();
+    }
+
+    private static synchronized ExecutorService getDigestersExecutor() {
+        if (digestersExecutor == null) {
+            int maxDigesters = Math.max(1, ConstantValues.checksumPipelineMaxDigesterThreads.getInt());
+            CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("art-digest-");
+            threadFactory.setDaemon(true);
+            // digesters block on their queue so each one needs its own thread, never queue them
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(maxDigesters, maxDigesters, 60L, TimeUnit.SECONDS,
+                    new SynchronousQueue<Runnable>(), threadFactory, new ThreadPoolExecutor.AbortPolicy());
+            executor.allowCoreThreadTimeOut(true);
+            digestersExecutor = executor;
+        }
+        return digestersExecutor;
+    }
+
+    private static synchronized BlockingQueue<Chunk> getPooledChunks() {
+        if (pooledChunks == null) {
+            // there are never more running pipelines than digester threads
+            int maxDigesters = Math.max(1, ConstantValues.checksumPipelineMaxDigesterThreads.getInt());
+            pooledChunks = new ArrayBlockingQueue<>(maxDigesters * CHUNKS_COUNT);
+        }
+        return pooledChunks;
+    }
+
+    private static class Digester implements Runnable {
+        private final ChecksumPipeline pipeline;
+        private final Checksum checksum;
+        private final BlockingQueue<Chunk> queue = new ArrayBlockingQueue<>(CHUNKS_COUNT + 1);
+
+        private Digester(ChecksumPipeline pipeline, Checksum checksum) {
+            this.pipeline = pipeline;
+            this.checksum = checksum;
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (true) {
+                    // the end marker is sent when the stream is closed, an abandoned stream must not keep the thread
+                    Chunk chunk = queue.poll(STALL_TIMEOUT_SECS, TimeUnit.SECONDS);
+                    if (chunk == null) {
+                        pipeline.failure = new IOException("Timed out waiting for bytes to calculate the "
+                                + checksum.getType() + " checksum");
+                        return;
+                    }
+                    if (chunk == END) {
+                        return;
+                    }
+                    try {
+                        if (pipeline.failure == null) {
+                            checksum.update(chunk.data, 0, chunk.length);
+                        }
+                    } finally {
+                        pipeline.release(chunk);
+                    }
+                }
+            } catch (Throwable t) {
+                pipeline.failure = t;
+            } finally {
+                pipeline.digestersDone.countDown();
+            }
+        }
+    }
+
+    private static class Chunk {
+        private final byte[] data;
+        private final AtomicInteger pending = new AtomicInteger();
+        private int length;
+
+        private Chunk(int size) {
+            data = new byte[size];
+        }
+    }
+}
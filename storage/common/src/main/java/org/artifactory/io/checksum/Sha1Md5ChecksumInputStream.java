@@ -30,8 +30,17 @@ import java.io.InputStream;
  */
 public class Sha1Md5ChecksumInputStream extends ChecksumInputStream {
     public Sha1Md5ChecksumInputStream(InputStream is) {
+        this(is, -1);
+    }
+
+    /**
+     * @param is                The stream to calculate checksums for
+     * @param pipelineThreshold Number of bytes after which the checksums are calculated in parallel to the reading.
+     *                          Negative to always calculate the checksums on the reading thread
+     */
+    public Sha1Md5ChecksumInputStream(InputStream is, long pipelineThreshold) {
         // the order of the checksums does matter
-        super(is, new Checksum(ChecksumType.sha1), new Checksum(ChecksumType.md5));
+        super(is, pipelineThreshold, new Checksum(ChecksumType.sha1), new Checksum(ChecksumType.md5));
     }
 
     @Nonnull
@@ -42,14 +42,27 @@ public class ArtifactoryConcurrentExecutor implements Executor {
     private final ThreadPoolExecutor executor;
 
     ArtifactoryConcurrentExecutor() {
-        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("art-exec-");
+        this("art-exec-", ConstantValues.asyncCorePoolSize.getInt(), ConstantValues.asyncPoolMaxQueueSize.getInt());
+    }
+
+    /**
+     * Creates a dedicated executor for long running batch work (export, import etc.) that should not compete with
+     * the shared async pool. Worker threads are bound to the storage context and to the authentication of the
+     * submitting thread.
+     *
+     * @param threadNamePrefix Prefix of the worker threads names
+     * @param poolSize         Number of worker threads
+     * @param maxQueueSize     Maximum number of pending tasks before new tasks are rejected
+     */
+    public ArtifactoryConcurrentExecutor(String threadNamePrefix, int poolSize, int maxQueueSize) {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory(threadNamePrefix);
         threadFactory.setThreadPriority(Thread.NORM_PRIORITY);
         executor = new ThreadPoolExecutor(
-                ConstantValues.asyncCorePoolSize.getInt(),
-                ConstantValues.asyncCorePoolSize.getInt(),
+                poolSize,
+                poolSize,
                 ConstantValues.asyncPoolTtlSecs.getInt(),
                 TimeUnit.SECONDS,
-                new LinkedBlockingQueue<Runnable>(ConstantValues.asyncPoolMaxQueueSize.getInt()),
+                new LinkedBlockingQueue<Runnable>(maxQueueSize),
                 threadFactory);
         executor.allowCoreThreadTimeOut(true);
         storageContext = StorageContextHelper.get();
@@ -68,10 +81,14 @@ public class ArtifactoryConcurrentExecutor implements Executor {
         return executor.submit(task, result);
     }
 
-    void shutdown() {
+    public void shutdown() {
         executor.shutdown();
     }
 
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return executor.awaitTermination(timeout, unit);
+    }
+
     class RunnableWrapper implements Runnable {
         private final Runnable delegate;
         private final Authentication authentication;
@@ -24,6 +24,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.Collection;
@@ -48,6 +49,17 @@ public interface BinaryStore {
     //@Transactional(propagation = Propagation.NOT_SUPPORTED)
     InputStream getBinary(String sha1) throws BinaryNotFoundException;
 
+    /**
+     * Protect the binary associated with the provided SHA1 checksum from the garbage collector, without holding a
+     * stream on its content, until the returned handle is closed.
+     *
+     * @param sha1 the checksum key
+     * @return the handle that should be closed by the user
+     * @throws BinaryNotFoundException If the binary is currently being deleted
+     */
+    @Nonnull
+    Closeable protectBinary(String sha1) throws BinaryNotFoundException;
+
     /**
      * Retrieve all the information (MD5, length) for this SHA1 key.
      *
@@ -76,6 +76,17 @@ public interface InternalBinaryStore extends BinaryStore {
      */
     File getBinariesDir();
 
+    /**
+     * Returns the local file holding the content of the given checksum, if the binary is currently stored by a
+     * filesystem binary provider. The file is not locked and may be removed by the garbage collector or the cache
+     * eviction at any time, so callers should fall back to {@link #getBinary(String)} if using it fails.
+     *
+     * @param sha1 The SHA1 key value
+     * @return The existing checksum file or null if the binary is not available on the local filesystem
+     */
+    @Nullable
+    File getBinaryFile(String sha1);
+
     /**
      * Add an external checksum filestore that can be used in read only mode.
      * This will create an external filestore binary provider
@@ -0,0 +1,49 @@
+/*
+ * Artifactory is a binaries repository manager.
+ * Copyright (C) 2012 JFrog Ltd.
+ *
+ * Artifactory is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Artifactory is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Artifactory.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.artifactory.storage.fs.aggregate;
+
+import org.artifactory.api.context.ArtifactoryContext;
+import org.artifactory.api.context.ContextHelper;
+import org.artifactory.schedule.JobCommand;
+import org.artifactory.schedule.TaskUser;
+import org.artifactory.schedule.quartz.QuartzCommand;
+import org.artifactory.storage.fs.service.FolderAggregatesService;
+import org.quartz.JobExecutionContext;
+import org.quartz.JobExecutionException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A simple job to trigger folder aggregates flushing.
+ *
+ * @see org.artifactory.storage.fs.service.FolderAggregatesService#flush()
+ */
+@JobCommand(singleton = true, schedulerUser = TaskUser.SYSTEM, manualUser = TaskUser.SYSTEM)
+public class FolderAggregatesFlushJob extends QuartzCommand {
+    private static final Logger log = LoggerFactory.getLogger(FolderAggregatesFlushJob.class);
+
+    @Override
+    protected void onExecute(JobExecutionContext callbackContext) throws JobExecutionException {
+        log.debug("FolderAggregatesFlushJob started");
+        ArtifactoryContext artifactoryContext = ContextHelper.get();
+        FolderAggregatesService aggregatesService = artifactoryContext.beanForType(FolderAggregatesService.class);
+        aggregatesService.flush();
+        log.debug("FolderAggregatesFlushJob finished");
+    }
+}
@@ -0,0 +1,208 @@
+/*
+ * Artifactory is a binaries repository manager.
+ * Copyright (C) 2012 JFrog Ltd.
+ *
+ * Artifactory is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Artifactory is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Artifactory.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.artifactory.storage.fs.lock;
+
+import com.google.common.collect.Lists;
+import org.artifactory.repo.RepoPath;
+import org.artifactory.util.LatencyHistogram;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock wait and hold time statistics of the fs item locks of a single {@link FsItemsVault}.
+ * Only the paths that had to wait for their lock are tracked individually, and their number is bounded: once the limit
+ * is reached the tracked path with the shortest total wait time is evicted to make room for a new one.
+ */
+public class FsItemLockStatistics {
+
+    private final int maxTrackedPaths;
+    private final LatencyHistogram waitTimes = new LatencyHistogram();
+    private final LatencyHistogram holdTimes = new LatencyHistogram();
+    private final AtomicLong contendedCount = new AtomicLong();
+    private final AtomicLong timeoutsCount = new AtomicLong();
+    private final ConcurrentMap<RepoPath, PathContention> contendedPaths = new ConcurrentHashMap<>();
+
+    public FsItemLockStatistics(int maxTrackedPaths) {
+        this.maxTrackedPaths = maxTrackedPaths;
+    }
+
+    /**
+     * @param repoPath   The locked repo path
+     * @param waitMillis Time spent waiting for the lock
+     * @param contended  True if the lock was held by another thread when requested
+     */
+    public void lockAcquired(RepoPath repoPath, long waitMillis, boolean contended) {
+        waitTimes.record(waitMillis);
+        if (contended) {
+            contendedCount.incrementAndGet();
+            contendedPath(repoPath).record(waitMillis, false);
+        }
+    }
+
+    public void lockTimedOut(RepoPath repoPath, long waitMillis) {
+        timeoutsCount.incrementAndGet();
+        contendedPath(repoPath).record(waitMillis, true);
+    }
+
+    public void lockReleased(long holdMillis) {
+        holdTimes.record(holdMillis);
+    }
+
+    public long getAcquiredCount() {
+        return waitTimes.getCount();
+    }
+
+    public long getContendedCount() {
+        return contendedCount.get();
+    }
+
+    public long getTimeoutsCount() {
+        return timeoutsCount.get();
+    }
+
+    public LatencyHistogram getWaitTimes() {
+        return waitTimes;
+    }
+
+    public LatencyHistogram getHoldTimes() {
+        return holdTimes;
+    }
+
+    /**
+     * @param limit Max number of paths to return
+     * @return A snapshot of the tracked paths with the longest total wait time, longest first
+     */
+    public List<ContendedPath> getTopContendedPaths(int limit) {
+        // sort copies, the live totals keep changing and would break the sort order contract
+        List<ContendedPath> paths = Lists.newArrayListWithCapacity(contendedPaths.size());
+        for (PathContention pathContention : contendedPaths.values()) {
+            paths.add(pathContention.snapshot());
+        }
+        Collections.sort(paths, new Comparator<ContendedPath>() {
+            @Override
+            public int compare(ContendedPath o1, ContendedPath o2) {
+                long wait1 = o1.getTotalWaitMillis();
+                long wait2 = o2.getTotalWaitMillis();
+                return wait1 < wait2 ? 1 : (wait1 == wait2 ? 0 : -1);
+            }
+        });
+        return paths.subList(0, Math.min(limit, paths.size()));
+    }
+
+    private PathContention contendedPath(RepoPath repoPath) {
+        PathContention contendedPath = contendedPaths.get(repoPath);
+        if (contendedPath == null) {
+            if (contendedPaths.size() >= maxTrackedPaths) {
+                evictLeastContended();
+            }
+            contendedPath = new PathContention(repoPath);
+            PathContention existing = contendedPaths.putIfAbsent(repoPath, contendedPath);
+            if (existing != null) {
+                contendedPath = existing;
+            }
+        }
+        return contendedPath;
+    }
+
+    /**
+     * Removes the tracked path with the shortest total wait time. Only called when a new path is contended while the
+     * limit is reached, so the linear scan keeps the hot paths and costs nothing on uncontended locks.
+     */
+    private void evictLeastContended() {
+        PathContention leastContended = null;
+        for (PathContention contendedPath : contendedPaths.values()) {
+            if (leastContended == null || contendedPath.totalWaitMillis.get() < leastContended.totalWaitMillis.get()) {
+                leastContended = contendedPath;
+            }
+        }
+        if (leastContended != null) {
+            contendedPaths.remove(leastContended.repoPath, leastContended);
+        }
+    }
+
+    /**
+     * The live contention counters of a tracked path
+     */
+    private static class PathContention {
+        private final RepoPath repoPath;
+        private final AtomicLong contendedCount = new AtomicLong();
+        private final AtomicLong timeoutsCount = new AtomicLong();
+        private final AtomicLong totalWaitMillis = new AtomicLong();
+
+        private PathContention(RepoPath repoPath) {
+            this.repoPath = repoPath;
+        }
+
+        private void record(long waitMillis, boolean timedOut) {
+            contendedCount.incrementAndGet();
+            if (timedOut) {
+                timeoutsCount.incrementAndGet();
+            }
+            totalWaitMillis.addAndGet(waitMillis);
+        }
+
+        private ContendedPath snapshot() {
+            return new ContendedPath(repoPath, contendedCount.get(), timeoutsCount.get(), totalWaitMillis.get());
+        }
+    }
+
+    /**
+     * The contention counters of a tracked path at the time it was read
+     */
+    public static class ContendedPath {
+        private final RepoPath repoPath;
+        private final long contendedCount;
+        private final long timeoutsCount;
+        private final long totalWaitMillis;
+
+        private ContendedPath(RepoPath repoPath, long contendedCount, long timeoutsCount, long totalWaitMillis) {
+            this.repoPath = repoPath;
+            this.contendedCount = contendedCount;
+            this.timeoutsCount = timeoutsCount;
+            this.totalWaitMillis = totalWaitMillis;
+        }
+
+        public RepoPath getRepoPath() {
+            return repoPath;
+        }
+
+        public long getContendedCount() {
+            return contendedCount;
+        }
+
+        public long getTimeoutsCount() {
+            return timeoutsCount;
+        }
+
+        public long getTotalWaitMillis() {
+            return totalWaitMillis;
+        }
+
+        @Override
+        public String toString() {
+            return repoPath + " contended: " + getContendedCount() + " timeouts: " + getTimeoutsCount() +
+                    " total wait: " + getTotalWaitMillis() + "ms";
+        }
+    }
+}
@@ -25,27 +25,49 @@ import org.artifactory.common.ConstantValues;
 import org.artifactory.repo.RepoPath;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 
 /**
  * Holds all the fs item locks for a single storing repository.
+ * <p/>
+ * By default every repo path gets its own lock. In striped mode the repo paths are hashed to a fixed set of locks:
+ * there is no lock map to maintain, at the price of unrelated paths occasionally sharing a lock.
  *
  * @author Yossi Shaul
  */
 public class FsItemsVault {
 
     private Cache<RepoPath, MonitoringReentrantLock> locks;
+    private MonitoringReentrantLock[] stripes;
+    private final FsItemLockStatistics statistics;
 
     public FsItemsVault() {
-        locks = CacheBuilder.newBuilder().initialCapacity(2000).softValues()
-                .expireAfterAccess(ConstantValues.fsItemCacheIdleTimeSecs.getLong(), TimeUnit.SECONDS)
-                .build(new CacheLoader<RepoPath, MonitoringReentrantLock>() {
-                    @Override
-                    public MonitoringReentrantLock load(RepoPath key) throws Exception {
-                        return new MonitoringReentrantLock();
-                    }
-                });
+        this(ConstantValues.fsItemLocksStripes.getInt(), ConstantValues.fsItemLocksTrackedContendedPaths.getInt());
+    }
+
+    /**
+     * @param stripesCount    Number of lock stripes, 0 or less for a lock per repo path
+     * @param maxTrackedPaths Max number of contended paths to keep statistics for
+     */
+    public FsItemsVault(int stripesCount, int maxTrackedPaths) {
+        if (stripesCount > 0) {
+            stripes = new MonitoringReentrantLock[stripesCount];
+            for (int i = 0; i < stripesCount; i++) {
+                stripes[i] = new MonitoringReentrantLock();
+            }
+        } else {
+            locks = CacheBuilder.newBuilder().initialCapacity(2000).softValues()
+                    .expireAfterAccess(ConstantValues.fsItemCacheIdleTimeSecs.getLong(), TimeUnit.SECONDS)
+                    .build(new CacheLoader<RepoPath, MonitoringReentrantLock>() {
+                        @Override
+                        public MonitoringReentrantLock load(RepoPath key) throws Exception {
+                            return new MonitoringReentrantLock();
+                        }
+                    });
+        }
+        statistics = new FsItemLockStatistics(maxTrackedPaths);
     }
 
     /**
@@ -57,10 +79,33 @@ public class FsItemsVault {
      */
     @Nonnull
     public LockEntryId getLock(RepoPath repoPath) {
+        if (stripes != null) {
+            return new LockEntryId(stripes[stripeIndex(repoPath)], repoPath, statistics);
+        }
         try {
-            return new LockEntryId(locks.get(repoPath), repoPath);
+            return new LockEntryId(locks.get(repoPath), repoPath, statistics);
         } catch (ExecutionException e) {
             throw new RuntimeException(e);
         }
     }
+
+    @Nonnull
+    public FsItemLockStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * @return Number of lock stripes, 0 if every repo path has its own lock
+     */
+    public int getStripesCount() {
+        return stripes == null ? 0 : stripes.length;
+    }
+
+    private int stripeIndex(@Nullable RepoPath repoPath) {
+        int hash = repoPath == null ? 0 : repoPath.hashCode();
+        // spread the bits of string based hash codes before taking the modulo
+        hash ^= (hash >>> 20) ^ (hash >>> 12);
+        hash ^= (hash >>> 7) ^ (hash >>> 4);
+        return (hash & Integer.MAX_VALUE) % stripes.length;
+    }
 }
@@ -20,6 +20,8 @@ package org.artifactory.storage.fs.lock;
 
 import org.artifactory.repo.RepoPath;
 
+import javax.annotation.Nullable;
+
 /**
  * An immutable lock holder - holds a RWLock per a certain repo fsItem. RW-locks are managed (shared) per storing repo
  * and are passed to each session's InternalLockManager. On the InternalLockManager each session performs read-write
@@ -34,13 +36,19 @@ public class LockEntryId {
      */
     private final MonitoringReentrantLock lock;
     private final RepoPath repoPath;
+    private final FsItemLockStatistics statistics;
 
     public LockEntryId(MonitoringReentrantLock lock, RepoPath repoPath) {
+        this(lock, repoPath, null);
+    }
+
+    public LockEntryId(MonitoringReentrantLock lock, RepoPath repoPath, @Nullable FsItemLockStatistics statistics) {
         if (lock == null) {
             throw new IllegalArgumentException("Cannot create lock entry with no lock object for " + repoPath);
         }
         this.lock = lock;
         this.repoPath = repoPath;
+        this.statistics = statistics;
     }
 
     public RepoPath getRepoPath() {
@@ -51,6 +59,14 @@ public class LockEntryId {
         return lock;
     }
 
+    /**
+     * @return The statistics of the vault this lock belongs to, null if not collected
+     */
+    @Nullable
+    public FsItemLockStatistics getStatistics() {
+        return statistics;
+    }
+
     @Override
     public String toString() {
         return "LockEntryId " + repoPath;
@@ -37,6 +37,12 @@ public class SessionLockEntry implements FsItemLockEntry {
 
     private final LockEntryId lockEntryId;
     private MutableVfsItem mutableItem;
+    /**
+     * Whether this entry holds the lock. The lock itself might be shared with other paths when the vault is striped,
+     * so holding it doesn't mean this entry acquired it.
+     */
+    private boolean locked;
+    private long lockedAtNanos;
 
     public SessionLockEntry(LockEntryId lockEntryId) {
         this.lockEntryId = lockEntryId;
@@ -86,9 +92,16 @@ public class SessionLockEntry implements FsItemLockEntry {
 
     private void acquire() {
         MonitoringReentrantLock lock = lockEntryId.getLock();
+        FsItemLockStatistics statistics = lockEntryId.getStatistics();
+        long start = System.nanoTime();
         try {
-            boolean success = lock.tryLock(ConstantValues.locksTimeoutSecs.getLong(), TimeUnit.SECONDS);
+            boolean contended = !lock.tryLock();
+            boolean success = !contended || lock.tryLock(ConstantValues.locksTimeoutSecs.getLong(), TimeUnit.SECONDS);
+            long waitMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
             if (!success) {
+                if (statistics != null) {
+                    statistics.lockTimedOut(getRepoPath(), waitMillis);
+                }
                 StringBuilder messageBuilder =
                         new StringBuilder().append("Lock on ").append(lockEntryId)
                                 .append(" not acquired in ").append(ConstantValues.locksTimeoutSecs.getLong())
@@ -98,6 +111,11 @@ public class SessionLockEntry implements FsItemLockEntry {
                 }
                 throw new LockingException(messageBuilder.toString());
             }
+            locked = true;
+            lockedAtNanos = System.nanoTime();
+            if (statistics != null) {
+                statistics.lockAcquired(getRepoPath(), waitMillis, contended);
+            }
         } catch (InterruptedException e) {
             throw new LockingException("Lock on " + lockEntryId + " not acquired!", e);
         }
@@ -111,14 +129,19 @@ public class SessionLockEntry implements FsItemLockEntry {
                 log.warn("Mutable item '{}' has local modifications that will be discarded.", mutableItem);
             }
             mutableItem = null;
+            locked = false;
             lockEntryId.getLock().unlock();
+            FsItemLockStatistics statistics = lockEntryId.getStatistics();
+            if (statistics != null) {
+                statistics.lockReleased(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - lockedAtNanos));
+            }
             return true;
         }
         return false;
     }
 
     public boolean isWriteLockedByMe() {
-        return lockEntryId.getLock().isHeldByCurrentThread();
+        return locked && lockEntryId.getLock().isHeldByCurrentThread();
     }
 
     private RepoPath getRepoPath() {
@@ -18,13 +18,16 @@
 
 package org.artifactory.storage.fs.service;
 
+import org.artifactory.api.repo.ChildrenPage;
 import org.artifactory.checksum.ChecksumType;
 import org.artifactory.fs.FileInfo;
 import org.artifactory.fs.FolderInfo;
 import org.artifactory.fs.ItemInfo;
+import org.artifactory.md.Properties;
 import org.artifactory.model.common.RepoPathImpl;
 import org.artifactory.repo.RepoPath;
 import org.artifactory.sapi.fs.VfsItem;
+import org.artifactory.sapi.fs.Visitor;
 import org.artifactory.storage.fs.VfsException;
 import org.artifactory.storage.fs.VfsItemNotFoundException;
 import org.artifactory.storage.fs.repo.StoringRepo;
@@ -32,6 +35,7 @@ import org.artifactory.storage.fs.repo.StoringRepo;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.util.List;
+import java.util.Map;
 
 /**
  * @author Yossi Shaul
@@ -52,8 +56,64 @@ public interface FileService {
 
     int getNodesCount(RepoPath repoPath) throws VfsException;
 
+    /**
+     * @param repoPath Repository path of a root repo or a folder
+     * @return The file with the latest modification time under the given path (recursively). Null if none
+     */
+    @Nullable
+    FileInfo loadLastModifiedFile(RepoPath repoPath) throws VfsException;
+
     List<ItemInfo> loadChildren(RepoPath repoPath) throws VfsException;
 
+    /**
+     * Loads the children of the given folder together with their properties using a single query.
+     *
+     * @param repoPath           The folder repo path
+     * @param childrenProperties Receives the properties of each child having properties, keyed by the child path
+     * @return The children of the folder
+     */
+    List<ItemInfo> loadChildren(RepoPath repoPath, Map<RepoPath, Properties> childrenProperties) throws VfsException;
+
+    /**
+     * Loads a page of the children of the given folder ordered by name.
+     *
+     * @param repoPath     The folder repo path
+     * @param continuation The continuation token of the previous page. Null for the first page
+     * @param pageSize     Maximum number of children to load
+     * @return Up to page size children following the previous page, ordered by name
+     * @throws IllegalArgumentException If the continuation token is not one returned by a previous page
+     */
+    @Nonnull
+    ChildrenPage loadChildren(RepoPath repoPath, @Nullable String continuation, int pageSize) throws VfsException;
+
+    /**
+     * Streams the item of the given path and all the items below it to the visitor in path and name order, one page
+     * query at a time. The children of each folder are received as one contiguous block, but parents are not
+     * guaranteed to be received before their children.
+     *
+     * @param repoPath Root of the subtree to visit
+     * @param visitor  The visitor to receive the items. Throw a runtime exception to stop the iteration
+     */
+    void visitSubtree(RepoPath repoPath, Visitor<ItemInfo> visitor) throws VfsException;
+
+    /**
+     * Same as {@link #visitSubtree(RepoPath, Visitor)}, limited to the items up to the given number of levels below
+     * the root of the subtree.
+     *
+     * @param repoPath Root of the subtree to visit
+     * @param maxDepth Number of levels below the root to visit, 0 for the root only. Negative for no limit
+     * @param visitor  The visitor to receive the items. Throw a runtime exception to stop the iteration
+     */
+    void visitSubtree(RepoPath repoPath, int maxDepth, Visitor<ItemInfo> visitor) throws VfsException;
+
+    /**
+     * Streams the id and name of every file ordered by node id, reading the nodes in pages of the given size.
+     *
+     * @param pageSize The maximum number of nodes read by a single query
+     * @param visitor  The visitor to receive the file names. Throw a runtime exception to stop the iteration
+     */
+    void visitFileNames(int pageSize, FileNameVisitor visitor) throws VfsException;
+
     void debugNodeStructure(RepoPath repoPath) throws VfsException;
 
     VfsItem loadVfsItem(StoringRepo storingRepo, RepoPath repoPath) throws VfsItemNotFoundException, VfsException;
@@ -98,4 +158,8 @@ public interface FileService {
     List<FileInfo> searchFilesWithBadChecksum(ChecksumType type);
 
     long getFilesTotalCount(RepoPathImpl repoPath);
+
+    interface FileNameVisitor {
+        void visit(long nodeId, String name);
+    }
 }
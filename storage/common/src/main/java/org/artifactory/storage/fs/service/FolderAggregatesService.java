@@ -0,0 +1,79 @@
+/*
+ * Artifactory is a binaries repository manager.
+ * Copyright (C) 2012 JFrog Ltd.
+ *
+ * Artifactory is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Artifactory is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Artifactory.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.artifactory.storage.fs.service;
+
+import org.artifactory.fs.FileInfo;
+import org.artifactory.repo.RepoPath;
+
+/**
+ * A business service to maintain and read the files count, total size and latest modified file of repositories and
+ * folders (recursively).
+ * <p/>
+ * File changes are recorded as deltas in the transaction of the change. The deltas are periodically flushed to the
+ * aggregates, and reads add the deltas not flushed yet so they are never stale.
+ */
+public interface FolderAggregatesService {
+
+    /**
+     * @return True if the aggregates are enabled and calculated. Callers should fallback to counting the nodes if
+     *         not ready
+     */
+    boolean isReady();
+
+    void fileCreated(long nodeId, FileInfo file);
+
+    void fileUpdated(long nodeId, FileInfo original, FileInfo updated);
+
+    void fileDeleted(long nodeId, FileInfo file);
+
+    /**
+     * @return The files count of all the repositories
+     */
+    long getFilesCount();
+
+    /**
+     * @param repoPath Repository path of a root repo or a folder
+     * @return Files count under the specified repo path
+     */
+    long getFilesCount(RepoPath repoPath);
+
+    /**
+     * @param repoPath Repository path of a root repo or a folder
+     * @return Total size of the files under the specified repo path
+     */
+    long getFilesSize(RepoPath repoPath);
+
+    /**
+     * @param repoPath Repository path of a root repo or a folder
+     * @return Id of the file node with the latest modification time under the specified repo path. The
+     *         {@link org.artifactory.storage.db.DbService#NO_DB_ID} if the folder has no files
+     */
+    long getLastModifiedFileId(RepoPath repoPath);
+
+    /**
+     * Flushes the recorded file changes to the aggregates and calculates the aggregates if they are not ready.
+     */
+    void flush();
+
+    /**
+     * Recalculates the aggregates of all the repositories from the nodes table. Reads fallback to counting the nodes
+     * while the recalculation is running.
+     */
+    void recalculate();
+}
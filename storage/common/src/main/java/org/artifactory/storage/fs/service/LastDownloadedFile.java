@@ -0,0 +1,54 @@
+/*
+ * Artifactory is a binaries repository manager.
+ * Copyright (C) 2012 JFrog Ltd.
+ *
+ * Artifactory is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Artifactory is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Artifactory.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.artifactory.storage.fs.service;
+
+import org.artifactory.repo.RepoPath;
+
+/**
+ * A file with the last time it was downloaded, or created if it was never downloaded. The last download time and the
+ * node id are the position of the file when paging through files ordered by their last download.
+ */
+public class LastDownloadedFile {
+    private final long nodeId;
+    private final RepoPath repoPath;
+    private final long lastDownloaded;
+
+    public LastDownloadedFile(long nodeId, RepoPath repoPath, long lastDownloaded) {
+        this.nodeId = nodeId;
+        this.repoPath = repoPath;
+        this.lastDownloaded = lastDownloaded;
+    }
+
+    public long getNodeId() {
+        return nodeId;
+    }
+
+    public RepoPath getRepoPath() {
+        return repoPath;
+    }
+
+    public long getLastDownloaded() {
+        return lastDownloaded;
+    }
+
+    @Override
+    public String toString() {
+        return repoPath + " (" + lastDownloaded + ")";
+    }
+}
@@ -22,6 +22,7 @@ import org.artifactory.fs.StatsInfo;
 import org.artifactory.repo.RepoPath;
 
 import javax.annotation.Nullable;
+import java.util.List;
 
 /**
  * A business service to interact with file statistics.
@@ -73,4 +74,19 @@ public interface StatsService {
      * Flushes the collected statistics event from the memory to the backing storage.
      */
     void flushStats();
+
+    /**
+     * Returns a page of the files of a repository that were not downloaded since the given time, least recently
+     * downloaded first. Files that were never downloaded are compared by their creation time. Statistics not yet
+     * flushed to the storage are ignored.
+     *
+     * @param repoKey       The repository to search
+     * @param sinceMillis   Only files last downloaded before this time are returned
+     * @param afterDownload Last download time of the last file of the previous page. Long.MIN_VALUE for the first page
+     * @param afterNodeId   Node id of the last file of the previous page
+     * @param maxResults    Max number of files to return
+     * @return The files following the given position, in last download order
+     */
+    List<LastDownloadedFile> getFilesNotDownloadedSince(String repoKey, long sinceMillis, long afterDownload,
+            long afterNodeId, int maxResults);
 }
@@ -0,0 +1,70 @@
+/*
+ * Artifactory is a binaries repository manager.
+ * Copyright (C) 2012 JFrog Ltd.
+ *
+ * Artifactory is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Artifactory is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Artifactory.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.artifactory.storage.fs.lock;
+
+import org.artifactory.repo.RepoPath;
+import org.artifactory.repo.RepoPathFactory;
+import org.testng.annotations.Test;
+
+import java.util.List;
+
+import static org.testng.Assert.assertEquals;
+
+/**
+ * Unit tests for the {@link FsItemLockStatistics}.
+ */
+@Test
+public class FsItemLockStatisticsTest {
+
+    public void leastContendedPathEvictedAtLimit() {
+        FsItemLockStatistics statistics = new FsItemLockStatistics(2);
+        RepoPath hot = RepoPathFactory.create("repo", "hot");
+        RepoPath cold = RepoPathFactory.create("repo", "cold");
+        RepoPath other = RepoPathFactory.create("repo", "other");
+        statistics.lockAcquired(hot, 100, true);
+        statistics.lockAcquired(cold, 5, true);
+        statistics.lockTimedOut(other, 50);
+
+        List<FsItemLockStatistics.ContendedPath> paths = statistics.getTopContendedPaths(10);
+        assertEquals(paths.size(), 2);
+        assertEquals(paths.get(0).getRepoPath(), hot);
+        assertEquals(paths.get(1).getRepoPath(), other);
+        assertEquals(paths.get(1).getTimeoutsCount(), 1);
+        assertEquals(statistics.getContendedCount(), 2);
+        assertEquals(statistics.getTimeoutsCount(), 1);
+    }
+
+    public void uncontendedLocksNotTracked() {
+        FsItemLockStatistics statistics = new FsItemLockStatistics(2);
+        statistics.lockAcquired(RepoPathFactory.create("repo", "path"), 0, false);
+        assertEquals(statistics.getAcquiredCount(), 1);
+        assertEquals(statistics.getTopContendedPaths(10).size(), 0);
+    }
+
+    public void topContendedPathsAreSnapshots() {
+        FsItemLockStatistics statistics = new FsItemLockStatistics(2);
+        RepoPath path = RepoPathFactory.create("repo", "path");
+        statistics.lockAcquired(path, 10, true);
+        FsItemLockStatistics.ContendedPath contendedPath = statistics.getTopContendedPaths(10).get(0);
+
+        statistics.lockAcquired(path, 20, true);
+        assertEquals(contendedPath.getTotalWaitMillis(), 10);
+        assertEquals(statistics.getTopContendedPaths(10).get(0).getTotalWaitMillis(), 30);
+    }
+}
@@ -25,7 +25,10 @@ import org.artifactory.mbean.MBeanRegistrationService;
 import org.artifactory.spring.ContextReadinessListener;
 import org.artifactory.spring.Reloadable;
 import org.artifactory.storage.StorageProperties;
+import org.artifactory.storage.db.build.dao.BuildsDao;
+import org.artifactory.storage.db.fs.dao.FolderAggregatesDao;
 import org.artifactory.storage.db.fs.dao.NodesDao;
+import org.artifactory.storage.db.fs.dao.StatsDao;
 import org.artifactory.storage.db.mbean.ManagedDataSource;
 import org.artifactory.storage.db.spring.ArtifactoryDataSource;
 import org.artifactory.storage.db.util.DbUtils;
@@ -47,6 +50,7 @@ import java.sql.Connection;
 import java.sql.DatabaseMetaData;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.concurrent.Callable;
 
 /**
@@ -114,8 +118,12 @@ public class DbServiceImpl implements DbService, ContextReadinessListener {
     }
 
     private InputStream getDbSchemaSql() throws IOException {
+        return getDbSchemaSql("");
+    }
+
+    private InputStream getDbSchemaSql(String suffix) throws IOException {
         String dbTypeName = storageProperties.getDbType().toString();
-        String resourcePath = "/" + dbTypeName + "/" + dbTypeName + ".sql";
+        String resourcePath = "/" + dbTypeName + "/" + dbTypeName + suffix + ".sql";
         InputStream resource = ResourceUtils.getResource(resourcePath);
         if (resource == null) {
             throw new IOException("Database DDL resource not found at: '" + resourcePath + "'");
@@ -125,31 +133,86 @@ public class DbServiceImpl implements DbService, ContextReadinessListener {
 
     /**
      * Checks if the required schema objects exist and creates them if they don't exist yet.
+     * <p/>
+     * The folder aggregates tables, the latest builds table and the last downloaded indexes are kept in their own DDL
+     * resources so they can also be added to databases created before they were introduced.
      *
      * @throws Exception if an error occurs
      */
     private void checkSchema() throws Exception {
         log.debug("Checking for database schema existence");
         Connection con = jdbcHelper.getDataSource().getConnection();
-        ResultSet rs = null;
         try {
             DatabaseMetaData metaData = con.getMetaData();
-            String tableName = NodesDao.TABLE_NAME;
-            if (metaData.storesLowerCaseIdentifiers()) {
-                tableName = tableName.toLowerCase();
-            } else if (metaData.storesUpperCaseIdentifiers()) {
-                tableName = tableName.toUpperCase();
-            }
-            rs = metaData.getTables(null, null, tableName, new String[]{"TABLE"});
-            boolean schemaExists = rs.next();
-            if (!schemaExists) {
+            if (!tableExists(metaData, NodesDao.TABLE_NAME)) {
                 // read ddl from file and execute
                 log.info("***Creating database schema***");
                 DbUtils.executeSqlStream(con, getDbSchemaSql());
             }
+            String[] aggregatesTables = {FolderAggregatesDao.TABLE_NAME, FolderAggregatesDao.LOG_TABLE_NAME};
+            for (String tableName : aggregatesTables) {
+                if (!tableExists(metaData, tableName)) {
+                    log.info("Creating {} table", tableName);
+                    DbUtils.executeSqlStream(con, getDbSchemaSql("_" + tableName));
+                }
+            }
+            if (!tableExists(metaData, BuildsDao.LATEST_TABLE_NAME)) {
+                log.info("Creating {} table", BuildsDao.LATEST_TABLE_NAME);
+                DbUtils.executeSqlStream(con, getDbSchemaSql("_" + BuildsDao.LATEST_TABLE_NAME));
+                fillLatestBuilds(con);
+            }
+            if (!indexExists(metaData, StatsDao.TABLE_NAME, StatsDao.LAST_DOWNLOADED_INDEX)) {
+                log.info("Creating last downloaded indexes");
+                DbUtils.executeSqlStream(con, getDbSchemaSql("_stats_indexes"));
+            }
+        } finally {
+            DbUtils.close(con);
+        }
+    }
+
+    private void fillLatestBuilds(Connection con) throws SQLException {
+        Statement stmt = con.createStatement();
+        try {
+            int latestBuilds = stmt.executeUpdate(BuildsDao.FILL_LATEST_BUILDS);
+            if (!con.getAutoCommit()) {
+                con.commit();
+            }
+            log.info("Added the latest build of {} build names", latestBuilds);
+        } finally {
+            DbUtils.close(stmt);
+        }
+    }
+
+    private boolean tableExists(DatabaseMetaData metaData, String tableName) throws SQLException {
+        ResultSet rs = metaData.getTables(null, null, toStoredCase(metaData, tableName), new String[]{"TABLE"});
+        try {
+            return rs.next();
+        } finally {
+            DbUtils.close(rs);
+        }
+    }
+
+    private boolean indexExists(DatabaseMetaData metaData, String tableName, String indexName) throws SQLException {
+        ResultSet rs = metaData.getIndexInfo(null, null, toStoredCase(metaData, tableName), false, true);
+        try {
+            while (rs.next()) {
+                if (indexName.equalsIgnoreCase(rs.getString("INDEX_NAME"))) {
+                    return true;
+                }
+            }
+            return false;
         } finally {
-            DbUtils.close(con, null, rs);
+            DbUtils.close(rs);
+        }
+    }
+
+    private String toStoredCase(DatabaseMetaData metaData, String identifier) throws SQLException {
+        if (metaData.storesLowerCaseIdentifiers()) {
+            return identifier.toLowerCase();
+        } else if (metaData.storesUpperCaseIdentifiers()) {
+            return identifier.toUpperCase();
         }
+        return identifier;
     }
 
     private void printConnectionInfo() throws SQLException {
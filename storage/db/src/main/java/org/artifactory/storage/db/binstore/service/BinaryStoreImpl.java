@@ -28,6 +28,7 @@ import org.artifactory.api.storage.StorageUnit;
 import org.artifactory.binstore.BinaryInfo;
 import org.artifactory.checksum.ChecksumType;
 import org.artifactory.common.ArtifactoryHome;
+import org.artifactory.common.ConstantValues;
 import org.artifactory.storage.StorageException;
 import org.artifactory.storage.StorageProperties;
 import org.artifactory.storage.binstore.BinaryStoreInputStream;
@@ -50,6 +51,7 @@ import org.springframework.stereotype.Service;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.annotation.PostConstruct;
+import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
@@ -108,9 +110,9 @@ public class BinaryStoreImpl implements InternalBinaryStore {
                     fileBinaryProvider = new FileCacheBinaryProviderImpl(ArtifactoryHome.get().getDataDir(),
                             storageProperties);
                     binaryProviders.add((BinaryProviderBase) fileBinaryProvider);
-                    binaryProviders.add(new BlobBinaryProviderImpl(jdbcHelper, dbService.getDatabaseType()));
+                    binaryProviders.add(createBlobBinaryProvider());
                 } else {
-                    binaryProviders.add(new BlobBinaryProviderImpl(jdbcHelper, dbService.getDatabaseType()));
+                    binaryProviders.add(createBlobBinaryProvider());
                 }
                 break;
             default:
@@ -127,6 +129,11 @@ public class BinaryStoreImpl implements InternalBinaryStore {
         setBinaryProvidersContext(binaryProviders);
     }
 
+    private BlobBinaryProviderImpl createBlobBinaryProvider() {
+        return new BlobBinaryProviderImpl(jdbcHelper, dbService.getDatabaseType(),
+                ArtifactoryHome.get().getTempWorkDir(), ConstantValues.blobReadInMemoryThresholdBytes.getInt());
+    }
+
     @Override
     public void addExternalFilestore(File externalDir, ProviderConnectMode connectMode) {
         if (connectMode != ProviderConnectMode.PASS_THROUGH) {
@@ -268,6 +275,17 @@ public class BinaryStoreImpl implements InternalBinaryStore {
         return getFileBinaryProvider().getBinariesDir();
     }
 
+    @Override
+    @Nullable
+    public File getBinaryFile(String sha1) {
+        FileBinaryProvider provider = getFileBinaryProvider();
+        if (provider == null) {
+            return null;
+        }
+        File file = provider.getFile(sha1);
+        return file.exists() ? file : null;
+    }
+
     @Override
     @Nullable
     public BinaryInfo addBinaryRecord(String sha1, String md5, long length) {
@@ -324,6 +342,12 @@ public class BinaryStoreImpl implements InternalBinaryStore {
         return getFirstBinaryProvider().getStream(sha1);
     }
 
+    @Override
+    @Nonnull
+    public Closeable protectBinary(String sha1) {
+        return getReadTrackingBinaryProvider().addReader(sha1);
+    }
+
     @Override
     public BinaryInfo findBinary(String sha1) {
         try {
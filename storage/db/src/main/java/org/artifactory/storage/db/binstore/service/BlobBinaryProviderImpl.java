@@ -18,9 +18,13 @@
 
 package org.artifactory.storage.db.binstore.service;
 
+import com.google.common.collect.Maps;
+import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.output.DeferredFileOutputStream;
 import org.apache.commons.lang.RandomStringUtils;
 import org.artifactory.binstore.BinaryInfo;
+import org.artifactory.common.ConstantValues;
 import org.artifactory.io.checksum.Sha1Md5ChecksumInputStream;
 import org.artifactory.storage.StorageException;
 import org.artifactory.storage.binstore.service.BinaryNotFoundException;
@@ -33,11 +37,15 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.annotation.Nonnull;
-import java.io.FilterInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
 
 import static org.artifactory.storage.db.binstore.dao.BinariesDao.TEMP_SHA1_PREFIX;
 
@@ -52,13 +60,23 @@ class BlobBinaryProviderImpl extends BinaryProviderBase {
 
     private final JdbcHelper jdbcHelper;
     private final DbType databaseType;
+    private final File tempDir;
+    private final int inMemoryThreshold;
+    private final ConcurrentMap<String, Object> readLocks = Maps.newConcurrentMap();
+    private final Map<String, SpilledBlob> spilledBlobs = Maps.newHashMap();
 
-    public BlobBinaryProviderImpl(JdbcHelper jdbcHelper, DbType databaseType) {
+    /**
+     * @param tempDir           The folder of the temp files holding blobs too big to be read in memory
+     * @param inMemoryThreshold The max size in bytes of a blob read in memory
+     */
+    public BlobBinaryProviderImpl(JdbcHelper jdbcHelper, DbType databaseType, File tempDir, int inMemoryThreshold) {
         this.databaseType = databaseType;
         if (jdbcHelper == null) {
             throw new IllegalArgumentException("Cannot create Blob binary provider without JDBC Helper!");
         }
         this.jdbcHelper = jdbcHelper;
+        this.tempDir = tempDir;
+        this.inMemoryThreshold = inMemoryThreshold;
     }
 
     @Override
@@ -86,24 +104,150 @@ class BlobBinaryProviderImpl extends BinaryProviderBase {
         return next().exists(sha1, length);
     }
 
+    /**
+     * Returns the blob content detached from the database: the content is copied in chunks to memory, or to a temp
+     * file if bigger than the in memory threshold, and the connection is released before the stream is returned. A
+     * slow reader therefore never holds a pooled connection.
+     * <p/>
+     * Concurrent readers of the same blob share a single temp file, deleted when the last of them closes its stream,
+     * so N downloads of a big blob copy it from the database and to disk once.
+     */
     @Nonnull
     @Override
     public InputStream getStream(String sha1) throws BinaryNotFoundException {
+        InputStream spilledStream = openSpilledBlob(sha1);
+        if (spilledStream != null) {
+            return spilledStream;
+        }
+        Object readLock = new Object();
+        Object currentReadLock = readLocks.putIfAbsent(sha1, readLock);
+        if (currentReadLock != null) {
+            readLock = currentReadLock;
+        }
+        try {
+            synchronized (readLock) {
+                // the blob may have been spilled by the reader we waited for
+                spilledStream = openSpilledBlob(sha1);
+                if (spilledStream != null) {
+                    return spilledStream;
+                }
+                InputStream detachedStream = readDetached(sha1);
+                if (detachedStream != null) {
+                    return detachedStream;
+                }
+            }
+        } finally {
+            readLocks.remove(sha1, readLock);
+        }
+        return next().getStream(sha1);
+    }
+
+    /**
+     * Copies the blob content to the given file and releases the connection. Lets a file cache in front of this
+     * provider fill its cache file straight from the database, without an intermediate temp file.
+     *
+     * @param sha1   The checksum of the blob
+     * @param target The file to write the content to
+     * @return False if there is no blob with this checksum
+     */
+    boolean copyTo(String sha1, File target) throws IOException {
+        ResultSet rs = null;
+        try {
+            rs = jdbcHelper.executeSelect("SELECT data FROM binary_blobs where sha1 = ?", sha1);
+            if (!rs.next()) {
+                return false;
+            }
+            FileUtils.copyInputStreamToFile(rs.getBinaryStream(1), target);
+            return true;
+        } catch (SQLException e) {
+            throw new StorageException("Could not select content for " + sha1, e);
+        } finally {
+            DbUtils.close(rs);
+        }
+    }
+
+    private InputStream readDetached(String sha1) {
+        ResultSet rs = null;
         try {
             /*if (TransactionSynchronizationManager.isSynchronizationActive()) {
                 throw new StorageException("Cannot retrieve binary data of " +
                         sha1 + " since the datasource is in transaction!");
             }*/
-            ResultSet rs = jdbcHelper.executeSelect("SELECT data FROM binary_blobs where sha1 = ?", sha1);
+            rs = jdbcHelper.executeSelect("SELECT data FROM binary_blobs where sha1 = ?", sha1);
             if (rs.next()) {
-                return new BlobStream(rs.getBinaryStream(1), rs);
-            } else {
-                DbUtils.close(rs);
+                return detach(sha1, rs.getBinaryStream(1));
             }
+            return null;
         } catch (SQLException e) {
             throw new StorageException("Could not select content for " + sha1, e);
+        } catch (IOException e) {
+            throw new StorageException("Could not read content for " + sha1, e);
+        } finally {
+            DbUtils.close(rs);
+        }
+    }
+
+    private InputStream detach(String sha1, InputStream blobStream) throws IOException {
+        DeferredFileOutputStream out = new DeferredFileOutputStream(inMemoryThreshold, "blob-", ".tmp", tempDir);
+        try {
+            IOUtils.copyLarge(blobStream, out);
+        } catch (IOException e) {
+            IOUtils.closeQuietly(out);
+            deleteTempFile(out.getFile());
+            throw e;
+        } finally {
+            IOUtils.closeQuietly(blobStream);
+        }
+        out.close();
+        if (out.isInMemory()) {
+            return new ByteArrayInputStream(out.getData());
+        }
+        SpilledBlob spilledBlob = new SpilledBlob(sha1, out.getFile());
+        synchronized (spilledBlobs) {
+            spilledBlobs.put(sha1, spilledBlob);
+            spilledBlob.readers++;
+        }
+        return openSpilledBlob(spilledBlob);
+    }
+
+    /**
+     * @return A new stream on the temp file of the blob if it is currently spilled, null otherwise
+     */
+    private InputStream openSpilledBlob(String sha1) {
+        SpilledBlob spilledBlob;
+        synchronized (spilledBlobs) {
+            spilledBlob = spilledBlobs.get(sha1);
+            if (spilledBlob == null) {
+                return null;
+            }
+            spilledBlob.readers++;
+        }
+        return openSpilledBlob(spilledBlob);
+    }
+
+    private InputStream openSpilledBlob(SpilledBlob spilledBlob) {
+        try {
+            return new SpilledBlobInputStream(spilledBlob);
+        } catch (IOException e) {
+            releaseSpilledBlob(spilledBlob);
+            throw new StorageException("Could not read temp file of " + spilledBlob.sha1, e);
+        }
+    }
+
+    private void releaseSpilledBlob(SpilledBlob spilledBlob) {
+        synchronized (spilledBlobs) {
+            if (--spilledBlob.readers > 0) {
+                return;
+            }
+            spilledBlobs.remove(spilledBlob.sha1);
+        }
+        deleteTempFile(spilledBlob.tempFile);
+    }
+
+    private static void deleteTempFile(File tempFile) {
+        if (tempFile != null && tempFile.exists() && !tempFile.delete()) {
+            log.warn("Could not delete temp blob file {}", tempFile.getAbsolutePath());
         }
-        return next().getStream(sha1);
     }
 
     @Nonnull
@@ -115,7 +259,8 @@ class BlobBinaryProviderImpl extends BinaryProviderBase {
             if (is instanceof Sha1Md5ChecksumInputStream) {
                 checksumStream = (Sha1Md5ChecksumInputStream) is;
             } else {
-                checksumStream = new Sha1Md5ChecksumInputStream(is);
+                checksumStream = new Sha1Md5ChecksumInputStream(is,
+                        ConstantValues.checksumPipelineThresholdBytes.getLong());
             }
             // Create a dummy ID
             String randomId = TEMP_SHA1_PREFIX + RandomStringUtils.randomAlphanumeric(40 - TEMP_SHA1_PREFIX.length());
@@ -184,13 +329,30 @@ class BlobBinaryProviderImpl extends BinaryProviderBase {
         return next().delete(sha1);
     }
 
-    static class BlobStream extends FilterInputStream {
-        private final ResultSet resultSet;
+    /**
+     * The temp file of a blob and the number of its open streams. Guarded by the spilled blobs map
+     */
+    static class SpilledBlob {
+        private final String sha1;
+        private final File tempFile;
+        private int readers = 0;
+
+        SpilledBlob(String sha1, File tempFile) {
+            this.sha1 = sha1;
+            this.tempFile = tempFile;
+        }
+    }
+
+    /**
+     * Stream of a blob spilled to a temp file, the file is deleted when the last stream on it is closed
+     */
+    class SpilledBlobInputStream extends FileInputStream {
+        private final SpilledBlob spilledBlob;
         private boolean closed = false;
 
-        BlobStream(InputStream in, ResultSet resultSet) {
-            super(in);
-            this.resultSet = resultSet;
+        SpilledBlobInputStream(SpilledBlob spilledBlob) throws IOException {
+            super(spilledBlob.tempFile);
+            this.spilledBlob = spilledBlob;
         }
 
         @Override
@@ -200,7 +362,7 @@ class BlobBinaryProviderImpl extends BinaryProviderBase {
             } finally {
                 if (!closed) {
                     closed = true;
-                    DbUtils.close(resultSet);
+                    releaseSpilledBlob(spilledBlob);
                 }
             }
         }
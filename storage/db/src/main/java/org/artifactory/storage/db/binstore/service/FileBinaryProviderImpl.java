@@ -23,6 +23,7 @@ import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang.StringUtils;
 import org.artifactory.api.common.MultiStatusHolder;
 import org.artifactory.binstore.BinaryInfo;
+import org.artifactory.common.ConstantValues;
 import org.artifactory.io.checksum.Sha1Md5ChecksumInputStream;
 import org.artifactory.storage.StorageProperties;
 import org.artifactory.storage.binstore.service.FileBinaryProvider;
@@ -74,9 +75,12 @@ class FileBinaryProviderImpl extends FileBinaryProviderBase implements FileBinar
             if (in instanceof Sha1Md5ChecksumInputStream) {
                 checksumStream = (Sha1Md5ChecksumInputStream) in;
             } else {
-                checksumStream = new Sha1Md5ChecksumInputStream(in);
+                checksumStream = new Sha1Md5ChecksumInputStream(in,
+                        ConstantValues.checksumPipelineThresholdBytes.getLong());
             }
             preFileStoreFile = writeToTempFile(checksumStream);
+            // the copy closes quietly, close again to get any checksums calculation failure
+            checksumStream.close();
             BinaryInfo bd = new BinaryInfoImpl(checksumStream);
             log.trace("Inserting {} in file binary provider", bd);
 
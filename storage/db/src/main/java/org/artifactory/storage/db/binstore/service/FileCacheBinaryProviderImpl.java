@@ -57,10 +57,12 @@ class FileCacheBinaryProviderImpl extends FileBinaryProviderBase implements File
     private final Semaphore cacheCleanerSemaphore;
     private final AtomicLong totalSize; // in bytes
     private final ConcurrentMap<String, LruEntry> lruCache;
+    private final ConcurrentMap<String, Object> fillLocks;
 
     public FileCacheBinaryProviderImpl(File rootDataDir, StorageProperties storageProperties) {
         super(new File(rootDataDir, getCacheFolderName(storageProperties)));
         lruCache = Maps.newConcurrentMap();
+        fillLocks = Maps.newConcurrentMap();
         totalSize = new AtomicLong(0);
         maxTotalSize = storageProperties.getBinaryProviderCacheMaxSize();
         cacheCleanerSemaphore = new Semaphore(1);
@@ -91,6 +93,13 @@ class FileCacheBinaryProviderImpl extends FileBinaryProviderBase implements File
                             "but failed to open it due to: " + e.getMessage(), e);
         }
 
+        if (next() instanceof BlobBinaryProviderImpl) {
+            InputStream filledStream = fillFromBlob((BlobBinaryProviderImpl) next(), sha1, cachedFile);
+            if (filledStream != null) {
+                return filledStream;
+            }
+        }
+
         try {
             // Save to a temp file while the stream is being passed to the reader!
             return new SavedToFileOnReadInputStream(next().getStream(sha1), sha1);
@@ -99,6 +108,45 @@ class FileCacheBinaryProviderImpl extends FileBinaryProviderBase implements File
         }
     }
 
+    /**
+     * Copies a database blob straight into the cache and returns the stream of the cache file. A cache miss therefore
+     * writes the content to disk once, and releases the database connection before the first byte is returned.
+     * Concurrent misses on the same checksum wait for the first one to fill the cache instead of each copying the blob.
+     *
+     * @return The stream of the filled cache file, null if the blob is not in the database
+     */
+    private InputStream fillFromBlob(BlobBinaryProviderImpl blobProvider, String sha1, File cachedFile) {
+        Object fillLock = new Object();
+        Object currentFillLock = fillLocks.putIfAbsent(sha1, fillLock);
+        if (currentFillLock != null) {
+            fillLock = currentFillLock;
+        }
+        try {
+            synchronized (fillLock) {
+                if (!cachedFile.exists()) {
+                    File tempFile = getTempBinFile();
+                    try {
+                        if (!blobProvider.copyTo(sha1, tempFile)) {
+                            return null;
+                        }
+                        SavedToFileInputStream.moveTempFile(tempFile, cachedFile);
+                    } finally {
+                        if (tempFile.exists() && !tempFile.delete()) {
+                            log.error("Could not delete temp file " + tempFile.getAbsolutePath());
+                        }
+                    }
+                }
+                InputStream cachedStream = new FileInputStream(cachedFile);
+                entryAccessed(cachedFile);
+                return cachedStream;
+            }
+        } catch (IOException e) {
+            throw new StorageException("Could not fill the cached file of " + sha1, e);
+        } finally {
+            fillLocks.remove(sha1, fillLock);
+        }
+    }
+
     @Override
     @Nonnull
     public BinaryInfo addStream(InputStream in) throws IOException {
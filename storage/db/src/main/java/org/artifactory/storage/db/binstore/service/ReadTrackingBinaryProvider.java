@@ -28,9 +28,11 @@ import org.slf4j.LoggerFactory;
 
 import javax.annotation.Nonnull;
 import java.io.BufferedInputStream;
+import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
@@ -56,12 +58,30 @@ class ReadTrackingBinaryProvider extends BinaryProviderBase implements BinaryPro
     @Nonnull
     @Override
     public InputStream getStream(String sha1) throws BinaryNotFoundException {
+        AtomicInteger readersCount = getReadersCount(sha1);
+        return new ReaderTrackingStream(next().getStream(sha1), sha1, readersCount);
+    }
+
+    /**
+     * Registers a reader of the binary that does not hold a stream on it. The binary is not deleted until the
+     * returned handle is closed.
+     *
+     * @param sha1 the checksum key
+     * @return the handle releasing the reader on close
+     * @throws BinaryNotFoundException If the binary is currently being deleted
+     */
+    @Nonnull
+    public Closeable addReader(String sha1) throws BinaryNotFoundException {
+        return new ReaderHandle(sha1, getReadersCount(sha1));
+    }
+
+    private AtomicInteger getReadersCount(String sha1) {
         readersCounter.putIfAbsent(sha1, new AtomicInteger(0));
         AtomicInteger readersCount = readersCounter.get(sha1);
         if (readersCount.get() < 0) {
             throw new BinaryNotFoundException("File " + sha1 + " is currently being deleted!");
         }
-        return new ReaderTrackingStream(next().getStream(sha1), sha1, readersCount);
+        return readersCount;
     }
 
 
@@ -91,6 +111,26 @@ class ReadTrackingBinaryProvider extends BinaryProviderBase implements BinaryPro
         return next().delete(sha1);
     }
 
+    static class ReaderHandle implements Closeable {
+        private final AtomicInteger readersCount;
+        private final AtomicBoolean closed = new AtomicBoolean(false);
+
+        public ReaderHandle(String sha1, AtomicInteger readersCount) {
+            this.readersCount = readersCount;
+            if (readersCount.incrementAndGet() < 0) {
+                // File being deleted...
+                throw new BinaryNotFoundException("File " + sha1 + " is currently being deleted!");
+            }
+        }
+
+        @Override
+        public void close() {
+            if (closed.compareAndSet(false, true)) {
+                readersCount.decrementAndGet();
+            }
+        }
+    }
+
     static class ReaderTrackingStream extends BufferedInputStream implements BinaryStoreInputStream {
         private final String sha1;
         private final AtomicInteger readersCount;
@@ -134,6 +134,10 @@ abstract class SavedToFileInputStream extends FilterInputStream {
     protected abstract boolean afterClose() throws IOException;
 
     void moveTempFileTo(File cachedFile) throws IOException {
+        moveTempFile(tempFile, cachedFile);
+    }
+
+    static void moveTempFile(File tempFile, File cachedFile) throws IOException {
         File parentFile = cachedFile.getParentFile();
         if (!parentFile.exists()) {
             log.debug("Creating first level filestore folder " + parentFile.getAbsolutePath());
@@ -18,6 +18,7 @@
 
 package org.artifactory.storage.db.build.dao;
 
+import com.google.common.collect.Lists;
 import org.artifactory.checksum.ChecksumType;
 import org.artifactory.storage.db.build.entity.BuildArtifact;
 import org.artifactory.storage.db.util.BaseDao;
@@ -46,12 +47,13 @@ public class BuildArtifactsDao extends BaseDao {
     }
 
     public int createBuildArtifacts(List<BuildArtifact> bas) throws SQLException {
-        int res = 0;
+        List<Object[]> artifactsParams = Lists.newArrayListWithCapacity(bas.size());
         for (BuildArtifact ba : bas) {
-            // TODO: Make it big single SQL
-            res += createBuildArtifact(ba);
+            artifactsParams.add(new Object[]{ba.getArtifactId(), ba.getModuleId(),
+                    ba.getArtifactName(), ba.getArtifactType(),
+                    ba.getSha1(), ba.getMd5()});
         }
-        return res;
+        return jdbcHelper.executeBatchUpdate("INSERT INTO build_artifacts VALUES(?, ?, ?, ?, ?, ?)", artifactsParams);
     }
 
     public int createBuildArtifact(BuildArtifact ba) throws SQLException {
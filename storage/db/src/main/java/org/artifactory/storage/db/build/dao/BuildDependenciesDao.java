@@ -18,6 +18,7 @@
 
 package org.artifactory.storage.db.build.dao;
 
+import com.google.common.collect.Lists;
 import org.artifactory.checksum.ChecksumType;
 import org.artifactory.storage.db.build.entity.BuildDependency;
 import org.artifactory.storage.db.util.BaseDao;
@@ -46,12 +47,14 @@ public class BuildDependenciesDao extends BaseDao {
     }
 
     public int createBuildDependencies(List<BuildDependency> bds) throws SQLException {
-        int res = 0;
+        List<Object[]> dependenciesParams = Lists.newArrayListWithCapacity(bds.size());
         for (BuildDependency bd : bds) {
-            // TODO: Make it big single SQL
-            res += createBuildDependency(bd);
+            dependenciesParams.add(new Object[]{bd.getDependencyId(), bd.getModuleId(),
+                    bd.getDependencyNameId(), bd.getDependencyScopes(), bd.getDependencyType(),
+                    bd.getSha1(), bd.getMd5()});
         }
-        return res;
+        return jdbcHelper.executeBatchUpdate("INSERT INTO build_dependencies VALUES(?, ?, ?, ?, ?, ?, ?)",
+                dependenciesParams);
     }
 
     public int createBuildDependency(BuildDependency bd) throws SQLException {
@@ -18,6 +18,7 @@
 
 package org.artifactory.storage.db.build.dao;
 
+import com.google.common.collect.Lists;
 import org.apache.commons.lang.StringUtils;
 import org.artifactory.storage.db.build.entity.BuildModule;
 import org.artifactory.storage.db.build.entity.ModuleProperty;
@@ -49,10 +50,20 @@ public class BuildModulesDao extends BaseDao {
     }
 
     public int createBuildModules(List<BuildModule> bms) throws SQLException {
-        int res = 0;
+        if (bms.isEmpty()) {
+            return 0;
+        }
+        List<Object[]> modulesParams = Lists.newArrayListWithCapacity(bms.size());
+        List<Object[]> propsParams = Lists.newArrayList();
         for (BuildModule bm : bms) {
-            res += createBuildModule(bm);
+            modulesParams.add(new Object[]{bm.getModuleId(), bm.getBuildId(), bm.getModuleNameId()});
+            for (ModuleProperty bmp : bm.getProperties()) {
+                propsParams.add(new Object[]{bmp.getPropId(), bmp.getModuleId(), bmp.getPropKey(),
+                        StringUtils.substring(bmp.getPropValue(), 0, 2048)});
+            }
         }
+        int res = jdbcHelper.executeBatchUpdate("INSERT INTO build_modules VALUES(?, ?, ?)", modulesParams);
+        res += jdbcHelper.executeBatchUpdate("INSERT INTO module_props VALUES(?, ?, ?, ?)", propsParams);
         return res;
     }
 
@@ -18,7 +18,10 @@
 
 package org.artifactory.storage.db.build.dao;
 
+import com.google.common.collect.HashMultimap;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Multimap;
 import org.apache.commons.compress.utils.Charsets;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang.StringUtils;
@@ -42,6 +45,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
@@ -54,6 +58,19 @@ import java.util.TreeSet;
  */
 @Repository
 public class BuildsDao extends BaseDao {
+    /**
+     * Summary table of the latest build of each build name
+     */
+    public static final String LATEST_TABLE_NAME = "build_latest";
+
+    /**
+     * Fills the latest builds summary from the builds table
+     */
+    public static final String FILL_LATEST_BUILDS = "INSERT INTO build_latest (build_name, build_id, build_date)" +
+            " SELECT b.build_name, min(b.build_id), b.build_date FROM builds b," +
+            " (SELECT build_name, max(build_date) AS latest_date FROM builds GROUP BY build_name) l" +
+            " WHERE b.build_name = l.build_name AND b.build_date = l.latest_date" +
+            " GROUP BY b.build_name, b.build_date";
 
     @Autowired
     public BuildsDao(JdbcHelper jdbcHelper) {
@@ -73,19 +90,22 @@ public class BuildsDao extends BaseDao {
         res += jdbcHelper.executeUpdate("INSERT INTO build_jsons VALUES(?,?)", b.getBuildId(), jsonBlob);
         int nbProps = b.getProperties().size();
         if (nbProps != 0) {
+            List<Object[]> propsParams = Lists.newArrayListWithCapacity(nbProps);
             for (BuildProperty bp : b.getProperties()) {
-                res += jdbcHelper.executeUpdate("INSERT INTO build_props VALUES (?,?,?,?)",
-                        bp.getPropId(), bp.getBuildId(), bp.getPropKey(),
-                        StringUtils.substring(bp.getPropValue(), 0, 2048));
+                propsParams.add(new Object[]{bp.getPropId(), bp.getBuildId(), bp.getPropKey(),
+                        StringUtils.substring(bp.getPropValue(), 0, 2048)});
             }
+            res += jdbcHelper.executeBatchUpdate("INSERT INTO build_props VALUES (?,?,?,?)", propsParams);
         }
         int nbPromotions = b.getPromotions().size();
         if (nbPromotions != 0) {
+            List<Object[]> promotionsParams = Lists.newArrayListWithCapacity(nbPromotions);
             for (BuildPromotionStatus bp : b.getPromotions()) {
-                res += jdbcHelper.executeUpdate("INSERT INTO build_promotions VALUES (?,?,?,?,?,?,?)",
-                        bp.getBuildId(), bp.getCreated(), bp.getCreatedBy(),
-                        bp.getStatus(), bp.getRepository(), bp.getComment(), bp.getCiUser());
+                promotionsParams.add(new Object[]{bp.getBuildId(), bp.getCreated(), bp.getCreatedBy(),
+                        bp.getStatus(), bp.getRepository(), bp.getComment(), bp.getCiUser()});
             }
+            res += jdbcHelper.executeBatchUpdate("INSERT INTO build_promotions VALUES (?,?,?,?,?,?,?)",
+                    promotionsParams);
         }
         return res;
     }
@@ -120,7 +140,8 @@ public class BuildsDao extends BaseDao {
     }
 
     public int deleteAllBuilds() throws SQLException {
-        int res = jdbcHelper.executeUpdate("DELETE FROM build_jsons");
+        int res = jdbcHelper.executeUpdate("DELETE FROM build_latest");
+        res += jdbcHelper.executeUpdate("DELETE FROM build_jsons");
         res += jdbcHelper.executeUpdate("DELETE FROM build_props");
         res += jdbcHelper.executeUpdate("DELETE FROM build_promotions");
         res += jdbcHelper.executeUpdate("DELETE FROM builds");
@@ -143,7 +164,7 @@ public class BuildsDao extends BaseDao {
                     " build_id = ?",
                     buildId);
             if (rs.next()) {
-                jsonStream = rs.getBinaryStream(1);
+                jsonStream = JsonBlobWrapper.openJsonStream(rs.getBinaryStream(1));
                 if (CharSequence.class.isAssignableFrom(clazz)) {
                     //noinspection unchecked
                     return (T) IOUtils.toString(jsonStream, Charsets.UTF_8.name());
@@ -159,6 +180,35 @@ public class BuildsDao extends BaseDao {
         return null;
     }
 
+    /**
+     * Sets the latest build of the given build name in the summary table, from the builds of that name. Must be called
+     * after every change to the builds of the name.
+     * <p/>
+     * Concurrent changes to the same build name may each leave a row, so the name is not unique in the summary table.
+     * Readers keep the latest build of the rows of a name, and the next change to the name leaves a single row.
+     */
+    public int updateLatestBuild(String buildName) throws SQLException {
+        int res = jdbcHelper.executeUpdate("DELETE FROM build_latest WHERE build_name = ?", buildName);
+        long latestBuildId = 0L;
+        long latestBuildDate = 0L;
+        ResultSet rs = null;
+        try {
+            rs = jdbcHelper.executeSelect("SELECT build_id, build_date FROM builds WHERE build_name = ?" +
+                    " ORDER BY build_date DESC, build_id", buildName);
+            if (rs.next()) {
+                latestBuildId = rs.getLong(1);
+                latestBuildDate = rs.getLong(2);
+            }
+        } finally {
+            DbUtils.close(rs);
+        }
+        if (latestBuildId > 0L) {
+            res += jdbcHelper.executeUpdate("INSERT INTO build_latest VALUES (?,?,?)",
+                    buildName, latestBuildId, latestBuildDate);
+        }
+        return res;
+    }
+
     public BuildEntity getBuild(long buildId) throws SQLException {
         ResultSet rs = null;
         BuildEntity build = null;
@@ -296,6 +346,65 @@ public class BuildsDao extends BaseDao {
         return buildNames;
     }
 
+    /**
+     * Returns the latest build (by build date) of every build name, ordered by build date. The builds are read from
+     * the latest builds summary table. The builds, their properties and their promotions are read with one query
+     * each, whatever the number of build names.
+     *
+     * @return The latest build of each build name, oldest first
+     */
+    public List<BuildEntity> getLatestBuilds() throws SQLException {
+        Map<String, BuildEntity> latestBuilds = Maps.newLinkedHashMap();
+        ResultSet rs = null;
+        try {
+            rs = jdbcHelper.executeSelect("SELECT b.* FROM builds b, build_latest l" +
+                    " WHERE b.build_id = l.build_id ORDER BY b.build_date, b.build_id");
+            while (rs.next()) {
+                BuildEntity build = resultSetToBuild(rs);
+                // A name with more than one row: keep the latest one, the first one if started at the same time
+                BuildEntity previous = latestBuilds.get(build.getBuildName());
+                if (previous == null || previous.getBuildDate() < build.getBuildDate()) {
+                    latestBuilds.remove(build.getBuildName());
+                    latestBuilds.put(build.getBuildName(), build);
+                }
+            }
+        } finally {
+            DbUtils.close(rs);
+        }
+        if (latestBuilds.isEmpty()) {
+            return Lists.newArrayList();
+        }
+        Multimap<Long, BuildProperty> properties = HashMultimap.create();
+        try {
+            rs = jdbcHelper.executeSelect("SELECT p.* FROM build_props p, build_latest l" +
+                    " WHERE p.build_id = l.build_id");
+            while (rs.next()) {
+                BuildProperty property = resultSetToBuildProperty(rs);
+                properties.put(property.getBuildId(), property);
+            }
+        } finally {
+            DbUtils.close(rs);
+        }
+        Multimap<Long, BuildPromotionStatus> promotions = HashMultimap.create();
+        try {
+            rs = jdbcHelper.executeSelect("SELECT p.* FROM build_promotions p, build_latest l" +
+                    " WHERE p.build_id = l.build_id");
+            while (rs.next()) {
+                BuildPromotionStatus promotion = resultSetToBuildPromotion(rs);
+                promotions.put(promotion.getBuildId(), promotion);
+            }
+        } finally {
+            DbUtils.close(rs);
+        }
+        List<BuildEntity> results = Lists.newArrayListWithCapacity(latestBuilds.size());
+        for (BuildEntity build : latestBuilds.values()) {
+            build.setProperties(properties.get(build.getBuildId()));
+            build.setPromotions(promotions.get(build.getBuildId()));
+            results.add(build);
+        }
+        return results;
+    }
+
     public Collection<BuildEntity> findBuildForModuleIds(Set<Long> moduleIds) throws SQLException {
         Collection<BuildEntity> results = Lists.newArrayList();
         ResultSet rs = null;
@@ -29,6 +29,7 @@ import org.artifactory.api.jackson.JacksonReader;
 import org.artifactory.binstore.BinaryInfo;
 import org.artifactory.build.BuildRun;
 import org.artifactory.checksum.ChecksumType;
+import org.artifactory.common.ConstantValues;
 import org.artifactory.storage.StorageException;
 import org.artifactory.storage.binstore.service.BinaryStore;
 import org.artifactory.storage.build.service.BuildSearchCriteria;
@@ -46,6 +47,9 @@ import org.artifactory.storage.db.build.entity.BuildPromotionStatus;
 import org.artifactory.storage.db.build.entity.BuildProperty;
 import org.artifactory.storage.db.build.entity.ModuleProperty;
 import org.artifactory.storage.db.util.JsonBlobWrapper;
+import org.artifactory.storage.fs.session.StorageSession;
+import org.artifactory.storage.fs.session.StorageSessionHolder;
+import org.artifactory.storage.tx.SessionResource;
 import org.jfrog.build.api.Artifact;
 import org.jfrog.build.api.Build;
 import org.jfrog.build.api.BuildFileBean;
@@ -57,6 +61,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.Nullable;
 import java.io.IOException;
 import java.nio.charset.Charset;
 import java.sql.SQLException;
@@ -71,6 +76,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Date: 11/14/12
@@ -103,6 +109,13 @@ public class BuildStoreServiceImpl implements BuildStoreService {
     @Autowired
     private BuildDependenciesDao buildDependenciesDao;
 
+    /**
+     * The latest build of each build name. Every build change replaces it with a new empty instance, so a reader can
+     * detect that the builds it just read are already stale.
+     */
+    private final AtomicReference<LatestBuilds> latestBuilds =
+            new AtomicReference<LatestBuilds>(new LatestBuilds(null));
+
     @Override
     public void addBuild(String buildJson) {
         try {
@@ -125,14 +138,20 @@ public class BuildStoreServiceImpl implements BuildStoreService {
             long buildId = dbBuild.getBuildId();
             dbBuild.setProperties(createProperties(buildId, build));
             dbBuild.setPromotions(createPromotions(buildId, build));
-            buildsDao.createBuild(dbBuild, new JsonBlobWrapper(build));
+            buildsDao.createBuild(dbBuild, newJsonBlob(build));
             insertModules(buildId, build);
+            buildsDao.updateLatestBuild(build.getName());
+            latestBuildsChanged();
         } catch (SQLException e) {
             throw new StorageException("Could not insert build " + build, e);
         }
 
     }
 
+    private JsonBlobWrapper newJsonBlob(Build build) {
+        return new JsonBlobWrapper(build, ConstantValues.buildCompressJson.getBoolean());
+    }
+
     private ArrayList<BuildPromotionStatus> createPromotions(long buildId, Build build) {
         List<PromotionStatus> statuses = build.getStatuses();
         ArrayList<BuildPromotionStatus> buildPromotions;
@@ -179,6 +198,10 @@ public class BuildStoreServiceImpl implements BuildStoreService {
             // Nothing to do here
             return;
         }
+        // Collect the rows of all the modules, so each table is written with a single batch
+        List<BuildModule> dbModules = Lists.newArrayListWithCapacity(modules.size());
+        List<BuildArtifact> dbArtifacts = Lists.newArrayList();
+        List<BuildDependency> dbDependencies = Lists.newArrayList();
         for (Module module : modules) {
             BuildModule dbModule = new BuildModule(dbService.nextId(), buildId, module.getId());
             Properties properties = module.getProperties();
@@ -195,37 +218,30 @@ public class BuildStoreServiceImpl implements BuildStoreService {
                 moduleProperties = Sets.newHashSetWithExpectedSize(1);
             }
             dbModule.setProperties(moduleProperties);
-            buildModulesDao.createBuildModule(dbModule);
+            dbModules.add(dbModule);
 
             List<Artifact> artifacts = module.getArtifacts();
-            List<BuildArtifact> dbArtifacts;
-            if (artifacts != null && !artifacts.isEmpty()) {
-                dbArtifacts = Lists.newArrayListWithExpectedSize(artifacts.size());
+            if (artifacts != null) {
                 for (Artifact artifact : artifacts) {
                     // Artifact properties are not inserted in DB
                     dbArtifacts.add(new BuildArtifact(dbService.nextId(), dbModule.getModuleId(),
                             artifact.getName(), artifact.getType(), artifact.getSha1(), artifact.getMd5()));
                 }
-            } else {
-                dbArtifacts = Lists.newArrayListWithExpectedSize(1);
             }
-            buildArtifactsDao.createBuildArtifacts(dbArtifacts);
 
             List<Dependency> dependencies = module.getDependencies();
-            List<BuildDependency> dbDependencies;
-            if (dependencies != null && !dependencies.isEmpty()) {
-                dbDependencies = Lists.newArrayListWithExpectedSize(dependencies.size());
+            if (dependencies != null) {
                 for (Dependency dependency : dependencies) {
                     // Dependency properties are not inserted in DB
                     dbDependencies.add(new BuildDependency(dbService.nextId(), dbModule.getModuleId(),
                             dependency.getId(), dependency.getScopes(), dependency.getType(),
                             dependency.getSha1(), dependency.getMd5()));
                 }
-            } else {
-                dbDependencies = Lists.newArrayListWithExpectedSize(1);
             }
-            buildDependenciesDao.createBuildDependencies(dbDependencies);
         }
+        buildModulesDao.createBuildModules(dbModules);
+        buildArtifactsDao.createBuildArtifacts(dbArtifacts);
+        buildDependenciesDao.createBuildDependencies(dbDependencies);
     }
 
     public static Date parseStringToDate(String dateString) {
@@ -286,8 +302,11 @@ public class BuildStoreServiceImpl implements BuildStoreService {
         try {
             long buildId = findIdFromBuildRun(originalBuildRun);
             if (buildId > 0L) {
-                buildsDao.rename(buildId, renamedBuild.getName(), new JsonBlobWrapper(renamedBuild), currentUser,
+                buildsDao.rename(buildId, renamedBuild.getName(), newJsonBlob(renamedBuild), currentUser,
                         System.currentTimeMillis());
+                buildsDao.updateLatestBuild(originalBuildRun.getName());
+                buildsDao.updateLatestBuild(renamedBuild.getName());
+                latestBuildsChanged();
             } else {
                 throw new StorageException("Could not find build to rename " + originalBuildRun);
             }
@@ -306,7 +325,8 @@ public class BuildStoreServiceImpl implements BuildStoreService {
             long buildId = findIdFromBuildRun(buildRun);
             build.addStatus(promotion);
             buildsDao.addPromotionStatus(buildId, convertPromotionStatus(buildId, promotion),
-                    new JsonBlobWrapper(build), currentUser, System.currentTimeMillis());
+                    newJsonBlob(build), currentUser, System.currentTimeMillis());
+            latestBuildsChanged();
         } catch (SQLException e) {
             throw new StorageException("Could not add promotion " + promotion + " for build " + buildRun, e);
         }
@@ -377,13 +397,13 @@ public class BuildStoreServiceImpl implements BuildStoreService {
     public void deleteAllBuilds(String buildName) {
         try {
             List<Long> buildIds = buildsDao.findBuildIds(buildName);
-            deleteBuilds(buildIds);
+            deleteBuilds(buildName, buildIds);
         } catch (SQLException e) {
             throw new StorageException("Could not delete all build with name='" + buildName + "'", e);
         }
     }
 
-    private void deleteBuilds(Collection<Long> buildIds) throws SQLException {
+    private void deleteBuilds(String buildName, Collection<Long> buildIds) throws SQLException {
         for (Long buildId : buildIds) {
             List<Long> moduleIds = buildModulesDao.findModuleIdsForBuild(buildId);
             if (!moduleIds.isEmpty()) {
@@ -393,6 +413,8 @@ public class BuildStoreServiceImpl implements BuildStoreService {
             buildModulesDao.deleteBuildModules(buildId);
             buildsDao.deleteBuild(buildId);
         }
+        buildsDao.updateLatestBuild(buildName);
+        latestBuildsChanged();
     }
 
     @Override
@@ -401,7 +423,7 @@ public class BuildStoreServiceImpl implements BuildStoreService {
         try {
             long buildId = findIdFromBuildRun(buildRun);
             if (buildId > 0L) {
-                deleteBuilds(ImmutableList.of(buildId));
+                deleteBuilds(buildRun.getName(), ImmutableList.of(buildId));
             } else {
                 log.info("Build " + buildRun + " already deleted!");
             }
@@ -422,6 +444,7 @@ public class BuildStoreServiceImpl implements BuildStoreService {
             buildDependenciesDao.deleteAllBuildDependencies();
             buildModulesDao.deleteAllBuildModules();
             buildsDao.deleteAllBuilds();
+            latestBuildsChanged();
         } catch (SQLException e) {
             throw new StorageException("Could not delete all builds", e);
         }
@@ -464,21 +487,36 @@ public class BuildStoreServiceImpl implements BuildStoreService {
 
     @Override
     public Set<BuildRun> getLatestBuildsByName() {
+        LatestBuilds current = latestBuilds.get();
+        if (current.buildRuns != null) {
+            return new LinkedHashSet<BuildRun>(current.buildRuns);
+        }
         try {
-            List<String> allBuildNames = buildsDao.getAllBuildNames();
-            LinkedHashSet<BuildRun> results = new LinkedHashSet<BuildRun>(allBuildNames.size());
-            for (String buildName : allBuildNames) {
-                BuildEntity buildEntity = buildsDao.getLatestBuild(buildName);
-                if (buildEntity != null) {
-                    results.add(getBuildRun(buildEntity));
-                }
+            List<BuildEntity> buildEntities = buildsDao.getLatestBuilds();
+            List<BuildRun> buildRuns = Lists.newArrayListWithCapacity(buildEntities.size());
+            for (BuildEntity buildEntity : buildEntities) {
+                buildRuns.add(getBuildRun(buildEntity));
             }
-            return results;
+            // Only cache the result if no build was changed while it was read
+            latestBuilds.compareAndSet(current, new LatestBuilds(ImmutableList.copyOf(buildRuns)));
+            return new LinkedHashSet<BuildRun>(buildRuns);
         } catch (SQLException e) {
             throw new StorageException("Could not list all builds by name and latest build date", e);
         }
     }
 
+    /**
+     * Drops the cached latest builds. If called inside a storage session, the cache is dropped again when the
+     * session completes, since concurrent readers may have cached the builds committed before this change.
+     */
+    private void latestBuildsChanged() {
+        latestBuilds.set(new LatestBuilds(null));
+        StorageSession session = StorageSessionHolder.getSession();
+        if (session != null) {
+            session.getOrCreateResource(LatestBuildsSessionResource.class).latestBuilds = latestBuilds;
+        }
+    }
+
     @Override
     public Set<BuildRun> findBuildsByName(String buildName) {
         Set<BuildRun> results = Sets.newHashSet();
@@ -595,4 +633,33 @@ public class BuildStoreServiceImpl implements BuildStoreService {
         }
     }
 
-}
\ No newline at end of file
+    private static class LatestBuilds {
+        @Nullable
+        private final ImmutableList<BuildRun> buildRuns;
+
+        private LatestBuilds(@Nullable ImmutableList<BuildRun> buildRuns) {
+            this.buildRuns = buildRuns;
+        }
+    }
+
+    public static class LatestBuildsSessionResource implements SessionResource {
+        AtomicReference<LatestBuilds> latestBuilds;
+
+        @Override
+        public void onSessionSave() {
+        }
+
+        @Override
+        public void afterCompletion(boolean commit) {
+            if (latestBuilds != null) {
+                latestBuilds.set(new LatestBuilds(null));
+                latestBuilds = null;
+            }
+        }
+
+        @Override
+        public boolean hasPendingResources() {
+            return false;
+        }
+    }
+}
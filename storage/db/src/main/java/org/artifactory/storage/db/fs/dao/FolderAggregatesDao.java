@@ -0,0 +1,315 @@
+/*
+ * Artifactory is a binaries repository manager.
+ * Copyright (C) 2012 JFrog Ltd.
+ *
+ * Artifactory is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Artifactory is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Artifactory.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.artifactory.storage.db.fs.dao;
+
+import org.artifactory.storage.db.DbService;
+import org.artifactory.storage.db.fs.entity.FolderAggregate;
+import org.artifactory.storage.db.fs.entity.FolderAggregateLogEntry;
+import org.artifactory.storage.db.util.BaseDao;
+import org.artifactory.storage.db.util.DbUtils;
+import org.artifactory.storage.db.util.JdbcHelper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+
+import javax.annotation.Nullable;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * A data access object for the folder aggregates table and its log of pending file changes.
+ * <p/>
+ * Rows are keyed by repository and folder path (path and name of the folder, "." for the repository root) and are
+ * only kept for folders that contain files.
+ */
+@Repository
+public class FolderAggregatesDao extends BaseDao {
+    private static final Logger log = LoggerFactory.getLogger(FolderAggregatesDao.class);
+
+    public static final String TABLE_NAME = "folder_aggregates";
+
+    public static final String LOG_TABLE_NAME = "folder_aggregates_log";
+
+    @Autowired
+    public FolderAggregatesDao(JdbcHelper jdbcHelper) {
+        super(jdbcHelper);
+    }
+
+    @Nullable
+    public FolderAggregate get(String repo, String folderPath) throws SQLException {
+        ResultSet resultSet = null;
+        try {
+            resultSet = jdbcHelper.executeSelect("SELECT * FROM folder_aggregates WHERE repo = ? AND folder_path = ?",
+                    repo, dotIfNullOrEmpty(folderPath));
+            if (resultSet.next()) {
+                return aggregateFromResultSet(resultSet);
+            }
+            return null;
+        } finally {
+            DbUtils.close(resultSet);
+        }
+    }
+
+    /**
+     * @return The files count of all the repositories (sum of the repository root aggregates)
+     */
+    public long getTotalFilesCount() throws SQLException {
+        ResultSet resultSet = null;
+        try {
+            resultSet = jdbcHelper.executeSelect(
+                    "SELECT SUM(files_count) FROM folder_aggregates WHERE folder_path = ?", ".");
+            return resultSet.next() ? resultSet.getLong(1) : 0;
+        } finally {
+            DbUtils.close(resultSet);
+        }
+    }
+
+    public boolean hasAggregates() throws SQLException {
+        ResultSet resultSet = null;
+        try {
+            resultSet = jdbcHelper.executeSelectPage("SELECT repo FROM folder_aggregates", 1, 0);
+            return resultSet.next();
+        } finally {
+            DbUtils.close(resultSet);
+        }
+    }
+
+    public int create(FolderAggregate aggregate) throws SQLException {
+        log.debug("Creating folder aggregate {}", aggregate);
+        return jdbcHelper.executeUpdate("INSERT INTO folder_aggregates VALUES (?, ?, ?, ?, ?, ?)",
+                aggregate.getRepo(), dotIfNullOrEmpty(aggregate.getFolderPath()), aggregate.getFilesCount(),
+                aggregate.getFilesSize(), aggregate.getLastModified(), nullIfNoId(aggregate.getLastModifiedId()));
+    }
+
+    /**
+     * Adds the given deltas to the folder aggregate. The latest modified file is replaced only if it is older than the
+     * given one. When the latest modified file is unknown its modification time is still an upper bound, so a newer
+     * file is the latest one anyway. A newer file with no id marks the latest modified file unknown.
+     *
+     * @return The updated rows count, 0 if the folder has no aggregate yet
+     */
+    public int addDelta(String repo, String folderPath, long filesCountDelta, long filesSizeDelta, long modified,
+            long modifiedId) throws SQLException {
+        // last_modified_id is assigned first since some databases (MySQL) evaluate assignments left to right
+        return jdbcHelper.executeUpdate("UPDATE folder_aggregates SET " +
+                "last_modified_id = CASE WHEN last_modified < ? THEN ? ELSE last_modified_id END, " +
+                "last_modified = CASE WHEN last_modified < ? THEN ? ELSE last_modified END, " +
+                "files_count = files_count + ?, files_size = files_size + ? " +
+                "WHERE repo = ? AND folder_path = ?",
+                modified, nullIfNoId(modifiedId), modified, modified, filesCountDelta, filesSizeDelta,
+                repo, dotIfNullOrEmpty(folderPath));
+    }
+
+    /**
+     * Marks the latest modified file of the folder as unknown if it is one of the given nodes.
+     */
+    public int invalidateLastModified(String repo, String folderPath, Collection<Long> nodeIds)
+            throws SQLException {
+        return jdbcHelper.executeUpdate("UPDATE folder_aggregates SET last_modified_id = NULL " +
+                "WHERE repo = ? AND folder_path = ? AND last_modified_id IN (#)",
+                repo, dotIfNullOrEmpty(folderPath), nodeIds);
+    }
+
+    public int invalidateLastModified(String repo, String folderPath) throws SQLException {
+        return jdbcHelper.executeUpdate("UPDATE folder_aggregates SET last_modified_id = NULL " +
+                "WHERE repo = ? AND folder_path = ?", repo, dotIfNullOrEmpty(folderPath));
+    }
+
+    public int updateLastModified(String repo, String folderPath, long modified, long modifiedId)
+            throws SQLException {
+        return jdbcHelper.executeUpdate("UPDATE folder_aggregates SET last_modified = ?, last_modified_id = ? " +
+                "WHERE repo = ? AND folder_path = ?", modified, modifiedId, repo, dotIfNullOrEmpty(folderPath));
+    }
+
+    public int deleteIfEmpty(String repo, String folderPath) throws SQLException {
+        return jdbcHelper.executeUpdate(
+                "DELETE FROM folder_aggregates WHERE repo = ? AND folder_path = ? AND files_count <= 0",
+                repo, dotIfNullOrEmpty(folderPath));
+    }
+
+    public int deleteAll() throws SQLException {
+        log.debug("Deleting all folder aggregates");
+        return jdbcHelper.executeUpdate("DELETE FROM folder_aggregates");
+    }
+
+    public int deleteAll(String repo) throws SQLException {
+        log.debug("Deleting the folder aggregates of '{}'", repo);
+        return jdbcHelper.executeUpdate("DELETE FROM folder_aggregates WHERE repo = ?", repo);
+    }
+
+    /**
+     * @param maxAggregates Maximum number of aggregates to return
+     * @return Aggregates whose latest modified file is unknown
+     */
+    public List<FolderAggregate> getUnknownLastModified(int maxAggregates) throws SQLException {
+        ResultSet resultSet = null;
+        List<FolderAggregate> results = new ArrayList<>();
+        try {
+            resultSet = jdbcHelper.executeSelectPage(
+                    "SELECT * FROM folder_aggregates WHERE last_modified_id IS NULL", maxAggregates, 0);
+            while (resultSet.next()) {
+                results.add(aggregateFromResultSet(resultSet));
+            }
+            return results;
+        } finally {
+            DbUtils.close(resultSet);
+        }
+    }
+
+    public int createLogEntry(FolderAggregateLogEntry entry) throws SQLException {
+        return jdbcHelper.executeUpdate("INSERT INTO folder_aggregates_log VALUES (?, ?, ?, ?, ?, ?, ?, ?)",
+                entry.getLogId(), entry.getRepo(), dotIfNullOrEmpty(entry.getFolderPath()), entry.getNodeId(),
+                entry.getFilesCount(), entry.getFilesSize(), entry.getLastModified(),
+                booleanAsByte(entry.isInvalidatesLastModified()));
+    }
+
+    /**
+     * @param maxEntries Maximum number of entries to return
+     * @return The oldest entries of the log, ordered by log id
+     */
+    public List<FolderAggregateLogEntry> getLogEntries(int maxEntries) throws SQLException {
+        ResultSet resultSet = null;
+        List<FolderAggregateLogEntry> results = new ArrayList<>();
+        try {
+            resultSet = jdbcHelper.executeSelectPage(
+                    "SELECT * FROM folder_aggregates_log ORDER BY log_id", maxEntries, maxEntries);
+            while (resultSet.next()) {
+                results.add(new FolderAggregateLogEntry(resultSet.getLong(1), resultSet.getString(2),
+                        emptyIfNullOrDot(resultSet.getString(3)), resultSet.getLong(4), resultSet.getInt(5),
+                        resultSet.getLong(6), resultSet.getLong(7), resultSet.getInt(8) != 0));
+            }
+            return results;
+        } finally {
+            DbUtils.close(resultSet);
+        }
+    }
+
+    /**
+     * @param topFolder Name of the top-level folder whose log entries to return (recursively). Null for the entries of
+     *                  the files directly under the repository root
+     * @return The ids of the log entries of the files under the top-level folder
+     */
+    public List<Long> getLogEntryIds(String repo, @Nullable String topFolder) throws SQLException {
+        ResultSet resultSet = null;
+        List<Long> results = new ArrayList<>();
+        try {
+            if (topFolder == null) {
+                resultSet = jdbcHelper.executeSelect(
+                        "SELECT log_id FROM folder_aggregates_log WHERE repo = ? AND folder_path = ?",
+                        repo, dotIfNullOrEmpty(null));
+            } else {
+                resultSet = jdbcHelper.executeSelect("SELECT log_id FROM folder_aggregates_log " +
+                        "WHERE repo = ? AND (folder_path = ? OR folder_path LIKE ? ESCAPE '!')",
+                        repo, topFolder, escapeLike(topFolder) + "/%");
+            }
+            while (resultSet.next()) {
+                results.add(resultSet.getLong(1));
+            }
+            return results;
+        } finally {
+            DbUtils.close(resultSet);
+        }
+    }
+
+    public int deleteLogEntries(Collection<Long> logIds) throws SQLException {
+        return jdbcHelper.executeUpdate("DELETE FROM folder_aggregates_log WHERE log_id IN (#)", logIds);
+    }
+
+    /**
+     * @return The sum of the files count deltas of all the log entries
+     */
+    public long getPendingFilesCount() throws SQLException {
+        ResultSet resultSet = null;
+        try {
+            resultSet = jdbcHelper.executeSelect("SELECT SUM(files_delta) FROM folder_aggregates_log");
+            return resultSet.next() ? resultSet.getLong(1) : 0;
+        } finally {
+            DbUtils.close(resultSet);
+        }
+    }
+
+    /**
+     * Merges the log entries of the files under the given folder (recursively) to a single aggregate.
+     *
+     * @return The pending changes of the folder, null if there are none. The last modified id is the latest file of
+     *         the log entries, or unknown if any of them invalidates the latest modified file of the folder
+     */
+    @Nullable
+    public FolderAggregate getPendingChanges(String repo, String folderPath) throws SQLException {
+        String folderCondition = "";
+        List<Object> params = new ArrayList<>();
+        params.add(repo);
+        if (!emptyIfNullOrDot(folderPath).isEmpty()) {
+            folderCondition = " AND (folder_path = ? OR folder_path LIKE ? ESCAPE '!')";
+            params.add(folderPath);
+            params.add(escapeLike(folderPath) + "/%");
+        }
+        ResultSet resultSet = null;
+        long filesCount;
+        long filesSize;
+        long lastModified;
+        long invalidations;
+        try {
+            resultSet = jdbcHelper.executeSelect("SELECT COUNT(*), SUM(files_delta), SUM(size_delta), " +
+                    "MAX(last_modified), SUM(invalidates) FROM folder_aggregates_log WHERE repo = ?" +
+                    folderCondition, params.toArray());
+            if (!resultSet.next() || resultSet.getLong(1) == 0) {
+                return null;
+            }
+            filesCount = resultSet.getLong(2);
+            filesSize = resultSet.getLong(3);
+            lastModified = resultSet.getLong(4);
+            invalidations = resultSet.getLong(5);
+        } finally {
+            DbUtils.close(resultSet);
+        }
+        long lastModifiedId = DbService.NO_DB_ID;
+        if (invalidations == 0) {
+            params.add(lastModified);
+            try {
+                resultSet = jdbcHelper.executeSelectPage("SELECT node_id FROM folder_aggregates_log WHERE repo = ?" +
+                        folderCondition + " AND last_modified = ?", 1, 0, params.toArray());
+                if (resultSet.next()) {
+                    lastModifiedId = resultSet.getLong(1);
+                }
+            } finally {
+                DbUtils.close(resultSet);
+            }
+        }
+        return new FolderAggregate(repo, emptyIfNullOrDot(folderPath), filesCount, filesSize, lastModified,
+                lastModifiedId);
+    }
+
+    private FolderAggregate aggregateFromResultSet(ResultSet rs) throws SQLException {
+        long lastModifiedId = rs.getLong(6);
+        if (rs.wasNull()) {
+            lastModifiedId = DbService.NO_DB_ID;
+        }
+        return new FolderAggregate(rs.getString(1), emptyIfNullOrDot(rs.getString(2)), rs.getLong(3),
+                rs.getLong(4), rs.getLong(5), lastModifiedId);
+    }
+
+    private static Long nullIfNoId(long id) {
+        return id == DbService.NO_DB_ID ? null : id;
+    }
+}
@@ -18,18 +18,25 @@
 
 package org.artifactory.storage.db.fs.dao;
 
+import com.google.common.collect.ListMultimap;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import org.apache.commons.lang.StringUtils;
 import org.artifactory.checksum.ChecksumInfo;
 import org.artifactory.checksum.ChecksumType;
 import org.artifactory.common.ConstantValues;
+import org.artifactory.sapi.fs.Visitor;
 import org.artifactory.storage.StorageException;
 import org.artifactory.storage.db.DbService;
+import org.artifactory.storage.db.fs.entity.FolderAggregate;
 import org.artifactory.storage.db.fs.entity.Node;
 import org.artifactory.storage.db.fs.entity.NodePath;
+import org.artifactory.storage.db.fs.entity.NodeProperty;
 import org.artifactory.storage.db.fs.util.NodeUtils;
 import org.artifactory.storage.db.util.BaseDao;
 import org.artifactory.storage.db.util.DbUtils;
 import org.artifactory.storage.db.util.JdbcHelper;
+import org.artifactory.storage.fs.service.FileService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -39,7 +46,9 @@ import javax.annotation.Nullable;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 
 /**
  * A data access object for node table access.
@@ -190,6 +199,178 @@ public class NodesDao extends BaseDao {
         }
     }
 
+    /**
+     * Loads a page of the children of the given path ordered by name. Pages are chained by passing the name of the last
+     * child of the previous page so the query can seek on the repo, path and name index instead of skipping rows.
+     *
+     * @param path      The parent path
+     * @param afterName Name of the last child of the previous page. Null or empty for the first page
+     * @param pageSize  Maximum number of children to return
+     * @return Up to page size children after the given name, ordered by name
+     */
+    public List<Node> getChildrenPage(NodePath path, @Nullable String afterName, int pageSize)
+            throws SQLException {
+        ResultSet resultSet = null;
+        List<Node> results = Lists.newArrayListWithCapacity(Math.min(pageSize, 1000));
+        try {
+            // the child path must be the path+name of the parent
+            String childPath = path.getPathName();
+            if (StringUtils.isEmpty(afterName)) {
+                resultSet = jdbcHelper.executeSelectPage(SELECT_NODE_QUERY +
+                        "WHERE repo = ? AND node_path = ? AND depth = ? ORDER BY node_name", pageSize, pageSize,
+                        path.getRepo(), dotIfNullOrEmpty(childPath), path.getDepth() + 1);
+            } else {
+                resultSet = jdbcHelper.executeSelectPage(SELECT_NODE_QUERY +
+                        "WHERE repo = ? AND node_path = ? AND depth = ? AND node_name > ? ORDER BY node_name",
+                        pageSize, pageSize, path.getRepo(), dotIfNullOrEmpty(childPath), path.getDepth() + 1,
+                        afterName);
+            }
+            while (resultSet.next()) {
+                results.add(nodeFromResultSet(resultSet));
+            }
+            return results;
+        } finally {
+            DbUtils.close(resultSet);
+        }
+    }
+
+    /**
+     * Loads the children of the given path together with their properties using a single outer join query on the
+     * parent path.
+     *
+     * @param path       The parent path
+     * @param properties Receives the properties of the children, keyed by node id
+     * @return The children nodes
+     */
+    public List<Node> getChildrenWithProperties(NodePath path, ListMultimap<Long, NodeProperty> properties)
+            throws SQLException {
+        ResultSet resultSet = null;
+        List<Node> results = Lists.newArrayList();
+        try {
+            // the child path must be the path+name of the parent
+            String childPath = path.getPathName();
+            resultSet = jdbcHelper.executeSelect("SELECT nodes.*, node_props.prop_id, node_props.prop_key, " +
+                    "node_props.prop_value FROM nodes LEFT OUTER JOIN node_props " +
+                    "ON nodes.node_id = node_props.node_id " +
+                    "WHERE nodes.repo = ? AND nodes.node_path = ? AND nodes.depth = ? ORDER BY nodes.node_id",
+                    path.getRepo(), dotIfNullOrEmpty(childPath), path.getDepth() + 1);
+            long lastNodeId = DbService.NO_DB_ID;
+            while (resultSet.next()) {
+                long nodeId = resultSet.getLong(1);
+                if (nodeId != lastNodeId) {
+                    results.add(nodeFromResultSet(resultSet));
+                    lastNodeId = nodeId;
+                }
+                String propKey = resultSet.getString(18);
+                if (propKey != null) {
+                    properties.put(nodeId, new NodeProperty(resultSet.getLong(17), nodeId, propKey,
+                            emptyIfNull(resultSet.getString(19))));
+                }
+            }
+            return results;
+        } finally {
+            DbUtils.close(resultSet);
+        }
+    }
+
+    /**
+     * Streams the node of the given path and all the nodes below it to the visitor ordered by node path and node name
+     * (backed by the repo, path and name index). The children of each folder are therefore received as one contiguous
+     * block, but a folder is not guaranteed to be received before its children.
+     * Each page is a separate query starting after the path and name of the last node read, so no result set stays
+     * open across pages and drivers reading whole result sets (MySQL) only hold one page in memory.
+     *
+     * @param path     The root of the subtree to stream
+     * @param pageSize The maximum number of nodes read by a single query
+     * @param visitor  Visitor to receive the nodes. A runtime exception thrown by the visitor stops the iteration
+     */
+    public void visitSubtree(NodePath path, int pageSize, Visitor<Node> visitor) throws SQLException {
+        visitSubtree(path, -1, pageSize, visitor);
+    }
+
+    /**
+     * Same as {@link #visitSubtree(NodePath, int, Visitor)}, limited to the nodes up to the given number of levels
+     * below the root of the subtree.
+     *
+     * @param path     The root of the subtree to stream
+     * @param maxDepth Number of levels below the root to stream, 0 for the root only. Negative for no limit
+     * @param pageSize The maximum number of nodes read by a single query
+     * @param visitor  Visitor to receive the nodes. A runtime exception thrown by the visitor stops the iteration
+     */
+    public void visitSubtree(NodePath path, int maxDepth, int pageSize, Visitor<Node> visitor) throws SQLException {
+        StringBuilder subtreeQuery = new StringBuilder(SELECT_NODE_QUERY);
+        List<Object> params = Lists.newArrayList();
+        if (path.isRoot()) {
+            subtreeQuery.append("WHERE repo = ?");
+            params.add(path.getRepo());
+        } else {
+            String pathName = path.getPathName();
+            subtreeQuery.append("WHERE repo = ? AND ((node_path = ? AND node_name = ?) OR node_path = ? OR " +
+                    "node_path LIKE ? ESCAPE '!')");
+            Collections.addAll(params, path.getRepo(), dotIfNullOrEmpty(path.getPath()), path.getName(), pathName,
+                    escapeLike(pathName) + "/%");
+        }
+        if (maxDepth >= 0) {
+            // children are one level deeper than their parent
+            subtreeQuery.append(" AND depth <= ?");
+            params.add(path.getDepth() + maxDepth);
+        }
+        String firstPageQuery = subtreeQuery + " ORDER BY node_path, node_name";
+        String nextPageQuery = subtreeQuery + " AND (node_path > ? OR (node_path = ? AND node_name > ?))" +
+                " ORDER BY node_path, node_name";
+        String lastPath = null;
+        String lastName = null;
+        int nbLines = pageSize;
+        while (nbLines == pageSize) {
+            nbLines = 0;
+            ResultSet resultSet = null;
+            try {
+                if (lastPath == null) {
+                    resultSet = jdbcHelper.executeSelectPage(firstPageQuery, pageSize, pageSize, params.toArray());
+                } else {
+                    List<Object> pageParams = Lists.newArrayList(params);
+                    Collections.addAll(pageParams, lastPath, lastPath, lastName);
+                    resultSet = jdbcHelper.executeSelectPage(nextPageQuery, pageSize, pageSize, pageParams.toArray());
+                }
+                while (resultSet.next()) {
+                    nbLines++;
+                    lastPath = resultSet.getString(4);
+                    lastName = resultSet.getString(5);
+                    visitor.visit(nodeFromResultSet(resultSet));
+                }
+            } finally {
+                DbUtils.close(resultSet);
+            }
+        }
+    }
+
+    /**
+     * Streams the id and name of all the files ordered by node id. Each page is a separate query starting after the
+     * last node id read, so no result set stays open across pages.
+     *
+     * @param pageSize The maximum number of nodes read by a single query
+     * @param visitor  Visitor to receive the file names. A runtime exception thrown by the visitor stops the iteration
+     */
+    public void visitFileNames(int pageSize, FileService.FileNameVisitor visitor) throws SQLException {
+        long lastNodeId = DbService.NO_DB_ID;
+        int nbLines = pageSize;
+        while (nbLines == pageSize) {
+            nbLines = 0;
+            ResultSet resultSet = null;
+            try {
+                resultSet = jdbcHelper.executeSelectPage("SELECT node_id, node_name FROM nodes " +
+                        "WHERE node_type = 1 AND node_id > ? ORDER BY node_id", pageSize, pageSize, lastNodeId);
+                while (resultSet.next()) {
+                    nbLines++;
+                    lastNodeId = resultSet.getLong(1);
+                    visitor.visit(lastNodeId, resultSet.getString(2));
+                }
+            } finally {
+                DbUtils.close(resultSet);
+            }
+        }
+    }
+
     public boolean hasChildren(NodePath path) throws SQLException {
         ResultSet resultSet = null;
         try {
@@ -312,6 +493,100 @@ public class NodesDao extends BaseDao {
         return result;
     }
 
+    /**
+     * @param path The folder to search under (recursively)
+     * @return The file with the latest modification time under the given folder. Null if the folder has no files
+     */
+    @Nullable
+    public Node findLastModifiedFile(NodePath path) throws SQLException {
+        ResultSet resultSet = null;
+        try {
+            if (path.isRoot()) {
+                resultSet = jdbcHelper.executeSelectPage(SELECT_NODE_QUERY +
+                        "WHERE node_type = 1 AND repo = ? ORDER BY modified DESC", 1, 0, path.getRepo());
+            } else {
+                String pathName = path.getPathName();
+                resultSet = jdbcHelper.executeSelectPage(SELECT_NODE_QUERY +
+                        "WHERE node_type = 1 AND repo = ? AND (node_path = ? OR node_path LIKE ? ESCAPE '!') " +
+                        "ORDER BY modified DESC", 1, 0, path.getRepo(), pathName, escapeLike(pathName) + "/%");
+            }
+            if (resultSet.next()) {
+                return nodeFromResultSet(resultSet);
+            }
+            return null;
+        } finally {
+            DbUtils.close(resultSet);
+        }
+    }
+
+    public List<String> getRepoKeys() throws SQLException {
+        ResultSet resultSet = null;
+        List<String> results = Lists.newArrayList();
+        try {
+            resultSet = jdbcHelper.executeSelect("SELECT DISTINCT repo FROM nodes");
+            while (resultSet.next()) {
+                results.add(resultSet.getString(1));
+            }
+            return results;
+        } finally {
+            DbUtils.close(resultSet);
+        }
+    }
+
+    /**
+     * @return The names of the top-level folders of the repository that have files under them (recursively). Taken
+     *         from the paths of the files, not from the folder nodes
+     */
+    public Set<String> getTopLevelFolderNames(String repoKey) throws SQLException {
+        ResultSet resultSet = null;
+        Set<String> results = Sets.newTreeSet();
+        try {
+            resultSet = jdbcHelper.executeSelect(
+                    "SELECT DISTINCT node_path FROM nodes WHERE node_type = 1 AND repo = ?", repoKey);
+            while (resultSet.next()) {
+                String folderPath = emptyIfNullOrDot(resultSet.getString(1));
+                if (!folderPath.isEmpty()) {
+                    int slash = folderPath.indexOf('/');
+                    results.add(slash < 0 ? folderPath : folderPath.substring(0, slash));
+                }
+            }
+            return results;
+        } finally {
+            DbUtils.close(resultSet);
+        }
+    }
+
+    /**
+     * Streams the files count, total size and latest modification time of the files directly under each folder of
+     * a top-level folder (recursively). The last modified id of the visited aggregates is always unknown.
+     *
+     * @param repoKey   The repository to visit
+     * @param topFolder Name of the top-level folder to visit. Null to visit only the files directly under the root
+     * @param visitor   Visitor to receive the folder totals
+     */
+    public void visitFolderFileTotals(String repoKey, @Nullable String topFolder, Visitor<FolderAggregate> visitor)
+            throws SQLException {
+        ResultSet resultSet = null;
+        try {
+            String selectTotals = "SELECT node_path, COUNT(*), SUM(bin_length), MAX(modified) " +
+                    "FROM nodes WHERE node_type = 1 AND repo = ? ";
+            if (topFolder == null) {
+                resultSet = jdbcHelper.executeSelect(selectTotals + "AND node_path = ? GROUP BY node_path",
+                        repoKey, dotIfNullOrEmpty(null));
+            } else {
+                resultSet = jdbcHelper.executeSelect(selectTotals +
+                        "AND (node_path = ? OR node_path LIKE ? ESCAPE '!') GROUP BY node_path",
+                        repoKey, topFolder, escapeLike(topFolder) + "/%");
+            }
+            while (resultSet.next()) {
+                visitor.visit(new FolderAggregate(repoKey, emptyIfNullOrDot(resultSet.getString(1)),
+                        resultSet.getLong(2), resultSet.getLong(3), resultSet.getLong(4), DbService.NO_DB_ID));
+            }
+        } finally {
+            DbUtils.close(resultSet);
+        }
+    }
+
     public List<Node> searchFileByName(String name) throws SQLException {
         ResultSet resultSet = null;
         List<Node> results = new ArrayList<Node>();
@@ -18,6 +18,9 @@
 
 package org.artifactory.storage.db.fs.dao;
 
+import com.google.common.collect.Lists;
+import org.artifactory.storage.db.fs.entity.LastDownloadedNode;
+import org.artifactory.storage.db.fs.entity.NodePath;
 import org.artifactory.storage.db.fs.entity.Stat;
 import org.artifactory.storage.db.util.BaseDao;
 import org.artifactory.storage.db.util.DbUtils;
@@ -30,6 +33,7 @@ import org.springframework.stereotype.Repository;
 import javax.annotation.Nullable;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.List;
 
 /**
  * A data access object for the stats table.
@@ -40,6 +44,13 @@ import java.sql.SQLException;
 public class StatsDao extends BaseDao {
     private static final Logger log = LoggerFactory.getLogger(StatsDao.class);
 
+    public static final String TABLE_NAME = "stats";
+
+    /**
+     * Index on the last download time and node id of the stats, created with the nodes repo and created index
+     */
+    public static final String LAST_DOWNLOADED_INDEX = "stats_last_downloaded_idx";
+
     @Autowired
     public StatsDao(JdbcHelper jdbcHelper) {
         super(jdbcHelper);
@@ -91,6 +102,80 @@ public class StatsDao extends BaseDao {
         }
     }
 
+    /**
+     * Returns a page of the files of a repository that were not downloaded since the given time, ordered by their last
+     * download time and node id. Files that were never downloaded are compared by their creation time.
+     * <p/>
+     * The downloaded and the never downloaded files are read by two keyset queries, backed by the
+     * {@link #LAST_DOWNLOADED_INDEX} index and the nodes repo and created index, and their pages are merged.
+     *
+     * @param repoKey       The repository to search
+     * @param sinceMillis   Only files last downloaded before this time are returned
+     * @param afterDownload Last download time of the last file of the previous page. Long.MIN_VALUE for the first page
+     * @param afterNodeId   Node id of the last file of the previous page
+     * @param maxResults    Max number of files to return
+     */
+    public List<LastDownloadedNode> getFilesNotDownloadedSince(String repoKey, long sinceMillis, long afterDownload,
+            long afterNodeId, int maxResults) throws SQLException {
+        List<LastDownloadedNode> downloaded = findLastUsedPage("SELECT n.node_id, n.repo, n.node_path, n.node_name, " +
+                "s.last_downloaded FROM stats s INNER JOIN nodes n ON n.node_id = s.node_id " +
+                "WHERE s.last_downloaded < ? " +
+                "AND (s.last_downloaded > ? OR (s.last_downloaded = ? AND s.node_id > ?)) " +
+                "AND n.repo = ? AND n.node_type = 1 " +
+                "ORDER BY s.last_downloaded, s.node_id", maxResults,
+                sinceMillis, afterDownload, afterDownload, afterNodeId, repoKey);
+        List<LastDownloadedNode> neverDownloaded = findLastUsedPage("SELECT n.node_id, n.repo, n.node_path, " +
+                "n.node_name, n.created FROM nodes n " +
+                "WHERE n.repo = ? AND n.created < ? AND (n.created > ? OR (n.created = ? AND n.node_id > ?)) " +
+                "AND n.node_type = 1 AND NOT EXISTS (SELECT 1 FROM stats s WHERE s.node_id = n.node_id) " +
+                "ORDER BY n.created, n.node_id", maxResults,
+                repoKey, sinceMillis, afterDownload, afterDownload, afterNodeId);
+        return mergeLastUsedPages(downloaded, neverDownloaded, maxResults);
+    }
+
+    private List<LastDownloadedNode> findLastUsedPage(String query, int maxResults, Object... params)
+            throws SQLException {
+        List<LastDownloadedNode> results = Lists.newArrayList();
+        ResultSet resultSet = null;
+        try {
+            resultSet = jdbcHelper.executeSelectPage(query, maxResults, maxResults, params);
+            while (resultSet.next()) {
+                NodePath nodePath = new NodePath(resultSet.getString(2), emptyIfNullOrDot(resultSet.getString(3)),
+                        emptyIfNullOrDot(resultSet.getString(4)));
+                results.add(new LastDownloadedNode(resultSet.getLong(1), nodePath, resultSet.getLong(5)));
+            }
+            return results;
+        } finally {
+            DbUtils.close(resultSet);
+        }
+    }
+
+    /**
+     * Merges two pages ordered by last used time and node id, keeping the first max results nodes
+     */
+    private List<LastDownloadedNode> mergeLastUsedPages(List<LastDownloadedNode> first,
+            List<LastDownloadedNode> second, int maxResults) {
+        List<LastDownloadedNode> results = Lists.newArrayListWithCapacity(Math.min(maxResults,
+                first.size() + second.size()));
+        int i = 0;
+        int j = 0;
+        while (results.size() < maxResults && (i < first.size() || j < second.size())) {
+            if (j == second.size() || (i < first.size() && isUsedBefore(first.get(i), second.get(j)))) {
+                results.add(first.get(i++));
+            } else {
+                results.add(second.get(j++));
+            }
+        }
+        return results;
+    }
+
+    private boolean isUsedBefore(LastDownloadedNode node, LastDownloadedNode other) {
+        if (node.getLastDownloaded() != other.getLastDownloaded()) {
+            return node.getLastDownloaded() < other.getLastDownloaded();
+        }
+        return node.getNodeId() < other.getNodeId();
+    }
+
     private Stat statFromResultSet(ResultSet rs) throws SQLException {
         return new Stat(rs.getLong(1), rs.getLong(2), rs.getLong(3), rs.getString(4));
     }
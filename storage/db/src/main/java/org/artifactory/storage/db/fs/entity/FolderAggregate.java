@@ -0,0 +1,81 @@
+/*
+ * Artifactory is a binaries repository manager.
+ * Copyright (C) 2012 JFrog Ltd.
+ *
+ * Artifactory is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Artifactory is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Artifactory.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.artifactory.storage.db.fs.entity;
+
+import org.artifactory.storage.db.DbService;
+
+/**
+ * Represents a record in the folder aggregates table: the files count, total size and latest modification time of
+ * all the files under a folder (recursively). The repository root folder path is ".".
+ */
+public class FolderAggregate {
+    private final String repo;
+    private final String folderPath;
+    private final long filesCount;
+    private final long filesSize;
+    private final long lastModified;
+    private final long lastModifiedId;
+
+    public FolderAggregate(String repo, String folderPath, long filesCount, long filesSize, long lastModified,
+            long lastModifiedId) {
+        this.repo = repo;
+        this.folderPath = folderPath;
+        this.filesCount = filesCount;
+        this.filesSize = filesSize;
+        this.lastModified = lastModified;
+        this.lastModifiedId = lastModifiedId;
+    }
+
+    public String getRepo() {
+        return repo;
+    }
+
+    public String getFolderPath() {
+        return folderPath;
+    }
+
+    public long getFilesCount() {
+        return filesCount;
+    }
+
+    public long getFilesSize() {
+        return filesSize;
+    }
+
+    public long getLastModified() {
+        return lastModified;
+    }
+
+    /**
+     * @return Id of the file node with the latest modification time or {@link DbService#NO_DB_ID} if it is unknown
+     *         (the file was deleted or the aggregate was recalculated) and should be looked up again
+     */
+    public long getLastModifiedId() {
+        return lastModifiedId;
+    }
+
+    public boolean isLastModifiedKnown() {
+        return lastModifiedId != DbService.NO_DB_ID;
+    }
+
+    @Override
+    public String toString() {
+        return repo + ":" + folderPath + "|" + filesCount + "|" + filesSize + "|" + lastModified;
+    }
+}
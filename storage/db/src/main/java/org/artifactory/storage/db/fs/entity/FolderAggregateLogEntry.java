@@ -0,0 +1,93 @@
+/*
+ * Artifactory is a binaries repository manager.
+ * Copyright (C) 2012 JFrog Ltd.
+ *
+ * Artifactory is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Artifactory is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Artifactory.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.artifactory.storage.db.fs.entity;
+
+/**
+ * Represents a record in the folder aggregates log: a single file change, not yet added to the aggregates of the
+ * ancestor folders. The folder path is the path of the folder directly containing the file, "." for the repository
+ * root.
+ */
+public class FolderAggregateLogEntry {
+    private final long logId;
+    private final String repo;
+    private final String folderPath;
+    private final long nodeId;
+    private final int filesCount;
+    private final long filesSize;
+    private final long lastModified;
+    private final boolean invalidatesLastModified;
+
+    public FolderAggregateLogEntry(long logId, String repo, String folderPath, long nodeId, int filesCount,
+            long filesSize, long lastModified, boolean invalidatesLastModified) {
+        this.logId = logId;
+        this.repo = repo;
+        this.folderPath = folderPath;
+        this.nodeId = nodeId;
+        this.filesCount = filesCount;
+        this.filesSize = filesSize;
+        this.lastModified = lastModified;
+        this.invalidatesLastModified = invalidatesLastModified;
+    }
+
+    public long getLogId() {
+        return logId;
+    }
+
+    public String getRepo() {
+        return repo;
+    }
+
+    public String getFolderPath() {
+        return folderPath;
+    }
+
+    public long getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * @return The files count delta: 1 for a created file, -1 for a deleted file and 0 for an updated file
+     */
+    public int getFilesCount() {
+        return filesCount;
+    }
+
+    public long getFilesSize() {
+        return filesSize;
+    }
+
+    /**
+     * @return The modification time of the created or updated file, {@link Long#MIN_VALUE} for a deleted file
+     */
+    public long getLastModified() {
+        return lastModified;
+    }
+
+    /**
+     * @return True if the file can no longer be the latest modified file of its folders (it was deleted or its
+     *         modification time moved backwards)
+     */
+    public boolean isInvalidatesLastModified() {
+        return invalidatesLastModified;
+    }
+
+    @Override
+    public String toString() {
+        return logId + ":" + repo + ":" + folderPath + "|" + nodeId + "|" + filesCount + "|" + filesSize;
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * Artifactory is a binaries repository manager.
+ * Copyright (C) 2012 JFrog Ltd.
+ *
+ * Artifactory is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Artifactory is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Artifactory.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.artifactory.storage.db.fs.entity;
+
+/**
+ * A file node with the last time it was downloaded, or created if it was never downloaded.
+ */
+public class LastDownloadedNode {
+    private final long nodeId;
+    private final NodePath nodePath;
+    private final long lastDownloaded;
+
+    public LastDownloadedNode(long nodeId, NodePath nodePath, long lastDownloaded) {
+        this.nodeId = nodeId;
+        this.nodePath = nodePath;
+        this.lastDownloaded = lastDownloaded;
+    }
+
+    public long getNodeId() {
+        return nodeId;
+    }
+
+    public NodePath getNodePath() {
+        return nodePath;
+    }
+
+    public long getLastDownloaded() {
+        return lastDownloaded;
+    }
+}
@@ -32,6 +32,7 @@ import org.artifactory.sapi.fs.MutableVfsFile;
 import org.artifactory.storage.binstore.service.InternalBinaryStore;
 import org.artifactory.storage.fs.VfsException;
 import org.artifactory.storage.fs.repo.StoringRepo;
+import org.artifactory.storage.fs.service.FolderAggregatesService;
 import org.artifactory.storage.fs.service.StatsService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -171,6 +172,7 @@ public class DbMutableFile extends DbMutableItem<MutableFileInfo> implements Mut
     protected void doDeleteInternal() {
         // delete file specific data
         getStatsService().deleteStats(id);
+        getFolderAggregatesService().fileDeleted(id, (FileInfo) getOriginalInfo());
     }
 
     @Override
@@ -179,12 +181,14 @@ public class DbMutableFile extends DbMutableItem<MutableFileInfo> implements Mut
         if (stats != null) {
             getStatsService().setStats(nodeId, stats);
         }
+        getFolderAggregatesService().fileCreated(nodeId, mutableInfo);
         return nodeId;
     }
 
     @Override
     protected void doUpdateNode() {
         getFileService().updateFile(id, mutableInfo);
+        getFolderAggregatesService().fileUpdated(id, (FileInfo) getOriginalInfo(), mutableInfo);
         // stats are not updatable by mutable file
     }
 
@@ -216,4 +220,8 @@ public class DbMutableFile extends DbMutableItem<MutableFileInfo> implements Mut
         return ContextHelper.get().beanForType(StatsService.class);
     }
 
+    protected FolderAggregatesService getFolderAggregatesService() {
+        return ContextHelper.get().beanForType(FolderAggregatesService.class);
+    }
+
 }
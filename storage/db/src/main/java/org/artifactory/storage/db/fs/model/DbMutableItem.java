@@ -233,6 +233,13 @@ public abstract class DbMutableItem<T extends MutableItemInfo> extends DbFsItem<
         resetAfterSave();
     }
 
+    /**
+     * @return The item info as it was last loaded or saved
+     */
+    protected ItemInfo getOriginalInfo() {
+        return originalInfo;
+    }
+
     protected void resetAfterSave() {
         markForDeletion = false;
         watchesToAdd = null;
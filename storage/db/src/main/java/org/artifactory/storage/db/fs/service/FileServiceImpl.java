@@ -18,9 +18,12 @@
 
 package org.artifactory.storage.db.fs.service;
 
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ListMultimap;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 import org.apache.commons.lang.StringUtils;
+import org.artifactory.api.repo.ChildrenPage;
 import org.artifactory.api.repo.exception.FileExpectedException;
 import org.artifactory.api.repo.exception.FolderExpectedException;
 import org.artifactory.checksum.ChecksumInfo;
@@ -30,22 +33,27 @@ import org.artifactory.common.ConstantValues;
 import org.artifactory.fs.FileInfo;
 import org.artifactory.fs.FolderInfo;
 import org.artifactory.fs.ItemInfo;
+import org.artifactory.md.Properties;
 import org.artifactory.model.common.RepoPathImpl;
 import org.artifactory.model.xstream.fs.FileInfoImpl;
 import org.artifactory.model.xstream.fs.FolderInfoImpl;
+import org.artifactory.model.xstream.fs.PropertiesImpl;
 import org.artifactory.repo.RepoPath;
 import org.artifactory.sapi.fs.VfsItem;
+import org.artifactory.sapi.fs.Visitor;
 import org.artifactory.storage.db.DbService;
 import org.artifactory.storage.db.fs.dao.NodesDao;
 import org.artifactory.storage.db.fs.entity.Node;
 import org.artifactory.storage.db.fs.entity.NodeBuilder;
 import org.artifactory.storage.db.fs.entity.NodePath;
+import org.artifactory.storage.db.fs.entity.NodeProperty;
 import org.artifactory.storage.db.fs.model.DbFsFile;
 import org.artifactory.storage.db.fs.model.DbFsFolder;
 import org.artifactory.storage.fs.VfsException;
 import org.artifactory.storage.fs.VfsItemNotFoundException;
 import org.artifactory.storage.fs.repo.StoringRepo;
 import org.artifactory.storage.fs.service.FileService;
+import org.artifactory.storage.fs.service.FolderAggregatesService;
 import org.artifactory.util.PathValidator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -53,8 +61,10 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import java.sql.SQLException;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -71,6 +81,9 @@ public class FileServiceImpl implements FileService {
     @Autowired
     private NodesDao nodesDao;
 
+    @Autowired
+    private FolderAggregatesService aggregatesService;
+
     @Override
     public boolean exists(RepoPath repoPath) throws VfsException {
         try {
@@ -259,8 +272,92 @@ public class FileServiceImpl implements FileService {
         }
     }
 
+    @Override
+    @Nonnull
+    public ChildrenPage loadChildren(RepoPath repoPath, @Nullable String continuation, int pageSize)
+            throws VfsException {
+        // the token is the name of the last child of the previous page
+        if (continuation != null && continuation.indexOf('/') >= 0) {
+            throw new IllegalArgumentException("Invalid children continuation token: " + continuation);
+        }
+        try {
+            List<Node> childrenNode = nodesDao.getChildrenPage(NodePath.fromRepoPath(repoPath), continuation,
+                    pageSize);
+            List<ItemInfo> children = Lists.newArrayListWithCapacity(childrenNode.size());
+            for (Node child : childrenNode) {
+                children.add(itemInfoFromNode(child));
+            }
+            String nextContinuation = null;
+            if (childrenNode.size() >= pageSize) {
+                Node lastChild = childrenNode.get(childrenNode.size() - 1);
+                nextContinuation = lastChild.getName();
+            }
+            return new ChildrenPage(children, nextContinuation);
+        } catch (SQLException e) {
+            throw new VfsException("Failed to load children page for node '" + repoPath + "'", e);
+        }
+    }
+
+    @Override
+    public List<ItemInfo> loadChildren(RepoPath repoPath, Map<RepoPath, Properties> childrenProperties)
+            throws VfsException {
+        try {
+            ListMultimap<Long, NodeProperty> nodesProperties = ArrayListMultimap.create();
+            List<Node> childrenNode = nodesDao.getChildrenWithProperties(NodePath.fromRepoPath(repoPath),
+                    nodesProperties);
+            List<ItemInfo> children = Lists.newArrayList();
+            for (Node child : childrenNode) {
+                ItemInfo childInfo = itemInfoFromNode(child);
+                children.add(childInfo);
+                List<NodeProperty> nodeProperties = nodesProperties.get(child.getNodeId());
+                if (!nodeProperties.isEmpty()) {
+                    PropertiesImpl properties = new PropertiesImpl();
+                    for (NodeProperty nodeProperty : nodeProperties) {
+                        properties.put(nodeProperty.getPropKey(), nodeProperty.getPropValue());
+                    }
+                    childrenProperties.put(childInfo.getRepoPath(), properties);
+                }
+            }
+            return children;
+        } catch (SQLException e) {
+            throw new VfsException("Failed to load children with properties for node '" + repoPath + "'", e);
+        }
+    }
+
+    @Override
+    public void visitSubtree(RepoPath repoPath, Visitor<ItemInfo> visitor) throws VfsException {
+        visitSubtree(repoPath, -1, visitor);
+    }
+
+    @Override
+    public void visitSubtree(RepoPath repoPath, int maxDepth, final Visitor<ItemInfo> visitor) throws VfsException {
+        try {
+            int pageSize = ConstantValues.subtreePageSize.getInt();
+            nodesDao.visitSubtree(NodePath.fromRepoPath(repoPath), maxDepth, pageSize, new Visitor<Node>() {
+                @Override
+                public void visit(Node node) {
+                    visitor.visit(itemInfoFromNode(node));
+                }
+            });
+        } catch (SQLException e) {
+            throw new VfsException("Failed to visit subtree of node '" + repoPath + "'", e);
+        }
+    }
+
+    @Override
+    public void visitFileNames(int pageSize, FileNameVisitor visitor) throws VfsException {
+        try {
+            nodesDao.visitFileNames(pageSize, visitor);
+        } catch (SQLException e) {
+            throw new VfsException("Failed to visit file names", e);
+        }
+    }
+
     @Override
     public int getFilesCount() throws VfsException {
+        if (aggregatesService.isReady()) {
+            return (int) aggregatesService.getFilesCount();
+        }
         try {
             return nodesDao.getFilesCount();
         } catch (SQLException e) {
@@ -270,6 +367,9 @@ public class FileServiceImpl implements FileService {
 
     @Override
     public int getFilesCount(RepoPath repoPath) throws VfsException {
+        if (aggregatesService.isReady()) {
+            return (int) aggregatesService.getFilesCount(repoPath);
+        }
         try {
             if (repoPath.isRoot()) {
                 return nodesDao.getFilesCount(repoPath.getRepoKey());
@@ -283,6 +383,9 @@ public class FileServiceImpl implements FileService {
 
     @Override
     public long getFilesTotalCount(RepoPathImpl repoPath) {
+        if (aggregatesService.isReady()) {
+            return aggregatesService.getFilesSize(repoPath);
+        }
         try {
             if (repoPath.isRoot()) {
                 return nodesDao.getFilesTotalSize(repoPath.getRepoKey());
@@ -307,6 +410,22 @@ public class FileServiceImpl implements FileService {
         }
     }
 
+    @Override
+    public FileInfo loadLastModifiedFile(RepoPath repoPath) throws VfsException {
+        try {
+            Node node;
+            if (aggregatesService.isReady()) {
+                long nodeId = aggregatesService.getLastModifiedFileId(repoPath);
+                node = nodeId == DbService.NO_DB_ID ? null : nodesDao.get(nodeId);
+            } else {
+                node = nodesDao.findLastModifiedFile(NodePath.fromRepoPath(repoPath));
+            }
+            return node != null ? fileInfoFromNode(node) : null;
+        } catch (SQLException e) {
+            throw new VfsException("Failed to find the last modified file under '" + repoPath + "'", e);
+        }
+    }
+
     @Override
     public List<FileInfo> searchFilesByProperty(String repo, String propKey, String propValue) {
         try {
@@ -0,0 +1,541 @@
+/*
+ * Artifactory is a binaries repository manager.
+ * Copyright (C) 2012 JFrog Ltd.
+ *
+ * Artifactory is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Artifactory is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Artifactory.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.artifactory.storage.db.fs.service;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import org.artifactory.api.context.ContextHelper;
+import org.artifactory.common.ConstantValues;
+import org.artifactory.fs.FileInfo;
+import org.artifactory.model.common.RepoPathImpl;
+import org.artifactory.repo.RepoPath;
+import org.artifactory.sapi.fs.Visitor;
+import org.artifactory.storage.db.DbService;
+import org.artifactory.storage.db.fs.dao.FolderAggregatesDao;
+import org.artifactory.storage.db.fs.dao.NodesDao;
+import org.artifactory.storage.db.fs.entity.FolderAggregate;
+import org.artifactory.storage.db.fs.entity.FolderAggregateLogEntry;
+import org.artifactory.storage.db.fs.entity.Node;
+import org.artifactory.storage.db.fs.entity.NodePath;
+import org.artifactory.storage.db.spring.DbTransactionManager;
+import org.artifactory.storage.fs.VfsException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+
+import javax.annotation.Nullable;
+import javax.annotation.PostConstruct;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Maintains the folder aggregates table from a log of file changes.
+ * <p/>
+ * Each file change is written to the folder aggregates log table in the transaction of the change itself, so a
+ * committed change is never lost. The log is periodically flushed: each change is added to every ancestor folder of
+ * the file, up to the repository root, merged per folder, and removed from the log in the same transaction. This
+ * keeps hot rows (like the repository roots) out of the deploy transactions. Reads add the changes still in the log
+ * to the stored aggregates and never write.
+ * <p/>
+ * A delete (or an update moving the modification time backwards) of the latest modified file of a folder only marks
+ * that file as unknown. Reads then look it up from the nodes table, and the next flush stores it again.
+ */
+@Service
+public class FolderAggregatesServiceImpl implements InternalFolderAggregatesService {
+    private static final Logger log = LoggerFactory.getLogger(FolderAggregatesServiceImpl.class);
+
+    /**
+     * Maximum number of log entries removed by a single statement
+     */
+    private static final int MAX_LOG_IDS_PER_DELETE = 500;
+
+    /**
+     * Maximum number of unknown latest modified files looked up by a single flush
+     */
+    private static final int MAX_LAST_MODIFIED_LOOKUPS = 100;
+
+    @Autowired
+    private FolderAggregatesDao aggregatesDao;
+
+    @Autowired
+    private NodesDao nodesDao;
+
+    @Autowired
+    private DbService dbService;
+
+    @Autowired
+    private DbTransactionManager transactionManager;
+
+    private boolean enabled;
+
+    private volatile boolean ready;
+
+    private volatile boolean recalculationRequired;
+
+    @PostConstruct
+    private void init() throws SQLException {
+        enabled = ConstantValues.folderAggregatesEnabled.getBoolean();
+        if (enabled) {
+            recalculationRequired = ConstantValues.folderAggregatesRecalculateOnStartup.getBoolean() ||
+                    !aggregatesDao.hasAggregates();
+            ready = !recalculationRequired;
+        }
+    }
+
+    @Override
+    public boolean isReady() {
+        return ready;
+    }
+
+    @Override
+    public void fileCreated(long nodeId, FileInfo file) {
+        addLogEntry(nodeId, file.getRepoPath(), 1, file.getSize(), file.getLastModified(), false);
+    }
+
+    @Override
+    public void fileUpdated(long nodeId, FileInfo original, FileInfo updated) {
+        long sizeDelta = updated.getSize() - original.getSize();
+        if (sizeDelta == 0 && updated.getLastModified() == original.getLastModified()) {
+            return;
+        }
+        boolean movedBackwards = updated.getLastModified() < original.getLastModified();
+        addLogEntry(nodeId, updated.getRepoPath(), 0, sizeDelta, updated.getLastModified(), movedBackwards);
+    }
+
+    @Override
+    public void fileDeleted(long nodeId, FileInfo file) {
+        addLogEntry(nodeId, file.getRepoPath(), -1, -file.getSize(), Long.MIN_VALUE, true);
+    }
+
+    private void addLogEntry(long nodeId, RepoPath repoPath, int filesCount, long filesSize, long lastModified,
+            boolean invalidatesLastModified) {
+        if (!enabled) {
+            return;
+        }
+        FolderAggregateLogEntry entry = new FolderAggregateLogEntry(dbService.nextId(), repoPath.getRepoKey(),
+                getParentPath(repoPath.getPath()), nodeId, filesCount, filesSize, lastModified,
+                invalidatesLastModified);
+        try {
+            aggregatesDao.createLogEntry(entry);
+        } catch (SQLException e) {
+            throw new VfsException("Failed to log the folder aggregates change of " + repoPath, e);
+        }
+    }
+
+    @Override
+    public long getFilesCount() {
+        try {
+            return aggregatesDao.getTotalFilesCount() + aggregatesDao.getPendingFilesCount();
+        } catch (SQLException e) {
+            throw new VfsException("Failed to read the total files count", e);
+        }
+    }
+
+    @Override
+    public long getFilesCount(RepoPath repoPath) {
+        FolderAggregate aggregate = loadAggregate(repoPath);
+        return aggregate != null ? aggregate.getFilesCount() : 0;
+    }
+
+    @Override
+    public long getFilesSize(RepoPath repoPath) {
+        FolderAggregate aggregate = loadAggregate(repoPath);
+        return aggregate != null ? aggregate.getFilesSize() : 0;
+    }
+
+    @Override
+    public long getLastModifiedFileId(RepoPath repoPath) {
+        FolderAggregate aggregate = loadAggregate(repoPath);
+        if (aggregate == null || aggregate.getFilesCount() <= 0) {
+            return DbService.NO_DB_ID;
+        }
+        if (aggregate.isLastModifiedKnown()) {
+            return aggregate.getLastModifiedId();
+        }
+        try {
+            // stored again by the next flush
+            Node node = nodesDao.findLastModifiedFile(NodePath.fromRepoPath(repoPath));
+            return node != null ? node.getNodeId() : DbService.NO_DB_ID;
+        } catch (SQLException e) {
+            throw new VfsException("Failed to find the last modified file under " + repoPath, e);
+        }
+    }
+
+    private FolderAggregate loadAggregate(RepoPath repoPath) {
+        String repoKey = repoPath.getRepoKey();
+        String folderPath = repoPath.getPath();
+        try {
+            return merge(aggregatesDao.get(repoKey, folderPath), aggregatesDao.getPendingChanges(repoKey, folderPath));
+        } catch (SQLException e) {
+            throw new VfsException("Failed to load the folder aggregate of " + repoPath, e);
+        }
+    }
+
+    /**
+     * Adds the changes still in the log to a stored aggregate
+     */
+    @Nullable
+    private static FolderAggregate merge(@Nullable FolderAggregate stored, @Nullable FolderAggregate pending) {
+        if (pending == null) {
+            return stored;
+        }
+        if (stored == null) {
+            return pending;
+        }
+        long lastModified;
+        long lastModifiedId;
+        if (pending.isLastModifiedKnown() && pending.getLastModified() > stored.getLastModified()) {
+            // a newer pending file is the latest whether or not the stored one is known
+            lastModified = pending.getLastModified();
+            lastModifiedId = pending.getLastModifiedId();
+        } else if (stored.isLastModifiedKnown() && pending.isLastModifiedKnown()) {
+            lastModified = stored.getLastModified();
+            lastModifiedId = stored.getLastModifiedId();
+        } else {
+            lastModified = Math.max(stored.getLastModified(), pending.getLastModified());
+            lastModifiedId = DbService.NO_DB_ID;
+        }
+        return new FolderAggregate(stored.getRepo(), stored.getFolderPath(),
+                stored.getFilesCount() + pending.getFilesCount(), stored.getFilesSize() + pending.getFilesSize(),
+                lastModified, lastModifiedId);
+    }
+
+    @Override
+    public synchronized void flush() {
+        if (!enabled) {
+            return;
+        }
+        if (recalculationRequired) {
+            recalculate();
+            return;
+        }
+        InternalFolderAggregatesService txAggregatesService =
+                ContextHelper.get().beanForType(InternalFolderAggregatesService.class);
+        try {
+            boolean moreEntries = true;
+            while (moreEntries) {
+                moreEntries = txAggregatesService.doFlush();
+            }
+        } catch (RuntimeException e) {
+            // the flush transaction was rolled back, its log entries are flushed again by the next run
+            log.error("Failed to flush the folder aggregates: " + e.getMessage());
+            log.debug("Failed to flush the folder aggregates", e);
+        }
+    }
+
+    @Override
+    public boolean doFlush() {
+        int batchSize = ConstantValues.folderAggregatesFlushBatchSize.getInt();
+        try {
+            List<FolderAggregateLogEntry> entries = aggregatesDao.getLogEntries(batchSize);
+            if (!entries.isEmpty()) {
+                List<Long> logIds = Lists.newArrayListWithCapacity(entries.size());
+                for (FolderAggregateLogEntry entry : entries) {
+                    logIds.add(entry.getLogId());
+                }
+                deleteLogEntries(logIds);
+                Map<FolderKey, FolderDelta> deltas = rollUp(entries);
+                log.debug("Flushing {} log entries to {} folder aggregates", entries.size(), deltas.size());
+                for (Map.Entry<FolderKey, FolderDelta> entry : deltas.entrySet()) {
+                    applyDelta(entry.getKey(), entry.getValue());
+                }
+            }
+            if (entries.size() < batchSize) {
+                storeUnknownLastModified();
+                return false;
+            }
+            return true;
+        } catch (SQLException e) {
+            throw new VfsException("Failed to flush the folder aggregates", e);
+        }
+    }
+
+    /**
+     * Removes log entries about to be applied. Fails if another flush (of another cluster node) already removed any
+     * of them, so the transaction is rolled back before the entries are applied twice.
+     */
+    private void deleteLogEntries(List<Long> logIds) throws SQLException {
+        int deleted = 0;
+        for (List<Long> ids : Lists.partition(logIds, MAX_LOG_IDS_PER_DELETE)) {
+            deleted += aggregatesDao.deleteLogEntries(ids);
+        }
+        if (deleted != logIds.size()) {
+            throw new VfsException("Folder aggregates log entries were flushed concurrently: " +
+                    (logIds.size() - deleted) + " of " + logIds.size() + " entries were already removed");
+        }
+    }
+
+    /**
+     * Adds each log entry to every ancestor folder of its file, up to the repository root
+     */
+    private static Map<FolderKey, FolderDelta> rollUp(List<FolderAggregateLogEntry> entries) {
+        Map<FolderKey, FolderDelta> deltas = Maps.newLinkedHashMap();
+        for (FolderAggregateLogEntry entry : entries) {
+            String folderPath = entry.getFolderPath();
+            while (folderPath != null) {
+                FolderKey key = new FolderKey(entry.getRepo(), folderPath);
+                FolderDelta delta = deltas.get(key);
+                if (delta == null) {
+                    delta = new FolderDelta();
+                    deltas.put(key, delta);
+                }
+                delta.add(entry);
+                folderPath = getParentPath(folderPath);
+            }
+        }
+        return deltas;
+    }
+
+    private void applyDelta(FolderKey key, FolderDelta delta) throws SQLException {
+        if (delta.lastModifiedLost) {
+            aggregatesDao.invalidateLastModified(key.repo, key.folderPath);
+        } else if (!delta.invalidatedIds.isEmpty()) {
+            aggregatesDao.invalidateLastModified(key.repo, key.folderPath, delta.invalidatedIds);
+        }
+        int updated = aggregatesDao.addDelta(key.repo, key.folderPath, delta.filesCount, delta.filesSize,
+                delta.lastModified, delta.lastModifiedId);
+        if (updated == 0 && delta.filesCount > 0) {
+            aggregatesDao.create(new FolderAggregate(key.repo, key.folderPath, delta.filesCount,
+                    delta.filesSize, delta.lastModified, delta.lastModifiedId));
+        } else if (delta.filesCount < 0) {
+            aggregatesDao.deleteIfEmpty(key.repo, key.folderPath);
+        }
+    }
+
+    /**
+     * Looks up the latest modified file of the aggregates where it is unknown, so reads don't need to
+     */
+    private void storeUnknownLastModified() throws SQLException {
+        for (FolderAggregate aggregate : aggregatesDao.getUnknownLastModified(MAX_LAST_MODIFIED_LOOKUPS)) {
+            RepoPath folderRepoPath = new RepoPathImpl(aggregate.getRepo(), aggregate.getFolderPath());
+            Node node = nodesDao.findLastModifiedFile(NodePath.fromRepoPath(folderRepoPath));
+            if (node != null) {
+                aggregatesDao.updateLastModified(aggregate.getRepo(), aggregate.getFolderPath(), node.getModified(),
+                        node.getNodeId());
+            } else {
+                aggregatesDao.deleteIfEmpty(aggregate.getRepo(), aggregate.getFolderPath());
+            }
+        }
+    }
+
+    @Override
+    public synchronized void recalculate() {
+        if (!enabled) {
+            return;
+        }
+        log.info("Recalculating folder aggregates");
+        ready = false;
+        try {
+            aggregatesDao.deleteAll();
+            for (String repoKey : nodesDao.getRepoKeys()) {
+                recalculate(repoKey);
+            }
+            recalculationRequired = false;
+            ready = true;
+            log.info("Folder aggregates recalculated");
+        } catch (SQLException e) {
+            throw new VfsException("Failed to recalculate the folder aggregates", e);
+        }
+    }
+
+    /**
+     * Recalculates the aggregates of a repository one chunk at a time: the files directly under the root, then each
+     * top-level folder. A chunk is read in its own short transaction, so the scan never holds the whole repository.
+     * The folders shared by the chunks (the repository root) add up the totals of each chunk.
+     */
+    private void recalculate(String repoKey) throws SQLException {
+        recalculate(repoKey, null);
+        for (String topFolder : nodesDao.getTopLevelFolderNames(repoKey)) {
+            recalculate(repoKey, topFolder);
+        }
+    }
+
+    /**
+     * Recalculates the aggregates of a chunk from a consistent view of its nodes and of its log entries. A change and
+     * its log entry are committed together, so every change visible to the scan has its log entry visible too. Those
+     * entries are removed with the scanned totals stored. Changes committed after the scan stay in the log and are
+     * applied by the next flush, so the chunks don't need to be read at the same time.
+     *
+     * @param topFolder The top-level folder to recalculate, null for the files directly under the root
+     */
+    private void recalculate(String repoKey, @Nullable String topFolder) throws SQLException {
+        Map<String, long[]> totals;
+        List<Long> logIds;
+        TransactionStatus readStatus = transactionManager.getTransaction(
+                newRecalculationDefinition(getConsistentReadIsolationLevel()));
+        try {
+            totals = scanFolderTotals(repoKey, topFolder);
+            logIds = aggregatesDao.getLogEntryIds(repoKey, topFolder);
+        } catch (SQLException | RuntimeException e) {
+            transactionManager.rollback(readStatus);
+            throw e;
+        }
+        transactionManager.commit(readStatus);
+
+        TransactionStatus writeStatus = transactionManager.getTransaction(
+                newRecalculationDefinition(TransactionDefinition.ISOLATION_DEFAULT));
+        try {
+            deleteLogEntries(logIds);
+            log.debug("Recalculated {} folder aggregates of '{}' under '{}', {} log entries already counted",
+                    totals.size(), repoKey, topFolder != null ? topFolder : "", logIds.size());
+            for (Map.Entry<String, long[]> entry : totals.entrySet()) {
+                long[] total = entry.getValue();
+                // the root is shared with the other chunks, and a flush may have created any of them meanwhile
+                int updated = aggregatesDao.addDelta(repoKey, entry.getKey(), total[0], total[1], total[2],
+                        DbService.NO_DB_ID);
+                if (updated == 0) {
+                    aggregatesDao.create(new FolderAggregate(repoKey, entry.getKey(), total[0], total[1], total[2],
+                            DbService.NO_DB_ID));
+                }
+            }
+        } catch (SQLException | RuntimeException e) {
+            transactionManager.rollback(writeStatus);
+            throw e;
+        }
+        transactionManager.commit(writeStatus);
+    }
+
+    private static DefaultTransactionDefinition newRecalculationDefinition(int isolationLevel) {
+        DefaultTransactionDefinition definition = new DefaultTransactionDefinition();
+        definition.setName("FolderAggregatesRecalculation");
+        definition.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        definition.setIsolationLevel(isolationLevel);
+        return definition;
+    }
+
+    /**
+     * @return The isolation level under which the scan and the log of a chunk are read from the same snapshot:
+     *         repeatable read on the databases where it reads a single snapshot (PostgreSQL and MySQL), serializable
+     *         on the others. Oracle serializable reads a snapshot too, and the read transaction never writes so it
+     *         cannot fail to serialize. On the databases without snapshots (Derby and SQL Server) serializable blocks
+     *         the writers of the scanned chunk until its read commits
+     */
+    private int getConsistentReadIsolationLevel() {
+        switch (dbService.getDatabaseType()) {
+            case POSTGRESQL:
+            case MYSQL:
+                return TransactionDefinition.ISOLATION_REPEATABLE_READ;
+            default:
+                return TransactionDefinition.ISOLATION_SERIALIZABLE;
+        }
+    }
+
+    private Map<String, long[]> scanFolderTotals(String repoKey, @Nullable String topFolder) throws SQLException {
+        final Map<String, long[]> totals = Maps.newHashMap();
+        nodesDao.visitFolderFileTotals(repoKey, topFolder, new Visitor<FolderAggregate>() {
+            @Override
+            public void visit(FolderAggregate folderTotals) {
+                String folderPath = folderTotals.getFolderPath();
+                while (folderPath != null) {
+                    long[] total = totals.get(folderPath);
+                    if (total == null) {
+                        total = new long[]{0, 0, Long.MIN_VALUE};
+                        totals.put(folderPath, total);
+                    }
+                    total[0] += folderTotals.getFilesCount();
+                    total[1] += folderTotals.getFilesSize();
+                    total[2] = Math.max(total[2], folderTotals.getLastModified());
+                    folderPath = getParentPath(folderPath);
+                }
+            }
+        });
+        return totals;
+    }
+
+    /**
+     * @return The parent path of the given relative path, empty string for the repository root and null for the
+     *         root itself
+     */
+    private static String getParentPath(String path) {
+        if (path.isEmpty()) {
+            return null;
+        }
+        int lastSlash = path.lastIndexOf('/');
+        return lastSlash < 0 ? "" : path.substring(0, lastSlash);
+    }
+
+    private static class FolderKey {
+        private final String repo;
+        private final String folderPath;
+
+        private FolderKey(String repo, String folderPath) {
+            this.repo = repo;
+            this.folderPath = folderPath;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            FolderKey key = (FolderKey) o;
+            return repo.equals(key.repo) && folderPath.equals(key.folderPath);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * repo.hashCode() + folderPath.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return repo + ":" + folderPath;
+        }
+    }
+
+    /**
+     * The merged changes of a single folder. Once the latest modified file of a folder is invalidated it stays
+     * invalid for the whole flush, since a later candidate cannot tell if it is still the latest one. Invalidating
+     * a candidate of the flush itself loses the previous candidates, so the whole folder is invalidated.
+     */
+    private static class FolderDelta {
+        private long filesCount;
+        private long filesSize;
+        private long lastModified = Long.MIN_VALUE;
+        private long lastModifiedId = DbService.NO_DB_ID;
+        private final Set<Long> invalidatedIds = Sets.newHashSet();
+        private boolean lastModifiedLost;
+
+        private void add(FolderAggregateLogEntry entry) {
+            filesCount += entry.getFilesCount();
+            filesSize += entry.getFilesSize();
+            if (entry.isInvalidatesLastModified()) {
+                invalidatedIds.add(entry.getNodeId());
+                if (lastModifiedId == entry.getNodeId()) {
+                    lastModifiedLost = true;
+                    lastModified = Long.MIN_VALUE;
+                    lastModifiedId = DbService.NO_DB_ID;
+                }
+            } else if (entry.getLastModified() > lastModified) {
+                lastModified = entry.getLastModified();
+                lastModifiedId = entry.getNodeId();
+            }
+        }
+    }
+}
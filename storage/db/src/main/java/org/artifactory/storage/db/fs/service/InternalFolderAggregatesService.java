@@ -0,0 +1,37 @@
+/*
+ * Artifactory is a binaries repository manager.
+ * Copyright (C) 2012 JFrog Ltd.
+ *
+ * Artifactory is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Artifactory is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Artifactory.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.artifactory.storage.db.fs.service;
+
+import org.artifactory.sapi.common.Lock;
+import org.artifactory.storage.fs.service.FolderAggregatesService;
+
+/**
+ * Internal interface for the folder aggregates service to support annotated transactions.
+ */
+public interface InternalFolderAggregatesService extends FolderAggregatesService {
+
+    /**
+     * Applies the oldest entries of the folder aggregates log to the folder aggregates and removes them from the log,
+     * in a single transaction
+     *
+     * @return True if there may be more entries to flush
+     */
+    @Lock
+    boolean doFlush();
+}
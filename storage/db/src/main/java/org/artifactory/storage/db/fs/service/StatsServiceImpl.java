@@ -18,6 +18,7 @@
 
 package org.artifactory.storage.db.fs.service;
 
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import org.artifactory.api.context.ContextHelper;
 import org.artifactory.factory.xstream.XStreamInfoFactory;
@@ -28,9 +29,11 @@ import org.artifactory.repo.RepoPath;
 import org.artifactory.storage.StorageException;
 import org.artifactory.storage.db.DbService;
 import org.artifactory.storage.db.fs.dao.StatsDao;
+import org.artifactory.storage.db.fs.entity.LastDownloadedNode;
 import org.artifactory.storage.db.fs.entity.Stat;
 import org.artifactory.storage.fs.VfsException;
 import org.artifactory.storage.fs.service.FileService;
+import org.artifactory.storage.fs.service.LastDownloadedFile;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -38,6 +41,7 @@ import org.springframework.stereotype.Service;
 
 import java.sql.SQLException;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -131,6 +135,24 @@ public class StatsServiceImpl implements InternalStatsService {
         }
     }
 
+    @Override
+    public List<LastDownloadedFile> getFilesNotDownloadedSince(String repoKey, long sinceMillis, long afterDownload,
+            long afterNodeId, int maxResults) {
+        try {
+            List<LastDownloadedNode> nodes =
+                    statsDao.getFilesNotDownloadedSince(repoKey, sinceMillis, afterDownload, afterNodeId, maxResults);
+            List<LastDownloadedFile> files = Lists.newArrayListWithCapacity(nodes.size());
+            for (LastDownloadedNode node : nodes) {
+                files.add(new LastDownloadedFile(node.getNodeId(), node.getNodePath().toRepoPath(),
+                        node.getLastDownloaded()));
+            }
+            return files;
+        } catch (SQLException e) {
+            throw new VfsException("Failed to search files not downloaded since " + sinceMillis + " in " +
+                    repoKey, e);
+        }
+    }
+
     @Override
     public boolean hasStats(RepoPath repoPath) {
         if (statsEvents.containsKey(repoPath)) {
@@ -0,0 +1,103 @@
+/*
+ * Artifactory is a binaries repository manager.
+ * Copyright (C) 2012 JFrog Ltd.
+ *
+ * Artifactory is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Artifactory is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Artifactory.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.artifactory.storage.db.search.model;
+
+import com.google.common.collect.AbstractIterator;
+import org.apache.commons.lang.StringUtils;
+import org.artifactory.sapi.search.InvalidQueryRuntimeException;
+import org.artifactory.sapi.search.VfsQueryCursor;
+import org.artifactory.sapi.search.VfsQueryRow;
+
+import javax.annotation.Nullable;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * A keyset paginated cursor over a {@link VfsQueryDbImpl}. Each page is a separate query for the nodes with an id
+ * greater than the last one returned, so no database resources are held between pages and the continuation token is
+ * simply the last returned node id.
+ */
+public class VfsQueryCursorDbImpl implements VfsQueryCursor {
+    private final VfsQueryDbImpl query;
+    private final int pageSize;
+    private long lastNodeId;
+    private boolean exhausted;
+    private boolean iterated;
+
+    VfsQueryCursorDbImpl(VfsQueryDbImpl query, long startAfterNodeId, int pageSize) {
+        this.query = query;
+        this.lastNodeId = startAfterNodeId;
+        this.pageSize = pageSize;
+    }
+
+    static long parseContinuationToken(@Nullable String continuationToken) {
+        if (StringUtils.isBlank(continuationToken)) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(continuationToken.trim());
+        } catch (NumberFormatException e) {
+            throw new InvalidQueryRuntimeException("Invalid continuation token: " + continuationToken);
+        }
+    }
+
+    @Override
+    @Nullable
+    public String getContinuationToken() {
+        return exhausted ? null : String.valueOf(lastNodeId);
+    }
+
+    @Override
+    public Iterator<VfsQueryRow> iterator() {
+        if (iterated) {
+            throw new IllegalStateException("A query cursor can only be iterated once");
+        }
+        iterated = true;
+        return new AbstractIterator<VfsQueryRow>() {
+            private Iterator<VfsQueryRowDbImpl> pageRows = null;
+            private boolean lastPage = false;
+
+            @Override
+            protected VfsQueryRow computeNext() {
+                while (pageRows == null || !pageRows.hasNext()) {
+                    if (lastPage) {
+                        exhausted = true;
+                        return endOfData();
+                    }
+                    Page page = query.executePage(lastNodeId, pageSize);
+                    pageRows = page.rows.iterator();
+                    lastPage = !page.hasMore;
+                }
+                VfsQueryRowDbImpl row = pageRows.next();
+                lastNodeId = row.getNodeId();
+                return row;
+            }
+        };
+    }
+
+    static class Page {
+        final List<VfsQueryRowDbImpl> rows;
+        final boolean hasMore;
+
+        Page(List<VfsQueryRowDbImpl> rows, boolean hasMore) {
+            this.rows = rows;
+            this.hasMore = hasMore;
+        }
+    }
+}
@@ -22,11 +22,13 @@ import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import org.apache.commons.lang.StringUtils;
+import org.artifactory.common.ConstantValues;
 import org.artifactory.sapi.search.InvalidQueryRuntimeException;
 import org.artifactory.sapi.search.VfsBoolType;
 import org.artifactory.sapi.search.VfsComparatorType;
 import org.artifactory.sapi.search.VfsFunctionType;
 import org.artifactory.sapi.search.VfsQuery;
+import org.artifactory.sapi.search.VfsQueryCursor;
 import org.artifactory.sapi.search.VfsQueryResult;
 import org.artifactory.sapi.search.VfsQueryResultType;
 import org.artifactory.sapi.search.VfsQueryRow;
@@ -66,6 +68,8 @@ public class VfsQueryDbImpl implements VfsQuery {
     private final BaseGroupCriterion defaultGroup;
     protected final List<VfsQueryPathCriterionDbImpl> pathCriteria = Lists.newArrayList();
     private final List<OrderBy> orders = Lists.newArrayList();
+    private List<Long> nodeIds = null;
+    private Integer exactDepth = null;
 
     // TODO: Should be a stack
     private BaseGroupCriterion currentGroup = null;
@@ -227,14 +231,12 @@ public class VfsQueryDbImpl implements VfsQuery {
     @Override
     @Nonnull
     public VfsQueryResult execute(int limit) {
-        if (currentGroup != null) {
-            throw new IllegalStateException("Cannot execute while group still active!");
-        }
-        addCurrentCriteriaIfNeeded();
+        prepareExecute();
         DbSqlQueryBuilder query = new DbSqlQueryBuilder();
         fillSelectBase(query);
         fillExpectedNodeType(query);
         fillRepoFilter(query);
+        fillNodeIdsFilter(query);
         fillPathCriterion(query);
         fillLimitCriterion(query, limit);
         fillCriteria(query);
@@ -243,11 +245,133 @@ public class VfsQueryDbImpl implements VfsQuery {
         return executeSelect(query, limit);
     }
 
+    @Override
+    @Nonnull
+    public VfsQueryCursor executeCursor(@Nullable String continuationToken, int pageSize) {
+        if (!orders.isEmpty()) {
+            throw new InvalidQueryRuntimeException("Cursor results are always ordered by node id!");
+        }
+        if (pageSize <= 0) {
+            throw new InvalidQueryRuntimeException("Cursor page size must be positive: " + pageSize);
+        }
+        prepareExecute();
+        return new VfsQueryCursorDbImpl(this, VfsQueryCursorDbImpl.parseContinuationToken(continuationToken),
+                pageSize);
+    }
+
+    private void prepareExecute() {
+        if (currentGroup != null) {
+            throw new IllegalStateException("Cannot execute while group still active!");
+        }
+        addCurrentCriteriaIfNeeded();
+    }
+
+    /**
+     * Reads a single page of the cursor: the nodes with an id greater than the given one, ordered by node id. The rows
+     * of a node (one per archive entry or per matching property) are merged, so when the page is full its last node is
+     * left for the next page since some of its rows may not have been read yet.
+     *
+     * @param afterNodeId The id of the last node returned by the previous page
+     * @param pageSize    The maximum number of rows to read
+     * @return The rows of the page and whether more rows may follow
+     */
+    VfsQueryCursorDbImpl.Page executePage(long afterNodeId, int pageSize) {
+        int maxRows = pageSize;
+        while (true) {
+            DbSqlQueryBuilder query = new DbSqlQueryBuilder();
+            fillSelectBase(query);
+            query.addNextBoolIfNeeded();
+            query.append("nodes.node_id > ");
+            query.addParam(afterNodeId);
+            query.nextBool = VfsBoolType.AND;
+            fillExpectedNodeType(query);
+            fillRepoFilter(query);
+            fillNodeIdsFilter(query);
+            fillPathCriterion(query);
+            fillCriteria(query);
+            query.appendIfNeeded(' ').append("ORDER BY nodes.node_id");
+
+            DbType databaseType = getDatabaseType();
+            if (databaseType == DbType.MYSQL || databaseType == DbType.POSTGRESQL) {
+                query.append(" LIMIT ").append(String.valueOf(maxRows));
+            }
+
+            List<VfsQueryRowDbImpl> rows = Lists.newArrayList();
+            int nbLines = readPage(query, maxRows, getFetchSize(databaseType, maxRows), rows);
+            if (nbLines < maxRows) {
+                return new VfsQueryCursorDbImpl.Page(rows, false);
+            }
+            if (rows.size() > 1) {
+                // The last node may have more rows in the next page
+                rows.remove(rows.size() - 1);
+                return new VfsQueryCursorDbImpl.Page(rows, true);
+            }
+            // A single node filled the whole page, read it again with a bigger page
+            log.debug("Node {} has more than {} rows in query {}", rows.get(0).getNodeId(), maxRows, query);
+            maxRows = maxRows > Integer.MAX_VALUE / 2 ? Integer.MAX_VALUE : maxRows * 2;
+        }
+    }
+
+    private int readPage(DbSqlQueryBuilder query, int maxRows, int fetchSize, List<VfsQueryRowDbImpl> rows) {
+        ResultSet rs = null;
+        try {
+            log.debug("Executing search page query: {}", query);
+            List<Object> params = query.params;
+            JdbcHelper jdbcHelper = StorageContextHelper.get().beanForType(JdbcHelper.class);
+            rs = jdbcHelper.executeSelectPage(query.sqlQuery.toString(), maxRows, fetchSize,
+                    (Object[]) params.toArray(new Object[params.size()]));
+            int nbLines = 0;
+            VfsQueryRowDbImpl row = null;
+            while (rs.next()) {
+                nbLines++;
+                int pos = 1;
+                long nodeId = rs.getLong(pos++);
+                if (row != null && row.getNodeId() == nodeId) {
+                    if (hasArchiveEntries()) {
+                        row.addArchiveEntry(rs.getString(pos + 4), rs.getString(pos + 5));
+                    }
+                    continue;
+                }
+                boolean file = rs.getBoolean(pos++);
+                NodePath nodePath = new NodePath(rs.getString(pos++),
+                        BaseDao.emptyIfNullOrDot(rs.getString(pos++)),
+                        BaseDao.emptyIfNullOrDot(rs.getString(pos++)));
+                if (hasArchiveEntries()) {
+                    row = new VfsQueryRowDbImpl(nodeId, file, nodePath, rs.getString(pos++), rs.getString(pos++));
+                } else {
+                    row = new VfsQueryRowDbImpl(nodeId, file, nodePath);
+                }
+                rows.add(row);
+            }
+            return nbLines;
+        } catch (SQLException e) {
+            throw new StorageException("Could not execute query '" + query + "' due to:" + e.getMessage(), e);
+        } finally {
+            DbUtils.close(rs);
+        }
+    }
+
+    /**
+     * MySQL drivers read the whole result set unless streaming row by row, which is useless for bounded pages. The
+     * other drivers default to small fetches (10 rows for Oracle) so a page is read in fewer round trips.
+     */
+    private int getFetchSize(DbType databaseType, int maxRows) {
+        if (databaseType == DbType.MYSQL) {
+            return 0;
+        }
+        return Math.min(maxRows, ConstantValues.searchCursorPageSize.getInt());
+    }
+
+    private DbType getDatabaseType() {
+        return StorageContextHelper.get().beanForType(DbService.class).getDatabaseType();
+    }
+
     private VfsQueryResult executeSelect(DbSqlQueryBuilder query, int limit) {
+        int maxRows = 0;
         if (limit != Integer.MAX_VALUE) {
-            DbService dbService = StorageContextHelper.get().beanForType(DbService.class);
-            DbType databaseType = dbService.getDatabaseType();
-            boolean supportsLimitSyntax = databaseType == DbType.MYSQL;
+            maxRows = limit;
+            DbType databaseType = getDatabaseType();
+            boolean supportsLimitSyntax = databaseType == DbType.MYSQL || databaseType == DbType.POSTGRESQL;
             if (supportsLimitSyntax) {
                 query.append(" LIMIT ").append(String.valueOf(limit));
             }
@@ -258,7 +382,7 @@ public class VfsQueryDbImpl implements VfsQuery {
             log.debug("Executing search query: {}", query);
             List<Object> params = query.params;
             JdbcHelper jdbcHelper = StorageContextHelper.get().beanForType(JdbcHelper.class);
-            rs = jdbcHelper.executeSelect(query.sqlQuery.toString(),
+            rs = jdbcHelper.executeSelectPage(query.sqlQuery.toString(), maxRows, 0,
                     (Object[]) params.toArray(new Object[params.size()]));
             LinkedHashMap<NodePath, VfsQueryRow> map = Maps.newLinkedHashMap();
             int nbLines = 0;
@@ -400,6 +524,43 @@ public class VfsQueryDbImpl implements VfsQuery {
         }
     }
 
+    @Override
+    public VfsQuery nodeIds(@Nonnull Collection<Long> nodeIds) {
+        this.nodeIds = Lists.newArrayList(nodeIds);
+        return this;
+    }
+
+    @Override
+    public VfsQuery depth(int depth) {
+        if (depth < 1) {
+            throw new InvalidQueryRuntimeException("Query depth must be positive: " + depth);
+        }
+        this.exactDepth = depth;
+        return this;
+    }
+
+    private void fillExactDepth(DbSqlQueryBuilder query) {
+        query.addNextBoolIfNeeded();
+        query.append("nodes.depth = ");
+        query.addParam(exactDepth);
+        query.nextBool = VfsBoolType.AND;
+    }
+
+    protected void fillNodeIdsFilter(DbSqlQueryBuilder query) {
+        if (nodeIds == null) {
+            return;
+        }
+        query.addNextBoolIfNeeded();
+        if (nodeIds.isEmpty()) {
+            // Matches nothing
+            query.append("nodes.node_id < 0");
+        } else {
+            query.append("nodes.node_id IN ");
+            query.addListParam(nodeIds);
+        }
+        query.nextBool = VfsBoolType.AND;
+    }
+
     @Override
     public VfsQuery addPathFilters(String... pathFilters) {
         for (String pathFilter : pathFilters) {
@@ -448,6 +609,9 @@ public class VfsQueryDbImpl implements VfsQuery {
 
     protected void fillPathCriterion(DbSqlQueryBuilder query) {
         if (pathCriteria.isEmpty()) {
+            if (exactDepth != null) {
+                fillExactDepth(query);
+            }
             return;
         }
 
@@ -461,6 +625,9 @@ public class VfsQueryDbImpl implements VfsQuery {
             VfsComparatorType comp = mainCriterion.getComparator();
             if (comp == VfsComparatorType.ANY || ALL_PATH_VALUE.equals(pathValue)) {
                 // Basically no path filter only one and full path
+                if (exactDepth != null) {
+                    fillExactDepth(query);
+                }
                 return;
             }
 
@@ -515,7 +682,11 @@ public class VfsQueryDbImpl implements VfsQuery {
             fixedDepth--;
         }
 
-        if (hasAllPathValue) {
+        if (exactDepth != null) {
+            query.append("nodes.depth = ");
+            query.addParam(exactDepth);
+            query.nextBool = VfsBoolType.AND;
+        } else if (hasAllPathValue) {
             // Use greater than in depth
             if (fixedDepth == 0) {
                 // Nothing to do depth always positive
@@ -572,9 +743,7 @@ public class VfsQueryDbImpl implements VfsQuery {
             return;
         }
 
-        DbService dbService = StorageContextHelper.get().beanForType(DbService.class);
-        DbType databaseType = dbService.getDatabaseType();
-        if (databaseType == DbType.ORACLE) {
+        if (getDatabaseType() == DbType.ORACLE) {
             query.addNextBoolIfNeeded();
             query.append("ROWNUM <= ").append(String.valueOf(limit));
             query.nextBool = VfsBoolType.AND;
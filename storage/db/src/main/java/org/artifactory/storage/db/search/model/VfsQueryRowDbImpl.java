@@ -33,10 +33,12 @@ import java.util.Set;
  * @author Fred Simon
  */
 public class VfsQueryRowDbImpl implements VfsQueryRow {
+    private final long nodeId;
     private final DbItemInfoProxy item;
     private final Set<ArchiveEntryRow> archiveEntries;
 
     public VfsQueryRowDbImpl(long nodeId, boolean file, NodePath nodePath) {
+        this.nodeId = nodeId;
         if (file) {
             item = new DbFileInfoProxy(nodeId, nodePath);
         } else {
@@ -46,6 +48,7 @@ public class VfsQueryRowDbImpl implements VfsQueryRow {
     }
 
     public VfsQueryRowDbImpl(long nodeId, boolean file, NodePath nodePath, String entryPath, String entryName) {
+        this.nodeId = nodeId;
         if (file) {
             item = new DbFileInfoProxy(nodeId, nodePath);
         } else {
@@ -59,6 +62,10 @@ public class VfsQueryRowDbImpl implements VfsQueryRow {
         archiveEntries.add(new ArchiveSearchEntry(entryPath, entryName));
     }
 
+    long getNodeId() {
+        return nodeId;
+    }
+
     @Override
     public ItemInfo getItem() {
         return item;
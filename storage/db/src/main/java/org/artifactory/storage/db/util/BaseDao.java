@@ -56,6 +56,16 @@ public class BaseDao {
         return (path == null || path.length() == 0) ? null : path;
     }
 
+    /**
+     * Escapes the wildcards of a LIKE pattern value with '!'. The query must declare it with <code>ESCAPE '!'</code>.
+     *
+     * @param value The value to match literally
+     * @return The value with '%', '_' and '!' escaped
+     */
+    public static String escapeLike(String value) {
+        return value.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+    }
+
     /**
      * Turns boolean to byte value (0, 1) for cross database compatibility.
      *
@@ -48,6 +48,11 @@ import java.util.List;
 public class JdbcHelper {
     private static final Logger log = LoggerFactory.getLogger(JdbcHelper.class);
 
+    /**
+     * Maximum number of rows sent to the database in one JDBC batch
+     */
+    private static final int MAX_BATCH_SIZE = 500;
+
     private final DataSource dataSource;
 
     @Autowired
@@ -68,6 +73,21 @@ public class JdbcHelper {
 
     @Nonnull
     public ResultSet executeSelect(String query, Object... params) throws SQLException {
+        return executeSelectPage(query, 0, 0, params);
+    }
+
+    /**
+     * Executes a select query capping the rows read by the driver and hinting how many rows to fetch per round trip.
+     *
+     * @param query     The select query to execute
+     * @param maxRows   The maximum number of rows the result set may contain, 0 for no limit
+     * @param fetchSize The number of rows the driver should fetch per round trip, 0 for the driver default
+     * @param params    The query parameters
+     * @return The result set, closing it releases the statement and connection
+     */
+    @Nonnull
+    public ResultSet executeSelectPage(String query, int maxRows, int fetchSize, Object... params)
+            throws SQLException {
         debugSql(query, params);
 
         PerfTimer timer = null;
@@ -81,10 +101,12 @@ public class JdbcHelper {
             con = getConnection();
             if (params == null || params.length == 0) {
                 stmt = con.createStatement();
+                setPageHints(stmt, maxRows, fetchSize);
                 rs = stmt.executeQuery(query);
             } else {
                 PreparedStatement pstmt = con.prepareStatement(parseInListQuery(query, params));
                 stmt = pstmt;
+                setPageHints(stmt, maxRows, fetchSize);
                 setParamsToStmt(pstmt, params);
                 rs = pstmt.executeQuery();
             }
@@ -103,6 +125,15 @@ public class JdbcHelper {
         }
     }
 
+    private void setPageHints(Statement stmt, int maxRows, int fetchSize) throws SQLException {
+        if (maxRows > 0) {
+            stmt.setMaxRows(maxRows);
+        }
+        if (fetchSize > 0) {
+            stmt.setFetchSize(fetchSize);
+        }
+    }
+
     public int executeUpdate(String query, Object... params) throws SQLException {
         debugSql(query, params);
 
@@ -135,6 +166,65 @@ public class JdbcHelper {
         }
     }
 
+    /**
+     * Executes the same update statement once per parameters row using JDBC batching. The statement is prepared
+     * once and sent to the database in chunks of {@link #MAX_BATCH_SIZE} rows.
+     * The query must not contain in-list (#) markers.
+     *
+     * @param query      The update query to execute
+     * @param paramsRows The parameters of each row
+     * @return The total number of updated rows
+     */
+    public int executeBatchUpdate(String query, List<Object[]> paramsRows) throws SQLException {
+        if (paramsRows.isEmpty()) {
+            return 0;
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Executing batch SQL with {} rows: '{}'.", paramsRows.size(), query);
+        }
+
+        PerfTimer timer = null;
+        if (log.isDebugEnabled()) {
+            timer = new PerfTimer();
+        }
+        Connection con = null;
+        PreparedStatement pstmt = null;
+        int results = 0;
+        try {
+            con = getConnection();
+            pstmt = con.prepareStatement(query);
+            int pending = 0;
+            for (Object[] params : paramsRows) {
+                setParamsToStmt(pstmt, params);
+                pstmt.addBatch();
+                if (++pending == MAX_BATCH_SIZE) {
+                    results += sumBatchResults(pstmt.executeBatch());
+                    pending = 0;
+                }
+            }
+            if (pending > 0) {
+                results += sumBatchResults(pstmt.executeBatch());
+            }
+            if (timer != null && log.isDebugEnabled()) {
+                timer.stop();
+                log.debug("Batch of {} rows updated {} results in {} : '{}'",
+                        paramsRows.size(), results, timer, query);
+            }
+            return results;
+        } finally {
+            DbUtils.close(con, pstmt, null, dataSource);
+        }
+    }
+
+    private static int sumBatchResults(int[] batchResults) {
+        int sum = 0;
+        for (int result : batchResults) {
+            // Some drivers don't report the row count of batched statements
+            sum += result == Statement.SUCCESS_NO_INFO ? 1 : result;
+        }
+        return sum;
+    }
+
     public int executeSelectCount(String query, Object... params) throws SQLException {
         try (ResultSet resultSet = executeSelect(query, params)) {
             int count = 0;
@@ -180,14 +270,24 @@ public class JdbcHelper {
                 throw new IllegalArgumentException("Could not find collection in parameters needed for query " + sql);
             }
 
-            StringBuilder builder = new StringBuilder(sql.substring(0, idx + 1));
-            for (int i = 0; i < iterableSizes.get(0); i++) {
-                if (i != 0) {
-                    builder.append(',');
+            // Each (#) marker is expanded to the size of the matching collection parameter, in order
+            StringBuilder builder = new StringBuilder();
+            int start = 0;
+            for (int listIndex = 0; idx != -1; listIndex++) {
+                if (listIndex >= iterableSizes.size()) {
+                    throw new IllegalArgumentException("Not enough collections in parameters for query " + sql);
+                }
+                builder.append(sql, start, idx + 1);
+                for (int i = 0; i < iterableSizes.get(listIndex); i++) {
+                    if (i != 0) {
+                        builder.append(',');
+                    }
+                    builder.append('?');
                 }
-                builder.append('?');
+                start = idx + 2;
+                idx = sql.indexOf("(#)", start);
             }
-            builder.append(sql.substring(idx + 2));
+            builder.append(sql.substring(start));
             return builder.toString();
         }
         return sql;
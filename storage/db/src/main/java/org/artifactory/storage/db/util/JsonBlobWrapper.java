@@ -22,7 +22,12 @@ import com.gc.iotools.stream.is.InputStreamFromOutputStream;
 import org.artifactory.api.jackson.JacksonFactory;
 import org.codehaus.jackson.JsonGenerator;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.PushbackInputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * Date: 11/22/12
@@ -32,14 +37,56 @@ import java.io.OutputStream;
  */
 public class JsonBlobWrapper extends BlobWrapper {
     public JsonBlobWrapper(final Object jsonObject) {
+        this(jsonObject, false);
+    }
+
+    /**
+     * @param jsonObject The object to serialize as JSON
+     * @param compress   True to gzip the JSON before storing it. Compressed blobs should be read back with
+     *                   {@link #openJsonStream(java.io.InputStream)}
+     */
+    public JsonBlobWrapper(final Object jsonObject, final boolean compress) {
         // TODO: Make sure the Global Artifactory executor is used
         super(new InputStreamFromOutputStream() {
             @Override
             protected Object produce(OutputStream outputStream) throws Exception {
-                JsonGenerator jsonGenerator = JacksonFactory.createJsonGenerator(outputStream);
+                GZIPOutputStream gzipStream = compress ? new GZIPOutputStream(outputStream) : null;
+                JsonGenerator jsonGenerator = JacksonFactory.createJsonGenerator(
+                        gzipStream != null ? gzipStream : outputStream);
                 jsonGenerator.writeObject(jsonObject);
+                jsonGenerator.flush();
+                if (gzipStream != null) {
+                    gzipStream.finish();
+                }
                 return null;
             }
         });
     }
+
+    /**
+     * Returns a stream of the plain JSON content of a blob written by this class. Blobs are detected as compressed
+     * by the gzip magic header, so blobs stored before compression was enabled are returned as is.
+     *
+     * @param blobStream The stream of the stored blob
+     * @return A stream of the uncompressed JSON
+     */
+    public static InputStream openJsonStream(InputStream blobStream) throws IOException {
+        PushbackInputStream in = new PushbackInputStream(blobStream, 2);
+        byte[] header = new byte[2];
+        int read = 0;
+        while (read < header.length) {
+            int count = in.read(header, read, header.length - read);
+            if (count < 0) {
+                break;
+            }
+            read += count;
+        }
+        if (read > 0) {
+            in.unread(header, 0, read);
+        }
+        if (read == header.length && (header[0] & 0xff) == 0x1f && (header[1] & 0xff) == 0x8b) {
+            return new GZIPInputStream(in);
+        }
+        return in;
+    }
 }
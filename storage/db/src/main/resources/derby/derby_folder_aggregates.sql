@@ -0,0 +1,9 @@
+CREATE TABLE folder_aggregates (
+  repo             VARCHAR(64)   NOT NULL,
+  folder_path      VARCHAR(1024) NOT NULL,
+  files_count      BIGINT        NOT NULL,
+  files_size       BIGINT        NOT NULL,
+  last_modified    BIGINT        NOT NULL,
+  last_modified_id BIGINT
+);
+CREATE UNIQUE INDEX folder_aggregates_repo_path_idx ON folder_aggregates (repo, folder_path);
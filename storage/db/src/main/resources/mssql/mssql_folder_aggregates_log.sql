@@ -0,0 +1,12 @@
+CREATE TABLE folder_aggregates_log (
+  log_id         BIGINT        NOT NULL,
+  repo           VARCHAR(64)   NOT NULL,
+  folder_path    VARCHAR(1024) NOT NULL,
+  node_id        BIGINT        NOT NULL,
+  files_delta    SMALLINT      NOT NULL,
+  size_delta     BIGINT        NOT NULL,
+  last_modified  BIGINT        NOT NULL,
+  invalidates    SMALLINT      NOT NULL,
+  CONSTRAINT folder_agg_log_pk PRIMARY KEY (log_id)
+);
+CREATE INDEX folder_agg_log_repo_path_idx ON folder_aggregates_log (repo, folder_path);
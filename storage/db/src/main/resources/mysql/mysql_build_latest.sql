@@ -0,0 +1,6 @@
+CREATE TABLE build_latest (
+  build_name   VARCHAR(255) NOT NULL,
+  build_id     BIGINT       NOT NULL,
+  build_date   BIGINT       NOT NULL
+);
+CREATE INDEX build_latest_name_idx ON build_latest (build_name);
@@ -0,0 +1,6 @@
+CREATE TABLE build_latest (
+  build_name   VARCHAR2(255) NOT NULL,
+  build_id     NUMBER(19, 0) NOT NULL,
+  build_date   NUMBER(19, 0) NOT NULL
+);
+CREATE INDEX build_latest_name_idx ON build_latest (build_name);
@@ -0,0 +1,9 @@
+CREATE TABLE folder_aggregates (
+  repo             VARCHAR2(64)   NOT NULL,
+  folder_path      VARCHAR2(1024) NOT NULL,
+  files_count      NUMBER(19, 0)  NOT NULL,
+  files_size       NUMBER(19, 0)  NOT NULL,
+  last_modified    NUMBER(19, 0)  NOT NULL,
+  last_modified_id NUMBER(19, 0)
+);
+CREATE UNIQUE INDEX folder_aggregates_repo_path_idx ON folder_aggregates (repo, folder_path);
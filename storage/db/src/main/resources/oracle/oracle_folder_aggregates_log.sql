@@ -0,0 +1,12 @@
+CREATE TABLE folder_aggregates_log (
+  log_id         NUMBER(19, 0)  NOT NULL,
+  repo           VARCHAR2(64)   NOT NULL,
+  folder_path    VARCHAR2(1024) NOT NULL,
+  node_id        NUMBER(19, 0)  NOT NULL,
+  files_delta    NUMBER(5, 0)   NOT NULL,
+  size_delta     NUMBER(19, 0)  NOT NULL,
+  last_modified  NUMBER(19, 0)  NOT NULL,
+  invalidates    NUMBER(5, 0)   NOT NULL,
+  CONSTRAINT folder_agg_log_pk PRIMARY KEY (log_id)
+);
+CREATE INDEX folder_agg_log_repo_path_idx ON folder_aggregates_log (repo, folder_path);
@@ -0,0 +1,2 @@
+CREATE INDEX stats_last_downloaded_idx ON stats (last_downloaded, node_id);
+CREATE INDEX nodes_repo_created_idx ON nodes (repo, created);
@@ -77,6 +77,6 @@ public class BinaryStoreImplCachedDbProviderTest extends BinaryStoreImplBaseTest
 
     @Override
     protected void assertPruneAfterOneGc() {
-        testPrune(0, 0, 0);
+        testPrune(1, 0, 0);
     }
 }
@@ -0,0 +1,202 @@
+/*
+ * Artifactory is a binaries repository manager.
+ * Copyright (C) 2012 JFrog Ltd.
+ *
+ * Artifactory is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Artifactory is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Artifactory.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.artifactory.storage.db.binstore.service;
+
+import org.apache.commons.dbcp.BasicDataSource;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.artifactory.storage.StorageProperties;
+import org.artifactory.storage.db.DbType;
+import org.artifactory.storage.db.util.BlobWrapper;
+import org.artifactory.storage.db.util.JdbcHelper;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+
+import static org.testng.Assert.*;
+
+/**
+ * Tests that the streams of {@link BlobBinaryProviderImpl} do not hold a database connection and that big blobs are
+ * written to disk once.
+ */
+@Test
+public class BlobBinaryProviderImplTest {
+    private static final String SMALL_SHA1 = "1111111111111111111111111111111111111111";
+    private static final String BIG_SHA1 = "2222222222222222222222222222222222222222";
+
+    private BasicDataSource dataSource;
+    private File tempDir;
+    private BlobBinaryProviderImpl blobProvider;
+    private byte[] smallContent;
+    private byte[] bigContent;
+
+    @BeforeClass
+    public void setup() throws Exception {
+        // a single connection pool: a stream holding its connection would starve any other query
+        dataSource = new BasicDataSource();
+        dataSource.setDriverClassName("org.apache.derby.jdbc.EmbeddedDriver");
+        dataSource.setUrl("jdbc:derby:memory:blobProviderTest;create=true");
+        dataSource.setMaxActive(1);
+        dataSource.setMaxWait(2000);
+        JdbcHelper jdbcHelper = new JdbcHelper(dataSource);
+        jdbcHelper.executeUpdate("CREATE TABLE binary_blobs (sha1 CHAR(40) NOT NULL, data BLOB, " +
+                "CONSTRAINT binary_blobs_pk PRIMARY KEY (sha1))");
+        smallContent = newContent(100);
+        bigContent = newContent(300 * 1024);
+        jdbcHelper.executeUpdate("INSERT INTO binary_blobs VALUES (?,?)", SMALL_SHA1,
+                new BlobWrapper(new ByteArrayInputStream(smallContent), smallContent.length));
+        jdbcHelper.executeUpdate("INSERT INTO binary_blobs VALUES (?,?)", BIG_SHA1,
+                new BlobWrapper(new ByteArrayInputStream(bigContent), bigContent.length));
+
+        tempDir = new File("target", "blobProviderTest").getAbsoluteFile();
+        FileUtils.deleteDirectory(tempDir);
+        assertTrue(tempDir.mkdirs(), "Could not create " + tempDir.getAbsolutePath());
+        blobProvider = new BlobBinaryProviderImpl(jdbcHelper, DbType.DERBY, tempDir, 64 * 1024);
+    }
+
+    @AfterClass
+    public void tearDown() throws Exception {
+        if (dataSource != null) {
+            dataSource.close();
+        }
+        FileUtils.deleteQuietly(tempDir);
+    }
+
+    public void slowReadersDoNotHoldConnections() throws Exception {
+        // open several streams without consuming them, as slow clients would
+        InputStream bigStream = blobProvider.getStream(BIG_SHA1);
+        InputStream smallStream = blobProvider.getStream(SMALL_SHA1);
+        InputStream otherBigStream = blobProvider.getStream(BIG_SHA1);
+        try {
+            assertEquals(dataSource.getNumActive(), 0, "Open blob streams should not hold a connection");
+            // the single pooled connection is still available to other queries
+            assertTrue(blobProvider.exists(SMALL_SHA1, smallContent.length));
+
+            assertTrue(Arrays.equals(IOUtils.toByteArray(smallStream), smallContent));
+            assertTrue(Arrays.equals(IOUtils.toByteArray(bigStream), bigContent));
+            assertTrue(Arrays.equals(IOUtils.toByteArray(otherBigStream), bigContent));
+        } finally {
+            IOUtils.closeQuietly(bigStream);
+            IOUtils.closeQuietly(smallStream);
+            IOUtils.closeQuietly(otherBigStream);
+        }
+    }
+
+    public void bigBlobsSpilledToTempFiles() throws Exception {
+        InputStream smallStream = blobProvider.getStream(SMALL_SHA1);
+        InputStream bigStream = blobProvider.getStream(BIG_SHA1);
+        try {
+            assertFalse(smallStream instanceof BlobBinaryProviderImpl.SpilledBlobInputStream);
+            assertTrue(bigStream instanceof BlobBinaryProviderImpl.SpilledBlobInputStream);
+            assertEquals(tempDir.list().length, 1);
+        } finally {
+            IOUtils.closeQuietly(smallStream);
+            IOUtils.closeQuietly(bigStream);
+        }
+        assertEquals(tempDir.list().length, 0, "Temp blob file should be deleted on close");
+    }
+
+    public void concurrentReadersShareOneTempFile() throws Exception {
+        InputStream bigStream = blobProvider.getStream(BIG_SHA1);
+        InputStream otherBigStream = blobProvider.getStream(BIG_SHA1);
+        try {
+            assertEquals(tempDir.list().length, 1, "Readers of the same blob should share its temp file");
+            bigStream.close();
+            assertEquals(tempDir.list().length, 1, "Temp blob file deleted while still read");
+            assertTrue(Arrays.equals(IOUtils.toByteArray(otherBigStream), bigContent));
+        } finally {
+            IOUtils.closeQuietly(bigStream);
+            IOUtils.closeQuietly(otherBigStream);
+        }
+        assertEquals(tempDir.list().length, 0, "Temp blob file should be deleted when the last reader closes");
+    }
+
+    public void cacheMissFilledStraightFromBlob() throws Exception {
+        FileCacheBinaryProviderImpl cacheProvider = createCacheProvider();
+        InputStream bigStream = cacheProvider.getStream(BIG_SHA1);
+        InputStream otherBigStream = cacheProvider.getStream(BIG_SHA1);
+        try {
+            assertEquals(dataSource.getNumActive(), 0, "Open cached streams should not hold a connection");
+            assertEquals(tempDir.list().length, 0, "A cache miss should not spill the blob to a temp file");
+            File cachedFile = cacheProvider.getFile(BIG_SHA1);
+            assertTrue(cachedFile.exists(), "The blob should be written to the cache before it is read");
+            assertEquals(cachedFile.length(), bigContent.length);
+            assertEquals(new File(cacheProvider.getBinariesDir(), "_pre").list().length, 0);
+
+            assertTrue(Arrays.equals(IOUtils.toByteArray(bigStream), bigContent));
+            assertTrue(Arrays.equals(IOUtils.toByteArray(otherBigStream), bigContent));
+        } finally {
+            IOUtils.closeQuietly(bigStream);
+            IOUtils.closeQuietly(otherBigStream);
+        }
+    }
+
+    private FileCacheBinaryProviderImpl createCacheProvider() throws Exception {
+        File cacheRoot = new File(tempDir.getParentFile(), "blobProviderCacheTest");
+        FileUtils.deleteDirectory(cacheRoot);
+        File storagePropsFile = new File(cacheRoot, "storage.properties");
+        FileUtils.writeStringToFile(storagePropsFile, "type=derby\n" +
+                "driver=org.apache.derby.jdbc.EmbeddedDriver\n" +
+                "url=jdbc:derby:memory:blobProviderTest\n" +
+                "binary.provider.cache.maxSize=10MB\n");
+        FileCacheBinaryProviderImpl cacheProvider = new FileCacheBinaryProviderImpl(cacheRoot,
+                new StorageProperties(storagePropsFile));
+        cacheProvider.setContext(new ChainContext(blobProvider));
+        blobProvider.setContext(new ChainContext(new EmptyBinaryProvider()));
+        return cacheProvider;
+    }
+
+    private static byte[] newContent(int length) {
+        byte[] content = new byte[length];
+        for (int i = 0; i < length; i++) {
+            content[i] = (byte) (i % 251);
+        }
+        return content;
+    }
+
+    private static class ChainContext implements BinaryProviderContext {
+        private final BinaryProviderBase next;
+
+        private ChainContext(BinaryProviderBase next) {
+            this.next = next;
+        }
+
+        @Override
+        public Set<String> isInStore(Set<String> sha1) {
+            return Collections.emptySet();
+        }
+
+        @Override
+        public boolean isUsedByReader(String sha1) {
+            return false;
+        }
+
+        @Override
+        public BinaryProviderBase next() {
+            return next;
+        }
+    }
+}
@@ -52,7 +52,7 @@ public class BuildModulesDaoTest extends BuildsDaoBaseTest {
         assertEquals(buildArtifactsDao.deleteAllBuildArtifacts(), 0);
         assertEquals(buildDependenciesDao.deleteAllBuildDependencies(), 0);
         assertEquals(buildModulesDao.deleteAllBuildModules(), 23);
-        assertEquals(buildsDao.deleteAllBuilds(), 23);
+        assertEquals(buildsDao.deleteAllBuilds(), 25);
     }
 
     public void testReadBuildModulesById() throws SQLException {
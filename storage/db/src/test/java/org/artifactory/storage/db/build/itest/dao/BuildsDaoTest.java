@@ -21,9 +21,11 @@ package org.artifactory.storage.db.build.itest.dao;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSortedSet;
 import com.google.common.collect.UnmodifiableIterator;
+import org.artifactory.storage.db.build.dao.BuildsDao;
 import org.artifactory.storage.db.build.entity.BuildEntity;
 import org.artifactory.storage.db.build.entity.BuildPromotionStatus;
 import org.artifactory.storage.db.build.entity.BuildProperty;
+import org.artifactory.storage.db.util.JsonBlobWrapper;
 import org.jfrog.build.api.release.PromotionStatus;
 import org.testng.annotations.AfterClass;
 import org.testng.annotations.BeforeClass;
@@ -70,6 +72,46 @@ public class BuildsDaoTest extends BuildsDaoBaseTest {
         }
     }
 
+    @Test(dependsOnMethods = "testDeleteBuilds")
+    public void testGetLatestBuilds() throws SQLException {
+        List<BuildEntity> latestBuilds = buildsDao.getLatestBuilds();
+        assertEquals(latestBuilds.size(), 2);
+        assertBuild4(latestBuilds.get(0));
+        assertBuild5(latestBuilds.get(1));
+    }
+
+    @Test(dependsOnMethods = {"testGetLatestBuilds", "testReadBuildsByName"})
+    public void testUpdateLatestBuild() throws SQLException, UnsupportedEncodingException {
+        long now = System.currentTimeMillis();
+        BuildEntity newerBa = new BuildEntity(16L, "ba", "4", 1349005000000L, null, now, "me", 0L, null);
+        newerBa.setProperties(new HashSet<BuildProperty>());
+        newerBa.setPromotions(new HashSet<BuildPromotionStatus>());
+        createBuild(newerBa, "newerBa");
+        assertEquals(buildsDao.updateLatestBuild("ba"), 2);
+        List<BuildEntity> latestBuilds = buildsDao.getLatestBuilds();
+        assertEquals(latestBuilds.size(), 2);
+        assertBuild4(latestBuilds.get(0));
+        assertTrue(newerBa.isIdentical(latestBuilds.get(1)));
+
+        doDelete(16L, 2);
+        buildsDao.updateLatestBuild("ba");
+        latestBuilds = buildsDao.getLatestBuilds();
+        assertEquals(latestBuilds.size(), 2);
+        assertBuild5(latestBuilds.get(1));
+        assertEquals(buildsDao.updateLatestBuild("no-such-build"), 0);
+    }
+
+    @Test(dependsOnMethods = "testUpdateLatestBuild")
+    public void testFillLatestBuilds() throws SQLException {
+        jdbcHelper.executeUpdate("DELETE FROM build_latest");
+        assertTrue(buildsDao.getLatestBuilds().isEmpty());
+        assertEquals(jdbcHelper.executeUpdate(BuildsDao.FILL_LATEST_BUILDS), 2);
+        List<BuildEntity> latestBuilds = buildsDao.getLatestBuilds();
+        assertEquals(latestBuilds.size(), 2);
+        assertBuild4(latestBuilds.get(0));
+        assertBuild5(latestBuilds.get(1));
+    }
+
     public void testReadBuildsByFullPath() throws SQLException {
         assertBuild1(buildsDao.findBuild("ba", "1", 1349000000000L));
         assertBuild2(buildsDao.findBuild("bb", "1", 1349001000000L));
@@ -118,6 +160,20 @@ public class BuildsDaoTest extends BuildsDaoBaseTest {
         assertEquals(dummyBuild.name, "otherBa2");
     }
 
+    public void testCreateBuildWithCompressedJson() throws SQLException {
+        long now = System.currentTimeMillis();
+        BuildEntity compressed = new BuildEntity(15L, "bc", "1", 1349222222222L, null, now, "me", 0L, null);
+        compressed.setProperties(new HashSet<BuildProperty>());
+        compressed.setPromotions(new HashSet<BuildPromotionStatus>());
+        DummyBuild dummyBuild = new DummyBuild();
+        dummyBuild.name = "compressed";
+        assertEquals(buildsDao.createBuild(compressed, new JsonBlobWrapper(dummyBuild, true)), 2);
+        assertEquals(buildsDao.getJsonBuild(15L, DummyBuild.class).name, "compressed");
+        String jsonString = buildsDao.getJsonBuild(15L, String.class);
+        assertTrue(jsonString.startsWith("{"), "Expected uncompressed JSON but got: " + jsonString);
+        assertTrue(jsonString.contains("\"compressed\""));
+    }
+
     @Test(dependsOnMethods = "testCreateBuildSameNameAndNumber")
     public void testFindLatestBuildDate() throws SQLException {
         assertEquals(buildsDao.findLatestBuildDate("ba", "1"), 1349000000000L);
@@ -131,6 +187,7 @@ public class BuildsDaoTest extends BuildsDaoBaseTest {
             "testCreateBuildWithProps",
             "testCreateBuildWithPromotions",
             "testCreateBuildWithPropsAndPromotions",
+            "testCreateBuildWithCompressedJson",
             "testFindLatestBuildDate"})
     public void testDeleteBuilds() throws SQLException, UnsupportedEncodingException {
         doDelete(11L, 2);
@@ -138,6 +195,7 @@ public class BuildsDaoTest extends BuildsDaoBaseTest {
         doDelete(13L, 4);
         doDelete(14L, 6);
         doDelete(103L, 2);
+        doDelete(15L, 2);
     }
 
     // Disable since index too big => Need to find another way for this
@@ -338,7 +396,7 @@ public class BuildsDaoTest extends BuildsDaoBaseTest {
         assertEquals(buildArtifactsDao.deleteAllBuildArtifacts(), 0);
         assertEquals(buildDependenciesDao.deleteAllBuildDependencies(), 0);
         assertEquals(buildModulesDao.deleteAllBuildModules(), 0);
-        assertEquals(buildsDao.deleteAllBuilds(), 17);
+        assertEquals(buildsDao.deleteAllBuilds(), 19);
     }
 
 }
@@ -18,7 +18,9 @@
 
 package org.artifactory.storage.db.build.itest.service;
 
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import org.artifactory.build.BuildRun;
 import org.artifactory.storage.build.service.BuildStoreService;
 import org.artifactory.storage.db.build.service.BuildStoreServiceImpl;
@@ -40,6 +42,7 @@ import org.testng.annotations.Test;
 
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 
 import static org.jfrog.build.api.BuildType.GRADLE;
@@ -102,6 +105,15 @@ public class BuildStoreServiceImplTest extends DbBaseTest {
         assertEquals(buildStoreService.findBuildsByName("ba").size(), 2);
     }
 
+    @Test(dependsOnMethods = {"testDeleteBuildB", "testDeleteOneBuildA"})
+    public void testLatestBuildsByName() {
+        Map<String, String> latestNumbers = Maps.newHashMap();
+        for (BuildRun buildRun : buildStoreService.getLatestBuildsByName()) {
+            latestNumbers.put(buildRun.getName(), buildRun.getNumber());
+        }
+        assertEquals(latestNumbers, ImmutableMap.of("ba", "3", "test", "23"));
+    }
+
     /**
      * Returns a generic build object
      *
@@ -18,8 +18,11 @@
 
 package org.artifactory.storage.db.fs.itest.dao;
 
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
 import org.apache.commons.lang.builder.EqualsBuilder;
 import org.artifactory.checksum.ChecksumType;
+import org.artifactory.sapi.fs.Visitor;
 import org.artifactory.storage.db.DbService;
 import org.artifactory.storage.db.fs.dao.NodesDao;
 import org.artifactory.storage.db.fs.entity.Node;
@@ -32,6 +35,7 @@ import org.testng.annotations.Test;
 
 import java.sql.SQLException;
 import java.util.List;
+import java.util.Set;
 
 import static org.testng.Assert.*;
 
@@ -131,6 +135,20 @@ public class NodesDaoTest extends DbBaseTest {
         assertTrue(nodesDao.hasChildren(path));
     }
 
+    public void getChildrenPagesOfRoot() throws SQLException {
+        NodePath path = new NodePath("repo1", "", "");
+        List<? extends Node> firstPage = nodesDao.getChildrenPage(path, null, 2);
+        assertEquals(firstPage.size(), 2);
+        assertEquals(firstPage.get(0).getName(), "ant");
+        assertEquals(firstPage.get(1).getName(), "ant-launcher");
+
+        List<? extends Node> secondPage = nodesDao.getChildrenPage(path, "ant-launcher", 2);
+        assertEquals(secondPage.size(), 1);
+        assertEquals(secondPage.get(0).getName(), "org");
+
+        assertEquals(nodesDao.getChildrenPage(path, "org", 2).size(), 0);
+    }
+
     public void getChildrenOfLeafFolderNode() throws SQLException {
         NodePath leaf = new NodePath("repo1", "org/yossis/tools", "test.bin");
         assertTrue(nodesDao.exists(leaf));
@@ -144,6 +162,58 @@ public class NodesDaoTest extends DbBaseTest {
         assertFalse(nodesDao.hasChildren(fileNodePath));
     }
 
+    public void visitSubtreeOfRoot() throws SQLException {
+        List<Node> nodes = visitSubtree(new NodePath("repo1", "", ""));
+        assertEquals(nodes.size(), 14);
+        Set<Long> nodeIds = Sets.newHashSet();
+        for (Node node : nodes) {
+            assertTrue(nodeIds.add(node.getNodeId()), "Node " + node.getNodeId() + " visited twice");
+        }
+        // the children of each folder are received as one contiguous block
+        List<String> blocks = Lists.newArrayList();
+        for (Node node : nodes) {
+            String path = node.getPath();
+            if (blocks.isEmpty() || !blocks.get(blocks.size() - 1).equals(path)) {
+                assertFalse(blocks.contains(path), "Children of '" + path + "' are not contiguous");
+                blocks.add(path);
+            }
+        }
+    }
+
+    public void visitSubtreeOfFolder() throws SQLException {
+        List<Node> nodes = visitSubtree(new NodePath("repo1", "", "ant"));
+        assertEquals(nodes.size(), 4);
+        assertEquals(nodes.get(0).getNodeId(), 2);
+        assertEquals(nodes.get(1).getNodeId(), 3);
+        assertEquals(nodes.get(2).getNodeId(), 4);
+        assertEquals(nodes.get(3).getNodeId(), 5);
+    }
+
+    public void visitSubtreeOfFolderWithWildcardName() throws SQLException {
+        // '_' must not match the 'n' of the 'ant' folder
+        assertTrue(visitSubtree(new NodePath("repo1", "", "a_t")).isEmpty());
+    }
+
+    public void visitSubtreeOfFolderWithMaxDepth() throws SQLException {
+        NodePath antFolder = new NodePath("repo1", "", "ant");
+        assertEquals(visitSubtree(antFolder, 0).size(), 1);
+        List<Node> nodes = visitSubtree(antFolder, 2);
+        assertEquals(nodes.size(), 3);
+        assertNull(getById(nodes, 5), "The file is three levels below the folder");
+    }
+
+    public void visitSubtreeOfRootWithMaxDepth() throws SQLException {
+        for (Node node : visitSubtree(new NodePath("repo1", "", ""), 1)) {
+            assertTrue(node.getDepth() <= 1, "Unexpected node depth " + node.getDepth());
+        }
+    }
+
+    public void visitSubtreeOfFile() throws SQLException {
+        List<Node> nodes = visitSubtree(fileNodePath);
+        assertEquals(nodes.size(), 1);
+        assertEquals(nodes.get(0).getNodeId(), 5);
+    }
+
     public void countRepositoryFiles() throws SQLException {
         assertEquals(nodesDao.getFilesCount("repo1"), 4);
     }
@@ -350,6 +420,22 @@ public class NodesDaoTest extends DbBaseTest {
         assertEquals(node.getName(), "badmd5.jar");
     }
 
+    private List<Node> visitSubtree(NodePath path) throws SQLException {
+        return visitSubtree(path, -1);
+    }
+
+    private List<Node> visitSubtree(NodePath path, int maxDepth) throws SQLException {
+        final List<Node> nodes = Lists.newArrayList();
+        // small pages so the subtrees span several queries
+        nodesDao.visitSubtree(path, maxDepth, 3, new Visitor<Node>() {
+            @Override
+            public void visit(Node node) {
+                nodes.add(node);
+            }
+        });
+        return nodes;
+    }
+
     private Node getById(List<Node> nodes, long id) {
         for (Node node : nodes) {
             if (node.getNodeId() == id) {
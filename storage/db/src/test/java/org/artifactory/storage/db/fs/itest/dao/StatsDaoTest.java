@@ -18,7 +18,9 @@
 
 package org.artifactory.storage.db.fs.itest.dao;
 
+import com.google.common.collect.Lists;
 import org.artifactory.storage.db.fs.dao.StatsDao;
+import org.artifactory.storage.db.fs.entity.LastDownloadedNode;
 import org.artifactory.storage.db.fs.entity.Stat;
 import org.artifactory.storage.db.itest.DbBaseTest;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -26,6 +28,7 @@ import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
 
 import java.sql.SQLException;
+import java.util.List;
 
 import static org.testng.Assert.*;
 
@@ -122,4 +125,57 @@ public class StatsDaoTest extends DbBaseTest {
     public void deleteStatsNonExistingNode() throws SQLException {
         assertEquals(statsDao.deleteStats(343434), 0);
     }
+
+    public void filesNotDownloadedSinceOrderedByLastDownload() throws SQLException {
+        List<LastDownloadedNode> files = statsDao.getFilesNotDownloadedSince(
+                "repo-copy", Long.MAX_VALUE, Long.MIN_VALUE, -1, 100);
+        assertEquals(nodeIds(files), Lists.newArrayList(16L, 17L, 15L));
+        assertEquals(files.get(0).getLastDownloaded(), 1340283204447L);
+        assertEquals(files.get(0).getNodePath().getPathName(), "org/shayy/trustme/trustme.jar");
+    }
+
+    public void filesNotDownloadedSinceNeverDownloaded() throws SQLException {
+        assertTrue(statsDao.getFilesNotDownloadedSince("repo1", 1340283204448L, Long.MIN_VALUE, -1, 100).isEmpty(),
+                "Files created at the since time should not be returned");
+        List<LastDownloadedNode> files = statsDao.getFilesNotDownloadedSince(
+                "repo1", 1340283204449L, Long.MIN_VALUE, -1, 100);
+        assertTrue(nodeIds(files).containsAll(Lists.newArrayList(5L, 11L, 13L)), "Unexpected files: " + files);
+        for (LastDownloadedNode file : files) {
+            assertEquals(file.getLastDownloaded(), 1340283204448L, "Never downloaded files use the creation time");
+        }
+    }
+
+    public void filesNotDownloadedSincePaging() throws SQLException {
+        List<LastDownloadedNode> all = statsDao.getFilesNotDownloadedSince(
+                "repo1", Long.MAX_VALUE, Long.MIN_VALUE, -1, 100);
+        assertEquals(all.size(), 4, "Expected all the files of repo1");
+        // downloaded and never downloaded files are merged by last used time and node id
+        for (int i = 1; i < all.size(); i++) {
+            LastDownloadedNode previous = all.get(i - 1);
+            LastDownloadedNode file = all.get(i);
+            assertTrue(previous.getLastDownloaded() < file.getLastDownloaded() ||
+                    (previous.getLastDownloaded() == file.getLastDownloaded() &&
+                            previous.getNodeId() < file.getNodeId()), "Unexpected order: " + all);
+        }
+
+        List<LastDownloadedNode> paged = Lists.newArrayList();
+        List<LastDownloadedNode> page = statsDao.getFilesNotDownloadedSince(
+                "repo1", Long.MAX_VALUE, Long.MIN_VALUE, -1, 3);
+        while (!page.isEmpty()) {
+            assertTrue(page.size() <= 3, "Page larger than requested");
+            paged.addAll(page);
+            LastDownloadedNode last = page.get(page.size() - 1);
+            page = statsDao.getFilesNotDownloadedSince(
+                    "repo1", Long.MAX_VALUE, last.getLastDownloaded(), last.getNodeId(), 3);
+        }
+        assertEquals(nodeIds(paged), nodeIds(all));
+    }
+
+    private List<Long> nodeIds(List<LastDownloadedNode> files) {
+        List<Long> nodeIds = Lists.newArrayList();
+        for (LastDownloadedNode file : files) {
+            nodeIds.add(file.getNodeId());
+        }
+        return nodeIds;
+    }
 }
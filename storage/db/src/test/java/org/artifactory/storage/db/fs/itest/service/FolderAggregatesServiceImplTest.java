@@ -0,0 +1,196 @@
+/*
+ * Artifactory is a binaries repository manager.
+ * Copyright (C) 2012 JFrog Ltd.
+ *
+ * Artifactory is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Artifactory is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Artifactory.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.artifactory.storage.db.fs.itest.service;
+
+import org.artifactory.model.common.RepoPathImpl;
+import org.artifactory.model.xstream.fs.FileInfoImpl;
+import org.artifactory.repo.RepoPath;
+import org.artifactory.storage.db.fs.dao.FolderAggregatesDao;
+import org.artifactory.storage.db.fs.entity.FolderAggregate;
+import org.artifactory.storage.db.itest.DbBaseTest;
+import org.artifactory.storage.db.util.DbUtils;
+import org.artifactory.storage.fs.service.FolderAggregatesService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import static org.testng.Assert.*;
+
+/**
+ * Integration tests for {@link org.artifactory.storage.fs.service.FolderAggregatesService}: roll-up of the logged
+ * file changes to the ancestor folders and recalculation from the nodes table.
+ */
+@Test
+public class FolderAggregatesServiceImplTest extends DbBaseTest {
+    private static final long TEST_JAR_SIZE = 716139;
+    private static final long TEST2_JAR_SIZE = 321;
+
+    @Autowired
+    private FolderAggregatesService aggregatesService;
+
+    @Autowired
+    private FolderAggregatesDao aggregatesDao;
+
+    private FileInfoImpl newFile;
+
+    @BeforeClass
+    public void setup() {
+        importSql("/sql/nodes-for-service.sql");
+    }
+
+    public void recalculate() throws SQLException {
+        aggregatesService.recalculate();
+
+        assertTrue(aggregatesService.isReady());
+        assertEquals(aggregatesService.getFilesCount(repo2("")), countFiles("repo2"));
+        assertEquals(aggregatesService.getFilesCount(repo2("org/jfrog/test")), 2);
+        assertEquals(aggregatesService.getFilesSize(repo2("org/jfrog")), TEST_JAR_SIZE + TEST2_JAR_SIZE);
+        assertEquals(aggregatesService.getFilesCount(repo2("org/jfrog/test/test.jar")), 0, "Files have no aggregate");
+        assertEquals(aggregatesService.getFilesCount(), countFiles(null));
+        long lastModifiedId = aggregatesService.getLastModifiedFileId(repo2("org"));
+        assertTrue(lastModifiedId == 504 || lastModifiedId == 505, "Unexpected last modified id " + lastModifiedId);
+    }
+
+    @Test(dependsOnMethods = "recalculate")
+    public void readsIncludeLoggedChanges() throws SQLException {
+        newFile = new FileInfoImpl(repo2("org/jfrog/test/sub/new.jar"));
+        newFile.setSize(100);
+        newFile.setLastModified(System.currentTimeMillis());
+        aggregatesService.fileCreated(9001, newFile);
+
+        assertEquals(countLogEntries(), 1);
+        assertEquals(aggregatesService.getFilesCount(repo2("org/jfrog/test/sub")), 1);
+        assertEquals(aggregatesService.getFilesCount(repo2("org/jfrog")), 3);
+        assertEquals(aggregatesService.getFilesSize(repo2("")), TEST_JAR_SIZE + TEST2_JAR_SIZE + 100);
+        assertEquals(aggregatesService.getLastModifiedFileId(repo2("")), 9001);
+        assertEquals(aggregatesService.getFilesCount(repo2("org/jfrog/tes_")), 0, "Wildcards should match literally");
+        assertNull(aggregatesDao.get("repo2", "org/jfrog/test/sub"), "Reads should not write");
+    }
+
+    @Test(dependsOnMethods = "readsIncludeLoggedChanges")
+    public void flushRollsUpToAllAncestors() throws SQLException {
+        aggregatesService.flush();
+
+        assertEquals(countLogEntries(), 0);
+        FolderAggregate sub = aggregatesDao.get("repo2", "org/jfrog/test/sub");
+        assertNotNull(sub);
+        assertEquals(sub.getFilesCount(), 1);
+        assertEquals(sub.getLastModifiedId(), 9001);
+        for (String folderPath : new String[]{"org/jfrog/test", "org/jfrog", "org", ""}) {
+            FolderAggregate aggregate = aggregatesDao.get("repo2", folderPath);
+            assertNotNull(aggregate, "No aggregate for '" + folderPath + "'");
+            assertEquals(aggregate.getFilesCount(), 3);
+            assertEquals(aggregate.getFilesSize(), TEST_JAR_SIZE + TEST2_JAR_SIZE + 100);
+            assertEquals(aggregate.getLastModifiedId(), 9001);
+        }
+        assertEquals(aggregatesService.getFilesCount(repo2("org/jfrog")), 3);
+    }
+
+    @Test(dependsOnMethods = "flushRollsUpToAllAncestors")
+    public void deleteOfLatestFileInvalidatesLastModified() throws SQLException {
+        aggregatesService.fileDeleted(9001, newFile);
+
+        assertEquals(aggregatesService.getFilesCount(repo2("org/jfrog/test/sub")), 0);
+        assertEquals(aggregatesService.getFilesCount(repo2("")), countFiles("repo2"));
+        long lastModifiedId = aggregatesService.getLastModifiedFileId(repo2(""));
+        assertTrue(lastModifiedId == 504 || lastModifiedId == 505, "Unexpected last modified id " + lastModifiedId);
+
+        aggregatesService.flush();
+        assertEquals(countLogEntries(), 0);
+        assertNull(aggregatesDao.get("repo2", "org/jfrog/test/sub"), "Empty aggregates should be removed");
+        FolderAggregate root = aggregatesDao.get("repo2", "");
+        assertNotNull(root);
+        assertEquals(root.getFilesCount(), 2);
+        assertTrue(root.isLastModifiedKnown(), "The flush should store the latest modified file again");
+        assertTrue(root.getLastModifiedId() == 504 || root.getLastModifiedId() == 505);
+    }
+
+    @Test(dependsOnMethods = "deleteOfLatestFileInvalidatesLastModified")
+    public void recalculateSkipsLoggedChangesCountedByTheScan() throws SQLException {
+        // a committed deploy: the node and its log entry
+        jdbcHelper.executeUpdate("INSERT INTO nodes VALUES (9002, 1, 'repo2', 'org/jfrog/test', 'late.jar', 4, " +
+                "1340283204449, 'yossis', 1340283204449, 'yossis', 1340283204449, 42, " +
+                "'ecab88fc2a043c2479a6de676a2f8179e9ea2167', NULL, '002a360ecad98a34b59863c1e65bcf71', NULL)");
+        FileInfoImpl lateFile = new FileInfoImpl(repo2("org/jfrog/test/late.jar"));
+        lateFile.setSize(42);
+        lateFile.setLastModified(1340283204449L);
+        aggregatesService.fileCreated(9002, lateFile);
+
+        aggregatesService.recalculate();
+
+        assertEquals(countLogEntries(), 0);
+        assertEquals(aggregatesService.getFilesCount(repo2("org/jfrog/test")), 3);
+        assertEquals(aggregatesService.getFilesSize(repo2("")), TEST_JAR_SIZE + TEST2_JAR_SIZE + 42);
+        assertEquals(aggregatesService.getLastModifiedFileId(repo2("org/jfrog/test")), 9002);
+
+        aggregatesService.flush();
+        assertEquals(aggregatesService.getFilesCount(repo2("")), countFiles("repo2"));
+    }
+
+    @Test(dependsOnMethods = "recalculateSkipsLoggedChangesCountedByTheScan")
+    public void recalculateAddsUpTheRootOfAllChunks() throws SQLException {
+        jdbcHelper.executeUpdate("INSERT INTO nodes VALUES (9003, 1, 'repo2', '.', 'root.txt', 1, " +
+                "1340283204450, 'yossis', 1340283204450, 'yossis', 1340283204450, 7, " +
+                "'ecab88fc2a043c2479a6de676a2f8179e9ea2167', NULL, '002a360ecad98a34b59863c1e65bcf71', NULL)");
+        jdbcHelper.executeUpdate("INSERT INTO nodes VALUES (9004, 1, 'repo2', 'com/jfrog', 'other.jar', 3, " +
+                "1340283204451, 'yossis', 1340283204451, 'yossis', 1340283204451, 11, " +
+                "'ecab88fc2a043c2479a6de676a2f8179e9ea2167', NULL, '002a360ecad98a34b59863c1e65bcf71', NULL)");
+
+        aggregatesService.recalculate();
+
+        assertEquals(aggregatesService.getFilesCount(repo2("")), countFiles("repo2"));
+        assertEquals(aggregatesService.getFilesSize(repo2("")), TEST_JAR_SIZE + TEST2_JAR_SIZE + 42 + 7 + 11);
+        assertEquals(aggregatesService.getFilesCount(repo2("com")), 1);
+        assertEquals(aggregatesService.getFilesCount(repo2("org")), 3);
+        assertEquals(aggregatesService.getLastModifiedFileId(repo2("")), 9004);
+    }
+
+    private RepoPath repo2(String path) {
+        return new RepoPathImpl("repo2", path);
+    }
+
+    private long countFiles(String repo) throws SQLException {
+        ResultSet resultSet = null;
+        try {
+            if (repo == null) {
+                resultSet = jdbcHelper.executeSelect("SELECT COUNT(*) FROM nodes WHERE node_type = 1");
+            } else {
+                resultSet = jdbcHelper.executeSelect(
+                        "SELECT COUNT(*) FROM nodes WHERE node_type = 1 AND repo = ?", repo);
+            }
+            resultSet.next();
+            return resultSet.getLong(1);
+        } finally {
+            DbUtils.close(resultSet);
+        }
+    }
+
+    private long countLogEntries() throws SQLException {
+        ResultSet resultSet = null;
+        try {
+            resultSet = jdbcHelper.executeSelect("SELECT COUNT(*) FROM folder_aggregates_log");
+            resultSet.next();
+            return resultSet.getLong(1);
+        } finally {
+            DbUtils.close(resultSet);
+        }
+    }
+}
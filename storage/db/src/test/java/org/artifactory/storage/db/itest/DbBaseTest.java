@@ -23,18 +23,20 @@ import org.apache.commons.dbcp.PoolingDataSource;
 import org.apache.commons.lang.RandomStringUtils;
 import org.apache.commons.pool.impl.GenericObjectPool;
 import org.artifactory.api.config.CentralConfigService;
-import org.artifactory.api.context.ArtifactoryContext;
 import org.artifactory.api.context.ArtifactoryContextThreadBinder;
 import org.artifactory.api.repo.RepositoryService;
 import org.artifactory.api.security.AuthorizationService;
 import org.artifactory.common.ArtifactoryHome;
 import org.artifactory.sapi.common.ExportSettings;
 import org.artifactory.sapi.common.ImportSettings;
+import org.artifactory.schedule.TaskService;
 import org.artifactory.spring.SpringConfigPaths;
 import org.artifactory.storage.StorageProperties;
+import org.artifactory.storage.binstore.service.BinaryStore;
 import org.artifactory.storage.db.DbServiceImpl;
 import org.artifactory.storage.db.util.DbUtils;
 import org.artifactory.storage.db.util.JdbcHelper;
+import org.artifactory.storage.spring.ArtifactoryStorageContext;
 import org.artifactory.test.ArtifactoryHomeBoundTest;
 import org.artifactory.test.TestUtils;
 import org.artifactory.util.ResourceUtils;
@@ -160,7 +162,7 @@ public abstract class DbBaseTest extends AbstractTestNGSpringContextTests {
         ArtifactoryContextThreadBinder.unbind();
     }
 
-    public class DummyArtifactoryContext implements ArtifactoryContext {
+    public class DummyArtifactoryContext implements ArtifactoryStorageContext {
         @Override
         public CentralConfigService getCentralConfig() {
             return applicationContext.getBean(CentralConfigService.class);
@@ -225,6 +227,21 @@ public abstract class DbBaseTest extends AbstractTestNGSpringContextTests {
         public void importFrom(ImportSettings settings) {
             throw new UnsupportedOperationException("No import here");
         }
+
+        @Override
+        public BinaryStore getBinaryStore() {
+            return applicationContext.getBean(BinaryStore.class);
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public TaskService getTaskService() {
+            throw new UnsupportedOperationException("No tasks here");
+        }
     }
 
 }
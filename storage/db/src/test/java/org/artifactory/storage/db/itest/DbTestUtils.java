@@ -43,13 +43,14 @@ public class DbTestUtils {
      * A list of all the tables in the database
      */
     public static String[] tables = new String[]{
+            "folder_aggregates_log", "folder_aggregates",
             "stats", "watches", "node_props", "node_meta_infos", "nodes",
             "indexed_archives_entries", "archive_names", "archive_paths", "indexed_archives",
             "binary_blobs", "binaries",
             "aces", "acls", "users_groups", "groups", "users",
             "permission_target_repos", "permission_targets",
             "configs", "tasks",
-            "module_props", "build_props", "build_jsons", "build_promotions",
+            "module_props", "build_latest", "build_props", "build_jsons", "build_promotions",
             "build_dependencies", "build_artifacts", "build_modules", "builds",
             "unique_ids"
     };
@@ -92,7 +93,11 @@ public class DbTestUtils {
 
     private static void createSchema(Connection con, DbType dbType) throws SQLException, IOException {
         // read ddl from file and execute
-        DbUtils.executeSqlStream(con, getDbSchemaSql(dbType));
+        DbUtils.executeSqlStream(con, getDbSchemaSql(dbType, ""));
+        DbUtils.executeSqlStream(con, getDbSchemaSql(dbType, "_folder_aggregates"));
+        DbUtils.executeSqlStream(con, getDbSchemaSql(dbType, "_folder_aggregates_log"));
+        DbUtils.executeSqlStream(con, getDbSchemaSql(dbType, "_build_latest"));
+        DbUtils.executeSqlStream(con, getDbSchemaSql(dbType, "_stats_indexes"));
     }
 
     private static boolean tableExists(String tableName, Connection con) throws SQLException {
@@ -108,8 +113,8 @@ public class DbTestUtils {
         return tableExists;
     }
 
-    private static InputStream getDbSchemaSql(DbType dbType) {
+    private static InputStream getDbSchemaSql(DbType dbType, String suffix) {
         String dbConfigDir = dbType.toString();
-        return ResourceUtils.getResource("/" + dbConfigDir + "/" + dbConfigDir + ".sql");
+        return ResourceUtils.getResource("/" + dbConfigDir + "/" + dbConfigDir + suffix + ".sql");
     }
 }
@@ -0,0 +1,140 @@
+/*
+ * Artifactory is a binaries repository manager.
+ * Copyright (C) 2012 JFrog Ltd.
+ *
+ * Artifactory is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Artifactory is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Artifactory.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.artifactory.storage.db.search.itest;
+
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
+import org.artifactory.sapi.search.ArchiveEntryRow;
+import org.artifactory.sapi.search.InvalidQueryRuntimeException;
+import org.artifactory.sapi.search.VfsQuery;
+import org.artifactory.sapi.search.VfsQueryCursor;
+import org.artifactory.sapi.search.VfsQueryResultType;
+import org.artifactory.sapi.search.VfsQueryRow;
+import org.artifactory.sapi.search.VfsQueryService;
+import org.artifactory.storage.db.itest.DbBaseTest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.util.Iterator;
+import java.util.List;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.testng.Assert.*;
+
+/**
+ * Tests the keyset paginated cursors of {@link org.artifactory.storage.db.search.model.VfsQueryDbImpl}.
+ */
+@Test
+public class VfsQueryCursorTest extends DbBaseTest {
+
+    @Autowired
+    private VfsQueryService queryService;
+
+    @BeforeClass
+    public void setup() {
+        importSql("/sql/nodes-for-service.sql");
+    }
+
+    public void readAllRowsInPages() {
+        List<String> rows = readPaths(repo2Query().executeCursor(null, 2));
+        assertThat(rows).hasSize(6).doesNotHaveDuplicates()
+                .isEqualTo(readPaths(repo2Query().executeCursor(null, 100)));
+        assertEquals(rows.get(0), "repo2");
+        assertEquals(rows.get(5), "repo2/org/jfrog/test/test2.jar");
+    }
+
+    public void mergeRowsOfNodeSpanningPages() {
+        // each indexed jar has 3 entries, more than a page
+        VfsQueryCursor cursor = queryService.createQuery().expectedResult(VfsQueryResultType.ARCHIVE_ENTRY)
+                .archiveName("*").executeCursor(null, 2);
+        List<VfsQueryRow> rows = Lists.newArrayList(cursor);
+        assertEquals(rows.size(), 2);
+        assertEquals(rows.get(0).getItem().getRepoPath().toPath(), "repo1/ant/ant/1.5/ant-1.5.jar");
+        assertEquals(rows.get(1).getItem().getRepoPath().toPath(), "repo2/org/jfrog/test/test.jar");
+        for (VfsQueryRow row : rows) {
+            List<String> entries = Lists.newArrayList();
+            for (ArchiveEntryRow entry : row.getArchiveEntries()) {
+                entries.add(entry.getEntryPath() + "/" + entry.getEntryName());
+            }
+            assertThat(entries).containsOnly("META-INF/LICENSE.txt", "META-INF/MANIFEST.MF",
+                    "org/apache/tools/ant/filters/BaseFilterReader.class");
+        }
+        assertNull(cursor.getContinuationToken());
+    }
+
+    public void mergeRowsOfNodeWithMultiplePropertyValues() {
+        VfsQuery query = queryService.createQuery().prop("yossis").val("value*");
+        List<VfsQueryRow> rows = Lists.newArrayList(query.executeCursor(null, 1));
+        assertEquals(rows.size(), 1);
+        assertEquals(rows.get(0).getItem().getRepoPath().toPath(), "repo1/org/yossis");
+    }
+
+    public void continuationTokenResumesAfterLastRow() {
+        VfsQueryCursor cursor = repo2Query().executeCursor(null, 4);
+        List<String> firstRows = Lists.newArrayList();
+        Iterator<VfsQueryRow> rows = cursor.iterator();
+        for (int i = 0; i < 3; i++) {
+            firstRows.add(rows.next().getItem().getRepoPath().toPath());
+        }
+        String token = cursor.getContinuationToken();
+        assertNotNull(token);
+
+        List<String> nextRows = readPaths(repo2Query().executeCursor(token, 4));
+        assertThat(nextRows).hasSize(3).excludes(firstRows.toArray());
+        assertEquals(Lists.newArrayList(Iterables.concat(firstRows, nextRows)),
+                readPaths(repo2Query().executeCursor(null, 100)));
+    }
+
+    public void lastPageEndsCursor() {
+        // a full page may be followed by more rows of its last node, so a page of exactly all the rows is not last
+        VfsQueryCursor cursor = repo2Query().executeCursor(null, 6);
+        assertEquals(readPaths(cursor).size(), 6);
+        assertNull(cursor.getContinuationToken());
+
+        VfsQueryCursor emptyCursor = queryService.createQuery().setSingleRepoKey("no-such-repo")
+                .executeCursor(null, 6);
+        assertFalse(emptyCursor.iterator().hasNext());
+        assertNull(emptyCursor.getContinuationToken());
+    }
+
+    @Test(expectedExceptions = InvalidQueryRuntimeException.class)
+    public void invalidContinuationToken() {
+        repo2Query().executeCursor("not-a-node-id", 2);
+    }
+
+    @Test(expectedExceptions = IllegalStateException.class)
+    public void cursorIteratedOnce() {
+        VfsQueryCursor cursor = repo2Query().executeCursor(null, 2);
+        readPaths(cursor);
+        cursor.iterator();
+    }
+
+    private VfsQuery repo2Query() {
+        return queryService.createQuery().setSingleRepoKey("repo2");
+    }
+
+    private List<String> readPaths(VfsQueryCursor cursor) {
+        List<String> paths = Lists.newArrayList();
+        for (VfsQueryRow row : cursor) {
+            paths.add(row.getItem().getRepoPath().toPath());
+        }
+        return paths;
+    }
+}
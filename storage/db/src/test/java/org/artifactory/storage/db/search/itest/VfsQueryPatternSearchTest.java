@@ -0,0 +1,160 @@
+/*
+ * Artifactory is a binaries repository manager.
+ * Copyright (C) 2012 JFrog Ltd.
+ *
+ * Artifactory is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Artifactory is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Artifactory.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.artifactory.storage.db.search.itest;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import org.apache.commons.lang.StringUtils;
+import org.artifactory.fs.ItemInfo;
+import org.artifactory.model.common.RepoPathImpl;
+import org.artifactory.repo.RepoPath;
+import org.artifactory.sapi.search.VfsQuery;
+import org.artifactory.sapi.search.VfsQueryResultType;
+import org.artifactory.sapi.search.VfsQueryRow;
+import org.artifactory.sapi.search.VfsQueryService;
+import org.artifactory.storage.db.itest.DbBaseTest;
+import org.artifactory.storage.fs.service.FileService;
+import org.artifactory.util.PathMatcher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.testng.Assert.assertEquals;
+
+/**
+ * Tests that the single query pattern search of local repositories (see SearchServiceImpl.searchArtifactsByPattern)
+ * returns the same paths as the folder by folder walk it replaced.
+ */
+@Test
+public class VfsQueryPatternSearchTest extends DbBaseTest {
+
+    @Autowired
+    private VfsQueryService queryService;
+
+    @Autowired
+    private FileService fileService;
+
+    @BeforeClass
+    public void setup() {
+        importSql("/sql/nodes-for-pattern-search.sql");
+    }
+
+    @DataProvider
+    public Object[][] patterns() {
+        return new Object[][]{
+                {"libs", "org/*/*/*.jar", new String[]{"org/jfrog/test/test_1.jar", "org/jfrog/test/testX1.jar",
+                        "org/my_lib/1.0/my_lib-1.0.jar", "org/myXlib/1.0/myXlib-1.0.jar"}},
+                // the database wildcards of '_' and '?' are looser than the pattern
+                {"libs", "org/jfrog/test/test_1.jar", new String[]{"org/jfrog/test/test_1.jar"}},
+                {"libs", "org/my_lib/*/*", new String[]{"org/my_lib/1.0/my_lib-1.0.jar"}},
+                {"libs", "org/?frog/te?t/test?1.jar", new String[]{"org/jfrog/test/test_1.jar",
+                        "org/jfrog/test/testX1.jar"}},
+                // files only, at the exact depth of the pattern
+                {"libs", "org/jfrog/test/*", new String[]{"org/jfrog/test/test_1.jar", "org/jfrog/test/testX1.jar"}},
+                {"libs", "*", new String[]{"top.jar"}},
+                {"libs", "*/*/*", new String[]{"org/jfrog/readme.txt"}},
+                {"libs", "org/jfrog/test/nested/deep.jar", new String[]{"org/jfrog/test/nested/deep.jar"}},
+                // global excludes
+                {"libs", "org/jfrog/test/*~", new String[0]},
+                {"libs", "org/jfrog/*/entries.jar", new String[0]},
+                {"libs", "org/nothing/*", new String[0]},
+                // the same paths in another repository
+                {"libs-copy", "org/*/*/*.jar", new String[]{"org/jfrog/test/test_1.jar",
+                        "org/jfrog/test/copy-only.jar"}},
+                {"libs-copy", "org/my_lib/*/*", new String[0]},
+                {"no-such-repo", "org/*/*/*.jar", new String[0]}
+        };
+    }
+
+    @Test(dataProvider = "patterns")
+    public void queryMatchesWalk(String repoKey, String pattern, String[] expected) {
+        List<String> fragments = Lists.newArrayList(StringUtils.split(pattern, "/"));
+        Set<String> walked = Sets.newHashSet();
+        collectByWalk(fragments, walked, new RepoPathImpl(repoKey, ""));
+        Set<String> queried = collectByQuery(fragments, repoKey);
+        assertEquals(queried, walked, "Pattern " + repoKey + ":" + pattern);
+        assertThat(queried).containsOnly((Object[]) expected);
+    }
+
+    /**
+     * Builds the single query the same way the pattern search does
+     */
+    private Set<String> collectByQuery(List<String> fragments, String repoKey) {
+        int fragmentsCount = fragments.size();
+        VfsQuery query = queryService.createQuery().setSingleRepoKey(repoKey)
+                .expectedResult(VfsQueryResultType.FILE).depth(fragmentsCount);
+        if (fragmentsCount > 1) {
+            query.addPathFilter(StringUtils.join(fragments.subList(0, fragmentsCount - 1), "/"));
+        }
+        query.name(fragments.get(fragmentsCount - 1));
+        Set<String> paths = Sets.newHashSet();
+        for (VfsQueryRow row : query.executeCursor(null, 2)) {
+            String path = row.getItem().getRepoPath().getPath();
+            if (matches(fragments, StringUtils.split(path, "/"))) {
+                paths.add(path);
+            }
+        }
+        return paths;
+    }
+
+    /**
+     * The folder by folder walk of the pattern search before it was compiled to a single query
+     */
+    private void collectByWalk(List<String> fragments, Set<String> paths, RepoPath repoPath) {
+        if (!fileService.exists(repoPath)) {
+            return;
+        }
+        ItemInfo itemInfo = fileService.loadItem(repoPath);
+        if (fragments.isEmpty()) {
+            if (!itemInfo.isFolder()) {
+                paths.add(repoPath.getPath());
+            }
+            return;
+        }
+        if (!itemInfo.isFolder()) {
+            return;
+        }
+        for (ItemInfo child : fileService.loadChildren(repoPath)) {
+            if (fragmentMatches(fragments.get(0), child.getName())) {
+                collectByWalk(fragments.subList(1, fragments.size()), paths, child.getRepoPath());
+            }
+        }
+    }
+
+    private boolean matches(List<String> fragments, String[] pathElements) {
+        if (pathElements.length != fragments.size()) {
+            return false;
+        }
+        for (int i = 0; i < pathElements.length; i++) {
+            if (!fragmentMatches(fragments.get(i), pathElements[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean fragmentMatches(String fragment, String name) {
+        return PathMatcher.matches(name, Lists.newArrayList(fragment), PathMatcher.getGlobalExcludes());
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Artifactory is a binaries repository manager.
+ * Copyright (C) 2012 JFrog Ltd.
+ *
+ * Artifactory is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Artifactory is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Artifactory.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.artifactory.storage.db.util;
+
+import org.apache.commons.io.IOUtils;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Tests {@link org.artifactory.storage.db.util.JsonBlobWrapper}.
+ */
+@Test
+public class JsonBlobWrapperTest {
+
+    public void openPlainJson() throws IOException {
+        InputStream in = JsonBlobWrapper.openJsonStream(new ByteArrayInputStream(bytes("{\"name\":\"plain\"}")));
+        assertEquals(IOUtils.toString(in, "UTF-8"), "{\"name\":\"plain\"}");
+    }
+
+    public void openGzippedJson() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        GZIPOutputStream gzipStream = new GZIPOutputStream(out);
+        gzipStream.write(bytes("{\"name\":\"gzipped\"}"));
+        gzipStream.close();
+        InputStream in = JsonBlobWrapper.openJsonStream(new ByteArrayInputStream(out.toByteArray()));
+        assertEquals(IOUtils.toString(in, "UTF-8"), "{\"name\":\"gzipped\"}");
+    }
+
+    public void openShortAndEmptyBlobs() throws IOException {
+        assertEquals(IOUtils.toString(JsonBlobWrapper.openJsonStream(new ByteArrayInputStream(bytes("1")))), "1");
+        assertEquals(IOUtils.toString(JsonBlobWrapper.openJsonStream(new ByteArrayInputStream(new byte[0]))), "");
+    }
+
+    public void compressedRoundTrip() throws IOException {
+        JsonBlobWrapper blobWrapper = new JsonBlobWrapper(new DummyJson("round-trip"), true);
+        byte[] stored = IOUtils.toByteArray(blobWrapper.getInputStream());
+        assertEquals(stored[0], (byte) 0x1f);
+        assertEquals(stored[1], (byte) 0x8b);
+        String json = IOUtils.toString(JsonBlobWrapper.openJsonStream(new ByteArrayInputStream(stored)), "UTF-8");
+        assertTrue(json.contains("\"round-trip\""), "Unexpected JSON: " + json);
+    }
+
+    private static byte[] bytes(String data) throws IOException {
+        return data.getBytes("UTF-8");
+    }
+
+    public static class DummyJson {
+        public String name;
+
+        public DummyJson(String name) {
+            this.name = name;
+        }
+    }
+}
@@ -24,3 +24,6 @@ INSERT INTO build_promotions VALUES
 (4, 1350023000000, 'tester', 'rollback', 'lost-local', 'Refused by QA', NULL),
 (4, 1350013000000, 'promoter', 'promoted', 'qa-local', 'sending to QA', 'me');
 
+INSERT INTO build_latest VALUES
+('ba', 5, 1349004000000),
+('bb', 4, 1349003000000);
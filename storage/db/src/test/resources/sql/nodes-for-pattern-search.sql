@@ -0,0 +1,31 @@
+UPDATE unique_ids SET current_id = 10000 WHERE index_type = 'general';
+
+INSERT INTO binaries VALUES
+('dcab88fc2a043c2479a6de676a2f8179e9ea2167', '902a360ecad98a34b59863c1e65bcf71', 3);
+
+INSERT INTO nodes VALUES
+(1000, 0, 'libs', '.', '.', 0, 1340283204448, 'yossis', 1340283204448, 'yossis', 1340283204448, 0, NULL, NULL, NULL, NULL),
+(1001, 0, 'libs', '.', 'org', 1, 1340283204448, 'yossis', 1340283204448, 'yossis', 1340283204448, 0, NULL, NULL, NULL, NULL),
+(1002, 0, 'libs', 'org', 'jfrog', 2, 1340283204448, 'yossis', 1340283204448, 'yossis', 1340283204448, 0, NULL, NULL, NULL, NULL),
+(1003, 0, 'libs', 'org/jfrog', 'test', 3, 1340283204448, 'yossis', 1340283204448, 'yossis', 1340283204448, 0, NULL, NULL, NULL, NULL),
+(1004, 1, 'libs', 'org/jfrog/test', 'test_1.jar', 4, 1340283204448, 'yossis', 1340283204448, 'yossis', 1340283204448, 3, 'dcab88fc2a043c2479a6de676a2f8179e9ea2167', 'dcab88fc2a043c2479a6de676a2f8179e9ea2167', '902a360ecad98a34b59863c1e65bcf71', '902a360ecad98a34b59863c1e65bcf71'),
+(1005, 1, 'libs', 'org/jfrog/test', 'testX1.jar', 4, 1340283204448, 'yossis', 1340283204448, 'yossis', 1340283204448, 3, 'dcab88fc2a043c2479a6de676a2f8179e9ea2167', 'dcab88fc2a043c2479a6de676a2f8179e9ea2167', '902a360ecad98a34b59863c1e65bcf71', '902a360ecad98a34b59863c1e65bcf71'),
+(1006, 1, 'libs', 'org/jfrog/test', 'test.jar~', 4, 1340283204448, 'yossis', 1340283204448, 'yossis', 1340283204448, 3, 'dcab88fc2a043c2479a6de676a2f8179e9ea2167', 'dcab88fc2a043c2479a6de676a2f8179e9ea2167', '902a360ecad98a34b59863c1e65bcf71', '902a360ecad98a34b59863c1e65bcf71'),
+(1007, 0, 'libs', 'org/jfrog/test', 'nested', 4, 1340283204448, 'yossis', 1340283204448, 'yossis', 1340283204448, 0, NULL, NULL, NULL, NULL),
+(1008, 1, 'libs', 'org/jfrog/test/nested', 'deep.jar', 5, 1340283204448, 'yossis', 1340283204448, 'yossis', 1340283204448, 3, 'dcab88fc2a043c2479a6de676a2f8179e9ea2167', 'dcab88fc2a043c2479a6de676a2f8179e9ea2167', '902a360ecad98a34b59863c1e65bcf71', '902a360ecad98a34b59863c1e65bcf71'),
+(1009, 0, 'libs', 'org/jfrog', 'CVS', 3, 1340283204448, 'yossis', 1340283204448, 'yossis', 1340283204448, 0, NULL, NULL, NULL, NULL),
+(1010, 1, 'libs', 'org/jfrog/CVS', 'entries.jar', 4, 1340283204448, 'yossis', 1340283204448, 'yossis', 1340283204448, 3, 'dcab88fc2a043c2479a6de676a2f8179e9ea2167', 'dcab88fc2a043c2479a6de676a2f8179e9ea2167', '902a360ecad98a34b59863c1e65bcf71', '902a360ecad98a34b59863c1e65bcf71'),
+(1011, 1, 'libs', 'org/jfrog', 'readme.txt', 3, 1340283204448, 'yossis', 1340283204448, 'yossis', 1340283204448, 3, 'dcab88fc2a043c2479a6de676a2f8179e9ea2167', 'dcab88fc2a043c2479a6de676a2f8179e9ea2167', '902a360ecad98a34b59863c1e65bcf71', '902a360ecad98a34b59863c1e65bcf71'),
+(1012, 0, 'libs', 'org', 'my_lib', 2, 1340283204448, 'yossis', 1340283204448, 'yossis', 1340283204448, 0, NULL, NULL, NULL, NULL),
+(1013, 0, 'libs', 'org/my_lib', '1.0', 3, 1340283204448, 'yossis', 1340283204448, 'yossis', 1340283204448, 0, NULL, NULL, NULL, NULL),
+(1014, 1, 'libs', 'org/my_lib/1.0', 'my_lib-1.0.jar', 4, 1340283204448, 'yossis', 1340283204448, 'yossis', 1340283204448, 3, 'dcab88fc2a043c2479a6de676a2f8179e9ea2167', 'dcab88fc2a043c2479a6de676a2f8179e9ea2167', '902a360ecad98a34b59863c1e65bcf71', '902a360ecad98a34b59863c1e65bcf71'),
+(1015, 0, 'libs', 'org', 'myXlib', 2, 1340283204448, 'yossis', 1340283204448, 'yossis', 1340283204448, 0, NULL, NULL, NULL, NULL),
+(1016, 0, 'libs', 'org/myXlib', '1.0', 3, 1340283204448, 'yossis', 1340283204448, 'yossis', 1340283204448, 0, NULL, NULL, NULL, NULL),
+(1017, 1, 'libs', 'org/myXlib/1.0', 'myXlib-1.0.jar', 4, 1340283204448, 'yossis', 1340283204448, 'yossis', 1340283204448, 3, 'dcab88fc2a043c2479a6de676a2f8179e9ea2167', 'dcab88fc2a043c2479a6de676a2f8179e9ea2167', '902a360ecad98a34b59863c1e65bcf71', '902a360ecad98a34b59863c1e65bcf71'),
+(1018, 1, 'libs', '.', 'top.jar', 1, 1340283204448, 'yossis', 1340283204448, 'yossis', 1340283204448, 3, 'dcab88fc2a043c2479a6de676a2f8179e9ea2167', 'dcab88fc2a043c2479a6de676a2f8179e9ea2167', '902a360ecad98a34b59863c1e65bcf71', '902a360ecad98a34b59863c1e65bcf71'),
+(1100, 0, 'libs-copy', '.', '.', 0, 1340283204448, 'yossis', 1340283204448, 'yossis', 1340283204448, 0, NULL, NULL, NULL, NULL),
+(1101, 0, 'libs-copy', '.', 'org', 1, 1340283204448, 'yossis', 1340283204448, 'yossis', 1340283204448, 0, NULL, NULL, NULL, NULL),
+(1102, 0, 'libs-copy', 'org', 'jfrog', 2, 1340283204448, 'yossis', 1340283204448, 'yossis', 1340283204448, 0, NULL, NULL, NULL, NULL),
+(1103, 0, 'libs-copy', 'org/jfrog', 'test', 3, 1340283204448, 'yossis', 1340283204448, 'yossis', 1340283204448, 0, NULL, NULL, NULL, NULL),
+(1104, 1, 'libs-copy', 'org/jfrog/test', 'test_1.jar', 4, 1340283204448, 'yossis', 1340283204448, 'yossis', 1340283204448, 3, 'dcab88fc2a043c2479a6de676a2f8179e9ea2167', 'dcab88fc2a043c2479a6de676a2f8179e9ea2167', '902a360ecad98a34b59863c1e65bcf71', '902a360ecad98a34b59863c1e65bcf71'),
+(1105, 1, 'libs-copy', 'org/jfrog/test', 'copy-only.jar', 4, 1340283204448, 'yossis', 1340283204448, 'yossis', 1340283204448, 3, 'dcab88fc2a043c2479a6de676a2f8179e9ea2167', 'dcab88fc2a043c2479a6de676a2f8179e9ea2167', '902a360ecad98a34b59863c1e65bcf71', '902a360ecad98a34b59863c1e65bcf71');
@@ -0,0 +1,138 @@
+/*
+ * Artifactory is a binaries repository manager.
+ * Copyright (C) 2012 JFrog Ltd.
+ *
+ * Artifactory is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Artifactory is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Artifactory.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.artifactory.storage.fs.lock;
+
+import com.google.common.collect.Lists;
+import org.artifactory.model.common.RepoPathImpl;
+import org.artifactory.repo.RepoPath;
+import org.artifactory.test.ArtifactoryHomeBoundTest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.Assert.*;
+
+/**
+ * A contention stress harness for the {@link FsItemsVault} locks. Worker threads lock a small set of hot paths most of
+ * the time and a larger set of cold paths the rest of the time, and verify that the lock statistics account for every
+ * acquisition. The load can be raised with the {@code stress.threads} and {@code stress.iterations} system properties.
+ */
+@Test
+public class FsItemsVaultContentionStressTest extends ArtifactoryHomeBoundTest {
+    private static final Logger log = LoggerFactory.getLogger(FsItemsVaultContentionStressTest.class);
+
+    private static final int HOT_PATHS = 4;
+    private static final int COLD_PATHS = 200;
+    private static final int HOT_PATHS_PERCENT = 80;
+
+    @DataProvider
+    public Object[][] stripes() {
+        return new Object[][]{{0}, {16}};
+    }
+
+    @Test(dataProvider = "stripes")
+    public void hotPathsContention(int stripes) throws Exception {
+        final int threads = Integer.getInteger("stress.threads", 8);
+        final int iterations = Integer.getInteger("stress.iterations", 2000);
+        final FsItemsVault vault = new FsItemsVault(stripes, 100);
+        final List<RepoPath> paths = Lists.newArrayList();
+        for (int i = 0; i < HOT_PATHS + COLD_PATHS; i++) {
+            paths.add(new RepoPathImpl("repo", "org/module/" + i + "/maven-metadata.xml"));
+        }
+        // guarded by the lock of the matching path
+        final int[] counters = new int[paths.size()];
+        final CyclicBarrier start = new CyclicBarrier(threads);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<Object>> results = Lists.newArrayList();
+        long startTime = System.nanoTime();
+        try {
+            for (int t = 0; t < threads; t++) {
+                final Random random = new Random(t);
+                results.add(executor.submit(new Callable<Object>() {
+                    @Override
+                    public Object call() throws Exception {
+                        start.await();
+                        for (int i = 0; i < iterations; i++) {
+                            int index = random.nextInt(100) < HOT_PATHS_PERCENT ?
+                                    random.nextInt(HOT_PATHS) : HOT_PATHS + random.nextInt(COLD_PATHS);
+                            SessionLockEntry lockEntry = new SessionLockEntry(vault.getLock(paths.get(index)));
+                            lockEntry.acquireWriteLock();
+                            try {
+                                counters[index]++;
+                            } finally {
+                                assertTrue(lockEntry.releaseWriteLock(), "Lock not released");
+                            }
+                        }
+                        return null;
+                    }
+                }));
+            }
+            for (Future<Object> result : results) {
+                result.get(5, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+
+        long total = 0;
+        for (int counter : counters) {
+            total += counter;
+        }
+        long expected = (long) threads * iterations;
+        assertEquals(total, expected, "Lost updates on paths guarded by the vault locks");
+
+        FsItemLockStatistics statistics = vault.getStatistics();
+        assertEquals(statistics.getAcquiredCount(), expected, "Unexpected acquired locks count");
+        assertEquals(statistics.getHoldTimes().getCount(), expected, "Unexpected released locks count");
+        assertEquals(statistics.getTimeoutsCount(), 0, "No lock should time out");
+        assertTrue(statistics.getContendedCount() <= expected, "More contended than acquired locks");
+        log.info("Stripes: {}, {} locks in {}ms, contended: {}, wait: [{}], top contended: {}", stripes, expected,
+                elapsedMillis, statistics.getContendedCount(), statistics.getWaitTimes(),
+                statistics.getTopContendedPaths(HOT_PATHS));
+    }
+
+    public void stripeSharedBetweenPathsOfTheSameSession() {
+        FsItemsVault vault = new FsItemsVault(1, 100);
+        SessionLockEntry first = new SessionLockEntry(vault.getLock(new RepoPathImpl("repo", "a")));
+        SessionLockEntry second = new SessionLockEntry(vault.getLock(new RepoPathImpl("repo", "b")));
+        first.acquireWriteLock();
+        assertFalse(second.isWriteLockedByMe(), "Holding the shared stripe doesn't lock the second path");
+        second.acquireWriteLock();
+        assertTrue(second.isWriteLockedByMe());
+
+        assertTrue(second.releaseWriteLock());
+        assertTrue(first.isWriteLockedByMe(), "Releasing the second path shouldn't release the first");
+        assertTrue(first.releaseWriteLock());
+        assertFalse(vault.getLock(new RepoPathImpl("repo", "a")).getLock().isLocked(), "Stripe should be free");
+        assertEquals(vault.getStatistics().getAcquiredCount(), 2);
+        assertEquals(vault.getStatistics().getContendedCount(), 0);
+    }
+}
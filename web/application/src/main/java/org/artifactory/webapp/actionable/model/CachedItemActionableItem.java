@@ -18,6 +18,8 @@
 
 package org.artifactory.webapp.actionable.model;
 
+import com.google.common.collect.Lists;
+import org.artifactory.api.repo.ChildrenPage;
 import org.artifactory.api.repo.RepositoryService;
 import org.artifactory.fs.FileInfo;
 import org.artifactory.fs.FolderInfo;
@@ -42,6 +44,12 @@ public abstract class CachedItemActionableItem extends RepoAwareActionableItemBa
     @Nullable
     protected List<ActionableItem> children;
 
+    /**
+     * Continuation of the next children page, null if all the children were loaded
+     */
+    @Nullable
+    private String childrenContinuation;
+
     protected CachedItemActionableItem(RepoPath repoPath) {
         super(repoPath);
     }
@@ -70,6 +78,58 @@ public abstract class CachedItemActionableItem extends RepoAwareActionableItemBa
         return true;
     }
 
+    /**
+     * Loads the first page of children, dropping any previously loaded children.
+     */
+    protected void reloadChildren() {
+        children = Lists.newArrayList();
+        childrenContinuation = null;
+        loadChildrenPage();
+    }
+
+    /**
+     * Appends the next page of children to the loaded children. The last child is a {@link MoreChildrenActionableItem}
+     * as long as there are more pages to load.
+     */
+    public void loadMoreChildren() {
+        if (children == null) {
+            reloadChildren();
+        } else if (childrenContinuation != null) {
+            loadChildrenPage();
+        }
+    }
+
+    private void loadChildrenPage() {
+        ChildrenPage page = getRepoService().getChildren(getChildrenFolderPath(), childrenContinuation, 0);
+        //No need to check for null as children is set before loading a page
+        //noinspection ConstantConditions
+        if (!children.isEmpty() && children.get(children.size() - 1) instanceof MoreChildrenActionableItem) {
+            children.remove(children.size() - 1);
+        }
+        for (ItemInfo pathItem : page.getChildren()) {
+            if (acceptChild(pathItem)) {
+                children.add(getChildItem(pathItem, pathItem.getRelPath(), isCompactAllowed()));
+            }
+        }
+        childrenContinuation = page.getContinuation();
+        if (childrenContinuation != null) {
+            children.add(new MoreChildrenActionableItem(this));
+        }
+    }
+
+    /**
+     * @return The repo path of the folder which children are displayed under this item
+     */
+    protected abstract RepoPath getChildrenFolderPath();
+
+    /**
+     * @param pathItem A readable child of the folder
+     * @return True if the child should be displayed
+     */
+    protected boolean acceptChild(ItemInfo pathItem) {
+        return getRepoService().isRepoPathVisible(pathItem.getRepoPath());
+    }
+
     /**
      * Returns a new child item
      *
@@ -18,15 +18,12 @@
 
 package org.artifactory.webapp.actionable.model;
 
-import com.google.common.collect.Lists;
 import org.artifactory.addon.AddonsManager;
 import org.artifactory.addon.wicket.WatchAddon;
-import org.artifactory.api.repo.RepositoryService;
 import org.artifactory.api.security.AuthorizationService;
 import org.artifactory.fs.FolderInfo;
 import org.artifactory.fs.ItemInfo;
 import org.artifactory.mime.NamingUtils;
-import org.artifactory.repo.InternalRepoPathFactory;
 import org.artifactory.repo.RepoPath;
 import org.artifactory.webapp.actionable.ActionableItem;
 import org.artifactory.webapp.actionable.CannonicalEnabledActionableFolder;
@@ -155,31 +152,22 @@ public class FolderActionableItem extends CachedItemActionableItem
     public List<ActionableItem> getChildren(AuthorizationService authService) {
         boolean childrenCacheUpToDate = childrenCacheUpToDate();
         if (!childrenCacheUpToDate) {
-            RepositoryService repoService = getRepoService();
-            List<ItemInfo> items = repoService.getChildren(getCanonicalPath());
-
-            children = Lists.newArrayListWithExpectedSize(items.size());
-            for (ItemInfo pathItem : items) {
-                //Check if we should return the child
-                String relativePath = pathItem.getRelPath();
-                RepoPath childRepoPath = InternalRepoPathFactory.create(pathItem.getRepoKey(), relativePath);
-                if (!repoService.isRepoPathVisible(childRepoPath)) {
-                    continue;
-                }
-
-                String name = pathItem.getName();
-                //Skip checksum files
-                if (NamingUtils.isChecksum(name)) {
-                    continue;
-                }
-                //No need to check for null as children is set before the iteration
-                //noinspection ConstantConditions
-                children.add(getChildItem(pathItem, relativePath, compactAllowed));
-            }
+            reloadChildren();
         }
         return children;
     }
 
+    @Override
+    protected RepoPath getChildrenFolderPath() {
+        return getCanonicalPath();
+    }
+
+    @Override
+    protected boolean acceptChild(ItemInfo pathItem) {
+        //Skip checksum files
+        return !NamingUtils.isChecksum(pathItem.getName()) && super.acceptChild(pathItem);
+    }
+
     @Override
     public boolean hasChildren(AuthorizationService authService) {
         RepoPath repoPath = getCanonicalPath();
@@ -18,15 +18,12 @@
 
 package org.artifactory.webapp.actionable.model;
 
-import com.google.common.collect.Lists;
 import org.artifactory.addon.AddonsManager;
 import org.artifactory.addon.wicket.BuildAddon;
 import org.artifactory.addon.wicket.WatchAddon;
 import org.artifactory.api.context.ContextHelper;
-import org.artifactory.api.repo.RepositoryService;
 import org.artifactory.api.security.AuthorizationService;
 import org.artifactory.descriptor.repo.LocalRepoDescriptor;
-import org.artifactory.fs.ItemInfo;
 import org.artifactory.repo.InternalRepoPathFactory;
 import org.artifactory.repo.RepoPath;
 import org.artifactory.webapp.actionable.ActionableItem;
@@ -107,23 +104,16 @@ public class LocalRepoActionableItem extends CachedItemActionableItem
     public List<ActionableItem> getChildren(AuthorizationService authService) {
         boolean childrenCacheUpToDate = childrenCacheUpToDate();
         if (!childrenCacheUpToDate) {
-            RepositoryService repoService = getRepoService();
-            List<ItemInfo> items = repoService.getChildren(getRepoPath());
-            children = Lists.newArrayListWithExpectedSize(items.size());
-
-            for (ItemInfo pathItem : items) {
-                RepoPath repoPath = pathItem.getRepoPath();
-                if (!repoService.isRepoPathVisible(repoPath)) {
-                    continue;
-                }
-                //No need to check for null as children is set before the iteration
-                //noinspection ConstantConditions
-                children.add(getChildItem(pathItem, pathItem.getRelPath(), compactAllowed));
-            }
+            reloadChildren();
         }
         return children;
     }
 
+    @Override
+    protected RepoPath getChildrenFolderPath() {
+        return getRepoPath();
+    }
+
     @Override
     public boolean hasChildren(AuthorizationService authService) {
         RepoPath repoPath = getRepoPath();
@@ -0,0 +1,65 @@
+/*
+ * Artifactory is a binaries repository manager.
+ * Copyright (C) 2012 JFrog Ltd.
+ *
+ * Artifactory is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Artifactory is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Artifactory.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.artifactory.webapp.actionable.model;
+
+import org.apache.wicket.markup.html.panel.EmptyPanel;
+import org.apache.wicket.markup.html.panel.Panel;
+import org.artifactory.api.security.AuthorizationService;
+import org.artifactory.webapp.actionable.ActionableItemBase;
+import org.artifactory.webapp.wicket.util.ItemCssClass;
+
+/**
+ * Placeholder displayed as the last child of a folder which children were only partially loaded. Selecting it loads
+ * the next page of children of the folder.
+ */
+public class MoreChildrenActionableItem extends ActionableItemBase {
+
+    private final CachedItemActionableItem parent;
+
+    public MoreChildrenActionableItem(CachedItemActionableItem parent) {
+        this.parent = parent;
+    }
+
+    public CachedItemActionableItem getParent() {
+        return parent;
+    }
+
+    public void loadMoreChildren() {
+        parent.loadMoreChildren();
+    }
+
+    @Override
+    public Panel newItemDetailsPanel(String id) {
+        return new EmptyPanel(id);
+    }
+
+    @Override
+    public String getDisplayName() {
+        return "More...";
+    }
+
+    @Override
+    public String getCssClass() {
+        return ItemCssClass.doc.getCssClass();
+    }
+
+    @Override
+    public void filterActions(AuthorizationService authService) {
+    }
+}
@@ -42,6 +42,7 @@ import org.artifactory.webapp.actionable.action.ItemActionListener;
 import org.artifactory.webapp.actionable.event.ItemEvent;
 import org.artifactory.webapp.actionable.model.Compactable;
 import org.artifactory.webapp.actionable.model.HierarchicActionableItem;
+import org.artifactory.webapp.actionable.model.MoreChildrenActionableItem;
 import org.artifactory.webapp.actionable.model.ZipFileActionableItem;
 import org.artifactory.webapp.wicket.actionable.tree.menu.ActionsMenuPanel;
 import org.slf4j.Logger;
@@ -144,6 +145,10 @@ public class ActionableItemsTree extends Tree implements ItemActionListener, Com
 
                     // get deepest node for the path (will also take care of compacted paths)
                     currentNode = defaultSelection.getNodeAt(parentNode, remainingPath);
+                    // the child might be on a children page that was not loaded yet
+                    while (currentNode == parentNode && loadMoreChildren(parentNode)) {
+                        currentNode = defaultSelection.getNodeAt(parentNode, remainingPath);
+                    }
                     if (currentNode == parentNode) {
                         throw new ItemNotFoundRuntimeException(
                                 format("Child node %s not found under %s",
@@ -262,8 +267,36 @@ public class ActionableItemsTree extends Tree implements ItemActionListener, Com
         debugGetChildren(item, "Got children for");
     }
 
+    /**
+     * Loads the next children page of the node if its children were only partially loaded.
+     *
+     * @param node The node to load more children for
+     * @return True if more children were loaded
+     */
+    private boolean loadMoreChildren(ActionableItemTreeNode node) {
+        int childCount = node.getChildCount();
+        if (childCount == 0) {
+            return false;
+        }
+        ActionableItem lastChild = ((ActionableItemTreeNode) node.getChildAt(childCount - 1)).getUserObject();
+        if (!(lastChild instanceof MoreChildrenActionableItem)) {
+            return false;
+        }
+        ((MoreChildrenActionableItem) lastChild).loadMoreChildren();
+        refreshChildren(node);
+        return true;
+    }
+
     @Override
     protected void onNodeLinkClicked(AjaxRequestTarget target, TreeNode node) {
+        ActionableItemTreeNode treeNode = (ActionableItemTreeNode) node;
+        if (treeNode.getUserObject() instanceof MoreChildrenActionableItem) {
+            // replace the placeholder with the next page of children
+            loadMoreChildren(treeNode.getParent());
+            target.add(this);
+            adjustLayout(target);
+            return;
+        }
         super.onNodeLinkClicked(target, node);
         selectNode(node);
         target.add(itemsProvider.getItemDisplayPanel());
@@ -63,6 +63,10 @@ public class DefaultRepoTreeSelection implements DefaultTreeSelection {
             Enumeration children = parentNode.children();
             while (children.hasMoreElements()) {
                 ActionableItemTreeNode child = (ActionableItemTreeNode) children.nextElement();
+                if (!(child.getUserObject() instanceof RepoAwareActionableItem)) {
+                    // not an item node (e.g., the more children placeholder)
+                    continue;
+                }
                 RepoAwareActionableItem childItem = (RepoAwareActionableItem) child.getUserObject();
                 RepoPath childRepoPath = childItem.getRepoPath();
                 String name = PathUtils.getFileName(getTreePath(childRepoPath));
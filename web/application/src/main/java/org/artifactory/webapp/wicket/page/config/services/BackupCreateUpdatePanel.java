@@ -183,6 +183,9 @@ public class BackupCreateUpdatePanel extends CreateUpdatePanel<BackupDescriptor>
         advancedFields.add(new StyledCheckbox("excludeBuilds"));
         advancedFields.add(new SchemaHelpBubble("excludeBuilds.help"));
 
+        advancedFields.add(new StyledCheckbox("contentAddressed"));
+        advancedFields.add(new SchemaHelpBubble("contentAddressed.help"));
+
         createIncremental = new StyledCheckbox("createIncrementalBackup",
                 new PropertyModel<Boolean>(this, "createIncrementalBackup"));
         createIncremental.setOutputMarkupId(true);
@@ -22,10 +22,12 @@ import com.google.common.collect.Iterables;
 import com.sun.jersey.api.core.ExtendedUriInfo;
 import org.apache.commons.httpclient.HttpStatus;
 import org.apache.commons.lang.StringUtils;
+import org.apache.commons.lang.math.NumberUtils;
 import org.artifactory.addon.AddonsManager;
 import org.artifactory.addon.rest.MissingRestAddonException;
 import org.artifactory.addon.rest.RestAddon;
 import org.artifactory.api.config.CentralConfigService;
+import org.artifactory.api.repo.ChildrenPage;
 import org.artifactory.api.repo.RepositoryBrowsingService;
 import org.artifactory.api.repo.RepositoryService;
 import org.artifactory.api.repo.VirtualRepoItem;
@@ -111,6 +113,8 @@ public class ArtifactResource {
     private static final String PROPERTIES_PARAM = "properties";
     private static final String PROPERTIES_XML_PARAM = "propertiesXml";
     private static final String PERMISSIONS_PARAM = "permissions";
+    private static final String PAGE_SIZE_PARAM = "pageSize";
+    private static final String CONTINUATION_PARAM = "continuation";
 
     @Context
     private HttpServletRequest request;
@@ -216,6 +220,10 @@ public class ArtifactResource {
         return queryParamsContainKey(PERMISSIONS_PARAM);
     }
 
+    private boolean isPagedListRequest() {
+        return queryParamsContainKey(PAGE_SIZE_PARAM) || queryParamsContainKey(CONTINUATION_PARAM);
+    }
+
     private boolean queryParamsContainKey(String key) {
         MultivaluedMap<String, String> queryParameters = queryParams();
         return queryParameters.containsKey(key);
@@ -381,6 +389,10 @@ public class ArtifactResource {
     }
 
     private Response prepareStorageInfoResponse() throws IOException {
+        String pageSize = queryParams().getFirst(PAGE_SIZE_PARAM);
+        if (StringUtils.isNotBlank(pageSize) && NumberUtils.toInt(pageSize) <= 0) {
+            return sendAndCreateBadRequestResponse("The page size must be a positive integer: " + pageSize);
+        }
         RepoPath repoPath = repoPathFromRequestPath();
         String repoKey = repoPath.getRepoKey();
         RestBaseStorageInfo storageInfoRest;
@@ -404,7 +416,12 @@ public class ArtifactResource {
             return null;
         }
 
-        storageInfoRest = createStorageInfoData(repoKey, itemInfo);
+        try {
+            storageInfoRest = createStorageInfoData(repoKey, itemInfo);
+        } catch (IllegalArgumentException iae) {
+            // invalid children continuation token
+            return sendAndCreateBadRequestResponse(iae.getMessage());
+        }
         // we don't use the repo key from the item info because we want to set the virtual repo key if it came
         // from a virtual repository
         storageInfoRest.repo = repoKey;
@@ -481,7 +498,15 @@ public class ArtifactResource {
 
         //if local or cache repo
         if (isLocalRepo(repoKey)) {
-            List<ItemInfo> children = repositoryService.getChildren(folderRepoPath);
+            List<ItemInfo> children;
+            if (isPagedListRequest()) {
+                ChildrenPage page = repositoryService.getChildren(folderRepoPath,
+                        queryParams().getFirst(CONTINUATION_PARAM), getQueryParameterAsInt(PAGE_SIZE_PARAM));
+                children = page.getChildren();
+                folderInfo.continuation = page.getContinuation();
+            } else {
+                children = repositoryService.getChildren(folderRepoPath);
+            }
             for (ItemInfo child : children) {
                 folderInfo.children.add(new RestFolderInfo.DirItem("/" + child.getName(), child.isFolder()));
             }
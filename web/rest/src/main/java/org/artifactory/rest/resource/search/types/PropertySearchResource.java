@@ -18,11 +18,10 @@
 
 package org.artifactory.rest.resource.search.types;
 
+import org.artifactory.api.jackson.JacksonFactory;
 import org.artifactory.api.repo.RepositoryBrowsingService;
 import org.artifactory.api.repo.RepositoryService;
 import org.artifactory.api.rest.constant.SearchRestConstants;
-import org.artifactory.api.rest.search.result.InfoRestSearchResult;
-import org.artifactory.api.search.ItemSearchResults;
 import org.artifactory.api.search.SearchService;
 import org.artifactory.api.search.property.PropertySearchControls;
 import org.artifactory.api.search.property.PropertySearchResult;
@@ -32,14 +31,20 @@ import org.artifactory.rest.common.list.StringList;
 import org.artifactory.rest.util.RestUtils;
 import org.artifactory.rest.util.StorageInfoHelper;
 import org.artifactory.sapi.common.RepositoryRuntimeException;
+import org.artifactory.sapi.fs.Visitor;
+import org.codehaus.jackson.JsonGenerator;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import javax.ws.rs.GET;
 import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
+import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
 import java.util.Map;
 
@@ -72,13 +77,13 @@ public class PropertySearchResource {
 
     @GET
     @Produces({SearchRestConstants.MT_PROPERTY_SEARCH_RESULT, MediaType.APPLICATION_JSON})
-    public InfoRestSearchResult get(
+    public StreamingOutput get(
             @QueryParam(SearchRestConstants.PARAM_REPO_TO_SEARCH) StringList reposToSearch) throws IOException {
         return search(reposToSearch);
     }
 
     @SuppressWarnings({"unchecked"})
-    private InfoRestSearchResult search(List<String> reposToSearch) throws IOException {
+    private StreamingOutput search(List<String> reposToSearch) throws IOException {
         Map<String, String[]> parametersMap = request.getParameterMap();
         if (parametersMap.isEmpty()) {
             RestUtils.sendNotFoundResponse(response, NOT_FOUND);
@@ -86,7 +91,7 @@ public class PropertySearchResource {
         }
 
         // build the search controls using the query parameters
-        PropertySearchControls searchControls = new PropertySearchControls();
+        final PropertySearchControls searchControls = new PropertySearchControls();
         searchControls.setLimitSearchResults(authorizationService.isAnonymous());
         searchControls.setSelectedRepoForSearch(reposToSearch);
         for (Map.Entry<String, String[]> parameterEntry : parametersMap.entrySet()) {
@@ -112,22 +117,67 @@ public class PropertySearchResource {
             return null;
         }
 
-        ItemSearchResults<PropertySearchResult> searchResults;
+        return new StreamingOutput() {
+            @Override
+            public void write(OutputStream output) throws IOException, WebApplicationException {
+                writeResults(searchControls, output);
+            }
+        };
+    }
+
+    /**
+     * Writes the results in the {@link org.artifactory.api.rest.search.result.InfoRestSearchResult} format as they are
+     * found. Nothing is written to the entity stream before the first result, so a search failing before it is mapped
+     * by Jersey to a not found response instead of the streamed one.
+     */
+    private void writeResults(PropertySearchControls searchControls, OutputStream output) throws IOException {
+        ResultsWriter resultsWriter = new ResultsWriter(JacksonFactory.createJsonGenerator(output));
         try {
-            searchResults = searchService.searchProperty(searchControls);
+            searchService.searchProperty(searchControls, resultsWriter);
         } catch (RepositoryRuntimeException e) {
-            RestUtils.sendNotFoundResponse(response, e.getMessage());
-            return null;
+            if (!resultsWriter.started) {
+                throw new WebApplicationException(e, Response.status(Response.Status.NOT_FOUND)
+                        .entity(e.getMessage()).type(MediaType.TEXT_PLAIN).build());
+            }
+            throw e;
         }
+        resultsWriter.finish();
+    }
 
-        List<PropertySearchResult> results = searchResults.getResults();
-        InfoRestSearchResult infoSearchResult = new InfoRestSearchResult();
-        for (PropertySearchResult result : results) {
+    private class ResultsWriter implements Visitor<PropertySearchResult> {
+        private final JsonGenerator jsonGenerator;
+        private boolean started;
+
+        private ResultsWriter(JsonGenerator jsonGenerator) {
+            this.jsonGenerator = jsonGenerator;
+        }
+
+        @Override
+        public void visit(PropertySearchResult result) {
             ItemInfo itemInfo = result.getItemInfo();
-            StorageInfoHelper storageInfoHelper = new StorageInfoHelper(request, repositoryService, repoBrowsingService,
-                    itemInfo);
-            infoSearchResult.results.add(storageInfoHelper.createStorageInfo());
+            StorageInfoHelper storageInfoHelper = new StorageInfoHelper(request, repositoryService,
+                    repoBrowsingService, itemInfo);
+            try {
+                startIfNeeded();
+                jsonGenerator.writeObject(storageInfoHelper.createStorageInfo());
+            } catch (IOException e) {
+                throw new RepositoryRuntimeException("Could not write search result: " + e.getMessage(), e);
+            }
+        }
+
+        private void startIfNeeded() throws IOException {
+            if (!started) {
+                jsonGenerator.writeStartObject();
+                jsonGenerator.writeArrayFieldStart("results");
+                started = true;
+            }
+        }
+
+        private void finish() throws IOException {
+            startIfNeeded();
+            jsonGenerator.writeEndArray();
+            jsonGenerator.writeEndObject();
+            jsonGenerator.flush();
         }
-        return infoSearchResult;
     }
 }
@@ -89,6 +89,7 @@ public class ExportResource {
         exportSettings.setM2Compatible(settings.isM2());
         exportSettings.setIncremental(settings.isIncremental());
         exportSettings.setExcludeContent(settings.isExcludeContent());
+        exportSettings.setLinkBinaries(settings.isLinkBinaries());
 
         if (settings.isIncludeMetadata() || !settings.isExcludeContent()) {
             exportSettings.setRepositories(getAllLocalRepoKeys());
@@ -36,6 +36,7 @@ public class ExportSettingsConfigurationImpl {
     private boolean m2;
     private boolean incremental;
     private boolean excludeContent;
+    private boolean linkBinaries;
 
     public void setIncludeMetadata(boolean includeMetadata) {
         explicitIncludeMetadata = true;
@@ -125,4 +126,12 @@ public class ExportSettingsConfigurationImpl {
     public void setExcludeContent(boolean excludeContent) {
         this.excludeContent = excludeContent;
     }
+
+    public boolean isLinkBinaries() {
+        return linkBinaries;
+    }
+
+    public void setLinkBinaries(boolean linkBinaries) {
+        this.linkBinaries = linkBinaries;
+    }
 }
@@ -25,6 +25,9 @@ import org.artifactory.api.storage.StorageService;
 import org.artifactory.backup.InternalBackupService;
 import org.artifactory.common.StatusEntry;
 import org.artifactory.descriptor.backup.BackupDescriptor;
+import org.artifactory.repo.LocalRepo;
+import org.artifactory.repo.service.InternalRepositoryService;
+import org.artifactory.storage.fs.lock.FsItemLockStatistics;
 import org.artifactory.storage.binstore.service.InternalBinaryStore;
 import org.artifactory.storage.binstore.service.ProviderConnectMode;
 
@@ -46,14 +49,16 @@ public class StorageResource {
     private StorageService storageService;
     private InternalBackupService backupService;
     private InternalBinaryStore binaryStore;
+    private InternalRepositoryService repositoryService;
 
     public StorageResource(StorageService storageService, InternalBackupService backupService,
-            InternalBinaryStore binaryStore,
+            InternalBinaryStore binaryStore, InternalRepositoryService repositoryService,
             HttpServletResponse httpResponse) {
         this.storageService = storageService;
         this.httpResponse = httpResponse;
         this.binaryStore = binaryStore;
         this.backupService = backupService;
+        this.repositoryService = repositoryService;
     }
 
     @POST
@@ -71,6 +76,36 @@ public class StorageResource {
         return binaryStore.getStorageSize() + "";
     }
 
+    /**
+     * Lists the item lock statistics of the local and cache repositories that acquired any lock, with their most
+     * contended paths.
+     *
+     * @param top Max number of contended paths to list per repository. Defaults to 10
+     */
+    @GET
+    @Path("locks")
+    @Produces(MediaType.TEXT_PLAIN)
+    public String lockStatistics(@QueryParam("top") Integer top) {
+        int topPaths = top == null ? 10 : top;
+        StringBuilder sb = new StringBuilder();
+        for (LocalRepo localRepo : repositoryService.getLocalAndCachedRepositories()) {
+            FsItemLockStatistics statistics = localRepo.getLockStatistics();
+            if (statistics.getAcquiredCount() == 0 && statistics.getTimeoutsCount() == 0) {
+                continue;
+            }
+            sb.append(localRepo.getKey()).append(": acquired=").append(statistics.getAcquiredCount())
+                    .append(", contended=").append(statistics.getContendedCount())
+                    .append(", timeouts=").append(statistics.getTimeoutsCount())
+                    .append(", waitP99=").append(statistics.getWaitTimes().getPercentileMillis(99)).append("ms\n")
+                    .append("  wait: ").append(statistics.getWaitTimes()).append('\n')
+                    .append("  hold: ").append(statistics.getHoldTimes()).append('\n');
+            for (FsItemLockStatistics.ContendedPath contendedPath : statistics.getTopContendedPaths(topPaths)) {
+                sb.append("    ").append(contendedPath).append('\n');
+            }
+        }
+        return sb.toString();
+    }
+
     @POST
     @Path("addFilestore")
     @Deprecated
@@ -27,6 +27,7 @@ import org.artifactory.api.security.SecurityService;
 import org.artifactory.api.storage.StorageService;
 import org.artifactory.backup.InternalBackupService;
 import org.artifactory.info.InfoWriter;
+import org.artifactory.repo.service.InternalRepositoryService;
 import org.artifactory.storage.binstore.service.InternalBinaryStore;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.config.BeanDefinition;
@@ -75,6 +76,9 @@ public class SystemResource {
     @Autowired
     InternalBackupService backupService;
 
+    @Autowired
+    InternalRepositoryService internalRepoService;
+
     @GET
     @Produces(MediaType.TEXT_PLAIN)
     public String getSystemInfo() throws Exception {
@@ -93,7 +97,7 @@ public class SystemResource {
 
     @Path(SystemRestConstants.PATH_STORAGE)
     public StorageResource getStorageResource() {
-        return new StorageResource(storageService, backupService, binaryStore, httpResponse);
+        return new StorageResource(storageService, backupService, binaryStore, internalRepoService, httpResponse);
     }
 
 }
@@ -0,0 +1,175 @@
+/*
+ * Artifactory is a binaries repository manager.
+ * Copyright (C) 2012 JFrog Ltd.
+ *
+ * Artifactory is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Artifactory is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Artifactory.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.artifactory.rest.resource.search.types;
+
+import com.google.common.collect.ImmutableMap;
+import org.apache.commons.httpclient.HttpStatus;
+import org.artifactory.api.config.CentralConfigService;
+import org.artifactory.api.context.ArtifactoryContextThreadBinder;
+import org.artifactory.api.search.SearchService;
+import org.artifactory.api.search.property.PropertySearchControls;
+import org.artifactory.api.search.property.PropertySearchResult;
+import org.artifactory.api.security.AuthorizationService;
+import org.artifactory.descriptor.config.CentralConfigDescriptorImpl;
+import org.artifactory.model.xstream.fs.FileInfoImpl;
+import org.artifactory.repo.InternalRepoPathFactory;
+import org.artifactory.request.ArtifactoryRequest;
+import org.artifactory.sapi.common.RepositoryRuntimeException;
+import org.artifactory.sapi.fs.Visitor;
+import org.artifactory.spring.InternalArtifactoryContext;
+import org.codehaus.jackson.JsonNode;
+import org.codehaus.jackson.map.ObjectMapper;
+import org.easymock.EasyMock;
+import org.easymock.IAnswer;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.StreamingOutput;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+/**
+ * Tests that the property search resource writes its results as the search service hands them over
+ */
+@Test
+public class PropertySearchResourceTest {
+
+    private InternalArtifactoryContext contextMock;
+    private CentralConfigService centralConfigMock;
+    private AuthorizationService authorizationServiceMock;
+    private SearchService searchServiceMock;
+    private HttpServletRequest requestMock;
+    private HttpServletResponse responseMock;
+
+    @BeforeMethod
+    public void setupMocks() {
+        CentralConfigDescriptorImpl descriptor = new CentralConfigDescriptorImpl();
+        descriptor.setUrlBase("http://localhost:8081/artifactory");
+        centralConfigMock = EasyMock.createMock(CentralConfigService.class);
+        EasyMock.expect(centralConfigMock.getDescriptor()).andReturn(descriptor).anyTimes();
+        contextMock = EasyMock.createMock(InternalArtifactoryContext.class);
+        EasyMock.expect(contextMock.getCentralConfig()).andReturn(centralConfigMock).anyTimes();
+        ArtifactoryContextThreadBinder.bind(contextMock);
+
+        authorizationServiceMock = EasyMock.createMock(AuthorizationService.class);
+        EasyMock.expect(authorizationServiceMock.isAnonymous()).andReturn(false);
+        searchServiceMock = EasyMock.createMock(SearchService.class);
+        requestMock = EasyMock.createMock(HttpServletRequest.class);
+        EasyMock.expect(requestMock.getParameterMap()).andReturn(ImmutableMap.of("build.name", new String[]{"ant"}));
+        EasyMock.expect(requestMock.getScheme()).andReturn("http").anyTimes();
+        EasyMock.expect(requestMock.getHeader(ArtifactoryRequest.RESULT_DETAIL)).andReturn(null).anyTimes();
+        responseMock = EasyMock.createMock(HttpServletResponse.class);
+    }
+
+    @AfterMethod
+    public void verifyMocks() {
+        EasyMock.verify(contextMock, centralConfigMock, authorizationServiceMock, searchServiceMock, requestMock,
+                responseMock);
+        ArtifactoryContextThreadBinder.unbind();
+    }
+
+    public void resultsWrittenAsVisited() throws Exception {
+        expectSearchVisiting(false, "repo1:ant/ant/1.5/ant-1.5.jar", "repo2:org/jfrog/test/test.jar");
+        replayMocks();
+
+        JsonNode results = new ObjectMapper().readTree(search()).get("results");
+        assertEquals(results.size(), 2);
+        assertEquals(results.get(0).get("uri").getTextValue(),
+                "http://localhost:8081/artifactory/api/storage/repo1/ant/ant/1.5/ant-1.5.jar");
+        assertEquals(results.get(1).get("uri").getTextValue(),
+                "http://localhost:8081/artifactory/api/storage/repo2/org/jfrog/test/test.jar");
+    }
+
+    public void noResultsWritesEmptyList() throws Exception {
+        expectSearchVisiting(false);
+        replayMocks();
+
+        JsonNode results = new ObjectMapper().readTree(search()).get("results");
+        assertTrue(results.isArray());
+        assertEquals(results.size(), 0);
+    }
+
+    public void failureBeforeFirstResultSendsNotFound() throws Exception {
+        expectSearchVisiting(true);
+        replayMocks();
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try {
+            search(output);
+            fail("Expected a not found response");
+        } catch (WebApplicationException e) {
+            assertEquals(e.getResponse().getStatus(), HttpStatus.SC_NOT_FOUND);
+            assertEquals(e.getResponse().getEntity(), "Search failed");
+        }
+        assertEquals(output.size(), 0, "Nothing should be written before the not found response");
+    }
+
+    @Test(expectedExceptions = RepositoryRuntimeException.class)
+    public void failureAfterFirstResultPropagates() throws Exception {
+        expectSearchVisiting(true, "repo1:ant/ant/1.5/ant-1.5.jar");
+        replayMocks();
+
+        search();
+    }
+
+    private void expectSearchVisiting(final boolean fail, final String... paths) {
+        EasyMock.expect(searchServiceMock.searchProperty(EasyMock.isA(PropertySearchControls.class),
+                EasyMock.<Visitor<PropertySearchResult>>anyObject())).andAnswer(new IAnswer<Long>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public Long answer() throws Throwable {
+                Visitor<PropertySearchResult> visitor = (Visitor<PropertySearchResult>)
+                        EasyMock.getCurrentArguments()[1];
+                for (String path : paths) {
+                    visitor.visit(new PropertySearchResult(new FileInfoImpl(InternalRepoPathFactory.fromId(path))));
+                }
+                if (fail) {
+                    throw new RepositoryRuntimeException("Search failed");
+                }
+                return (long) paths.length;
+            }
+        });
+    }
+
+    private void replayMocks() {
+        EasyMock.replay(contextMock, centralConfigMock, authorizationServiceMock, searchServiceMock, requestMock,
+                responseMock);
+    }
+
+    private String search() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        search(output);
+        return output.toString("utf-8");
+    }
+
+    private void search(ByteArrayOutputStream output) throws IOException {
+        PropertySearchResource resource = new PropertySearchResource(authorizationServiceMock, searchServiceMock,
+                null, null, requestMock, responseMock);
+        StreamingOutput streamingOutput = resource.get(null);
+        streamingOutput.write(output);
+    }
+}